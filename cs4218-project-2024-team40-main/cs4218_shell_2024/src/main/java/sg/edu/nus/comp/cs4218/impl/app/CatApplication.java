@@ -7,14 +7,20 @@ import sg.edu.nus.comp.cs4218.exception.InvalidArgsException;
 import sg.edu.nus.comp.cs4218.exception.ShellException;
 import sg.edu.nus.comp.cs4218.impl.parser.CatArgsParser;
 import sg.edu.nus.comp.cs4218.impl.util.IOUtils;
+import sg.edu.nus.comp.cs4218.impl.util.LineReader;
 import sg.edu.nus.comp.cs4218.impl.util.StringUtils;
 
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.FileInputStream;
 import java.io.InputStream;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.List;
 
 import static sg.edu.nus.comp.cs4218.impl.util.ErrorConstants.*;
 
@@ -66,22 +72,60 @@ public class CatApplication implements CatInterface {
         } catch (InvalidArgsException e) {
             throw new CatException(e);
         }
-        StringBuilder output = new StringBuilder();
+        boolean isLineNumber = catArgsParser.isShowLineNumber();
+        // output is written to stdout as the input is read, so it starts before the input ends
+        if (catArgsParser.isCatStdin()) {
+            catStdin(isLineNumber, stdin, stdout);
+        } else if (catArgsParser.isCatFileAndStdin()) {
+            catFileAndStdin(isLineNumber, stdin, stdout, catArgsParser.getFileNames().toArray(new String[0]));
+        } else if (catArgsParser.isCatFiles()) {
+            catFiles(isLineNumber, stdout, catArgsParser.getFileNames().toArray(new String[0]));
+        } else {
+            // This shouldn't happen but just put this for defensive programming
+            throw new CatException(ERR_GENERAL);
+        }
+    }
+
+    /**
+     * Writes the content of the standard input to the OutputStream as it is read. This is the streaming
+     * core of {@link #catStdin(Boolean, InputStream)} and {@link #run}.
+     *
+     * @param isLineNumber Prefix lines with their corresponding line number starting from 1
+     * @param stdin        InputStream to read from
+     * @param output       OutputStream to write to
+     * @throws CatException when io exception or null inputstream
+     */
+    void catStdin(Boolean isLineNumber, InputStream stdin, OutputStream output) throws AbstractApplicationException {
+        if (stdin == null) {
+            throw new CatException(ERR_NULL_STREAMS);
+        }
         try {
-            if (catArgsParser.isCatStdin()) {
-                output.append(catStdin(catArgsParser.isShowLineNumber(), stdin));
-                stdout.write(output.toString().getBytes());
-            } else if (catArgsParser.isCatFileAndStdin()) {
-                output.append(catFileAndStdin(catArgsParser.isShowLineNumber(), stdin,
-                        catArgsParser.getFileNames().toArray(new String[0])));
-                stdout.write(output.toString().getBytes());
-            } else if (catArgsParser.isCatFiles()) {
-                output.append(catFiles(catArgsParser.isShowLineNumber(),
-                        catArgsParser.getFileNames().toArray(new String[0])));
-                stdout.write(output.toString().getBytes());
-            } else {
-                // This shouldn't happen but just put this for defensive programming
-                throw new CatException(ERR_GENERAL);
+            writeInput(stdin, isLineNumber, output);
+        } catch (IOException e) {
+            throw new CatException(ERR_IO_EXCEPTION, e);
+        }
+    }
+
+    /**
+     * Writes the content of the files to the OutputStream as they are read, or an error message for each
+     * file that cannot be read. This is the streaming core of {@link #catFiles(Boolean, String...)} and
+     * {@link #run}.
+     *
+     * @param isLineNumber Prefix lines with their corresponding line number starting from 1
+     * @param output       OutputStream to write to
+     * @param fileName     Array of String of file names (not including "-" for reading from stdin)
+     * @throws CatException when null/empty file name or io exceptions
+     */
+    void catFiles(Boolean isLineNumber, OutputStream output, String... fileName) throws AbstractApplicationException {
+        if (fileName == null) {
+            throw new CatException(ERR_NULL_ARGS);
+        }
+        if (fileName.length == 0) {
+            throw new CatException(ERR_NO_ARGS);
+        }
+        try {
+            for (String file : fileName) {
+                writeFile(file, isLineNumber, output);
             }
         } catch (IOException e) {
             throw new CatException(ERR_IO_EXCEPTION, e);
@@ -89,18 +133,107 @@ public class CatApplication implements CatInterface {
     }
 
     /**
-     * The function `addLineNumber` appends a line number with prefixes and suffixes to a
-     * `StringBuilder` output.
-     * 
-     * @param output The `output` parameter is a `StringBuilder` object that represents the text
-     * content to which a line number will be added.
-     * @param lineNumber The `lineNumber` parameter is an integer value representing the line number
-     * that you want to append to the output StringBuilder.
-     * @return The method is returning a `StringBuilder` object after appending the line number with
-     * prefixes and suffixes to the existing `StringBuilder` output.
+     * Writes the content of the files and of the standard input for each "-" to the OutputStream as they
+     * are read. This is the streaming core of {@link #run}.
+     *
+     * @param isLineNumber Prefix lines with their corresponding line number starting from 1
+     * @param stdin        InputStream to read from
+     * @param output       OutputStream to write to
+     * @param fileName     Array of String of file names (including "-" for reading from stdin)
+     * @throws CatException when null streams, No files or io exceptions
      */
-    private StringBuilder addLineNumber(StringBuilder output, int lineNumber) {
-        return output.append(LINE_NUM_PREFIX).append(lineNumber).append(LINE_NUM_SUFFIX);
+    void catFileAndStdin(Boolean isLineNumber, InputStream stdin, OutputStream output, String... fileName)
+            throws AbstractApplicationException {
+        if (fileName == null) {
+            throw new CatException(ERR_NULL_ARGS);
+        }
+        if (fileName.length == 0) {
+            throw new CatException(ERR_NO_ARGS);
+        }
+        for (String file : fileName) {
+            if ("-".equals(file)) {
+                catStdin(isLineNumber, stdin, output);
+            } else {
+                catFiles(isLineNumber, output, file);
+            }
+        }
+    }
+
+    /**
+     * Writes the input, line by line if numbered, otherwise as raw bytes. The bytes of a file are copied
+     * through its channel, see {@link IOUtils#transfer(FileChannel, OutputStream)}.
+     */
+    private void writeInput(InputStream input, boolean isLineNumber, OutputStream output) throws IOException {
+        if (isLineNumber) {
+            writeNumberedLines(IOUtils.newLineReader(input), output);
+        } else if (input instanceof FileInputStream) {
+            endLine(IOUtils.transfer(((FileInputStream) input).getChannel(), output), output);
+        } else {
+            endLine(IOUtils.transfer(input, output), output);
+        }
+    }
+
+    /**
+     * Writes the file, or an error message if it cannot be read.
+     */
+    private void writeFile(String file, boolean isLineNumber, OutputStream output) throws IOException {
+        String error = getFileError(file);
+        if (error == null) {
+            try (InputStream input = IOUtils.openInputStream(file)) {
+                writeInput(input, isLineNumber, output);
+                return;
+            } catch (ShellException | IOException e) {
+                error = new CatException(file, e).getMessage();
+            }
+        }
+        output.write((error + StringUtils.STRING_NEWLINE).getBytes());
+    }
+
+    /**
+     * Ends non-empty raw output that does not end with a newline, as every line cat prints ends with one.
+     */
+    private void endLine(int lastByte, OutputStream output) throws IOException {
+        if (lastByte != -1 && lastByte != '\n') {
+            output.write(StringUtils.STRING_NEWLINE.getBytes());
+        }
+    }
+
+    /**
+     * Writes every remaining line, numbered from 1, through a buffered writer that is flushed at the end.
+     */
+    private void writeNumberedLines(LineReader reader, OutputStream output) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(output));
+        int lineNumber = 1;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            writer.write(LINE_NUM_PREFIX + lineNumber + LINE_NUM_SUFFIX);
+            lineNumber++;
+            writer.write(line);
+            writer.write(StringUtils.STRING_NEWLINE);
+        }
+        writer.flush();
+    }
+
+    /**
+     * Returns the error message for a file that cannot be read, or null if it can be opened.
+     */
+    private String getFileError(String file) {
+        if (StringUtils.isBlank(file)) {
+            return new CatException(ERR_NO_FILE_ARGS).getMessage();
+        }
+        Path filePath;
+        try {
+            filePath = IOUtils.resolveFilePath(file);
+        } catch (IOException e) {
+            return new CatException(ERR_FILE_NOT_FND, file).getMessage();
+        }
+        if (!Files.exists(filePath)) {
+            return new CatException(ERR_FILE_NOT_FND, file).getMessage();
+        }
+        if (Files.isDirectory(filePath)) {
+            return new CatException(ERR_IS_DIR, file).getMessage();
+        }
+        return null;
     }
 
     /**
@@ -117,49 +250,8 @@ public class CatApplication implements CatInterface {
      */
     @Override
     public String catFiles(Boolean isLineNumber, String... fileName) throws AbstractApplicationException {
-        if (fileName == null) {
-            throw new CatException(ERR_NULL_ARGS);
-        }
-        if (fileName.length == 0) {
-            throw new CatException(ERR_NO_ARGS);
-        }
-        StringBuilder result = new StringBuilder();
-        for (String file : fileName) {
-            if (StringUtils.isBlank(file)) {
-                result.append(new CatException(ERR_NO_FILE_ARGS).getMessage()).append(StringUtils.STRING_NEWLINE);
-                continue;
-            }
-            Path filePath;
-            try {
-                filePath = IOUtils.resolveFilePath(file);
-            } catch (IOException e) {
-                result.append(new CatException(ERR_FILE_NOT_FND, file).getMessage()).append(StringUtils.STRING_NEWLINE);
-                continue;
-            }
-            if (!Files.exists(filePath)) {
-                result.append(new CatException(ERR_FILE_NOT_FND, file).getMessage()).append(StringUtils.STRING_NEWLINE);
-                continue;
-            }
-            if (Files.isDirectory(filePath)) {
-                result.append(new CatException(ERR_IS_DIR, file).getMessage()).append(StringUtils.STRING_NEWLINE);
-                continue;
-            }
-            try (InputStream inputStream = IOUtils.openInputStream(file)){
-                List<String> lines = IOUtils.getLinesFromInputStream(inputStream);
-                int lineNumber = 1;
-                for (String line : lines) {
-                    if (isLineNumber) {
-                        result = addLineNumber(result, lineNumber);
-                        result.append(line).append(StringUtils.STRING_NEWLINE);
-                        lineNumber++;
-                    } else {
-                        result.append(line).append(StringUtils.STRING_NEWLINE);
-                    }
-                }
-            } catch (ShellException | IOException e) {
-                result.append(new CatException(file, e).getMessage()).append(StringUtils.STRING_NEWLINE);
-            }
-        }
+        ByteArrayOutputStream result = new ByteArrayOutputStream();
+        catFiles(isLineNumber, result, fileName);
         return result.toString();
     }
 
@@ -181,25 +273,8 @@ public class CatApplication implements CatInterface {
      */
     @Override
     public String catStdin(Boolean isLineNumber, InputStream stdin) throws AbstractApplicationException {
-        if (stdin == null) {
-            throw new CatException(ERR_NULL_STREAMS);
-        }
-        StringBuilder result = new StringBuilder();
-        try {
-            List<String> lines = IOUtils.getLinesFromInputStream(stdin);
-            int lineNumber = 1;
-            for (String line : lines) {
-                if (isLineNumber) {
-                    result = addLineNumber(result, lineNumber);
-                    result.append(line).append(StringUtils.STRING_NEWLINE);
-                    lineNumber++;
-                } else {
-                    result.append(line).append(StringUtils.STRING_NEWLINE);
-                }
-            }
-        } catch (IOException e) {
-            throw new CatException(ERR_IO_EXCEPTION, e);
-        }
+        ByteArrayOutputStream result = new ByteArrayOutputStream();
+        catStdin(isLineNumber, stdin, result);
         return result.toString();
     }
 
@@ -5,19 +5,22 @@ import sg.edu.nus.comp.cs4218.exception.*;
 
 import sg.edu.nus.comp.cs4218.impl.parser.CutArgsParser;
 import sg.edu.nus.comp.cs4218.impl.util.IOUtils;
+import sg.edu.nus.comp.cs4218.impl.util.LineCutter;
 import sg.edu.nus.comp.cs4218.impl.util.RangeHelper;
 import sg.edu.nus.comp.cs4218.impl.util.RangeHelperFactory;
 import sg.edu.nus.comp.cs4218.impl.util.StringUtils;
 
+import java.io.BufferedOutputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
 import java.io.InputStream;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.List;
-import java.util.concurrent.atomic.AtomicInteger;
 
 import static sg.edu.nus.comp.cs4218.impl.util.ErrorConstants.*;
 @SuppressWarnings("PMD.GodClass")
@@ -35,51 +38,6 @@ public class CutApplication implements CutInterface {
         this.rangeHelpFact = rangeHelpFact;
     }
 
-    /**
-     * Cuts sections from a file based on the provided options.
-     *
-     * @param file       The path to the input file.
-     * @param isCharPo   Indicates whether cutting is by character position.
-     * @param isBytePo   Indicates whether cutting is by byte position.
-     * @param ranges     The ranges to cut from each line.
-     * @return The result after cutting sections from the file.
-     */
-    private String cutFromFile(String file, Boolean isCharPo, Boolean isBytePo, RangeHelper ranges) {
-        StringBuilder result = new StringBuilder();
-        Path filePath;
-        try {
-            filePath = IOUtils.resolveFilePath(file);
-        } catch (IOException e) {
-            result.append(new CutException(ERR_FILE_NOT_FND, file).getMessage());
-            result.append(StringUtils.STRING_NEWLINE);
-            return result.toString();
-        }
-        if (!Files.exists(filePath)) {
-            result.append(new CutException(ERR_FILE_NOT_FND, file).getMessage());
-            result.append(StringUtils.STRING_NEWLINE);
-            return result.toString();
-        }
-        if (Files.isDirectory(filePath)) {
-            result.append(new CutException(ERR_IS_DIR, file).getMessage());
-            result.append(StringUtils.STRING_NEWLINE);
-            return result.toString();
-        }
-        try (InputStream inputStream = IOUtils.openInputStream(file)){
-
-            List<String> lines = IOUtils.getLinesFromInputStream(inputStream);
-            for (String line : lines) {
-                result.append(cutFromLine(line, isCharPo, isBytePo, ranges));
-            }
-        } catch (ShellException e) {
-            result.append(new CutException(ERR_READING_FILE, e).getMessage());
-            result.append(StringUtils.STRING_NEWLINE);
-        } catch (IOException e) {
-            result.append(new CutException(ERR_IO_EXCEPTION, e).getMessage());
-            result.append(StringUtils.STRING_NEWLINE);
-        }
-        return result.toString();
-    }
-
     /**
      * Cuts sections from a line based on the provided options.
      *
@@ -92,20 +50,15 @@ public class CutApplication implements CutInterface {
     public String cutFromLine(String line, Boolean isCharPo, Boolean isBytePo, RangeHelper ranges) {
         StringBuilder result = new StringBuilder();
         if (isCharPo) {
-            AtomicInteger atomicI = new AtomicInteger();
-            line.codePoints().forEach(codePoint -> {
-                if (ranges.contains(atomicI.get() + 1)) {
-                    result.appendCodePoint(codePoint);
-                }
-                atomicI.addAndGet(1);
-            });
+            LineCutter.appendCharSpans(line, ranges.getSpans(), result);
         } else if (isBytePo) {
             byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
             ByteArrayOutputStream byteStream = new ByteArrayOutputStream();
-            for (int i = 0; i < bytes.length; i++) {
-                if (ranges.contains(i + 1)) {
-                    byteStream.write(bytes[i]);
-                }
+            try {
+                LineCutter.writeByteSpans(bytes, 0, bytes.length, ranges.getSpans(), byteStream);
+            } catch (IOException e) {
+                // a ByteArrayOutputStream never throws
+                throw new UncheckedIOException(e);
             }
             result.append(byteStream.toString(StandardCharsets.UTF_8));
         }
@@ -114,6 +67,7 @@ public class CutApplication implements CutInterface {
         }
         return result.toString();
     }
+
     /**
      * Sets the standard input stream for this application.
      *
@@ -154,30 +108,91 @@ public class CutApplication implements CutInterface {
         } catch (InvalidArgsException e) {
             throw new CutException(e);
         }
-        StringBuilder output = new StringBuilder();
         RangeHelper rangeHelper;
         try {
              rangeHelper = rangeHelpFact.createRangeHelper(cutArgsParser.getRanges());
         } catch (RangeHelperException e) {
             throw new CutException(e);
         }
+        boolean isCharPo = cutArgsParser.isCutByChar();
+        boolean isBytePo = cutArgsParser.isCutByByte();
+        if (isCharPo && isBytePo) {
+            throw new CutException(CutArgsParser.ILLEGAL_BOTH_FLAG);
+        }
         try {
+            OutputStream output = new BufferedOutputStream(stdout);
+            LineCutter cutter = cutArgsParser.isCutByField()
+                    ? new LineCutter(rangeHelper, cutArgsParser.getDelimiter())
+                    : new LineCutter(rangeHelper, isCharPo);
             if (cutArgsParser.isCutStdin()) {
-                output.append(cutFromStdin(cutArgsParser.isCutByChar(), cutArgsParser.isCutByByte(),
-                        rangeHelper, stdin));
-                stdout.write(output.toString().getBytes());
+                cutter.cut(stdin, output);
             } else if (cutArgsParser.isCutFiles()) {
-                output.append(cutFromFiles(cutArgsParser.isCutByChar(), cutArgsParser.isCutByByte(),
-                        rangeHelper, cutArgsParser.getFiles()));
-                stdout.write(output.toString().getBytes());
+                String[] files = cutArgsParser.getFiles();
+                if (files == null) {
+                    throw new CutException(ERR_NULL_ARGS);
+                }
+                if (files.length == 0) {
+                    throw new CutException(ERR_NO_ARGS);
+                }
+                for (String file : files) {
+                    if ("-".equals(file)) {
+                        cutter.cut(stdin, output);
+                    } else {
+                        writeFile(file, cutter, output);
+                    }
+                }
             } else {
                 // This shouldn't happen but just put this for defensive programming
                 throw new CutException(ERR_GENERAL);
             }
+            output.flush();
         } catch (IOException e) {
             throw new CutException(ERR_IO_EXCEPTION);//NOPMD - throw here to get caught in SHell impl and show excpt msg
         }
     }
+
+    /**
+     * Writes the cut lines of a file to the output as they are read, or the error message of the file if it
+     * cannot be opened or read.
+     *
+     * @throws IOException If the output cannot be written to.
+     */
+    private static void writeFile(String file, LineCutter cutter, OutputStream output) throws IOException {
+        String error = getFileError(file);
+        if (error != null) {
+            output.write((error + StringUtils.STRING_NEWLINE).getBytes());
+            return;
+        }
+        try (InputStream inputStream = new ReadFailureInputStream(IOUtils.openInputStream(file))) {
+            cutter.cut(inputStream, output);
+        } catch (ShellException e) {
+            output.write((new CutException(ERR_READING_FILE, e).getMessage() + StringUtils.STRING_NEWLINE)
+                    .getBytes());
+        } catch (ReadException e) {
+            output.write((new CutException(ERR_IO_EXCEPTION, e.getCause()).getMessage()
+                    + StringUtils.STRING_NEWLINE).getBytes());
+        }
+    }
+
+    /**
+     * Returns the error message for a file that cannot be cut, or null if it can be read.
+     */
+    private static String getFileError(String file) {
+        Path filePath;
+        try {
+            filePath = IOUtils.resolveFilePath(file);
+        } catch (IOException e) {
+            return new CutException(ERR_FILE_NOT_FND, file).getMessage();
+        }
+        if (!Files.exists(filePath)) {
+            return new CutException(ERR_FILE_NOT_FND, file).getMessage();
+        }
+        if (Files.isDirectory(filePath)) {
+            return new CutException(ERR_IS_DIR, file).getMessage();
+        }
+        return null;
+    }
+
     /**
      * Cuts out selected portions of each line
      *
@@ -206,26 +221,29 @@ public class CutApplication implements CutInterface {
             throw new CutException(ERR_NO_ARGS);
         }
 
-        StringBuilder result = new StringBuilder();
-        for (String file : fileName) {
-            if ("-".equals(file)) {
-                try {
-                    this.stdOut.write(result.toString().getBytes());
-                    result = new StringBuilder();
-                    result.append(cutFromStdin(isCharPo, isBytePo, ranges, this.stdIn));
-                } catch (IOException e) {
-                    throw new CutException(e);
+        RangeHelper rangeHelper;
+        try {
+            rangeHelper = rangeHelpFact.createRangeHelper(ranges);
+        } catch (RangeHelperException e) {
+            throw new CutException(e);
+        }
+        LineCutter cutter = new LineCutter(rangeHelper, isCharPo);
+        ByteArrayOutputStream result = new ByteArrayOutputStream();
+        try {
+            for (String file : fileName) {
+                if ("-".equals(file)) {
+                    // the output so far goes to stdout before stdin is read, as the lines are typed in
+                    this.stdOut.write(result.toByteArray());
+                    result.reset();
+                    cutter.cut(this.stdIn, result);
+                } else {
+                    writeFile(file, cutter, result);
                 }
-                continue;
-            }
-            try {
-                RangeHelper rangeHelper = rangeHelpFact.createRangeHelper(ranges);
-                result.append(cutFromFile(file, isCharPo, isBytePo, rangeHelper));
-            } catch (RangeHelperException e) {
-                throw new CutException(e);
             }
+        } catch (IOException e) {
+            throw new CutException(e);
         }
-        return result.toString();
+        return result.toString(StandardCharsets.UTF_8);
     }
     /**
      * Cuts sections from standard input based on the provided options and ranges.
@@ -249,20 +267,56 @@ public class CutApplication implements CutInterface {
         if (isBytePo && isCharPo) {
             throw new CutException(CutArgsParser.ILLEGAL_BOTH_FLAG);
         }
-        StringBuilder result = new StringBuilder();
+        RangeHelper rangeHelper;
         try {
-            List<String> lines = IOUtils.getLinesFromInputStream(stdin);
-            for (String line : lines) {
-                try {
-                    RangeHelper rangeHelper = rangeHelpFact.createRangeHelper(ranges);
-                    result.append(cutFromLine(line, isCharPo, isBytePo, rangeHelper));
-                } catch (RangeHelperException e) {
-                    throw new CutException(e);
-                }
-            }
+            rangeHelper = rangeHelpFact.createRangeHelper(ranges);
+        } catch (RangeHelperException e) {
+            throw new CutException(e);
+        }
+        ByteArrayOutputStream result = new ByteArrayOutputStream();
+        try {
+            new LineCutter(rangeHelper, isCharPo).cut(stdin, result);
         } catch (IOException e) {
             throw new CutException(e);
         }
-        return result.toString();
+        return result.toString(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Thrown when a file being cut cannot be read, as opposed to the output not being written to.
+     */
+    private static class ReadException extends IOException {
+        private static final long serialVersionUID = 4130552176431582760L;
+
+        ReadException(IOException cause) {
+            super(cause.getMessage(), cause);
+        }
+    }
+
+    /**
+     * Passes reads through to a file, throwing its read failures as {@link ReadException}.
+     */
+    private static class ReadFailureInputStream extends FilterInputStream {
+        ReadFailureInputStream(InputStream input) {
+            super(input);
+        }
+
+        @Override
+        public int read() throws IOException {
+            try {
+                return super.read();
+            } catch (IOException e) {
+                throw new ReadException(e);
+            }
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) throws IOException {
+            try {
+                return super.read(bytes, offset, length);
+            } catch (IOException e) {
+                throw new ReadException(e);
+            }
+        }
     }
 }
@@ -3,14 +3,32 @@ package sg.edu.nus.comp.cs4218.impl.app;
 import sg.edu.nus.comp.cs4218.app.GrepInterface;
 import sg.edu.nus.comp.cs4218.exception.*;
 import sg.edu.nus.comp.cs4218.impl.parser.GrepArgsParser;
+import sg.edu.nus.comp.cs4218.impl.util.DfaRegex;
 import sg.edu.nus.comp.cs4218.impl.util.IOUtils;
+import sg.edu.nus.comp.cs4218.impl.util.LineReader;
+import sg.edu.nus.comp.cs4218.impl.util.LiteralLineReader;
+import sg.edu.nus.comp.cs4218.impl.util.LiteralMatcher;
+import sg.edu.nus.comp.cs4218.impl.util.MappedChunks;
+import sg.edu.nus.comp.cs4218.impl.util.ShellSettings;
 import sg.edu.nus.comp.cs4218.impl.util.StringUtils;
 
 import java.io.*;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
 import java.util.List;
-import java.util.StringJoiner;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -19,9 +37,14 @@ import static sg.edu.nus.comp.cs4218.impl.util.StringUtils.STRING_NEWLINE;
 @SuppressWarnings("PMD.GodClass")
 public class GrepApplication implements GrepInterface {
     public static final String EMPTY_PATTERN = "Pattern should not be empty.";
+    private static final String STDIN_NAME = "(standard input)";
 
     private final GrepArgsParser grepArgsParser;
     private OutputStream outputStream;
+    // the last compiled pattern, so that a pattern is compiled once however many inputs it is matched against
+    private Pattern compiledPattern;
+    // the regex engine given to run, or null to use the one in ShellSettings
+    private String engine;
 
     public GrepApplication(GrepArgsParser grepArgsParser) {
         this.grepArgsParser = grepArgsParser;
@@ -56,118 +79,89 @@ public class GrepApplication implements GrepInterface {
         } catch (InvalidArgsException e) {
             throw new GrepException(e);
         }
-        StringBuilder output = new StringBuilder();
+        String pattern = grepArgsParser.getPattern();
+        boolean isCaseInsensitive = grepArgsParser.isIgnoreCase();
+        boolean isCountLines = grepArgsParser.isCount();
+        boolean isPrefixFileName = grepArgsParser.isPrintFileName();
+        engine = grepArgsParser.getEngine();
+        // matching lines are written as they are found, in the same format the grepFrom* methods return
+        Writer writer = new BufferedWriter(new OutputStreamWriter(stdout));
+        OutputJoiner joiner = new OutputJoiner(writer);
         if (grepArgsParser.isGrepFromStdin()) {
-            output.append(grepFromStdin(grepArgsParser.getPattern(), grepArgsParser.isIgnoreCase(), grepArgsParser.isCount(), grepArgsParser.isPrintFileName(), stdin));
+            grepFromStdin(pattern, isCaseInsensitive, isCountLines, isPrefixFileName, stdin, joiner);
         } else if (grepArgsParser.isGrepFromFiles()) {
-            output.append(grepFromFiles(grepArgsParser.getPattern(), grepArgsParser.isIgnoreCase(), grepArgsParser.isCount(), grepArgsParser.isPrintFileName(), grepArgsParser.getFileNames()));
+            grepFromFiles(pattern, isCaseInsensitive, isCountLines, isPrefixFileName, joiner,
+                    grepArgsParser.getFileNames());
         } else if (grepArgsParser.isGrepFromFilesAndStdin()) {
-            output.append(grepFromFileAndStdin(grepArgsParser.getPattern(), grepArgsParser.isIgnoreCase(), grepArgsParser.isCount(), grepArgsParser.isPrintFileName(), stdin, grepArgsParser.getFileNames()));
+            grepFromFileAndStdin(pattern, isCaseInsensitive, isCountLines, isPrefixFileName, stdin, joiner,
+                    grepArgsParser.getFileNames());
         } else {
             // Should not reach here
             throw new GrepException(ERR_GENERAL);
         }
         try {
-            output.append(STRING_NEWLINE);
-            stdout.write(output.toString().getBytes());
+            writer.write(STRING_NEWLINE);
+            writer.flush();
         } catch (IOException e) {
             throw new GrepException(e);
         }
     }
 
     /**
-     * Returns the result of running grep with the specified arguments on the specified input stream.
-     * @param pattern           String specifying a regular expression in JAVA format
-     * @param isCaseInsensitive Boolean option to perform case insensitive matching
-     * @param isCountLines      Boolean option to only write out a count of matched lines
-     * @param isPrefixFileName  Boolean option to print file name with output lines
-     * @param stdin             InputStream containing arguments from Stdin
-     * @return
-     * @throws AbstractApplicationException
+     * Adds the result of grepFromStdin to the joiner as the matching lines are found. This is the streaming
+     * core of {@link #grepFromStdin(String, Boolean, Boolean, Boolean, InputStream)} and {@link #run}.
      */
-    @Override
-    public String grepFromStdin(String pattern, Boolean isCaseInsensitive, Boolean isCountLines, Boolean isPrefixFileName, InputStream stdin) throws AbstractApplicationException {
+    void grepFromStdin(String pattern, Boolean isCaseInsensitive, Boolean isCountLines, Boolean isPrefixFileName,
+                       InputStream stdin, OutputJoiner joiner) throws AbstractApplicationException {
         if (stdin == null) {
             throw new GrepException(ERR_NULL_STREAMS);
         }
         if (StringUtils.isBlank(pattern)) {
             throw new GrepException(EMPTY_PATTERN);
         }
+        LineSearch search = newLineSearch(pattern, isCaseInsensitive);
         try {
-            List<String> lines = IOUtils.getLinesFromInputStream(stdin);
-            return getGrepResultsFromOneLines(isCaseInsensitive, isCountLines, isPrefixFileName, pattern, lines, "(standard input)");
+            grepLines(search.open(flushBeforeRead(stdin, joiner)), isCountLines, isPrefixFileName, STDIN_NAME,
+                    joiner, false, true);
         } catch (IOException e) {
             throw new GrepException(e);
+        } catch (UncheckedIOException e) {
+            throw new GrepException(e.getCause());
         }
     }
 
     /**
-     * Returns the result of running grep with the specified arguments on the specified files.
-     * @param pattern           String specifying a regular expression in JAVA format
-     * @param isCaseInsensitive Boolean option to perform case insensitive matching
-     * @param isCountLines      Boolean option to only write out a count of matched lines
-     * @param isPrefixFileName  Boolean option to print file name with output lines
-     * @param fileNames         Array of file names (not including "-" for reading from stdin)
-     * @return
-     * @throws AbstractApplicationException
+     * Adds the result of grepFromFiles to the joiner as the matching lines are found. This is the streaming
+     * core of {@link #grepFromFiles(String, Boolean, Boolean, Boolean, String...)} and {@link #run}.
      */
-    @Override
-    public String grepFromFiles(String pattern, Boolean isCaseInsensitive, Boolean isCountLines, Boolean isPrefixFileName, String... fileNames) throws AbstractApplicationException {
+    void grepFromFiles(String pattern, Boolean isCaseInsensitive, Boolean isCountLines, Boolean isPrefixFileName,
+                       OutputJoiner joiner, String... fileNames) throws AbstractApplicationException {
         if (fileNames == null || fileNames.length == 0) {
             throw new GrepException(ERR_NULL_ARGS);
         }
         if (StringUtils.isBlank(pattern)) {
             throw new GrepException(EMPTY_PATTERN);
         }
-
-        StringJoiner results = new StringJoiner(STRING_NEWLINE);
+        LineSearch search = newLineSearch(pattern, isCaseInsensitive);
         boolean shouldHavePrefix = isPrefixFileName || fileNames.length > 1;
-        for (int i = 0; i < fileNames.length; i++) {
-            if (StringUtils.isBlank(fileNames[i])) {
-                results.add(new GrepException(ERR_NO_FILE_ARGS).getMessage());
-                continue;
-            }
-            Path filePath;
-            try {
-                filePath = IOUtils.resolveFilePath(fileNames[i]);
-            } catch (IOException e) {
-                results.add(new GrepException(fileNames[i], ERR_FILE_NOT_FND).getMessage());
-                continue;
-            }
-            if (!Files.exists(filePath)) {
-                results.add(new GrepException(fileNames[i], ERR_FILE_NOT_FND).getMessage());
-                continue;
-            }
-            if (Files.isDirectory(filePath)) {
-                results.add(new GrepException(fileNames[i], ERR_IS_DIR).getMessage());
-                continue;
-            }
-            try (InputStream inputStream = IOUtils.openInputStream(fileNames[i])) {
-                List<String> lines = IOUtils.getLinesFromInputStream(inputStream);
-                String grepResults = getGrepResultsFromOneLines(isCaseInsensitive, isCountLines, shouldHavePrefix, pattern, lines, fileNames[i]);
-                if (!StringUtils.isBlank(grepResults)) {
-                    results.add(grepResults);
-                }
-            } catch (IOException | ShellException e) {
-                results.add(new GrepException(fileNames[i], e).getMessage());
-            }
+        try {
+            grepFiles(fileNames, 0, fileNames.length, search, isCountLines, shouldHavePrefix, joiner, false);
+        } catch (IOException e) {
+            throw new GrepException(e);
+        } catch (UncheckedIOException e) {
+            throw new GrepException(e.getCause());
         }
-        return results.toString();
     }
 
     /**
-     * Returns the result of running grep with the specified arguments on the specified files and input stream.
-     * @param pattern           String specifying a regular expression in JAVA format
-     * @param isCaseInsensitive Boolean option to perform case insensitive matching
-     * @param isCountLines      Boolean option to only write out a count of matched lines
-     * @param isPrefixFileName  Boolean option to print file name with output lines
-     * @param stdin             InputStream containing arguments from Stdin
-     * @param fileNames         Array of file names (including "-" for reading from stdin)
-     * @return
-     * @throws AbstractApplicationException
+     * Adds the result of grepFromFileAndStdin to the joiner as the matching lines are found, and restarts the
+     * joiner before each stdin argument, where grepFromFileAndStdin prints the output so far. This is the
+     * streaming core of {@link #grepFromFileAndStdin(String, Boolean, Boolean, Boolean, InputStream, String...)}
+     * and {@link #run}.
      */
-    @Override
-    public String grepFromFileAndStdin(String pattern, Boolean isCaseInsensitive, Boolean isCountLines, Boolean isPrefixFileName, InputStream stdin, String... fileNames) throws AbstractApplicationException {
+    void grepFromFileAndStdin(String pattern, Boolean isCaseInsensitive, Boolean isCountLines,
+                              Boolean isPrefixFileName, InputStream stdin, OutputJoiner joiner, String... fileNames)
+            throws AbstractApplicationException {
         if (fileNames == null || fileNames.length == 0) {
             throw new GrepException(ERR_NULL_ARGS);
         }
@@ -177,56 +171,582 @@ public class GrepApplication implements GrepInterface {
         if (stdin == null) {
             throw new GrepException(ERR_NULL_STREAMS);
         }
-
-        StringJoiner results = new StringJoiner(STRING_NEWLINE);
+        LineSearch search = newLineSearch(pattern, isCaseInsensitive);
         boolean shouldHavePrefix = isPrefixFileName || fileNames.length > 1;
-        for (String fileName : fileNames) {
-            if ("-".equals(fileName)) {
+        try {
+            int start = 0;
+            for (int i = 0; i <= fileNames.length; i++) {
+                if (i < fileNames.length && !"-".equals(fileNames[i])) {
+                    continue;
+                }
+                // the files between two stdin arguments are searched together, each result is always added
+                grepFiles(fileNames, start, i, search, isCountLines, shouldHavePrefix, joiner, true);
+                if (i < fileNames.length) {
+                    // a blank stdin result is left out
+                    joiner.restart();
+                    grepLines(search.open(flushBeforeRead(stdin, joiner)), isCountLines, shouldHavePrefix,
+                            STDIN_NAME, joiner, true, false);
+                }
+                start = i + 1;
+            }
+        } catch (IOException e) {
+            throw new GrepException(e);
+        } catch (UncheckedIOException e) {
+            throw new GrepException(e.getCause());
+        }
+    }
+
+    /**
+     * Compiles the pattern, or returns it if it was the last one compiled.
+     */
+    private Pattern compilePattern(String pattern, boolean isCaseInsensitive) throws GrepException {
+        int flags = isCaseInsensitive ? Pattern.CASE_INSENSITIVE : 0;
+        if (compiledPattern != null && compiledPattern.pattern().equals(pattern) && compiledPattern.flags() == flags) {
+            return compiledPattern;
+        }
+        try {
+            compiledPattern = Pattern.compile(pattern, flags);
+        } catch (IllegalArgumentException e) {
+            throw new GrepException(e);
+        }
+        return compiledPattern;
+    }
+
+    /**
+     * Validates and compiles the pattern. A pattern without metacharacters is searched for as a literal in
+     * the bytes of the input, unless that is turned off in {@link ShellSettings#grepLiteralSearch}. With the
+     * dfa engine, the other patterns are matched with a {@link DfaRegex} if it supports them.
+     *
+     * The regex engine is the one given to run with {@code --engine}, or the one in
+     * {@link ShellSettings#grepEngine}, which is checked here as it may be changed at runtime.
+     */
+    private LineSearch newLineSearch(String pattern, boolean isCaseInsensitive) throws GrepException {
+        if (ShellSettings.grepLiteralSearch && LiteralMatcher.isLiteral(pattern)) {
+            return new LineSearch(null, new LiteralMatcher(pattern, isCaseInsensitive), null);
+        }
+        Pattern compiled = compilePattern(pattern, isCaseInsensitive);
+        String regexEngine = engine;
+        if (regexEngine == null) {
+            try {
+                regexEngine = GrepArgsParser.parseEngine(ShellSettings.grepEngine.trim().toLowerCase(Locale.ROOT));
+            } catch (InvalidArgsException e) {
+                throw new GrepException(e);//NOPMD - throw here to get caught in SHell impl and show excpt msg
+            }
+        }
+        DfaRegex dfaRegex = GrepArgsParser.ENGINE_DFA.equals(regexEngine) ? DfaRegex.compile(compiled) : null;
+        return new LineSearch(compiled, null, dfaRegex);
+    }
+
+    /**
+     * Wraps the input to write out the output so far whenever more input has to be read, so that matches
+     * appear as soon as they are found even if the rest of the input is slow to come.
+     */
+    private static InputStream flushBeforeRead(InputStream input, OutputJoiner joiner) {
+        return new FilterInputStream(input) {
+            @Override
+            public int read(byte[] bytes, int offset, int length) throws IOException {
                 try {
-                    String maybeNewline = results.toString().isEmpty() ? "" : STRING_NEWLINE;
-                    outputStream.write((results + maybeNewline).getBytes());
-                    results = new StringJoiner(STRING_NEWLINE);
-                    String stdinResults  = grepFromStdin(pattern, isCaseInsensitive, isCountLines, shouldHavePrefix, stdin);
-                    if (!StringUtils.isBlank(stdinResults)) {
-                        results.add(stdinResults);
-                    }
+                    joiner.flush();
                 } catch (IOException e) {
-                    throw new GrepException(e);
+                    // not a failure to read the input
+                    throw new UncheckedIOException(e);
+                }
+                return super.read(bytes, offset, length);
+            }
+        };
+    }
+
+    /**
+     * Writes the results of the files from start until end in order, as grepFile does for each. Up to
+     * {@link ShellSettings#grepParallelism} files are searched at the same time, each into its own buffer, and
+     * the buffers are written out in order as soon as the files before them are done.
+     */
+    private void grepFiles(String[] fileNames, int start, int end, LineSearch search, boolean isCountLines,
+                           boolean isPrefixFileName, OutputJoiner joiner, boolean isAlwaysAdded)
+            throws IOException {
+        int parallelism = Math.min(ShellSettings.grepParallelism, end - start);
+        if (parallelism <= 1) {
+            for (int i = start; i < end; i++) {
+                grepFile(fileNames[i], search, isCountLines, isPrefixFileName, joiner, isAlwaysAdded);
+            }
+            return;
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+        try {
+            Deque<Future<BufferedJoiner>> pending = new ArrayDeque<>();
+            int next = start;
+            while (next < end || !pending.isEmpty()) {
+                // a few files ahead keep the threads busy while the first file is still being searched
+                while (next < end && pending.size() < parallelism * 2) {
+                    String fileName = fileNames[next++];
+                    pending.add(executor.submit(() -> {
+                        BufferedJoiner buffer = new BufferedJoiner();
+                        grepFile(fileName, search, isCountLines, isPrefixFileName, buffer, isAlwaysAdded);
+                        return buffer;
+                    }));
+                }
+                awaitResult(pending.remove()).writeTo(joiner);
+                joiner.flush();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static <T> T awaitResult(Future<T> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException(e.getMessage());
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw (Error) cause;
+        }
+    }
+
+    /**
+     * Writes the result for one file, or its error message, as one element of the output. A regular file of
+     * at least {@link ShellSettings#grepParallelThreshold} bytes is searched in parallel chunks.
+     *
+     * @param isAlwaysAdded Whether the result is added even if it is blank.
+     */
+    private void grepFile(String fileName, LineSearch search, boolean isCountLines, boolean isPrefixFileName,
+                          OutputJoiner joiner, boolean isAlwaysAdded) throws IOException {
+        String error = getFileError(fileName);
+        if (error != null) {
+            joiner.add(error);
+            return;
+        }
+        try {
+            if (isLargeFile(fileName)) {
+                try (ChunkedMatchingLines lines = new ChunkedMatchingLines(IOUtils.openFileChannel(fileName), search)) {
+                    grepLines(lines, isCountLines, isPrefixFileName, fileName, joiner, true, isAlwaysAdded);
                 }
             } else {
-                String fileResult = grepFromFiles(pattern, isCaseInsensitive, isCountLines, shouldHavePrefix, fileName);
-                results.add(fileResult);
+                try (InputStream input = IOUtils.openInputStream(fileName)) {
+                    grepLines(search.open(flushBeforeRead(input, joiner)), isCountLines, isPrefixFileName, fileName, joiner, true, isAlwaysAdded);
+                }
             }
+        } catch (ShellException | ReadException e) {
+            joiner.add(new GrepException(fileName, e).getMessage());
         }
-        return results.toString();
     }
 
-    private String getGrepResultsFromOneLines(boolean isCaseInsensitive, boolean isCountLines, boolean isPrefixFileName, String pattern, List<String> lines, String fileName)
-            throws AbstractApplicationException{
-        Pattern compiledPattern;
+    private static boolean isLargeFile(String fileName) {
         try {
-            if (isCaseInsensitive) {
-                compiledPattern = Pattern.compile(pattern, Pattern.CASE_INSENSITIVE);
+            Path filePath = IOUtils.resolveFilePath(fileName);
+            return Files.isRegularFile(filePath) && Files.size(filePath) >= ShellSettings.grepParallelThreshold;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Writes the matching lines, or their count, as one element of the output.
+     * Whitespace only matches are held back while the element could still turn out to be blank.
+     *
+     * @param isBlankSkipped Whether a blank result is left out, as the grepFrom* methods do for files.
+     * @param isAlwaysAdded  Whether the element is added even if it is empty or skipped as blank.
+     * @throws ReadException If the input cannot be read.
+     * @throws IOException   If the output cannot be written.
+     */
+    private void grepLines(MatchingLines lines, boolean isCountLines, boolean isPrefixFileName,
+                           String name, OutputJoiner joiner, boolean isBlankSkipped, boolean isAlwaysAdded)
+            throws IOException {
+        if (isCountLines) {
+            long count = countLines(lines);
+            joiner.add(isPrefixFileName ? name + ":" + count : Long.toString(count));
+            return;
+        }
+        String linePrefix = isPrefixFileName ? name + ":" : "";
+        StringBuilder heldBack = null;
+        boolean isStarted = false;
+        String line;
+        while ((line = nextLine(lines)) != null) {
+            String result = linePrefix + line;
+            if (isStarted) {
+                joiner.write(STRING_NEWLINE + result);
+            } else if (isBlankSkipped && StringUtils.isBlank(result)) {
+                heldBack = heldBack == null ? new StringBuilder(result) : heldBack.append(STRING_NEWLINE).append(result);
             } else {
-                compiledPattern = Pattern.compile(pattern);
+                joiner.add(heldBack == null ? result : heldBack.append(STRING_NEWLINE).append(result).toString());
+                isStarted = true;
             }
-        } catch (IllegalArgumentException e) {
-            throw new GrepException(e);
         }
-        StringJoiner stringJoiner = new StringJoiner(STRING_NEWLINE);
-        int count = 0;
-        for (String line : lines) {
-            Matcher matcher = compiledPattern.matcher(line);
-            if (matcher.find()) { // match
-                String linePrefix = isPrefixFileName ? fileName + ":" : "";
-                stringJoiner.add(linePrefix + line);
+        if (!isStarted && isAlwaysAdded) {
+            joiner.add(isBlankSkipped || heldBack == null ? "" : heldBack.toString());
+        }
+    }
+
+    private static String nextLine(MatchingLines lines) throws ReadException {
+        try {
+            return lines.next();
+        } catch (IOException e) {
+            throw new ReadException(e);
+        }
+    }
+
+    private static long countLines(MatchingLines lines) throws ReadException {
+        try {
+            return lines.count();
+        } catch (IOException e) {
+            throw new ReadException(e);
+        }
+    }
+
+    /**
+     * Returns the error message for a file that cannot be read, or null if it can be opened.
+     */
+    private static String getFileError(String fileName) {
+        if (StringUtils.isBlank(fileName)) {
+            return new GrepException(ERR_NO_FILE_ARGS).getMessage();
+        }
+        Path filePath;
+        try {
+            filePath = IOUtils.resolveFilePath(fileName);
+        } catch (IOException e) {
+            return new GrepException(fileName, ERR_FILE_NOT_FND).getMessage();
+        }
+        if (!Files.exists(filePath)) {
+            return new GrepException(fileName, ERR_FILE_NOT_FND).getMessage();
+        }
+        if (Files.isDirectory(filePath)) {
+            return new GrepException(fileName, ERR_IS_DIR).getMessage();
+        }
+        return null;
+    }
+
+    /**
+     * The lines of one input that match the pattern.
+     */
+    private interface MatchingLines {
+        /**
+         * @return The next matching line, or null if there are no more.
+         */
+        String next() throws IOException;
+
+        /**
+         * Counts the remaining matching lines.
+         */
+        default long count() throws IOException {
+            long count = 0;
+            while (next() != null) {
                 count++;
             }
+            return count;
         }
-        if (isCountLines) {
-            return isPrefixFileName ? fileName + ":" + count : Integer.toString(count);
-        } else {
-            return stringJoiner.toString();
+    }
+
+    /**
+     * The matching lines of a large file, searched in {@link MappedChunks} on the common {@link ForkJoinPool}.
+     * A few chunks ahead of the one being read are searched at the same time, and their matching lines are
+     * returned in file order. Counting sums the counts of the chunks without keeping their lines.
+     */
+    private static class ChunkedMatchingLines implements MatchingLines, Closeable {
+        private final FileChannel channel;
+        private final LineSearch search;
+        private final Deque<Future<List<String>>> pending = new ArrayDeque<>();
+        private long[] boundaries;
+        private int nextChunk;
+        private Iterator<String> current = Collections.emptyIterator();
+        // the whole file read as one input, when a line is too long to be mapped
+        private MatchingLines sequential;
+
+        ChunkedMatchingLines(FileChannel channel, LineSearch search) {
+            this.channel = channel;
+            this.search = search;
+        }
+
+        @Override
+        public String next() throws IOException {
+            if (split()) {
+                return sequential.next();
+            }
+            while (!current.hasNext()) {
+                while (nextChunk < boundaries.length - 1 && pending.size() < getWindowSize()) {
+                    int chunk = nextChunk++;
+                    pending.add(ForkJoinPool.commonPool().submit(() -> searchChunk(chunk)));
+                }
+                if (pending.isEmpty()) {
+                    return null;
+                }
+                current = awaitResult(pending.remove()).iterator();
+            }
+            return current.next();
+        }
+
+        @Override
+        public long count() throws IOException {
+            if (split()) {
+                return sequential.count();
+            }
+            List<Future<Long>> counts = new ArrayList<>();
+            for (int chunk = nextChunk; chunk < boundaries.length - 1; chunk++) {
+                int index = chunk;
+                counts.add(ForkJoinPool.commonPool().submit(() -> openChunk(index).count()));
+            }
+            nextChunk = boundaries.length - 1;
+            long count = 0;
+            for (Future<Long> chunkCount : counts) {
+                count += awaitResult(chunkCount);
+            }
+            return count;
+        }
+
+        /**
+         * Splits the file on first use.
+         *
+         * @return Whether the file is read as one input instead.
+         */
+        private boolean split() throws IOException {
+            if (boundaries == null && sequential == null) {
+                boundaries = MappedChunks.split(channel, channel.size(), MappedChunks.CHUNK_SIZE);
+                if (boundaries == null) {
+                    sequential = search.open(Channels.newInputStream(channel));
+                }
+            }
+            return sequential != null;
+        }
+
+        private static int getWindowSize() {
+            return ForkJoinPool.commonPool().getParallelism() * 2;
+        }
+
+        private MatchingLines openChunk(int chunk) throws IOException {
+            return search.open(MappedChunks.open(channel, boundaries[chunk], boundaries[chunk + 1]));
+        }
+
+        private List<String> searchChunk(int chunk) throws IOException {
+            MatchingLines lines = openChunk(chunk);
+            List<String> result = new ArrayList<>();
+            String line;
+            while ((line = lines.next()) != null) {
+                result.add(line);
+            }
+            return result;
+        }
+
+        @Override
+        public void close() throws IOException {
+            for (Future<List<String>> future : pending) {
+                future.cancel(true);
+            }
+            channel.close();
+        }
+    }
+
+    /**
+     * Finds the matching lines of each input, either with a regex matcher that is reset to each line instead
+     * of creating a new one, with a {@link DfaRegex} matcher, or with a {@link LiteralLineReader} that only
+     * decodes the lines containing the literal. Inputs can be searched on several threads at the same time.
+     */
+    private static class LineSearch {
+        private final Pattern pattern;
+        private final LiteralMatcher literal;
+        private final DfaRegex dfaRegex;
+
+        LineSearch(Pattern pattern, LiteralMatcher literal, DfaRegex dfaRegex) {
+            this.pattern = pattern;
+            this.literal = literal;
+            this.dfaRegex = dfaRegex;
+        }
+
+        /**
+         * Returns the matching lines of the input, which is not closed by reading them.
+         */
+        MatchingLines open(InputStream input) {
+            if (literal != null) {
+                return new LiteralLineReader(input, literal)::readMatchingLine;
+            }
+            LineReader reader = IOUtils.newLineReader(input);
+            if (dfaRegex != null) {
+                DfaRegex.LineMatcher matcher = dfaRegex.matcher();
+                return () -> {
+                    String line = reader.readLine();
+                    while (line != null && !matcher.find(line)) {
+                        line = reader.readLine();
+                    }
+                    return line;
+                };
+            }
+            Matcher matcher = pattern.matcher("");
+            return () -> {
+                String line = reader.readLine();
+                while (line != null && !matcher.reset(line).find()) {
+                    line = reader.readLine();
+                }
+                return line;
+            };
+        }
+    }
+
+    /**
+     * Failure to read an input, told apart from failure to write the output. Keeps the message of the
+     * original exception.
+     */
+    private static class ReadException extends IOException {
+        private static final long serialVersionUID = 6529685098267757690L;
+
+        ReadException(IOException cause) {
+            super(cause.getMessage(), cause);
+        }
+    }
+
+    /**
+     * Writes elements separated by newlines, in the same manner as building the output with a
+     * StringJoiner, without holding the elements in memory.
+     */
+    static class OutputJoiner {
+        private final Writer writer;
+        private boolean hasElements;
+        private boolean hasContent;
+        private boolean isFlushNeeded;
+
+        OutputJoiner(Writer writer) {
+            this.writer = writer;
+        }
+
+        /**
+         * Starts a new element with the given text.
+         */
+        void add(String text) throws IOException {
+            if (hasElements) {
+                writer.write(STRING_NEWLINE);
+                hasContent = true;
+            }
+            hasElements = true;
+            write(text);
+        }
+
+        /**
+         * Flushes the writer if anything was written since it was last flushed.
+         */
+        void flush() throws IOException {
+            if (isFlushNeeded) {
+                writer.flush();
+                isFlushNeeded = false;
+            }
+        }
+
+        /**
+         * Appends text to the current element.
+         */
+        void write(String text) throws IOException {
+            writer.write(text);
+            hasContent |= !text.isEmpty();
+            isFlushNeeded = true;
         }
+
+        /**
+         * Ends the output so far with a newline if it is not empty, and starts again without elements.
+         */
+        void restart() throws IOException {
+            if (hasContent) {
+                writer.write(STRING_NEWLINE);
+                isFlushNeeded = true;
+            }
+            hasElements = false;
+            hasContent = false;
+        }
+    }
+
+    /**
+     * Keeps the elements of the output of one file, to be written out once the files before it are done.
+     */
+    private static class BufferedJoiner extends OutputJoiner {
+        private final List<StringBuilder> elements = new ArrayList<>();
+
+        BufferedJoiner() {
+            super(Writer.nullWriter());
+        }
+
+        @Override
+        void add(String text) {
+            elements.add(new StringBuilder(text));
+        }
+
+        @Override
+        void flush() {
+            // nothing is written until writeTo
+        }
+
+        @Override
+        void write(String text) {
+            elements.get(elements.size() - 1).append(text);
+        }
+
+        void writeTo(OutputJoiner joiner) throws IOException {
+            for (StringBuilder element : elements) {
+                joiner.add(element.toString());
+            }
+        }
+    }
+
+    /**
+     * Returns the result of running grep with the specified arguments on the specified input stream.
+     * @param pattern           String specifying a regular expression in JAVA format
+     * @param isCaseInsensitive Boolean option to perform case insensitive matching
+     * @param isCountLines      Boolean option to only write out a count of matched lines
+     * @param isPrefixFileName  Boolean option to print file name with output lines
+     * @param stdin             InputStream containing arguments from Stdin
+     * @return
+     * @throws AbstractApplicationException
+     */
+    @Override
+    public String grepFromStdin(String pattern, Boolean isCaseInsensitive, Boolean isCountLines, Boolean isPrefixFileName, InputStream stdin) throws AbstractApplicationException {
+        StringWriter results = new StringWriter();
+        grepFromStdin(pattern, isCaseInsensitive, isCountLines, isPrefixFileName, stdin, new OutputJoiner(results));
+        return results.toString();
+    }
+
+    /**
+     * Returns the result of running grep with the specified arguments on the specified files.
+     * @param pattern           String specifying a regular expression in JAVA format
+     * @param isCaseInsensitive Boolean option to perform case insensitive matching
+     * @param isCountLines      Boolean option to only write out a count of matched lines
+     * @param isPrefixFileName  Boolean option to print file name with output lines
+     * @param fileNames         Array of file names (not including "-" for reading from stdin)
+     * @return
+     * @throws AbstractApplicationException
+     */
+    @Override
+    public String grepFromFiles(String pattern, Boolean isCaseInsensitive, Boolean isCountLines, Boolean isPrefixFileName, String... fileNames) throws AbstractApplicationException {
+        StringWriter results = new StringWriter();
+        grepFromFiles(pattern, isCaseInsensitive, isCountLines, isPrefixFileName, new OutputJoiner(results), fileNames);
+        return results.toString();
+    }
+
+    /**
+     * Returns the result of running grep with the specified arguments on the specified files and input stream.
+     * @param pattern           String specifying a regular expression in JAVA format
+     * @param isCaseInsensitive Boolean option to perform case insensitive matching
+     * @param isCountLines      Boolean option to only write out a count of matched lines
+     * @param isPrefixFileName  Boolean option to print file name with output lines
+     * @param stdin             InputStream containing arguments from Stdin
+     * @param fileNames         Array of file names (including "-" for reading from stdin)
+     * @return
+     * @throws AbstractApplicationException
+     */
+    @Override
+    public String grepFromFileAndStdin(String pattern, Boolean isCaseInsensitive, Boolean isCountLines, Boolean isPrefixFileName, InputStream stdin, String... fileNames) throws AbstractApplicationException {
+        StringWriter results = new StringWriter();
+        OutputJoiner joiner = new OutputJoiner(results) {
+            @Override
+            void restart() throws IOException {
+                super.restart();
+                // Print the results before stdin
+                outputStream.write(results.toString().getBytes());
+                results.getBuffer().setLength(0);
+            }
+        };
+        grepFromFileAndStdin(pattern, isCaseInsensitive, isCountLines, isPrefixFileName, stdin, joiner, fileNames);
+        return results.toString();
     }
 }
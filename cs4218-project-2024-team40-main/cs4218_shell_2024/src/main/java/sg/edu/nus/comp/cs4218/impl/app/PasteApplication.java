@@ -7,15 +7,18 @@ import sg.edu.nus.comp.cs4218.exception.PasteException;
 import sg.edu.nus.comp.cs4218.exception.ShellException;
 import sg.edu.nus.comp.cs4218.impl.parser.PasteArgsParser;
 import sg.edu.nus.comp.cs4218.impl.util.IOUtils;
+import sg.edu.nus.comp.cs4218.impl.util.LineReader;
 import sg.edu.nus.comp.cs4218.impl.util.StringUtils;
 
-import java.io.FilePermission;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import static sg.edu.nus.comp.cs4218.impl.util.ErrorConstants.*;
@@ -24,6 +27,7 @@ import static sg.edu.nus.comp.cs4218.impl.util.StringUtils.STRING_NEWLINE;
 @SuppressWarnings("PMD.GodClass")
 public class PasteApplication implements PasteInterface {
     private static final char TAB = '\t';
+    private static final String STDIN_ARG = "-";
     private final PasteArgsParser pasteArgsParser; //NOPMD - unimplemented
     public PasteApplication(PasteArgsParser pasteArgsParser){
         this.pasteArgsParser = pasteArgsParser;
@@ -51,24 +55,178 @@ public class PasteApplication implements PasteInterface {
             throw new PasteException(e);
         }
         Boolean isSerial = pasteArgsParser.isSerial();
+        List<String> inputNames;
+        if (pasteArgsParser.isPasteStdin()) {
+            inputNames = List.of(STDIN_ARG);
+        } else if (pasteArgsParser.isPasteFiles() || pasteArgsParser.isPasteFileAndStdin()) {
+            inputNames = pasteArgsParser.getFileNames();
+        } else {
+            // This shouldn't happen but just put this for defensive programming
+            throw new PasteException(ERR_GENERAL);
+        }
+        RowWriter writer = new RowWriter(new BufferedOutputStream(stdout));
+        merge(isSerial, stdin, inputNames, writer);
+        try {
+            writer.finish();
+        } catch (IOException e) {
+            throw new PasteException(e);
+        }
+    }
+
+    /**
+     * Writes the merged lines of the inputs as they are read, without the final newline.
+     *
+     * @param stdin The stream read for every "-" among the inputs, or null if "-" names a file.
+     */
+    private static void merge(Boolean isSerial, InputStream stdin, List<String> inputNames, RowWriter writer)
+            throws PasteException {
+        List<LineReader> readers = openReaders(stdin, inputNames);
         try {
-            StringBuilder result = new StringBuilder();
-            if (pasteArgsParser.isPasteStdin()) {
-                result.append(mergeStdin(isSerial, stdin));
-            } else if (pasteArgsParser.isPasteFiles()) {
-                result.append(mergeFile(isSerial, pasteArgsParser.getFileNames().toArray(new String[0])));
-            } else if (pasteArgsParser.isPasteFileAndStdin()) {
-                result.append(mergeFileAndStdin(isSerial, stdin, pasteArgsParser.getFileNames().toArray(new String[0])));
+            if (isSerial) {
+                writeSerial(readers, writer);
             } else {
-                // This shouldn't happen but just put this for defensive programming
-                throw new PasteException(ERR_GENERAL);
-            }
-            stdout.write(result.toString().getBytes());
-            if (result.length() > 0) {
-                stdout.write(STRING_NEWLINE.getBytes());
+                writeNonSerial(readers, writer);
             }
         } catch (IOException e) {
             throw new PasteException(e);
+        } finally {
+            closeFileReaders(readers, stdin, inputNames);
+        }
+    }
+
+    /**
+     * Returns the merged lines of the inputs, the same as the output of {@link #run} without its final newline.
+     */
+    private static String mergeToString(Boolean isSerial, InputStream stdin, List<String> inputNames)
+            throws PasteException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        merge(isSerial, stdin, inputNames, new RowWriter(output));
+        return output.toString();
+    }
+
+    /**
+     * Opens a lazy line reader for every input, in the same order. Every "-" shares one reader of stdin, so
+     * that its lines are handed out round-robin among them, and every file is checked before anything is
+     * written.
+     */
+    private static List<LineReader> openReaders(InputStream stdin, List<String> inputNames)
+            throws PasteException {
+        List<LineReader> readers = new ArrayList<>();
+        LineReader stdinReader = null;
+        try {
+            for (String name : inputNames) {
+                if (StringUtils.isBlank(name)) {
+                    throw new PasteException(ERR_NO_FILE_ARGS);
+                }
+                if (stdin != null && STDIN_ARG.equals(name)) {
+                    if (stdinReader == null) {
+                        stdinReader = IOUtils.newLineReader(stdin);
+                    }
+                    readers.add(stdinReader);
+                    continue;
+                }
+                checkFile(name);
+                try {
+                    readers.add(IOUtils.newLineReader(IOUtils.openInputStream(name)));
+                } catch (ShellException e) {
+                    throw new PasteException(e);
+                }
+            }
+        } catch (PasteException e) {
+            closeFileReaders(readers, stdin, inputNames);
+            throw e;
+        }
+        return readers;
+    }
+
+    private static void checkFile(String fileName) throws PasteException {
+        Path filePath;
+        try {
+            filePath = IOUtils.resolveFilePath(fileName);
+        } catch (IOException e) {
+            throw new PasteException(fileName, ERR_FILE_NOT_FND); //NOPMD - throw here to get caught in ShellImpl and show msg
+        }
+        if (!Files.exists(filePath)) {
+            throw new PasteException(fileName, ERR_FILE_NOT_FND);
+        }
+        if (Files.isDirectory(filePath)) {
+            throw new PasteException(fileName, ERR_IS_DIR_FILE);
+        }
+    }
+
+    /**
+     * Closes the readers of the files among the inputs, leaving stdin open.
+     */
+    private static void closeFileReaders(List<LineReader> readers, InputStream stdin, List<String> inputNames) {
+        for (int i = 0; i < readers.size(); i++) {
+            if (stdin != null && STDIN_ARG.equals(inputNames.get(i))) {
+                continue;
+            }
+            try {
+                readers.get(i).close();
+            } catch (IOException e) {
+                // the file has been read, so a failure to close it does not change the output
+            }
+        }
+    }
+
+    /**
+     * Non serial- inputA.line1 + \t + inputB.line1 + \t + inputC.line1 + \n...
+     *             inputA.line2 + \t + inputB.line2 + \t + inputC.line2 + \n...
+     * Writes the rows as they are read, each holding the next line of every input.
+     */
+    private static void writeNonSerial(List<LineReader> readers, RowWriter writer) throws IOException {
+        String[] row = new String[readers.size()];
+        boolean isFirstRow = true;
+        while (true) {
+            boolean hasLine = false;
+            for (int i = 0; i < row.length; i++) {
+                row[i] = readers.get(i).readLine();
+                hasLine |= row[i] != null;
+            }
+            if (!hasLine) {
+                break;
+            }
+            if (!isFirstRow) {
+                writer.write(STRING_NEWLINE);
+            }
+            for (int i = 0; i < row.length; i++) {
+                if (row[i] != null) {
+                    writer.write(row[i]);
+                }
+                if (i < row.length - 1) {
+                    writer.write(TAB);
+                }
+            }
+            isFirstRow = false;
+        }
+        if (isFirstRow) {
+            // If all inputs are empty, still seperate by tabs
+            for (int i = 0; i < row.length - 1; i++) {
+                writer.write(TAB);
+            }
+        }
+    }
+
+    /**
+     * Serial- inputA.line1 + \t + inputA.line2 + \t + inputA.line3 + \n...
+     *         inputB.line1 + \t + inputB.line2 + \t + inputB.line3 + \n...
+     * Writes the rows as they are read, one input at a time.
+     */
+    private static void writeSerial(List<LineReader> readers, RowWriter writer) throws IOException {
+        for (int i = 0; i < readers.size(); i++) {
+            String line;
+            boolean isFirstLine = true;
+            while ((line = readers.get(i).readLine()) != null) {
+                if (!isFirstLine) {
+                    writer.write(TAB);
+                }
+                writer.write(line);
+                isFirstLine = false;
+            }
+            if (i < readers.size() - 1) {
+                writer.write(STRING_NEWLINE);
+            }
         }
     }
 
@@ -84,16 +242,7 @@ public class PasteApplication implements PasteInterface {
         if (stdin == null) {
             throw new PasteException(ERR_NULL_STREAMS);
         }
-        try {
-            List<String> lines = IOUtils.getLinesFromInputStream(stdin);
-            if (isSerial) {
-                return mergeLinesSerial(lines);
-            } else {
-                return mergeLinesNonSerial(lines);
-            }
-        } catch (IOException e) {
-            throw new PasteException(e);
-        }
+        return mergeToString(isSerial, stdin, List.of(STDIN_ARG));
     }
 
     /**
@@ -111,34 +260,8 @@ public class PasteApplication implements PasteInterface {
         if (fileName.length == 0) {
             throw new PasteException(ERR_NO_ARGS);
         }
-        List[] lines = new List[fileName.length];
-        for (int i = 0; i < fileName.length; i++) {
-            if (StringUtils.isBlank(fileName[i])) {
-                throw new PasteException(ERR_NO_FILE_ARGS);
-            }
-            Path filePath;
-            try {
-                filePath = IOUtils.resolveFilePath(fileName[i]);
-            } catch (IOException e) {
-                throw new PasteException(fileName[i], ERR_FILE_NOT_FND); //NOPMD - throw here to get caught in ShellImpl and show msg
-            }
-            if (!Files.exists(filePath)) {
-                throw new PasteException(fileName[i], ERR_FILE_NOT_FND);
-            }
-            if (Files.isDirectory(filePath)) {
-                throw new PasteException(fileName[i], ERR_IS_DIR_FILE);
-            }
-            try (InputStream inputStream = IOUtils.openInputStream(fileName[i])) {
-                lines[i] = IOUtils.getLinesFromInputStream(inputStream);
-            } catch (ShellException | IOException e) {
-                throw new PasteException(e);
-            }
-        }
-        if (isSerial) {
-            return mergeLinesSerial(lines);
-        } else {
-            return mergeLinesNonSerial(lines);
-        }
+        // "-" is read as a file here, as there is no stdin
+        return mergeToString(isSerial, null, Arrays.asList(fileName));
     }
 
     /**
@@ -152,7 +275,7 @@ public class PasteApplication implements PasteInterface {
      * @throws AbstractApplicationException
      */
     @Override
-    public String mergeFileAndStdin(Boolean isSerial, InputStream stdin, String... fileName) throws AbstractApplicationException { //NOPMD - execesiveMethodLength
+    public String mergeFileAndStdin(Boolean isSerial, InputStream stdin, String... fileName) throws AbstractApplicationException {
         if (fileName == null) {
             throw new PasteException(ERR_NULL_ARGS);
         }
@@ -162,130 +285,38 @@ public class PasteApplication implements PasteInterface {
         if (fileName.length == 0) {
             throw new PasteException(ERR_NO_ARGS);
         }
-
-        List[] lines = new List[fileName.length];
-        List<List<String>> stdinLineRefs = new ArrayList<>();
-        for (int i = 0; i < fileName.length; i++) {
-            if (StringUtils.isBlank(fileName[i])) {
-                throw new PasteException(ERR_NO_FILE_ARGS);
-            }
-
-            if ("-".equals(fileName[i])) {
-                if (isSerial) {
-                    try {
-                        lines[i] = IOUtils.getLinesFromInputStream(stdin);
-                    } catch (IOException e) {
-                        throw new PasteException(e);
-                    }
-                } else {
-                    lines[i] = new ArrayList<String>();
-                    stdinLineRefs.add((List<String>) lines[i]);
-                }
-                continue;
-            }
-            Path filePath;
-            try {
-                filePath = IOUtils.resolveFilePath(fileName[i]);
-            } catch (IOException e) {
-                throw new PasteException(fileName[i], ERR_FILE_NOT_FND); //NOPMD - throw here to get caught in ShellImpl and show msg
-            }
-            if (!Files.exists(filePath)) {
-                throw new PasteException(fileName[i], ERR_FILE_NOT_FND);
-            }
-            if (Files.isDirectory(filePath)) {
-                throw new PasteException(fileName[i], ERR_IS_DIR_FILE);
-            }
-            try (InputStream inputStream = IOUtils.openInputStream(fileName[i])) {
-                lines[i] = IOUtils.getLinesFromInputStream(inputStream);
-            } catch (ShellException | IOException e) {
-                throw new PasteException(e);
-            }
-        }
-        if (isSerial) {
-            return mergeLinesSerial(lines);
-        } else {
-            List<String> stdinLines = null;
-            try {
-                stdinLines = IOUtils.getLinesFromInputStream(stdin);
-            } catch (IOException e) {
-                throw new PasteException(e);
-            }
-            int stdinLinesIndex = 0;
-            while (stdinLinesIndex < stdinLines.size()) {
-                for (List<String> list : stdinLineRefs) {
-                    if (stdinLinesIndex >= stdinLines.size()) {
-                        break;
-                    }
-                    list.add(stdinLines.get(stdinLinesIndex));
-                    stdinLinesIndex++;
-                }
-            }
-            return mergeLinesNonSerial(lines);
-        }
+        return mergeToString(isSerial, stdin, Arrays.asList(fileName));
     }
 
     /**
-     * Non serial- inputA.line1 + \t + inputB.line1 + \t + inputC.line1 + \n...
-     *             inputA.line2 + \t + inputB.line2 + \t + inputC.line2 + \n...
-     * @param arrayOfLines arrayOfLines[i] = lists of lines from input i
-     * @return merged lines
+     * Writes the merged lines, and a final newline in {@link #finish()} only if anything was written, the same
+     * as writing the whole String returned by the merge methods followed by a newline.
      */
-    @SafeVarargs
-    private String mergeLinesNonSerial(List<String>... arrayOfLines) {
-        int maxLength = 0;
-        for (List<String> lines : arrayOfLines) {
-            if (lines.size() > maxLength) {
-                maxLength = lines.size();
-            }
+    private static final class RowWriter {
+        private final OutputStream output;
+        private boolean isWritten;
+
+        RowWriter(OutputStream output) {
+            this.output = output;
         }
-        StringBuilder result = new StringBuilder();
-        if (maxLength == 0) { // If all inputs are empty, still seperate by tabs
-            for (int i = 0; i < arrayOfLines.length; i++) {
-                if (i < arrayOfLines.length - 1) {
-                    result.append(TAB);
-                } else {
-                    return result.toString();
-                }
+
+        void write(String text) throws IOException {
+            if (!text.isEmpty()) {
+                output.write(text.getBytes());
+                isWritten = true;
             }
         }
-        for (int i = 0; i < maxLength; i++) {
-            for (int j = 0; j < arrayOfLines.length; j++) {
-                if (i < arrayOfLines[j].size()) {
-                    result.append(arrayOfLines[j].get(i));
-                }
-                if (j < arrayOfLines.length - 1) {
-                    result.append(TAB);
-                }
-            }
-            if (i < maxLength - 1) {
-                result.append(STRING_NEWLINE);
-            }
+
+        void write(char value) throws IOException {
+            output.write(value);
+            isWritten = true;
         }
-        return result.toString();
-    }
 
-    /**
-     * Serial- inputA.line1 + \n + inputA.line2 + \n + inputA.line3 + \n...
-     *         inputB.line1 + \n + inputB.line2 + \n + inputB.line3 + \n...
-     * @param arrayOfLines arrayOfLines[i] = lists of lines from input i
-     * @return merged lines
-     */
-    @SafeVarargs
-    private String mergeLinesSerial(List<String>... arrayOfLines) {
-        StringBuilder result = new StringBuilder();
-        for (int i = 0; i < arrayOfLines.length; i++) {
-            List<String> lines = arrayOfLines[i];
-            for (int j = 0; j < lines.size(); j++) {
-                result.append(lines.get(j));
-                if (j < lines.size() - 1) {
-                    result.append(TAB);
-                }
-            }
-            if (i < arrayOfLines.length - 1) {
-                result.append(STRING_NEWLINE);
+        void finish() throws IOException {
+            if (isWritten) {
+                output.write(STRING_NEWLINE.getBytes());
             }
+            output.flush();
         }
-        return result.toString();
     }
-
 }
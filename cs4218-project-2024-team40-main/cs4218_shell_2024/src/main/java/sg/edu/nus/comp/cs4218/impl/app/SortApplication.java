@@ -3,13 +3,19 @@ package sg.edu.nus.comp.cs4218.impl.app;
 import sg.edu.nus.comp.cs4218.app.SortInterface;
 import sg.edu.nus.comp.cs4218.exception.*;
 import sg.edu.nus.comp.cs4218.impl.parser.SortArgsParser;
+import sg.edu.nus.comp.cs4218.impl.util.ByteLineComparator;
+import sg.edu.nus.comp.cs4218.impl.util.ExternalLineSorter;
 import sg.edu.nus.comp.cs4218.impl.util.IOUtils;
+import sg.edu.nus.comp.cs4218.impl.util.PackedLines;
+import sg.edu.nus.comp.cs4218.impl.util.ShellSettings;
 
+import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
-import java.math.BigInteger;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
 import java.util.*;
 
@@ -21,54 +27,6 @@ import static sg.edu.nus.comp.cs4218.impl.util.StringUtils.STRING_NEWLINE;
  */
 public class SortApplication implements SortInterface {
     private final SortArgsParser sortArgsParser;
-    /**
-     * Inner class to define custom sorting behavior similar to shell sorting.
-     */
-    private class SortLikeShell implements Comparator<String> {
-        private final boolean isCaseIndependent;
-        private final boolean isFirstWordNumber;
-
-        public SortLikeShell(boolean isCaseIndependent, boolean isFirstWordNumber) {
-            this.isCaseIndependent = isCaseIndependent;
-            this.isFirstWordNumber = isFirstWordNumber;
-        }
-        /**
-         * Compares two strings based on custom sorting behavior.
-         *
-         * @param str1 The first string to compare.
-         * @param str2 The second string to compare.
-         * @return An integer representing the comparison result.
-         */
-        @Override
-        public int compare(String str1, String str2) {
-            String temp1 = isCaseIndependent ? str1.toLowerCase(Locale.ENGLISH) : str1;
-            String temp2 = isCaseIndependent ? str2.toLowerCase(Locale.ENGLISH) : str2;
-            int compareResult = 0;
-            // Extract the first group of numbers if possible.
-            if (isFirstWordNumber && !temp1.isEmpty() && !temp2.isEmpty()) {
-                String chunk1 = getChunk(temp1);
-                String chunk2 = getChunk(temp2);
-
-                boolean isChunk1Number = checkIfChunkIsNumber(chunk1);
-                boolean isChunk2Number = checkIfChunkIsNumber(chunk2);
-                if (!isChunk1Number && !isChunk2Number) { //NOPMD - valid for now for convenience if not can change to positive
-                    compareResult = temp1.compareTo(temp2);
-                } else if (isChunk1Number && isChunk2Number) {
-                    BigInteger int1 = new BigInteger(chunk1);
-                    BigInteger int2 = new BigInteger(chunk2);
-                    compareResult = int1.equals(int2) ? temp1.compareTo(temp2) : int1.compareTo(int2);
-                } else {
-                    BigInteger int1 = isChunk1Number ? new BigInteger(chunk1) : BigInteger.ZERO;
-                    BigInteger int2 = isChunk2Number ? new BigInteger(chunk2) : BigInteger.ZERO;
-                    compareResult = int1.equals(int2) ? temp1.compareTo(temp2) : int1.compareTo(int2);
-                }
-            } else {
-                compareResult = temp1.compareTo(temp2);
-            }
-
-            return compareResult;
-        }
-    }
 
     public SortApplication(SortArgsParser sortArgsParser) {
         this.sortArgsParser = sortArgsParser;
@@ -86,7 +44,7 @@ public class SortApplication implements SortInterface {
      */
     @Override
     public void run(String[] args, InputStream stdin, OutputStream stdout) throws AbstractApplicationException {
-        // Format: sort [-nrf] [FILES]
+        // Format: sort [-nrf] [-S SIZE] [--parallel=N] [FILES]
         if (stdin == null || stdout == null) {
             throw new SortException(ERR_NULL_STREAMS);
         }
@@ -98,29 +56,116 @@ public class SortApplication implements SortInterface {
         } catch (InvalidArgsException e) {
             throw new SortException(e);
         }
-        StringBuilder output = new StringBuilder();
-        if (sortArgsParser.isSortFromStdin()) {
-            output.append(sortFromStdin(sortArgsParser.isFirstWordNumber(), sortArgsParser.isReverseOrder(),
-                    sortArgsParser.isCaseIndependent(), stdin));
-        } else if (sortArgsParser.isSortFromFiles()) {
-            String[] files = sortArgsParser.getFileNames().toArray(new String[0]);
-            output.append(sortFromFiles(sortArgsParser.isFirstWordNumber(), sortArgsParser.isReverseOrder(),
-                    sortArgsParser.isCaseIndependent(), files));
-        } else {
+        if (!sortArgsParser.isSortFromStdin() && !sortArgsParser.isSortFromFiles()) {
             // This shouldn't happen but just put this for defensive programming
             throw new SortException(ERR_GENERAL);
         }
+        Long bufferSize = sortArgsParser.getBufferSize();
+        long memoryBudget = bufferSize == null ? ShellSettings.sortMemoryBudget : bufferSize;
+        Integer threads = sortArgsParser.getParallelism();
+        int parallelism = threads == null ? Math.max(1, ShellSettings.sortParallelism) : threads;
+        ByteLineComparator comparator = new ByteLineComparator(sortArgsParser.isCaseIndependent(),
+                sortArgsParser.isFirstWordNumber());
+        try (ExternalLineSorter sorter = new ExternalLineSorter(comparator, sortArgsParser.isReverseOrder(),
+                memoryBudget, parallelism)) {
+            if (sortArgsParser.isSortFromStdin()) {
+                addLines(sorter, stdin);
+            } else {
+                for (String file : sortArgsParser.getFileNames()) {
+                    InputStream input = openFile(file);//NOPMD - closed in IOUtils.closeInputStream(input) below
+                    addLines(sorter, input);
+                    try {
+                        IOUtils.closeInputStream(input);
+                    } catch (ShellException e) {
+                        throw new SortException(ERR_CLOSE_STREAMS);//NOPMD - throw here to get caught in SHell impl and show excpt msg
+                    }
+                }
+            }
+            writeSorted(sorter, stdout);
+        } catch (IOException e) {
+            throw new SortException(ERR_IO_EXCEPTION);//NOPMD - throw here to get caught in SHell impl and show excpt msg
+        }
+    }
+
+    /**
+     * Adds every line of the input to the sorter.
+     */
+    private void addLines(ExternalLineSorter sorter, InputStream input) throws SortException {
+        try {
+            sorter.addLines(input);
+        } catch (IOException e) {
+            throw new SortException(ERR_IO_EXCEPTION);//NOPMD - throw here to get caught in SHell impl and show excpt msg
+        }
+    }
 
+    /**
+     * Writes the sorted lines as they are merged, in the same format as {@link #convertSortedLinesToString}
+     * followed by a newline. Nothing is written if that format would be empty.
+     */
+    private void writeSorted(ExternalLineSorter sorter, OutputStream stdout) throws SortException {
+        OutputStream output = new BufferedOutputStream(stdout);
+        byte[] newline = STRING_NEWLINE.getBytes();
+        boolean[] isFirst = {true};
+        boolean[] isEmpty = {true};
         try {
-            if (!output.toString().isEmpty()) {
-                stdout.write(output.toString().getBytes());
-                stdout.write(STRING_NEWLINE.getBytes());
+            sorter.forEachSorted((bytes, offset, length) -> {
+                try {
+                    if (!isFirst[0]) {
+                        output.write(newline);
+                        isEmpty[0] = false;
+                    }
+                    output.write(bytes, offset, length);
+                } catch (IOException e) {
+                    // told apart from failures to read the sorted runs
+                    throw new UncheckedIOException(e);
+                }
+                isFirst[0] = false;
+                isEmpty[0] = isEmpty[0] && length == 0;
+            });
+        } catch (UncheckedIOException e) {
+            throw new SortException(ERR_WRITE_STREAM); //NOPMD - throw exception here to be caught in shelimpl to print excpt msg
+        } catch (IOException e) {
+            throw new SortException(ERR_IO_EXCEPTION);//NOPMD - throw here to get caught in SHell impl and show excpt msg
+        }
+        try {
+            if (!isEmpty[0]) {
+                output.write(newline);
             }
+            output.flush();
         } catch (IOException e) {
             throw new SortException(ERR_WRITE_STREAM); //NOPMD - throw exception here to be caught in shelimpl to print excpt msg
         }
     }
 
+    /**
+     * Checks that the file can be read and opens it.
+     *
+     * @throws SortException If the file is missing, a directory, not readable or cannot be opened.
+     */
+    private InputStream openFile(String file) throws SortException {
+        Path filePath;
+        try {
+            filePath = IOUtils.resolveFilePath(file);
+        } catch (IOException e) {
+            throw new SortException(file, ERR_FILE_NOT_FND); //NOPMD - throw here to get caught in ShellImpl and show msg
+        }
+        File node = filePath.toFile();
+        if (!node.exists()) {
+            throw new SortException(file, ERR_FILE_NOT_FND);
+        }
+        if (node.isDirectory()) {
+            throw new SortException(file, ERR_IS_DIR);
+        }
+        if (!node.canRead()) {
+            throw new SortException(file, ERR_NO_PERM);
+        }
+        try {
+            return IOUtils.openInputStream(file);
+        } catch (ShellException e) {
+            throw new SortException(ERR_READING_FILE);//NOPMD - throw here to get caught in SHell impl and show excpt msg
+        }
+    }
+
     /**
      * Returns string containing the orders of the lines of the specified file
      *
@@ -138,29 +183,7 @@ public class SortApplication implements SortInterface {
         }
         List<String> lines = new ArrayList<>();
         for (String file : fileNames) {
-            Path filePath;
-            try {
-                filePath = IOUtils.resolveFilePath(file);
-            } catch (IOException e) {
-                throw new SortException(file, ERR_FILE_NOT_FND); //NOPMD - throw here to get caught in ShellImpl and show msg
-            }
-            File node = filePath.toFile();
-            if (!node.exists()) {
-                throw new SortException(file, ERR_FILE_NOT_FND);
-            }
-            if (node.isDirectory()) {
-                throw new SortException(file, ERR_IS_DIR);
-            }
-            if (!node.canRead()) {
-                throw new SortException(file, ERR_NO_PERM);
-            }
-            InputStream input ; //NOPMD - closed in IOUtils.closeInputStream(input) below
-
-            try {
-                input = IOUtils.openInputStream(file);
-            } catch (ShellException e) {
-                throw new SortException(ERR_READING_FILE);//NOPMD - throw here to get caught in SHell impl and show excpt msg
-            }
+            InputStream input = openFile(file); //NOPMD - closed in IOUtils.closeInputStream(input) below
             try {
                 lines.addAll(IOUtils.getLinesFromInputStream(input));
             } catch (IOException e) {
@@ -203,7 +226,8 @@ public class SortApplication implements SortInterface {
     }
 
     /**
-     * Sorts the input ArrayList based on the given conditions. Invoking this function will mutate the ArrayList.
+     * Sorts the input ArrayList based on the given conditions. The lines are compared in UTF-8 with the same
+     * {@link ByteLineComparator} that run sorts with, so both sort in exactly the same order.
      *
      * @param isFirstWordNumber Boolean option to treat the first word of a line as a number
      * @param isReverseOrder    Boolean option to sort in reverse order
@@ -212,51 +236,19 @@ public class SortApplication implements SortInterface {
      */
     private List<String> sortInputString(Boolean isFirstWordNumber, Boolean isReverseOrder, Boolean isCaseIndependent,
                                          List<String> input) {
-        List<String> modifiableList = new ArrayList<>(input);
-        Collections.sort(modifiableList, new SortLikeShell(isCaseIndependent, isFirstWordNumber));
-        if (isReverseOrder) {
-            Collections.reverse(modifiableList);
+        PackedLines lines = new PackedLines();
+        for (String line : input) {
+            byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+            lines.add(bytes, 0, bytes.length);
         }
-        return modifiableList;
-    }
-
-    /**
-     * Extracts a chunk of numbers or non-numbers from str starting from index 0.
-     * If the first character is a digit, it will extract a chunk of numbers.
-     * If the first character is not a digit, it will return the original string.
-     *
-     * @param str Input string to read from
-     */
-    private String getChunk(String str) {
-        int startIndexLocal = 0;
-        StringBuilder chunk = new StringBuilder();
-        final int strLen = str.length();
-        char chr = str.charAt(startIndexLocal++);
-        chunk.append(chr);
-        final boolean extractDigit = checkIfChunkIsNumber(str);
-        if (!extractDigit) {
-            return chunk.toString();
+        ByteLineComparator comparator = new ByteLineComparator(isCaseIndependent, isFirstWordNumber);
+        List<String> sortedLines = new ArrayList<>(input.size());
+        for (int line : lines.sort(comparator, isReverseOrder, Math.max(1, ShellSettings.sortParallelism))) {
+            sortedLines.add(input.get(line));
         }
-        while (startIndexLocal < strLen) {
-            chr = str.charAt(startIndexLocal++);
-            if (!Character.isDigit(chr)) {
-                break;
-            }
-            chunk.append(chr);
-        }
-        return chunk.toString();
-    }
-    /**
-     * Checks if the given string represents a number.
-     *
-     * @param str The string to check.
-     * @return True if the string represents a number, false otherwise.
-     */
-    private boolean checkIfChunkIsNumber(String str) {
-        char chr = str.charAt(0);
-        return Character.isDigit(chr)
-                || (chr == '-' && str.length() > 1 && Character.isDigit(str.charAt(1)));
+        return sortedLines;
     }
+
     /**
      * Converts the sorted lines into a single string.
      *
@@ -264,18 +256,14 @@ public class SortApplication implements SortInterface {
      * @return The sorted lines as a single string.
      */
     private String convertSortedLinesToString(List<String> lines) {
-        String result = "";
+        StringBuilder result = new StringBuilder();
         for (int i = 0; i < lines.size(); i++) {
             String line = lines.get(i);
-            if (line.endsWith(STRING_NEWLINE)) {
-                result += line;
-            } else {
-                result += line;
-                if (i != lines.size() - 1) {
-                    result += STRING_NEWLINE;
-                }
+            result.append(line);
+            if (!line.endsWith(STRING_NEWLINE) && i != lines.size() - 1) {
+                result.append(STRING_NEWLINE);
             }
         }
-        return result;
+        return result.toString();
     }
 }
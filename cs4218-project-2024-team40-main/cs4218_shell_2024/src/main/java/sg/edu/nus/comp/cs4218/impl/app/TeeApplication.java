@@ -6,14 +6,20 @@ import sg.edu.nus.comp.cs4218.impl.parser.TeeArgsParser;
 import sg.edu.nus.comp.cs4218.exception.AbstractApplicationException;
 import sg.edu.nus.comp.cs4218.exception.TeeException;
 import sg.edu.nus.comp.cs4218.exception.InvalidArgsException;
-import sg.edu.nus.comp.cs4218.impl.util.IOUtils;
+import sg.edu.nus.comp.cs4218.impl.util.ChunkFileWriter;
+import sg.edu.nus.comp.cs4218.impl.util.LineReader;
+import sg.edu.nus.comp.cs4218.impl.util.ShellSettings;
 
 
 
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.Files;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Arrays;
 
@@ -26,6 +32,8 @@ import static java.nio.file.StandardOpenOption.WRITE;
  * Implementation of the 'tee' command application.
  */
 public class TeeApplication implements TeeInterface {
+    private static final int CHUNK_SIZE = 64 * 1024;
+
     private final TeeArgsParser teeArgsParser;
 
     public TeeApplication(TeeArgsParser teeArgsParser) {
@@ -57,17 +65,153 @@ public class TeeApplication implements TeeInterface {
         }
         isAppend = teeArgsParser.isAppend();
         List<String> files = teeArgsParser.getFileNames();
-        String[] filenames = files.toArray(new String[0]);
-        String outputToWrite = teeFromStdin(isAppend, stdin, filenames);
+        if (files != null && files.contains(null)) {
+            throw new TeeException(ERR_NULL_ARGS);
+        }
+        tee(isAppend, files, stdin, stdout);
+    }
+
+    /**
+     * Copies stdin to stdout and to every file other than "-", see {@link #teeChunks}.
+     *
+     * @param files The file names, or null for none.
+     */
+    private static void tee(boolean isAppend, List<String> files, InputStream stdin, OutputStream stdout)
+            throws TeeException {
+        List<Path> filePaths = new ArrayList<>();
+        if (files != null) {
+            for (String file : files) {
+                if (!"-".equals(file)) {
+                    filePaths.add(resolveFile(file));
+                }
+            }
+        }
+        List<ChunkFileWriter> fileWriters = new ArrayList<>();
+        Exception failure = null;
+        try {
+            int queueCapacity = Math.max(0, ShellSettings.teeQueueCapacity);
+            for (Path filePath : filePaths) {
+                fileWriters.add(openFile(isAppend, filePath, queueCapacity));
+            }
+            teeChunks(stdin, stdout, fileWriters, queueCapacity > 0);
+        } catch (TeeException | RuntimeException e) {
+            failure = e;
+            throw e;
+        } finally {
+            closeFiles(fileWriters, failure);
+        }
+    }
+
+    /**
+     * Copies the input to stdout and every file in chunks of up to {@link #CHUNK_SIZE} bytes, as soon as
+     * they are read, so that no more than one chunk is held at a time unless files are written from their
+     * own threads. The bytes are copied unchanged; an input not ending with a line terminator is followed by
+     * a line separator, and an empty input writes a single line separator to stdout only.
+     *
+     * @param isQueued Whether the files are written from their own threads, after the next chunk is read.
+     */
+    private static void teeChunks(InputStream stdin, OutputStream stdout, List<ChunkFileWriter> fileWriters,
+                           boolean isQueued) throws TeeException {
+        byte[] buffer = new byte[CHUNK_SIZE];
+        byte last = '\n';
+        boolean isEmpty = true;
+        int read;
+        while ((read = readChunk(stdin, buffer)) != -1) {
+            isEmpty = false;
+            last = buffer[read - 1];
+            writeToStdout(stdout, buffer, read);
+            if (!fileWriters.isEmpty()) {
+                // a queued chunk is written later, so it gets a copy of the bytes the buffer is read into
+                writeToFiles(fileWriters, isQueued ? ByteBuffer.wrap(Arrays.copyOf(buffer, read))
+                        : ByteBuffer.wrap(buffer, 0, read));
+            }
+        }
+        byte[] separator = System.lineSeparator().getBytes(StandardCharsets.UTF_8);
+        if (isEmpty) {
+            writeToStdout(stdout, separator, separator.length);
+        } else if (last != '\n' && last != '\r') {
+            writeToStdout(stdout, separator, separator.length);
+            writeToFiles(fileWriters, ByteBuffer.wrap(separator));
+        }
+    }
+
+    /**
+     * Reads the next chunk, failing like the line readers do on a stream that returns no bytes, which
+     * would otherwise be read again forever.
+     */
+    private static int readChunk(InputStream stdin, byte[] buffer) throws TeeException {
+        try {
+            int read = stdin.read(buffer, 0, buffer.length);
+            if (read == 0) {
+                throw new IOException(LineReader.ERR_ZERO_BYTES);
+            }
+            return read;
+        } catch (IOException e) {
+            throw new TeeException(ERR_READ_STREAM);//NOPMD - throw here to get caught in SHell impl and show excpt msg
+        }
+    }
+
+    /**
+     * Writes the chunk to stdout and flushes it, so the next command of a pipeline gets it straight away.
+     */
+    private static void writeToStdout(OutputStream stdout, byte[] chunk, int length) throws TeeException {
         try {
-            stdout.write(outputToWrite.getBytes());
-            stdout.write(System.lineSeparator().getBytes());
+            stdout.write(chunk, 0, length);
+            stdout.flush();
         } catch (IOException e) {
             throw new TeeException(ERR_IO_EXCEPTION);//NOPMD - throw here to get caught in SHell impl and show excpt msg
         }
+    }
 
+    private static void writeToFiles(List<ChunkFileWriter> fileWriters, ByteBuffer chunk) throws TeeException {
+        for (ChunkFileWriter fileWriter : fileWriters) {
+            try {
+                fileWriter.write(chunk);
+            } catch (IOException e) {
+                throw new TeeException(ERR_WRITING_FILE);//NOPMD - throw here to get caught in SHell impl and show excpt msg
+            }
+        }
+    }
 
+    private static ChunkFileWriter openFile(boolean isAppend, Path filePath, int queueCapacity)
+            throws TeeException {
+        try {
+            FileChannel channel = FileChannel.open(filePath, CREATE, WRITE, isAppend ? APPEND : TRUNCATE_EXISTING);
+            return new ChunkFileWriter(channel, queueCapacity, "tee-writer-" + filePath.getFileName());
+        } catch (IOException e) {
+            throw new TeeException(ERR_WRITING_FILE);//NOPMD - throw here to get caught in SHell impl and show excpt msg
+        }
+    }
+
+    /**
+     * Closes every file, waiting for the chunks still queued for it to be written.
+     *
+     * @param failure The exception tee is already failing with, or null. A file that could not be written is
+     *                added to it as suppressed, so it is not replaced.
+     * @throws TeeException if a file could not be written and tee is not already failing
+     */
+    private static void closeFiles(List<ChunkFileWriter> fileWriters, Exception failure) throws TeeException {
+        TeeException closeFailure = null;
+        for (ChunkFileWriter fileWriter : fileWriters) {
+            try {
+                fileWriter.close();
+            } catch (IOException e) {
+                if (closeFailure == null) {
+                    closeFailure = new TeeException(ERR_WRITING_FILE);
+                }
+                closeFailure.addSuppressed(e);
+            }
+        }
+        if (closeFailure == null) {
+            return;
+        }
+        if (failure != null) {
+            failure.addSuppressed(closeFailure);
+            return;
+        }
+        throw closeFailure;
     }
+
     /**
      * Reads from standard input and write to both the standard output and files
      *
@@ -89,29 +233,28 @@ public class TeeApplication implements TeeInterface {
         if (stdin == null) {
             throw new TeeException(ERR_NO_ISTREAM);
         }
-        List<String> input = getInputStream(stdin);
-        if (fileName != null ){
-            for (String file : fileName) {
-                if(!"-".equals(file)) {
-                    teeToFile(isAppend, input, file);
-                }
-            }
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        tee(isAppend, fileName == null ? null : Arrays.asList(fileName), stdin, output);
+        byte[] bytes = output.toByteArray();
+        // the output always ends with a line terminator, which is not part of the returned input
+        int length = bytes.length;
+        if (length > 0 && bytes[length - 1] == '\n') {
+            length--;
         }
-
-
-        return  String.join(System.lineSeparator(), input);
-    };
+        if (length > 0 && bytes[length - 1] == '\r') {
+            length--;
+        }
+        return new String(bytes, 0, length);
+    }
 
     /**
-     * Handles the writing of content to file if a file arguement is provided in tee Command
+     * Resolves a file argument against the current directory and checks that it can be written to.
      *
-     * @param isAppend Boolean option to append the standard input to the contents of the input files
-     * @param content    InputStream containing arguments from Stdin
-     * @param fileName Array of String of file names
-     * @return
-     * @throws TeeException if no filename specified, file is a directory, no write permission to file, invalid filepath
+     * @param fileName the file name given to tee
+     * @return Path of the file
+     * @throws TeeException if no filename specified, file is a directory or no write permission to file
      */
-    void teeToFile(boolean isAppend, List<String> content, String fileName) throws TeeException {
+    private static Path resolveFile(String fileName) throws TeeException {
         Path currentDir = Paths.get(Environment.currentDirectory);
 
         if (fileName.isEmpty()) {
@@ -127,32 +270,6 @@ public class TeeApplication implements TeeInterface {
         if (Files.exists(filePath) && !Files.isWritable(filePath)) {
             throw new TeeException(ERR_NO_PERM);
         }
-
-        try {
-            Files.write(filePath, content, CREATE, WRITE, isAppend ? APPEND : TRUNCATE_EXISTING);
-        } catch (IOException e) {
-            throw new TeeException(ERR_WRITING_FILE);//NOPMD - throw here to get caught in SHell impl and show excpt msg
-        }
-    }
-    /**
-     * Handles retrieveing of content from input stream
-     *
-     * @param stdin
-     * @return List<String> , the list of lines read from inputstream
-     * @throws TeeException if error reading inputstream, or null inputsream
-     */
-    List<String> getInputStream(InputStream stdin) throws TeeException {
-        try {
-
-            if (stdin == null) {
-                throw new TeeException(ERR_NULL_STREAMS);
-            }
-
-            return IOUtils.getLinesFromInputStream(stdin);
-        }
-        catch (IOException e){
-            throw new TeeException(ERR_READ_STREAM);//NOPMD - throw here to get caught in SHell impl and show excpt msg
-        }
-
+        return filePath;
     }
 }
@@ -4,14 +4,21 @@ import sg.edu.nus.comp.cs4218.app.UniqInterface;
 import sg.edu.nus.comp.cs4218.exception.*;
 import sg.edu.nus.comp.cs4218.impl.parser.UniqArgsParser;
 import sg.edu.nus.comp.cs4218.impl.util.IOUtils;
+import sg.edu.nus.comp.cs4218.impl.util.LineCounter;
+import sg.edu.nus.comp.cs4218.impl.util.PackedLines;
+import sg.edu.nus.comp.cs4218.impl.util.ShellSettings;
 
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import static sg.edu.nus.comp.cs4218.impl.util.ErrorConstants.*;
@@ -27,6 +34,7 @@ public class UniqApplication implements UniqInterface {
     private final UniqArgsParser uniqArgsParser;
     InputStream stdin;
     private final static String TAB = "\t";
+    private final static String ERR_COUNT_ALL_REPEATED = "printing all duplicated lines and repeat counts is meaningless";
 
     public UniqApplication(UniqArgsParser parser) {
         this.uniqArgsParser = parser;
@@ -45,7 +53,6 @@ public class UniqApplication implements UniqInterface {
      */
     @Override
     public void run(String[] args, InputStream stdin, OutputStream stdout) throws AbstractApplicationException{
-        String output;
         this.stdin = stdin;
 
         if (stdout == null || stdin == null) {
@@ -63,28 +70,141 @@ public class UniqApplication implements UniqInterface {
         boolean isCount = uniqArgsParser.isCount();
         boolean isRepeated = uniqArgsParser.isRepeated();
         boolean isAllRepeated = uniqArgsParser.isAllRepeated();
-        try {
-             output = uniqHelper(isCount, isRepeated, isAllRepeated, stdin,
-                    uniqArgsParser.getInputFile(), uniqArgsParser.getOutputFile());
-        }
-            catch (IOException e){
-                output = new UniqueException(ERR_FILE_NOT_FND).getMessage();
-            }
-
-            if (uniqArgsParser.getOutputFile() != null) {
-                return;
-            }
+        String inputFileName = uniqArgsParser.getInputFile();
+        String outputFileName = uniqArgsParser.getOutputFile();
+        if (!uniqArgsParser.isGlobal() && isSameFile(inputFileName, outputFileName)) {
+            // writing while reading would truncate the input, so read it all first
             try {
-                stdout.write(output.getBytes());
-                stdout.write(System.lineSeparator().getBytes());
+                uniqHelper(isCount, isRepeated, isAllRepeated, stdin, inputFileName, outputFileName);
             } catch (IOException e) {
-                throw new UniqueException(ERR_WRITE_STREAM);//NOPMD - throw here to get caught in shell impl
+                throw new UniqueException(ERR_FILE_NOT_FND);//NOPMD - throw here to get caught in shell impl
             }
+            return;
+        }
+        InputStream input = openInput(inputFileName);
+        try {
+            if (uniqArgsParser.isGlobal()) {
+                uniqGlobally(isCount, isRepeated, isAllRepeated, uniqArgsParser.isByCount(), input, outputFileName,
+                        stdout);
+            } else {
+                writeOutput(isCount, isRepeated, isAllRepeated, writer -> writer.writeGroups(input), outputFileName,
+                        stdout);
+            }
+        } finally {
+            closeInput(input);
+        }
+    }
 
+    /**
+     * Counts equal lines across the whole input, then writes each distinct line once with its count, in the
+     * order the lines are first seen or by count.
+     */
+    private void uniqGlobally(boolean isCount, boolean isRepeated, boolean isAllRepeated, boolean isByCount,
+                              InputStream input, String outputFileName, OutputStream stdout)
+            throws AbstractApplicationException {
+        GroupWriter.checkOptions(isCount, isAllRepeated);
+        try (LineCounter counter = new LineCounter(ShellSettings.uniqMemoryBudget)) {
+            counter.addLines(input);
+            writeOutput(isCount, isRepeated, isAllRepeated, writer -> counter.forEachCount(isByCount,
+                    writer::writeGroup), outputFileName, stdout);
+        } catch (IOException e) {
+            throw new UniqueException(ERR_IO_EXCEPTION);//NOPMD - throw here to get caught in shell impl
+        }
+    }
+
+    /**
+     * Writes the groups to the output file, or to stdout if there is none.
+     */
+    private void writeOutput(boolean isCount, boolean isRepeated, boolean isAllRepeated, GroupSource groups,
+                             String outputFileName, OutputStream stdout) throws AbstractApplicationException {
+        if (outputFileName == null) {
+            uniqToStream(isCount, isRepeated, isAllRepeated, groups, stdout);
+        } else {
+            uniqToOutputFile(isCount, isRepeated, isAllRepeated, groups, outputFileName);
+        }
+    }
+
+    /**
+     * Writes the groups to stdout as they end, followed by a newline.
+     */
+    private void uniqToStream(boolean isCount, boolean isRepeated, boolean isAllRepeated, GroupSource groups,
+                              OutputStream stdout) throws AbstractApplicationException {
+        OutputStream output = new BufferedOutputStream(stdout, IOUtils.TRANSFER_BUFFER_SIZE);
+        GroupWriter writer = new GroupWriter(isCount, isRepeated, isAllRepeated, output);
+        try {
+            groups.writeTo(writer);
+        } catch (IOException e) {
+            throw new UniqueException(writer.isOutputFailed() ? ERR_WRITE_STREAM : ERR_IO_EXCEPTION);//NOPMD - throw here to get caught in shell impl
+        }
+        try {
+            output.write(System.lineSeparator().getBytes());
+            output.flush();
+        } catch (IOException e) {
+            throw new UniqueException(ERR_WRITE_STREAM);//NOPMD - throw here to get caught in shell impl
+        }
+    }
+
+    /**
+     * Writes the groups to the output file as they end, without a newline after the last group, in the same
+     * manner as {@link #uniqToFile(String, String)}.
+     */
+    private void uniqToOutputFile(boolean isCount, boolean isRepeated, boolean isAllRepeated, GroupSource groups,
+                                  String outputFileName) throws AbstractApplicationException {
+        try {
+            Path filePath = IOUtils.resolveFilePath(outputFileName);
+            checkOutputFile(filePath);
+            try (OutputStream output = new BufferedOutputStream(
+                    Files.newOutputStream(filePath, CREATE, WRITE, TRUNCATE_EXISTING), IOUtils.TRANSFER_BUFFER_SIZE)) {
+                GroupWriter writer = new GroupWriter(isCount, isRepeated, isAllRepeated, output);
+                try {
+                    groups.writeTo(writer);
+                } catch (IOException e) {
+                    throw new UniqueException(writer.isOutputFailed() ? ERR_WRITING_FILE : ERR_IO_EXCEPTION);//NOPMD - throw here to get caught in shell impl
+                }
+            }
+        } catch (IOException e) {
+            throw new UniqueException(ERR_WRITING_FILE);//NOPMD - throw here to get caught in shell impl
+        }
+    }
 
+    /**
+     * Opens the input file, or returns stdin if there is none.
+     */
+    private InputStream openInput(String inputFileName) throws AbstractApplicationException {
+        if (inputFileName == null || inputFileName.equals("-")) {
+            return stdin;
+        }
+        checkInputFile(inputFileName);
+        try {
+            return IOUtils.openInputStream(inputFileName);
+        } catch (ShellException e) {
+            throw new UniqueException(ERR_FILE_NOT_FND);//NOPMD - throw here to get caught in shell impl
+        }
+    }
 
+    private void closeInput(InputStream input) throws UniqueException {
+        if (input == stdin) {
+            return;
+        }
+        try {
+            IOUtils.closeInputStream(input);
+        } catch (ShellException e) {
+            throw new UniqueException(ERR_CLOSE_STREAMS);//NOPMD - throw here to get caught in shell impl
+        }
+    }
 
+    private static boolean isSameFile(String inputFileName, String outputFileName) {
+        if (inputFileName == null || inputFileName.equals("-") || outputFileName == null) {
+            return false;
+        }
+        try {
+            Path outputPath = IOUtils.resolveFilePath(outputFileName);
+            return Files.exists(outputPath) && Files.isSameFile(IOUtils.resolveFilePath(inputFileName), outputPath);
+        } catch (IOException e) {
+            return false;
+        }
     }
+
      private String uniqHelper(boolean isCount, boolean isRepeated, boolean isAllRepeated, InputStream stdin,
                                 String inputFilename, String outputFileName) throws AbstractApplicationException, IOException {
         if (inputFilename == null || inputFilename.equals("-")) {
@@ -108,29 +228,11 @@ public class UniqApplication implements UniqInterface {
         if(inputFileName == null || isCount == null || isRepeated == null || isAllRepeated == null) {
             throw new UniqueException(ERR_NULL_ARGS);
         }
-        List<String> fileLines = new ArrayList<>();
         String output;
-        try{
-            File node = IOUtils.resolveFilePath(inputFileName).toFile();
-            if (!node.exists()) {
-                String errorMessage = String.format("%s: %s", inputFileName, ERR_FILE_NOT_FND);
-                throw new UniqueException(errorMessage);
-            }
-            if (node.isDirectory()) {
-                String errorMessage = String.format("error reading '%s' %s", inputFileName, ERR_IS_DIR_FILE);
-                throw new UniqueException(errorMessage);
-            }
-            if (!node.canRead()) {
-                throw new UniqueException(ERR_NO_PERM);
-            }
-        }
-        catch (IOException e){
-            throw new UniqueException(ERR_FILE_NOT_FND); //NOPMD - caught in shellimpl
-        }
+        checkInputFile(inputFileName);
         try (InputStream input = IOUtils.openInputStream(inputFileName)) {
-            fileLines.addAll(IOUtils.getLinesFromInputStream(input));
+            output = uniqToString(isCount, isRepeated, isAllRepeated, input);
             IOUtils.closeInputStream(input);
-            output = uniqInput(isCount, isRepeated, isAllRepeated, fileLines, outputFileName);
             if (outputFileName != null) {
                 uniqToFile(output, outputFileName);
 
@@ -147,6 +249,36 @@ public class UniqApplication implements UniqInterface {
 
         return  output;
     }
+    private void checkInputFile(String inputFileName) throws UniqueException {
+        try {
+            File node = IOUtils.resolveFilePath(inputFileName).toFile();
+            if (!node.exists()) {
+                String errorMessage = String.format("%s: %s", inputFileName, ERR_FILE_NOT_FND);
+                throw new UniqueException(errorMessage);
+            }
+            if (node.isDirectory()) {
+                String errorMessage = String.format("error reading '%s' %s", inputFileName, ERR_IS_DIR_FILE);
+                throw new UniqueException(errorMessage);
+            }
+            if (!node.canRead()) {
+                throw new UniqueException(ERR_NO_PERM);
+            }
+        }
+        catch (IOException e){
+            throw new UniqueException(ERR_FILE_NOT_FND); //NOPMD - caught in shellimpl
+        }
+    }
+
+    /**
+     * Returns the groups of the input joined by newlines, as {@link #uniqInput} does.
+     */
+    private String uniqToString(boolean isCount, boolean isRepeated, boolean isAllRepeated, InputStream input)
+            throws UniqueException, IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        new GroupWriter(isCount, isRepeated, isAllRepeated, output).writeGroups(input);
+        return output.toString(StandardCharsets.UTF_8);
+    }
+
     /**
      * Filters adjacent matching lines from INPUT_FILE or standard input and writes to an OUTPUT_FILE or to standard output.
      *
@@ -159,14 +291,12 @@ public class UniqApplication implements UniqInterface {
      */
     @Override
     public String uniqFromStdin(Boolean isCount, Boolean isRepeated, Boolean isAllRepeated, InputStream stdin, String outputFileName) throws AbstractApplicationException{
-        List<String> lines = new ArrayList<>();
         String output;
         if (stdin == null || isCount == null || isRepeated == null || isAllRepeated == null) {
             throw new UniqueException(ERR_NULL_ARGS);
         }
         try {
-             lines.addAll(IOUtils.getLinesFromInputStream(stdin));
-            output = uniqInput(isCount, isRepeated, isAllRepeated, lines, outputFileName);
+            output = uniqToString(isCount, isRepeated, isAllRepeated, stdin);
             if (outputFileName != null) {
                 uniqToFile(output, outputFileName);
             }
@@ -180,7 +310,6 @@ public class UniqApplication implements UniqInterface {
         return output;
     }
     public String uniqInput(Boolean isCount, Boolean isRepeated, Boolean isAllRepeated, List<String> input, String outputFileName) throws UniqueException{//NOPMD - for processing uniq lines
-        String output = "";
         List<String> lines = new ArrayList<>();
         List<Integer> count = new ArrayList<>();
         int counter = 0;
@@ -203,16 +332,24 @@ public class UniqApplication implements UniqInterface {
         }
         lines.add(current);
         count.add(counter);
+        return formatGroups(isCount, isRepeated, isAllRepeated, lines, count);
+    }
 
+    /**
+     * Formats each group of adjacent matching lines, given by its line and its number of lines, for the options.
+     */
+    private String formatGroups(boolean isCount, boolean isRepeated, boolean isAllRepeated, List<String> lines,
+                                List<Integer> count) throws UniqueException {
+        StringBuilder output = new StringBuilder();
         // different combination of flags, -D takes precedence
         if (isAllRepeated) {
             if (isCount) {
-                throw new UniqueException("printing all duplicated lines and repeat counts is meaningless");
+                throw new UniqueException(ERR_COUNT_ALL_REPEATED);
             } else {
                 for (int i = 0; i < lines.size(); i++) {
                     if (count.get(i) > 1) {
                         for (int j = 0; j < count.get(i); j++) {
-                            output += lines.get(i) + System.lineSeparator();
+                            output.append(lines.get(i)).append(System.lineSeparator());
                         }
                     }
                 }
@@ -221,39 +358,32 @@ public class UniqApplication implements UniqInterface {
             if (isCount) {
                 for (int i = 0; i < lines.size(); i++) {
                     if (count.get(i) > 1) {
-                        output += TAB + count.get(i) + " " + lines.get(i) + System.lineSeparator();
+                        output.append(TAB).append(count.get(i)).append(' ').append(lines.get(i)).append(System.lineSeparator());
                     }
                 }
             } else {
                 for (int i = 0; i < lines.size(); i++) {
                     if (count.get(i) > 1) {
-                        output += lines.get(i) + System.lineSeparator();
+                        output.append(lines.get(i)).append(System.lineSeparator());
                     }
                 }
             }
         } else if (isCount) {
             for (int i = 0; i < lines.size(); i++) {
-                output += TAB + count.get(i) + " " + lines.get(i) + System.lineSeparator();
+                output.append(TAB).append(count.get(i)).append(' ').append(lines.get(i)).append(System.lineSeparator());
             }
         } else { // default format
             for (int i = 0; i < lines.size(); i++) {
-                output += lines.get(i) + System.lineSeparator();
+                output.append(lines.get(i)).append(System.lineSeparator());
             }
         }
 
-        return output.length() > 0 ? output.substring(0, output.length() - System.lineSeparator().length()) : output;
+        return output.length() > 0 ? output.substring(0, output.length() - System.lineSeparator().length()) : "";
     }
     public void uniqToFile(String content, String fileName) throws UniqueException, IOException {
 
             Path filePath = IOUtils.resolveFilePath(fileName);
-
-            if (Files.isDirectory(filePath)) {
-                throw new UniqueException(ERR_IS_DIR);
-            }
-
-            if (Files.exists(filePath) && !Files.isWritable(filePath)) {
-                throw new UniqueException(ERR_NO_PERM);
-            }
+            checkOutputFile(filePath);
 
             try {
                 if (!Files.exists(filePath)) {
@@ -265,4 +395,139 @@ public class UniqApplication implements UniqInterface {
             }
 
     }
+
+    private static void checkOutputFile(Path filePath) throws UniqueException {
+        if (Files.isDirectory(filePath)) {
+            throw new UniqueException(ERR_IS_DIR);
+        }
+
+        if (Files.exists(filePath) && !Files.isWritable(filePath)) {
+            throw new UniqueException(ERR_NO_PERM);
+        }
+    }
+
+    /**
+     * Writes the groups of the input to a GroupWriter.
+     */
+    @FunctionalInterface
+    private interface GroupSource {
+        void writeTo(GroupWriter writer) throws UniqueException, IOException;
+    }
+
+    /**
+     * Groups adjacent matching lines in a single pass and writes each group as soon as the next one starts,
+     * so that only the line of the current group is held in memory. Lines are compared by their bytes and
+     * written unchanged.
+     * <p>
+     * As with {@link #uniqInput}, an empty line starts a group that the next line replaces, groups are separated
+     * by newlines, and empty input counts as one empty line that occurs 0 times. Groups counted across the whole
+     * input are written with {@link #writeGroup(byte[], int, int, long)}.
+     */
+    private static final class GroupWriter {
+        private static final byte[] NEW_LINE = System.lineSeparator().getBytes();
+
+        private final boolean isCount;
+        private final boolean isRepeated;
+        private final boolean isAllRepeated;
+        private final OutputStream output;
+        private byte[] current = new byte[128];
+        private int currentLength;
+        private int counter;
+        private boolean isWritten;
+        private boolean isOutputFailed;
+
+        GroupWriter(boolean isCount, boolean isRepeated, boolean isAllRepeated, OutputStream output) {
+            this.isCount = isCount;
+            this.isRepeated = isRepeated;
+            this.isAllRepeated = isAllRepeated;
+            this.output = output;
+        }
+
+        /**
+         * Writes the groups of the rest of the input.
+         *
+         * @throws UniqueException If both counts and all repeated lines are to be written.
+         * @throws IOException     If the input cannot be read or the output cannot be written to.
+         */
+        void writeGroups(InputStream input) throws UniqueException, IOException {
+            checkOptions(isCount, isAllRepeated);
+            PackedLines lines = new PackedLines();
+            lines.addLines(input, () -> {
+                addLine(lines.getBytes(0), lines.getOffset(0), lines.getLength(0));
+                lines.clear();
+            });
+            writeGroup();
+        }
+
+        private void addLine(byte[] bytes, int offset, int length) throws IOException {
+            if (currentLength == 0) {
+                setCurrent(bytes, offset, length);
+                return;
+            }
+            if (Arrays.equals(current, 0, currentLength, bytes, offset, offset + length)) {
+                counter++;
+            } else {
+                writeGroup();
+                setCurrent(bytes, offset, length);
+            }
+        }
+
+        private void setCurrent(byte[] bytes, int offset, int length) {
+            if (length > current.length) {
+                current = new byte[Math.max(length, 2 * current.length)];
+            }
+            System.arraycopy(bytes, offset, current, 0, length);
+            currentLength = length;
+            counter = 1;
+        }
+
+        /**
+         * Throws if both counts and all repeated lines are to be written.
+         */
+        static void checkOptions(boolean isCount, boolean isAllRepeated) throws UniqueException {
+            if (isAllRepeated && isCount) {
+                throw new UniqueException(ERR_COUNT_ALL_REPEATED);
+            }
+        }
+
+        private void writeGroup() throws IOException {
+            writeGroup(current, 0, currentLength, counter);
+        }
+
+        /**
+         * Writes a group of count equal lines for the options, -D taking precedence.
+         */
+        void writeGroup(byte[] bytes, int offset, int length, long count) throws IOException {
+            if (isAllRepeated) {
+                for (long i = 0; count > 1 && i < count; i++) {
+                    writeLine(bytes, offset, length, null);
+                }
+            } else if (!isRepeated || count > 1) {
+                writeLine(bytes, offset, length, isCount ? count : null);
+            }
+        }
+
+        /**
+         * Writes a line, prefixed by its count if the count is given.
+         */
+        private void writeLine(byte[] bytes, int offset, int length, Long count) throws IOException {
+            try {
+                if (isWritten) {
+                    output.write(NEW_LINE);
+                }
+                if (count != null) {
+                    output.write((TAB + count + " ").getBytes());
+                }
+                output.write(bytes, offset, length);
+                isWritten = true;
+            } catch (IOException e) {
+                isOutputFailed = true;
+                throw e;
+            }
+        }
+
+        boolean isOutputFailed() {
+            return isOutputFailed;
+        }
+    }
 }
@@ -6,11 +6,14 @@ import sg.edu.nus.comp.cs4218.exception.ShellException;
 import sg.edu.nus.comp.cs4218.exception.WcException;
 import sg.edu.nus.comp.cs4218.impl.parser.WcArgsParser;
 import sg.edu.nus.comp.cs4218.impl.util.IOUtils;
+import sg.edu.nus.comp.cs4218.impl.util.WordCounter;
 
 import java.io.File;
 import java.io.InputStream;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
@@ -24,9 +27,6 @@ import static sg.edu.nus.comp.cs4218.impl.util.StringUtils.STRING_NEWLINE;
 @SuppressWarnings("PMD.GodClass")
 public class WcApplication implements WcInterface {
     private static final String TAB = "\t";
-    private static final int LINES_INDEX = 0;
-    private static final int WORDS_INDEX = 1;
-    private static final int BYTES_INDEX = 2;
     public static final String WC_PREFIX = "wc: ";
     private final WcArgsParser parser;
 
@@ -102,9 +102,10 @@ public class WcApplication implements WcInterface {
         }
         List<String> result = new ArrayList<>();
         long[] totalCount = new long[3];
+        boolean isBytesOnly = isBytes && !isLines && !isWords;
         for (String file : fileName) {
             long[] count = new long[3];
-            if (!readFromFile(result, file, count)) {
+            if (!readFromFile(result, file, isBytesOnly, count)) {
                 continue;
             }
 
@@ -182,6 +183,7 @@ public class WcApplication implements WcInterface {
         long[] stdinCount = new long[3];
         long[] totalCount = new long[3];
         List<String> result = new ArrayList<>();
+        boolean isBytesOnly = isBytes && !isLines && !isWords;
         for (String file : fileName) {
             long[] count;
             if ("-".equals(file)) {
@@ -197,7 +199,7 @@ public class WcApplication implements WcInterface {
                 }
             } else {
                 count = new long[3];
-                if (!readFromFile(result, file, count)) {
+                if (!readFromFile(result, file, isBytesOnly, count)) {
                     continue;
                 }
                 counts.add(count);
@@ -235,7 +237,7 @@ public class WcApplication implements WcInterface {
     }
 
     /**
-     * Calculates a count report of lines, words, and bytes from the provided input stream.
+     * Calculates a count report of lines, words, and bytes from the provided input stream, see {@link WordCounter}.
      *
      * @param input The input stream from which to calculate the count report.
      * @return An array of long values containing the count report. The array has three elements:
@@ -248,38 +250,11 @@ public class WcApplication implements WcInterface {
         if (input == null) {
             throw new WcException(ERR_NULL_STREAMS);
         }
-        long[] result = new long[3]; // lines, words, bytes
-
-        byte[] data = new byte[1024];
-        int inRead;
-        boolean inWord = false;
         try {
-            while ((inRead = input.read(data, 0, data.length)) != -1) {
-                for (int i = 0; i < inRead; ++i) {
-                    if (Character.isWhitespace(data[i])) {
-                        // Use <newline> character here. (Ref: UNIX)
-                        if (data[i] == '\n') {
-                            ++result[LINES_INDEX];
-                        }
-                        if (inWord) {
-                            ++result[WORDS_INDEX];
-                        }
-
-                        inWord = false;
-                    } else {
-                        inWord = true;
-                    }
-                }
-                result[BYTES_INDEX] += inRead;
-            }
-            if (inWord) {
-                ++result[WORDS_INDEX]; // To handle last word
-            }
+            return WordCounter.count(input);
         } catch (IOException e) {
             throw new WcException(ERR_IO_EXCEPTION); //NOPMD - throw here to get caught in ShellImpl and show msg
         }
-
-        return result;
     }
 
     /**
@@ -314,8 +289,9 @@ public class WcApplication implements WcInterface {
      * Reads the content from the specified file, calculates the count report of lines, words, and bytes,
      * and updates the provided count array with the calculated values.
      *
-     * @param result The list to store any error messages or additional information.
-     * @param file   The path to the file to be read.
+     * @param result      The list to store any error messages or additional information.
+     * @param file        The path to the file to be read.
+     * @param isBytesOnly Whether only the number of bytes is needed.
      * @param count  An array to store the count report. It must have a length of 3, where:
      *               - Index 0: Number of lines.
      *               - Index 1: Number of words.
@@ -324,7 +300,7 @@ public class WcApplication implements WcInterface {
      * @throws WcException If an error occurs during file reading, including file not found, permission issues,
      *                     or if there are any errors during the counting process.
      */
-    private boolean readFromFile(List<String> result, String file, long... count) throws WcException {
+    private boolean readFromFile(List<String> result, String file, boolean isBytesOnly, long... count) throws WcException {
         File node;
         try {
             node = IOUtils.resolveFilePath(file).toFile();
@@ -345,8 +321,17 @@ public class WcApplication implements WcInterface {
             return false;
         }
 
-        try (InputStream input = IOUtils.openInputStream(file)){
-            long[] tempCount = getCountReport(input); // lines words bytes
+        if (isBytesOnly && node.isFile()) {
+            // the size of a regular file is its byte count, no need to read it
+            try {
+                count[WordCounter.BYTES_INDEX] = Files.size(node.toPath());
+            } catch (IOException e) {
+                throw new WcException(e);
+            }
+            return true;
+        }
+        try (FileChannel channel = IOUtils.openFileChannel(file)) {
+            long[] tempCount = WordCounter.count(channel); // lines words bytes
             System.arraycopy(tempCount, 0, count, 0, tempCount.length);
         } catch (IOException | ShellException e) {
             throw new WcException(e);
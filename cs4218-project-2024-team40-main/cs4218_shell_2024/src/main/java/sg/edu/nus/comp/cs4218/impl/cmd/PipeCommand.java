@@ -3,6 +3,9 @@ package sg.edu.nus.comp.cs4218.impl.cmd;
 import sg.edu.nus.comp.cs4218.Command;
 import sg.edu.nus.comp.cs4218.exception.AbstractApplicationException;
 import sg.edu.nus.comp.cs4218.exception.ShellException;
+import sg.edu.nus.comp.cs4218.impl.util.RingBufferPipe;
+import sg.edu.nus.comp.cs4218.impl.util.ShellSettings;
+import sg.edu.nus.comp.cs4218.impl.util.SpillBuffer;
 
 import java.io.*;
 import java.util.List;
@@ -12,23 +15,49 @@ import java.util.List;
  * or a Pipe Command and a Call Command separated with a pipe.
  * <p>
  * Command format: <Call> | <Call> or <Pipe> | <Call>
+ * <p>
+ * By default each Call Command runs to completion before the next one starts, its output held in a
+ * {@link SpillBuffer} that moves to a temporary file once it grows large. In concurrent mode
+ * (see {@link ShellSettings#concurrentPipes}) every Call Command runs on its own thread and the
+ * stages are connected by bounded {@link RingBufferPipe}s, so memory use does not grow with the size
+ * of the output.
  */
 public class PipeCommand implements Command {
     private final List<CallCommand> callCommands;
+    private final boolean isConcurrent;
 
     public PipeCommand(List<CallCommand> callCommands) {
+        this(callCommands, false);
+    }
+
+    /**
+     * @param callCommands The Call Commands making up the pipeline, in order.
+     * @param isConcurrent Whether to always run the stages concurrently, regardless of
+     *                     {@link ShellSettings#concurrentPipes}.
+     */
+    public PipeCommand(List<CallCommand> callCommands, boolean isConcurrent) {
         this.callCommands = callCommands;
+        this.isConcurrent = isConcurrent;
     }
 
     @Override
     public void evaluate(InputStream stdin, OutputStream stdout)
             throws AbstractApplicationException, ShellException, FileNotFoundException {
+        if (callCommands.size() > 1 && (isConcurrent || ShellSettings.concurrentPipes)) {
+            evaluateConcurrently(stdin, stdout);
+        } else {
+            evaluateSequentially(stdin, stdout);
+        }
+    }
+
+    private void evaluateSequentially(InputStream stdin, OutputStream stdout)
+            throws AbstractApplicationException, ShellException, FileNotFoundException {
         AbstractApplicationException absAppException = null;
         ShellException shellException = null;
         FileNotFoundException fileNotFndExptn = null;
 
         InputStream nextInputStream = stdin;
-        OutputStream nextOutputStream; //NOPMD - Unimplemented
+        SpillBuffer previousOutput = null;
 
         for (int i = 0; i < callCommands.size(); i++) {
             CallCommand callCommand = callCommands.get(i);
@@ -38,15 +67,15 @@ public class PipeCommand implements Command {
                 continue;
             }
 
+            SpillBuffer output = null;
             try {
-                nextOutputStream = new ByteArrayOutputStream();
                 if (i == callCommands.size() - 1) {
-                    nextOutputStream = stdout;
-                }
-                callCommand.evaluate(nextInputStream, nextOutputStream);
-
-                if (i != callCommands.size() - 1) {
-                    nextInputStream = new ByteArrayInputStream(((ByteArrayOutputStream) nextOutputStream).toByteArray()); //NOPMD - Unimplemented
+                    callCommand.evaluate(nextInputStream, stdout);
+                } else {
+                    // large outputs move to a temporary file instead of growing the heap
+                    output = new SpillBuffer();
+                    callCommand.evaluate(nextInputStream, output);
+                    nextInputStream = output.getInputStream();
                 }
             } catch (AbstractApplicationException e) {
                 absAppException = e;
@@ -54,9 +83,17 @@ public class PipeCommand implements Command {
                 shellException = e;
             } catch (FileNotFoundException e) {
                 fileNotFndExptn = e;
-            } // We catch here to satisfy req: "If an exception occurred in any of these parts, the
+            } catch (IOException e) {
+                shellException = new ShellException(e.getMessage());
+            } finally {
+                // the previous output has been fully consumed by this Call Command
+                closeQuietly(previousOutput);
+                previousOutput = output;
+            }
+            // We catch here to satisfy req: "If an exception occurred in any of these parts, the
             // exception is thrown, and the rest of the parts are terminated."
         }
+        closeQuietly(previousOutput);
 
         if (absAppException != null) {
             throw absAppException;
@@ -69,6 +106,106 @@ public class PipeCommand implements Command {
         }
     }
 
+    /**
+     * Runs every stage on its own thread, each stage writing into a bounded pipe read by the next.
+     * The last stage runs on the calling thread and writes straight to stdout.
+     * <p>
+     * A stage whose only failure is writing into a pipe that the next stage has already stopped
+     * reading from (a broken pipe) is not treated as failed, as the sequential mode would never have
+     * reported an error for it. Remaining exceptions are thrown with the same precedence as the
+     * sequential mode: AbstractApplicationException, then ShellException, then FileNotFoundException.
+     * A failed stage still closes its pipes, so the next stage sees the end of its input and the
+     * previous stage a broken pipe, and the rest of the pipeline finishes.
+     */
+    private void evaluateConcurrently(InputStream stdin, OutputStream stdout)
+            throws AbstractApplicationException, ShellException, FileNotFoundException {
+        int numStages = callCommands.size();
+        RingBufferPipe[] pipes = new RingBufferPipe[numStages - 1];
+        for (int i = 0; i < numStages - 1; i++) {
+            pipes[i] = new RingBufferPipe(ShellSettings.pipeBufferSize);
+        }
+
+        Exception[] exceptions = new Exception[numStages];
+        Thread[] threads = new Thread[numStages - 1];
+        for (int i = 0; i < numStages - 1; i++) {
+            final int stage = i;
+            threads[i] = new Thread(() -> runStage(stage, stdin, stdout, pipes, exceptions), "pipe-stage-" + i);
+            threads[i].setDaemon(true);
+            threads[i].start();
+        }
+        runStage(numStages - 1, stdin, stdout, pipes, exceptions);
+
+        for (Thread thread : threads) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ShellException(e);//NOPMD - throw here to get caught in SHell impl and show excpt msg
+            }
+        }
+
+        throwFirstException(exceptions);
+    }
+
+    private void runStage(int stage, InputStream stdin, OutputStream stdout, RingBufferPipe[] pipes,
+                          Exception... exceptions) {
+        boolean isFirst = stage == 0;
+        boolean isLast = stage == callCommands.size() - 1;
+        InputStream input = isFirst ? stdin : pipes[stage - 1].getInputStream();
+        OutputStream output = isLast ? stdout : pipes[stage].getOutputStream();
+        try {
+            callCommands.get(stage).evaluate(input, output);
+        } catch (AbstractApplicationException | ShellException | FileNotFoundException | RuntimeException e) {
+            if (isLast || !pipes[stage].isBroken()) {
+                exceptions[stage] = e;
+            }
+        } finally {
+            if (!isLast) {
+                // signal end of input to the next stage
+                closeQuietly(output);
+            }
+            if (!isFirst) {
+                // let the previous stage know nobody is reading its output anymore
+                closeQuietly(input);
+            }
+        }
+    }
+
+    private static void throwFirstException(Exception... exceptions)
+            throws AbstractApplicationException, ShellException, FileNotFoundException {
+        for (Exception e : exceptions) {
+            if (e instanceof AbstractApplicationException) {
+                throw (AbstractApplicationException) e;
+            }
+        }
+        for (Exception e : exceptions) {
+            if (e instanceof ShellException) {
+                throw (ShellException) e;
+            }
+        }
+        for (Exception e : exceptions) {
+            if (e instanceof FileNotFoundException) {
+                throw (FileNotFoundException) e;
+            }
+        }
+        for (Exception e : exceptions) {
+            if (e instanceof RuntimeException) {
+                throw (RuntimeException) e;
+            }
+        }
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        if (closeable == null) {
+            return;
+        }
+        try {
+            closeable.close();
+        } catch (IOException e) {
+            // Nothing more can be done with a pipe that fails to close
+        }
+    }
+
     @Override
     public void terminate() {
         // Unused for now
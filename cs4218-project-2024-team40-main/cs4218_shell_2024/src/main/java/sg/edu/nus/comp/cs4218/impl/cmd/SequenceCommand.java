@@ -4,8 +4,8 @@ import sg.edu.nus.comp.cs4218.Command;
 import sg.edu.nus.comp.cs4218.exception.AbstractApplicationException;
 import sg.edu.nus.comp.cs4218.exception.ExitException;
 import sg.edu.nus.comp.cs4218.exception.ShellException;
+import sg.edu.nus.comp.cs4218.impl.util.CommandOutputStream;
 
-import java.io.ByteArrayOutputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
@@ -19,6 +19,9 @@ import static sg.edu.nus.comp.cs4218.impl.util.StringUtils.STRING_NEWLINE;
  * A Sequence Command is a sub-command consisting of two Commands separated with a semicolon.
  * <p>
  * Command format: <Command> ; <Command>
+ * <p>
+ * Each Command writes straight to the output stream of the Sequence Command through a
+ * {@link CommandOutputStream}, so output appears as it is produced rather than after each Command.
  */
 public class SequenceCommand implements Command {
     private final List<Command> commands;
@@ -36,18 +39,17 @@ public class SequenceCommand implements Command {
         ExitException exitException = null;
 
         for (Command command : commands) {
+            CommandOutputStream outputStream = new CommandOutputStream(stdout);
             try {
-                OutputStream outputStream = new ByteArrayOutputStream();
                 command.evaluate(stdin, outputStream);
-
-                String outputLine = outputStream.toString();
-                if (!outputLine.isEmpty()) {
-                    printOutputLines(outputLine, stdout);
-                }
+                flushOutput(outputStream);
             } catch (ExitException e) {
+                flushOutput(outputStream);
                 exitException = e;
                 break;
             } catch (AbstractApplicationException | ShellException e) {
+                // output written before the failure comes first, then the error message
+                flushOutput(outputStream);
                 printOutputLines(e.getMessage() + STRING_NEWLINE, stdout);
             }
         }
@@ -66,6 +68,14 @@ public class SequenceCommand implements Command {
         return commands;
     }
 
+    private void flushOutput(OutputStream outputStream) throws ShellException {
+        try {
+            outputStream.flush();
+        } catch (IOException e) {
+            throw new ShellException(e.getMessage());//NOPMD - throw here to get caught in SHell impl and show excpt msg
+        }
+    }
+
     private void printOutputLines(String line, OutputStream stdout) throws ShellException {
         try {
             stdout.write(line.getBytes());
@@ -8,7 +8,8 @@ import java.util.List;
 import java.util.Set;
 import java.util.regex.Pattern;
 /**
- * Parses arguments for the `cut` command.
+ * Parses arguments for the `cut` command, which cuts by character (`-c`), byte (`-b`) or field (`-f`, with the
+ * fields separated by the `-d` delimiter).
  */
 public class CutArgsParser extends ArgsParser {
 
@@ -17,7 +18,13 @@ public class CutArgsParser extends ArgsParser {
 
     public static final char FLAG_CUT_BY_BYTE = 'b';
 
-    public static final String ILLEGAL_MSS_FLAG = "Either -c or -b flag must be present";
+    public static final char FLAG_CUT_BY_FIELD = 'f';
+
+    public static final String OPTION_DELIMITER = "-d";
+
+    public static final char DEFAULT_DELIMITER = '\t';
+
+    public static final String ILLEGAL_MSS_FLAG = "Either -c, -b or -f flag must be present";
 
 
     public static final String ILLEGAL_BOTH_FLAG = "Cannot use both -c and -b flags together";
@@ -29,10 +36,60 @@ public class CutArgsParser extends ArgsParser {
 
     public static final String ILLEGAL_DCS_RANGE = "Invalid decreasing range";
 
+    public static final String ILLEGAL_FIELD_FLAG = "Cannot use -f with -c or -b";
+
+    public static final String ILLEGAL_DELIMITER_MSG = "the delimiter must be a single character";
+
+    public static final String MISSING_DELIMITER_MSG = "option requires an argument -- d";
+
+    public static final String ILLEGAL_DELIMITER_FLAG =
+            "an input delimiter may be specified only when operating on fields";
+
+    private Character delimiter;
+
     public CutArgsParser() {
         super();
         legalFlags.add(FLAG_CUT_BY_CHAR);
         legalFlags.add(FLAG_CUT_BY_BYTE);
+        legalFlags.add(FLAG_CUT_BY_FIELD);
+    }
+
+    /**
+     * Separates the delimiter option, given as {@code -d DELIM} or {@code -dDELIM}, from the other arguments,
+     * which are parsed as flags, ranges and file names.
+     *
+     * @param args
+     */
+    @Override
+    public void parse(String... args) throws InvalidArgsException {
+        if (args == null) {
+            throw new InvalidArgsException(ILLEGAL_NULL_MSG);
+        }
+        List<String> otherArgs = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if (OPTION_DELIMITER.equals(arg)) {
+                if (i + 1 >= args.length) {
+                    throw new InvalidArgsException(MISSING_DELIMITER_MSG);
+                }
+                delimiter = parseDelimiter(args[++i]);
+            } else if (arg != null && arg.startsWith(OPTION_DELIMITER)) {
+                delimiter = parseDelimiter(arg.substring(OPTION_DELIMITER.length()));
+            } else {
+                otherArgs.add(arg);
+            }
+        }
+        super.parse(otherArgs.toArray(new String[0]));
+    }
+
+    /**
+     * Parses a delimiter, which must be a single US-ASCII character so that fields can be split on its byte.
+     */
+    private static char parseDelimiter(String value) throws InvalidArgsException {
+        if (value == null || value.length() != 1 || value.charAt(0) > Byte.MAX_VALUE) {
+            throw new InvalidArgsException(ILLEGAL_DELIMITER_MSG);
+        }
+        return value.charAt(0);
     }
 
     /**
@@ -53,6 +110,24 @@ public class CutArgsParser extends ArgsParser {
         return flags.contains(FLAG_CUT_BY_BYTE);
     }
 
+    /**
+     * Checks if cutting is by field.
+     *
+     * @return True if the `-f` flag is present, false otherwise.
+     */
+    public Boolean isCutByField() {
+        return flags.contains(FLAG_CUT_BY_FIELD);
+    }
+
+    /**
+     * Gets the character that separates fields.
+     *
+     * @return The character given with `-d`, or a tab if it is not given.
+     */
+    public char getDelimiter() {
+        return delimiter == null ? DEFAULT_DELIMITER : delimiter;
+    }
+
     /**
      * Checks if standard input is to be cut.
      *
@@ -117,8 +192,9 @@ public class CutArgsParser extends ArgsParser {
             throw new InvalidArgsException(exceptionMessage);
         }
 
-        // Check for at least one of -c or -b flags
-        if (!flags.contains(FLAG_CUT_BY_CHAR) && !flags.contains(FLAG_CUT_BY_BYTE)) {
+        // Check for at least one of -c, -b or -f flags
+        if (!flags.contains(FLAG_CUT_BY_CHAR) && !flags.contains(FLAG_CUT_BY_BYTE)
+                && !flags.contains(FLAG_CUT_BY_FIELD)) {
             throw new InvalidArgsException(ILLEGAL_MSS_FLAG);
         }
 
@@ -127,6 +203,15 @@ public class CutArgsParser extends ArgsParser {
             throw new InvalidArgsException(ILLEGAL_BOTH_FLAG);
         }
 
+        // Check for -f with -c or -b, and for a delimiter without -f
+        boolean isCutByField = flags.contains(FLAG_CUT_BY_FIELD);
+        if (isCutByField && (flags.contains(FLAG_CUT_BY_CHAR) || flags.contains(FLAG_CUT_BY_BYTE))) {
+            throw new InvalidArgsException(ILLEGAL_FIELD_FLAG);
+        }
+        if (!isCutByField && delimiter != null) {
+            throw new InvalidArgsException(ILLEGAL_DELIMITER_FLAG);
+        }
+
         // Check ranges is valid
         String ranges = nonFlagArgs.get(0);
         String regex = "^(\\d+(-\\d+)?)(,\\d+(-\\d+)?)*$";
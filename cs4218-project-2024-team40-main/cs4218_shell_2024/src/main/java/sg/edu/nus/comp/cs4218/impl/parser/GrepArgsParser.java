@@ -2,7 +2,9 @@ package sg.edu.nus.comp.cs4218.impl.parser;
 
 import sg.edu.nus.comp.cs4218.exception.InvalidArgsException;
 
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 /**
@@ -10,10 +12,15 @@ import java.util.Set;
  */
 public class GrepArgsParser extends ArgsParser {
     public static final String ILLEGAL_NO_PAT = "Missing pattern. A pattern must be specified.";
+    public static final String LONG_OPTION_ENGINE = "--engine";
+    public static final String ENGINE_JAVA = "java";
+    public static final String ENGINE_DFA = "dfa";
+    public static final String ILLEGAL_ENGINE_MSG = "invalid argument for --engine ";
     private final static char FLAG_IS_IGNORE = 'i';
     private final static char FLAG_IS_COUNT = 'c';
     private final static char FLAG_IS_PRNT_FILE = 'H';
 
+    private String engine;
 
     /**
      * Creates a new GrepArgsParser instance.
@@ -25,6 +32,42 @@ public class GrepArgsParser extends ArgsParser {
         legalFlags.add(FLAG_IS_PRNT_FILE);
     }
 
+    /**
+     * Separates the {@code --engine=ENGINE} option, where ENGINE is java or dfa, from the other arguments, which
+     * are parsed as flags, the pattern and file names.
+     *
+     * @param args
+     */
+    @Override
+    public void parse(String... args) throws InvalidArgsException {
+        if (args == null) {
+            throw new InvalidArgsException(ILLEGAL_NULL_MSG);
+        }
+        List<String> otherArgs = new ArrayList<>();
+        for (String arg : args) {
+            if (arg != null && arg.startsWith(LONG_OPTION_ENGINE + "=")) {
+                engine = parseEngine(arg.substring(LONG_OPTION_ENGINE.length() + 1));
+            } else {
+                otherArgs.add(arg);
+            }
+        }
+        super.parse(otherArgs.toArray(new String[0]));
+    }
+
+    /**
+     * Checks that engine is the name of a regex engine grep supports.
+     *
+     * @param engine java or dfa.
+     * @return The engine.
+     * @throws InvalidArgsException If engine is neither java nor dfa.
+     */
+    public static String parseEngine(String engine) throws InvalidArgsException {
+        if (ENGINE_JAVA.equals(engine) || ENGINE_DFA.equals(engine)) {
+            return engine;
+        }
+        throw new InvalidArgsException(ILLEGAL_ENGINE_MSG + "'" + engine + "'");
+    }
+
     /**
      * Checks for the existence of illegal flags. Presence of any illegal flags would result in an exception.
      *
@@ -72,6 +115,15 @@ public class GrepArgsParser extends ArgsParser {
         return flags.contains(FLAG_IS_PRNT_FILE);
     }
 
+    /**
+     * Gets the regex engine given with {@code --engine}.
+     *
+     * @return java or dfa, or null if not given.
+     */
+    public String getEngine() {
+        return engine;
+    }
+
     /**
      * Gets the pattern to search for.
      *
@@ -1,5 +1,8 @@
 package sg.edu.nus.comp.cs4218.impl.parser;
 
+import sg.edu.nus.comp.cs4218.exception.InvalidArgsException;
+
+import java.util.ArrayList;
 import java.util.List;
 /**
  * Parses arguments for the `sort` command.
@@ -13,6 +16,24 @@ public class SortArgsParser extends ArgsParser {
 
     public static final char FLAG_IS_NO_CASE = 'f';
 
+    public static final String OPTION_BUFFER_SIZE = "-S";
+
+    public static final String LONG_OPTION_BUFFER_SIZE = "--buffer-size=";
+
+    public static final String ILLEGAL_SIZE_MSG = "invalid -S argument ";
+
+    public static final String MISSING_SIZE_MSG = "option requires an argument -- S";
+
+    public static final String LONG_OPTION_PARALLEL = "--parallel=";
+
+    public static final String ILLEGAL_PARALLEL_MSG = "invalid number of threads ";
+
+    private static final String SIZE_UNITS = "BKMGT";
+
+    private Long bufferSize;
+
+    private Integer parallelism;
+
     /**
      * Constructs a new `SortArgsParser` object and sets up legal flags.
      */
@@ -23,6 +44,109 @@ public class SortArgsParser extends ArgsParser {
         legalFlags.add(FLAG_IS_NO_CASE);
     }
 
+    /**
+     * Separates the buffer size option, given as {@code -S SIZE}, {@code -SSIZE} or
+     * {@code --buffer-size=SIZE}, and the {@code --parallel=N} option from the other arguments, which are
+     * parsed as flags and file names.
+     *
+     * @param args
+     */
+    @Override
+    public void parse(String... args) throws InvalidArgsException {
+        if (args == null) {
+            throw new InvalidArgsException(ILLEGAL_NULL_MSG);
+        }
+        List<String> otherArgs = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if (OPTION_BUFFER_SIZE.equals(arg)) {
+                if (i + 1 >= args.length) {
+                    throw new InvalidArgsException(MISSING_SIZE_MSG);
+                }
+                bufferSize = parseSize(args[++i]);
+            } else if (arg != null && arg.startsWith(OPTION_BUFFER_SIZE)) {
+                bufferSize = parseSize(arg.substring(OPTION_BUFFER_SIZE.length()));
+            } else if (arg != null && arg.startsWith(LONG_OPTION_BUFFER_SIZE)) {
+                bufferSize = parseSize(arg.substring(LONG_OPTION_BUFFER_SIZE.length()));
+            } else if (arg != null && arg.startsWith(LONG_OPTION_PARALLEL)) {
+                parallelism = parseParallelism(arg.substring(LONG_OPTION_PARALLEL.length()));
+            } else {
+                otherArgs.add(arg);
+            }
+        }
+        super.parse(otherArgs.toArray(new String[0]));
+    }
+
+    /**
+     * Parses a size in the format of GNU sort: a number followed by an optional unit of b (bytes),
+     * K, M, G or T. A number without a unit is in kilobytes.
+     */
+    private static long parseSize(String size) throws InvalidArgsException {
+        String illegalMsg = ILLEGAL_SIZE_MSG + "'" + size + "'";
+        if (size.isEmpty()) {
+            throw new InvalidArgsException(illegalMsg);
+        }
+        char unit = Character.toUpperCase(size.charAt(size.length() - 1));
+        boolean hasUnit = !Character.isDigit(unit);
+        String digits = hasUnit ? size.substring(0, size.length() - 1) : size;
+        // b, K, M, G and T are each 1024 times the one before
+        int shift = 10 * SIZE_UNITS.indexOf(hasUnit ? unit : 'K');
+        if (shift < 0) {
+            throw new InvalidArgsException(illegalMsg);
+        }
+        if (digits.isEmpty() || !digits.chars().allMatch(Character::isDigit)) {
+            throw new InvalidArgsException(illegalMsg);
+        }
+        long value;
+        try {
+            value = Long.parseLong(digits);
+        } catch (NumberFormatException e) {
+            throw new InvalidArgsException(illegalMsg);//NOPMD - the size is part of the message, not the cause
+        }
+        if (value == 0 || value > (Long.MAX_VALUE >> shift)) {
+            throw new InvalidArgsException(illegalMsg);
+        }
+        return value << shift;
+    }
+
+    /**
+     * Parses the number of threads, which must be a positive integer.
+     */
+    private static int parseParallelism(String threads) throws InvalidArgsException {
+        String illegalMsg = ILLEGAL_PARALLEL_MSG + "'" + threads + "'";
+        if (threads.isEmpty() || !threads.chars().allMatch(Character::isDigit)) {
+            throw new InvalidArgsException(illegalMsg);
+        }
+        int value;
+        try {
+            value = Integer.parseInt(threads);
+        } catch (NumberFormatException e) {
+            throw new InvalidArgsException(illegalMsg);//NOPMD - the number is part of the message, not the cause
+        }
+        if (value == 0) {
+            throw new InvalidArgsException(illegalMsg);
+        }
+        return value;
+    }
+
+    /**
+     * Gets the memory budget given with the buffer size option.
+     *
+     * @return The number of bytes, or null if the option was not given.
+     */
+    public Long getBufferSize() {
+        return bufferSize;
+    }
+
+    /**
+     * Gets the number of threads given with the parallel option.
+     *
+     * @return The number of threads, or null if the option was not given.
+     */
+    public Integer getParallelism() {
+        return parallelism;
+    }
+
     /**
      * Checks if the first word of each line should be treated as a number.
      *
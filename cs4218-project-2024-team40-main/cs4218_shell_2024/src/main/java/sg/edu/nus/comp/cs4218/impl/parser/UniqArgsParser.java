@@ -1,5 +1,8 @@
 package sg.edu.nus.comp.cs4218.impl.parser;
 
+import sg.edu.nus.comp.cs4218.exception.InvalidArgsException;
+
+import java.util.ArrayList;
 import java.util.List;
 /**
  * This class is Uniq application's parser which encapsulates its own parsing details and
@@ -9,7 +12,13 @@ public class UniqArgsParser extends ArgsParser {
     public static final char FLAG_IS_COUNT = 'c';
     public static final char FLAG_IS_REPEATED = 'd';
     public static final char FLAG_IS_ALL_RPT = 'D';
+    public static final String LONG_OPTION_GLOBAL = "--global";
+    public static final String ORDER_FIRST_SEEN = "first";
+    public static final String ORDER_COUNT = "count";
+    public static final String ILLEGAL_ORDER_MSG = "invalid argument for --global ";
 
+    private boolean isGlobal;
+    private boolean isByCount;
 
     public UniqArgsParser() {
         super();
@@ -19,6 +28,46 @@ public class UniqArgsParser extends ArgsParser {
 
 
     }
+    /**
+     * Separates the {@code --global} option, given as {@code --global} or {@code --global=ORDER} where ORDER is
+     * first or count, from the other arguments, which are parsed as flags and file names.
+     *
+     * @param args
+     */
+    @Override
+    public void parse(String... args) throws InvalidArgsException {
+        if (args == null) {
+            throw new InvalidArgsException(ILLEGAL_NULL_MSG);
+        }
+        List<String> otherArgs = new ArrayList<>();
+        for (String arg : args) {
+            if (LONG_OPTION_GLOBAL.equals(arg)) {
+                isGlobal = true;
+            } else if (arg != null && arg.startsWith(LONG_OPTION_GLOBAL + "=")) {
+                isGlobal = true;
+                isByCount = parseOrder(arg.substring(LONG_OPTION_GLOBAL.length() + 1));
+            } else {
+                otherArgs.add(arg);
+            }
+        }
+        super.parse(otherArgs.toArray(new String[0]));
+    }
+
+    /**
+     * Parses the order of the lines counted with {@code --global}.
+     *
+     * @return Whether the lines are ordered by count.
+     */
+    private static boolean parseOrder(String order) throws InvalidArgsException {
+        if (ORDER_COUNT.equals(order)) {
+            return true;
+        }
+        if (ORDER_FIRST_SEEN.equals(order)) {
+            return false;
+        }
+        throw new InvalidArgsException(ILLEGAL_ORDER_MSG + "'" + order + "'");
+    }
+
     /**
      * Checks for the existence of legal option -c flags.
      * @return boolean whether is Append option present
@@ -40,6 +89,21 @@ public class UniqArgsParser extends ArgsParser {
     public Boolean isAllRepeated() {
         return flags.contains(FLAG_IS_ALL_RPT);
     }
+    /**
+     * Checks for the existence of the --global option, to count equal lines across the whole input instead of
+     * only adjacent ones.
+     * @return boolean whether is Global option present
+     */
+    public Boolean isGlobal() {
+        return isGlobal;
+    }
+    /**
+     * Checks whether lines counted with --global are ordered by count instead of the order they are first seen.
+     * @return boolean whether is Global option given with count order
+     */
+    public Boolean isByCount() {
+        return isByCount;
+    }
 
 
     /**
@@ -4,9 +4,9 @@ import sg.edu.nus.comp.cs4218.Command;
 import sg.edu.nus.comp.cs4218.exception.AbstractApplicationException;
 import sg.edu.nus.comp.cs4218.exception.ShellException;
 
-import java.io.ByteArrayOutputStream;
 import java.io.FileNotFoundException;
-import java.io.OutputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Stack;
@@ -194,13 +194,18 @@ public class ArgumentResolver {
             return "";
         }
 
-        OutputStream outputStream = new ByteArrayOutputStream();
         Command command = CommandBuilder.parseCommand(commandString, getAppRunner());
-        command.evaluate(System.in, outputStream);
-
-        // replace newlines with spaces
-        // fixed bug here: This adds a space to the output
-        return outputStream.toString().replace(STRING_NEWLINE, "");
+        try (SpillBuffer outputStream = new SpillBuffer()) {
+            command.evaluate(System.in, outputStream);
+
+            // replace newlines with spaces
+            // fixed bug here: This adds a space to the output
+            return outputStream.toString(Charset.defaultCharset()).replace(STRING_NEWLINE, "");
+        } catch (FileNotFoundException e) {
+            throw e;
+        } catch (IOException e) {
+            throw new ShellException(e.getMessage());//NOPMD - rethrown as ShellException to show the message
+        }
     }
 
     /**
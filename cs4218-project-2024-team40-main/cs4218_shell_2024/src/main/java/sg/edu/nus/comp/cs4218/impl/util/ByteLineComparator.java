@@ -0,0 +1,108 @@
+package sg.edu.nus.comp.cs4218.impl.util;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Compares UTF-8 encoded lines in the same order as {@link SortKey}, without decoding them.
+ * <p>
+ * ASCII bytes are compared directly, folded to lower case for {@code -f}, and the number at the start of a
+ * line is parsed from its ASCII digits for {@code -n}. Only when the lines first differ at a non-ASCII
+ * character, or a non-ASCII character may change the result, are both lines decoded and compared by their
+ * SortKeys, so that the order is exactly that of the decoded lines.
+ */
+public final class ByteLineComparator {
+    private static final long UNPARSED = Long.MIN_VALUE;
+    private static final int ASCII_LIMIT = 0x80;
+    private static final int CASE_OFFSET = 'a' - 'A';
+
+    private final boolean isCaseIndependent;
+    private final boolean isFirstWordNumber;
+
+    /**
+     * @param isCaseIndependent Boolean option to compare the lines in lower case
+     * @param isFirstWordNumber Boolean option to compare the number at the start of the lines first
+     */
+    public ByteLineComparator(boolean isCaseIndependent, boolean isFirstWordNumber) {
+        this.isCaseIndependent = isCaseIndependent;
+        this.isFirstWordNumber = isFirstWordNumber;
+    }
+
+    /**
+     * Compares the line of length1 bytes at offset1 of bytes1 with the line of length2 bytes at offset2 of
+     * bytes2.
+     *
+     * @return A negative number, zero or a positive number as the first line sorts before, together with or
+     *         after the second line.
+     */
+    public int compare(byte[] bytes1, int offset1, int length1, byte[] bytes2, int offset2, int length2) {
+        if (isFirstWordNumber && length1 > 0 && length2 > 0) {
+            long number1 = parseNumber(bytes1, offset1, length1);
+            long number2 = parseNumber(bytes2, offset2, length2);
+            if (number1 == UNPARSED || number2 == UNPARSED) {
+                return compareDecoded(bytes1, offset1, length1, bytes2, offset2, length2);
+            }
+            if (number1 != number2) {
+                return Long.compare(number1, number2);
+            }
+        }
+        int length = Math.min(length1, length2);
+        for (int i = 0; i < length; i++) {
+            int value1 = bytes1[offset1 + i] & 0xFF;
+            int value2 = bytes2[offset2 + i] & 0xFF;
+            // lower case of a non-ASCII character depends on the characters around it
+            if (value1 == value2 && (value1 < ASCII_LIMIT || !isCaseIndependent)) {
+                continue;
+            }
+            if (value1 >= ASCII_LIMIT || value2 >= ASCII_LIMIT) {
+                return compareDecoded(bytes1, offset1, length1, bytes2, offset2, length2);
+            }
+            if (isCaseIndependent) {
+                value1 = toLowerCase(value1);
+                value2 = toLowerCase(value2);
+            }
+            if (value1 != value2) {
+                return value1 - value2;
+            }
+        }
+        // the shorter line may end inside a character, which does not decode to a prefix of the longer line
+        if (length1 != length2 && length > 0 && (bytes1[offset1 + length - 1] & 0xFF) >= ASCII_LIMIT) {
+            return compareDecoded(bytes1, offset1, length1, bytes2, offset2, length2);
+        }
+        return length1 - length2;
+    }
+
+    /**
+     * Parses the number made of an optional "-" and ASCII digits at the start of a line, or 0 if there is none.
+     *
+     * @return The number, or UNPARSED if a non-ASCII character may be one of its digits or it is
+     *         too long for a long.
+     */
+    private static long parseNumber(byte[] bytes, int offset, int length) {
+        int end = offset + length;
+        int start = bytes[offset] == '-' ? offset + 1 : offset;
+        int index = start;
+        long value = 0;
+        while (index < end && bytes[index] >= '0' && bytes[index] <= '9') {
+            if (index - start == SortKey.MAX_LONG_DIGITS) {
+                return UNPARSED;
+            }
+            value = value * 10 + bytes[index] - '0';
+            index++;
+        }
+        if (index < end && (bytes[index] & 0xFF) >= ASCII_LIMIT) {
+            return UNPARSED;
+        }
+        return start == offset ? value : -value;
+    }
+
+    private static int toLowerCase(int value) {
+        return value >= 'A' && value <= 'Z' ? value + CASE_OFFSET : value;
+    }
+
+    private int compareDecoded(byte[] bytes1, int offset1, int length1, byte[] bytes2, int offset2, int length2) {
+        String line1 = new String(bytes1, offset1, length1, StandardCharsets.UTF_8);
+        String line2 = new String(bytes2, offset2, length2, StandardCharsets.UTF_8);
+        return SortKey.of(line1, isCaseIndependent, isFirstWordNumber)
+                .compareTo(SortKey.of(line2, isCaseIndependent, isFirstWordNumber));
+    }
+}
@@ -0,0 +1,77 @@
+package sg.edu.nus.comp.cs4218.impl.util;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+
+/**
+ * Finds bytes in a byte array eight at a time, by reading them as a long and testing all eight of them with a
+ * few arithmetic operations (SWAR, SIMD within a register).
+ * <p>
+ * XOR-ing the word with the byte repeated eight times turns the bytes equal to it into zero bytes. For a word
+ * x, {@code (x - 0x01..01) & ~x & 0x80..80} sets the high bit of every zero byte; it can also set it for a
+ * byte above a zero byte, because of the borrow, but never below the first one. Reading the word little endian
+ * makes that first zero byte the lowest set bit, so its index is exact.
+ */
+public final class ByteScanner {
+    private static final VarHandle LONGS = MethodHandles.byteArrayViewVarHandle(long[].class,
+            ByteOrder.LITTLE_ENDIAN);
+    private static final long ONES = 0x0101010101010101L;
+    private static final long HIGH_BITS = 0x8080808080808080L;
+    private static final long LINE_FEEDS = ONES * '\n';
+    private static final long CARRIAGE_RETURNS = ONES * '\r';
+
+    private ByteScanner() {
+    }
+
+    /**
+     * Finds the first occurrence of the value from from until to.
+     *
+     * @return The index of the occurrence, or -1 if there is none.
+     */
+    public static int indexOf(byte[] bytes, int from, int to, byte value) {
+        long pattern = ONES * (value & 0xFF);
+        int index = from;
+        for (; index <= to - Long.BYTES; index += Long.BYTES) {
+            long found = zeroBytes((long) LONGS.get(bytes, index) ^ pattern);
+            if (found != 0) {
+                return index + (Long.numberOfTrailingZeros(found) >>> 3);
+            }
+        }
+        for (; index < to; index++) {
+            if (bytes[index] == value) {
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Finds the first "\n" or "\r" from from until to.
+     *
+     * @return The index of the terminator, or -1 if there is none.
+     */
+    public static int indexOfLineTerminator(byte[] bytes, int from, int to) {
+        int index = from;
+        for (; index <= to - Long.BYTES; index += Long.BYTES) {
+            long word = (long) LONGS.get(bytes, index);
+            long found = zeroBytes(word ^ LINE_FEEDS) | zeroBytes(word ^ CARRIAGE_RETURNS);
+            if (found != 0) {
+                return index + (Long.numberOfTrailingZeros(found) >>> 3);
+            }
+        }
+        for (; index < to; index++) {
+            if (bytes[index] == '\n' || bytes[index] == '\r') {
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Sets the high bit of the zero bytes of the word, exactly for the lowest one.
+     */
+    private static long zeroBytes(long word) {
+        return (word - ONES) & ~word & HIGH_BITS;
+    }
+}
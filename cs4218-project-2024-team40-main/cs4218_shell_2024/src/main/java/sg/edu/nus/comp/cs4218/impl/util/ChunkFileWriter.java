@@ -0,0 +1,151 @@
+package sg.edu.nus.comp.cs4218.impl.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Writes chunks of bytes to the {@link FileChannel} of a single file, either directly or from a writer thread.
+ * <p>
+ * With a queue capacity of 0 every chunk is written before {@link #write} returns. Otherwise the chunks are
+ * handed to a writer thread through a queue holding at most that many of them, so a slow file only holds up
+ * the caller once its queue is full. A queued chunk is written later and must not be changed after it is
+ * given to {@link #write}. A failed write is reported by the next call to {@link #write} or by
+ * {@link #close}; the writer thread keeps taking chunks until then so the caller never waits on it forever.
+ */
+public final class ChunkFileWriter implements Closeable {
+    public static final String ERR_INVALID_CAPACITY = "Queue capacity must not be negative";
+
+    // marks the end of the chunks, compared by identity
+    private static final ByteBuffer END = ByteBuffer.allocate(0);
+
+    private final FileChannel channel;
+    private final BlockingQueue<ByteBuffer> queue;
+    private final Thread writer;
+    private volatile IOException failure;
+
+    /**
+     * @param channel       The channel of the file, opened for writing. It is closed by {@link #close}.
+     * @param queueCapacity Number of chunks waiting to be written before {@link #write} waits, 0 to write
+     *                      every chunk directly.
+     * @param name          Name of the writer thread.
+     */
+    public ChunkFileWriter(FileChannel channel, int queueCapacity, String name) {
+        if (queueCapacity < 0) {
+            throw new IllegalArgumentException(ERR_INVALID_CAPACITY);
+        }
+        this.channel = channel;
+        if (queueCapacity == 0) {
+            this.queue = null;
+            this.writer = null;
+        } else {
+            this.queue = new ArrayBlockingQueue<>(queueCapacity);
+            this.writer = new Thread(this::writeQueued, name);
+            this.writer.setDaemon(true);
+            this.writer.start();
+        }
+    }
+
+    /**
+     * Writes the remaining bytes of the chunk, or queues them when there is a writer thread. The position of
+     * the chunk is left unchanged, so the same chunk can be given to several writers.
+     *
+     * @throws IOException If this or an earlier chunk could not be written.
+     */
+    public void write(ByteBuffer chunk) throws IOException {
+        checkFailure();
+        if (queue == null) {
+            try {
+                writeFully(chunk.duplicate());
+            } catch (IOException e) {
+                failure = e;
+                throw e;
+            }
+            return;
+        }
+        try {
+            queue.put(chunk.duplicate());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException(e.getMessage());//NOPMD - the chunk was not written
+        }
+    }
+
+    /**
+     * Waits for the queued chunks to be written and closes the channel.
+     *
+     * @throws IOException If a chunk could not be written or the channel could not be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            if (writer != null) {
+                awaitWriter();
+            }
+        } finally {
+            channel.close();
+        }
+        checkFailure();
+    }
+
+    private void awaitWriter() {
+        // the writer has to finish before the channel is closed under it, even if this thread is interrupted
+        boolean isInterrupted = false;
+        boolean isEndQueued = false;
+        while (!isEndQueued) {
+            try {
+                queue.put(END);
+                isEndQueued = true;
+            } catch (InterruptedException e) {
+                isInterrupted = true;
+            }
+        }
+        while (writer.isAlive()) {
+            try {
+                writer.join();
+            } catch (InterruptedException e) {
+                isInterrupted = true;
+            }
+        }
+        if (isInterrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void writeQueued() {
+        try {
+            ByteBuffer chunk;
+            while ((chunk = queue.take()) != END) {
+                if (failure == null) {
+                    try {
+                        writeFully(chunk);
+                    } catch (IOException e) {
+                        failure = e;
+                    } catch (RuntimeException e) {
+                        // keep taking chunks, or the caller would wait on a full queue
+                        failure = new IOException(e);
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            failure = new InterruptedIOException(e.getMessage());
+        }
+    }
+
+    private void writeFully(ByteBuffer chunk) throws IOException {
+        while (chunk.hasRemaining()) {
+            channel.write(chunk);
+        }
+    }
+
+    private void checkFailure() throws IOException {
+        IOException exception = failure;
+        if (exception != null) {
+            throw exception;
+        }
+    }
+}
@@ -2,43 +2,24 @@ package sg.edu.nus.comp.cs4218.impl.util;
 
 import sg.edu.nus.comp.cs4218.Command;
 import sg.edu.nus.comp.cs4218.exception.ShellException;
-import sg.edu.nus.comp.cs4218.impl.cmd.CallCommand;
-import sg.edu.nus.comp.cs4218.impl.cmd.PipeCommand;
-import sg.edu.nus.comp.cs4218.impl.cmd.SequenceCommand;
-
-import java.util.LinkedList;
-import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 import static sg.edu.nus.comp.cs4218.impl.util.ErrorConstants.ERR_SYNTAX;
-import static sg.edu.nus.comp.cs4218.impl.util.StringUtils.*;
+import static sg.edu.nus.comp.cs4218.impl.util.StringUtils.STRING_NEWLINE;
 
-@SuppressWarnings({"PMD.ExcessiveMethodLength"})// - May split up method if time allows
 /**
  * Centalized class for building of command to be run
  */
 public final class CommandBuilder {
-    /**
-     * Regular expression for extracting valid arguments from the command string:
-     * (NO_QUOTE | SINGLE_QUOTE | NESTED_BACK_QUOTE | DOUBLE_QUOTE | BACK_QUOTE)+
-     * <p>
-     * The order matters because it affects the matching priority.
-     * <p>
-     * NO_QUOTE: [^'\"`|<>;\\s]+
-     * SINGLE_QUOTE: '[^']*'
-     * NESTED_BACK_QUOTE: \"([^\"`]*`.*?`[^\"`]*)+\"
-     * DOUBLE_QUOTE: \"[^\"]*\"
-     * BACK_QUOTE: `[^`]*`
-     */
-    private static final Pattern ARGUMENT_REGEX = Pattern
-            .compile("([^'\"`|<>;\\s]+|'[^']*'|\"([^\"`]*`.*?`[^\"`]*)+\"|\"[^\"]*\"|`[^`]*`)+");
+    private static final CommandPlanCache PLAN_CACHE = new CommandPlanCache();
 
     private CommandBuilder() {
     }
 
     /**
      * Parses and tokenizes the provided command string into command(s) and arguments.
+     * Tokens are produced by {@link CommandLexer}, and the resulting {@link CommandPlan} is cached by
+     * command string so repeated commands are not tokenized again. A new Command tree is built on every
+     * call, and arguments are only resolved when it is evaluated.
      * <p>
      * CallCommand takes in a list of tokens, PipeCommand takes in a list of CallCommands,
      * and SequenceCommand takes in a list of CallCommands / PipeCommands.
@@ -52,92 +33,19 @@ public final class CommandBuilder {
             throw new ShellException(ERR_SYNTAX);
         }
 
-        ArgumentResolver argumentResolver = new ArgumentResolver();
-        List<Command> cmdsForSequence = new LinkedList<>();
-        List<CallCommand> callCmdsForPipe = new LinkedList<>();
-        List<String> tokens = new LinkedList<>();
-
-        String commandSubstring = commandString;
-        while (!commandSubstring.isEmpty()) {
-            commandSubstring = commandSubstring.trim();
-            Matcher matcher = ARGUMENT_REGEX.matcher(commandSubstring);
-
-            // no valid arguments found
-            if (!matcher.find()) {
-                throw new ShellException(ERR_SYNTAX);
-            }
-
-            // found a valid argument at the start of the command substring
-            if (matcher.start() == 0) {
-                tokens.add(matcher.group());
-                commandSubstring = commandSubstring.substring(matcher.end());
-                continue;
-            }
-
-            // found a valid argument but not at the start of the command substring
-            char firstChar = commandSubstring.charAt(0);
-            commandSubstring = commandSubstring.substring(1);
-
-            switch (firstChar) {
-                //fix bug here must add token as well
-                case CHAR_REDIR_INPUT:
-                    tokens.add(String.valueOf(firstChar));
-                    break;
-                case CHAR_REDIR_OUTPUT:
-                    // add as a separate token on its own
-                    tokens.add(String.valueOf(firstChar));
-                    break;
-
-                case CHAR_PIPE:
-                    if (tokens.isEmpty()) {
-                        // cannot start a new command with pipe
-                        throw new ShellException(ERR_SYNTAX);
-                    } else {
-                        // add CallCommand as part of a PipeCommand
-                        callCmdsForPipe.add(new CallCommand(tokens, appRunner, argumentResolver,
-                                new IORedirectionHandlerFactory()));
-                        tokens = new LinkedList<>();
-                    }
-                    break;
-
-                case CHAR_SEMICOLON:
-                    if (tokens.isEmpty()) {
-                        // cannot start a new command with semicolon
-                        throw new ShellException(ERR_SYNTAX);
-                    } else if (callCmdsForPipe.isEmpty()) {
-                        // add CallCommand as part of a SequenceCommand
-                        cmdsForSequence.add(new CallCommand(tokens, appRunner, argumentResolver,
-                                new IORedirectionHandlerFactory()));
-                    } else {
-                        // add CallCommand as part of ongoing PipeCommand
-                        callCmdsForPipe.add(new CallCommand(tokens, appRunner, argumentResolver,
-                                new IORedirectionHandlerFactory()));
-
-                        // add PipeCommand as part of a SequenceCommand
-                        cmdsForSequence.add(new PipeCommand(callCmdsForPipe));
-                        callCmdsForPipe = new LinkedList<>();
-                    }
-                    tokens = new LinkedList();
-                    break;
-
-                default:
-                    // encountered a mismatched quote
-                    throw new ShellException(ERR_SYNTAX);
-            }
-        }
-
-        Command finalCommand = new CallCommand(tokens, appRunner, argumentResolver, new IORedirectionHandlerFactory());
-        if (!callCmdsForPipe.isEmpty()) {
-            // add CallCommand as part of ongoing PipeCommand
-            callCmdsForPipe.add((CallCommand) finalCommand);
-            finalCommand = new PipeCommand(callCmdsForPipe);
-        }
-        if (!cmdsForSequence.isEmpty()) {
-            // add CallCommand / PipeCommand as part of ongoing SequenceCommand
-            cmdsForSequence.add(finalCommand);
-            finalCommand = new SequenceCommand(cmdsForSequence);
+        CommandPlan plan = PLAN_CACHE.get(commandString);
+        if (plan == null) {
+            // invalid command strings throw here and are never cached
+            plan = CommandPlan.parse(commandString);
+            PLAN_CACHE.put(commandString, plan);
         }
+        return plan.toCommand(appRunner);
+    }
 
-        return finalCommand;
+    /**
+     * Returns the cache of parsed command plans, e.g. to read its counters or change its capacity.
+     */
+    public static CommandPlanCache getPlanCache() {
+        return PLAN_CACHE;
     }
 }
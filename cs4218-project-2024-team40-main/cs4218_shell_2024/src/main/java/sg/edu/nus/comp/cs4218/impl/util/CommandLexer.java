@@ -0,0 +1,288 @@
+package sg.edu.nus.comp.cs4218.impl.util;
+
+import sg.edu.nus.comp.cs4218.exception.ShellException;
+
+import java.util.Arrays;
+
+import static sg.edu.nus.comp.cs4218.impl.util.ErrorConstants.ERR_SYNTAX;
+import static sg.edu.nus.comp.cs4218.impl.util.StringUtils.*;
+
+/**
+ * Single-pass tokenizer for command strings.
+ * <p>
+ * Produces the same tokens as repeatedly matching the argument grammar
+ * (NO_QUOTE | SINGLE_QUOTE | NESTED_BACK_QUOTE | DOUBLE_QUOTE | BACK_QUOTE)+ at the start of the
+ * trimmed remainder of the command string, where
+ * <p>
+ * NO_QUOTE: [^'\"`|<>;\\s]+
+ * SINGLE_QUOTE: '[^']*'
+ * NESTED_BACK_QUOTE: \"([^\"`]*`.*?`[^\"`]*)+\"
+ * DOUBLE_QUOTE: \"[^\"]*\"
+ * BACK_QUOTE: `[^`]*`
+ * <p>
+ * The alternatives are tried in that order. The end of every quoted alternative is looked up in tables
+ * built once per command string, so no position is scanned more than a constant number of times and
+ * there is no backtracking.
+ * <p>
+ * Operators (<, >, | and ;) are returned as single character tokens. An argument token can never be a
+ * lone operator character, so {@link #isOperator(String)} tells the two apart.
+ */
+public class CommandLexer {
+    private static final int FAIL = -1;
+
+    private final String input;
+    private final int length;
+    private final int[] nextSingleQuote;
+    private final int[] nextDoubleQuote;
+    private final int[] nextBackQuote;
+    private final boolean[] hasArgumentFrom;
+    private int[] backQuotes;
+    private int[] nestedQuoteEnds;
+    private int position;
+
+    /**
+     * @param commandString Command string to tokenize. Must not be null.
+     */
+    public CommandLexer(String commandString) {
+        int end = commandString.length();
+        while (end > 0 && commandString.charAt(end - 1) <= CHAR_SPACE) {
+            end--;
+        }
+        input = commandString;
+        length = end;
+
+        nextSingleQuote = new int[length + 1];
+        nextDoubleQuote = new int[length + 1];
+        nextBackQuote = new int[length + 1];
+        hasArgumentFrom = new boolean[length + 1];
+        nextSingleQuote[length] = length;
+        nextDoubleQuote[length] = length;
+        nextBackQuote[length] = length;
+        for (int i = length - 1; i >= 0; i--) {
+            char chr = input.charAt(i);
+            nextSingleQuote[i] = chr == CHAR_SINGLE_QUOTE ? i : nextSingleQuote[i + 1];
+            nextDoubleQuote[i] = chr == CHAR_DOUBLE_QUOTE ? i : nextDoubleQuote[i + 1];
+            nextBackQuote[i] = chr == CHAR_BACK_QUOTE ? i : nextBackQuote[i + 1];
+            hasArgumentFrom[i] = hasArgumentFrom[i + 1] || isArgumentStart(i, chr);
+        }
+        skipSpaces();
+    }
+
+    /**
+     * Checks if the given token is an operator rather than an argument.
+     *
+     * @param token Token returned by {@link #nextToken()}.
+     * @return true if the token is one of <, >, | or ;
+     */
+    public static boolean isOperator(String token) {
+        return token.length() == 1 && isOperatorChar(token.charAt(0));
+    }
+
+    /**
+     * Checks if there are tokens left.
+     *
+     * @return true if {@link #nextToken()} can be called.
+     */
+    public boolean hasNextToken() {
+        return position < length;
+    }
+
+    /**
+     * Returns the next argument or operator token.
+     *
+     * @return The next token.
+     * @throws ShellException If a quote is mismatched, or an operator is not followed by any argument.
+     */
+    public String nextToken() throws ShellException {
+        int start = position;
+        int end = scanArgument(start);
+
+        if (end == start) {
+            char firstChar = input.charAt(start);
+            // operators are only accepted if some argument can still follow
+            if (!isOperatorChar(firstChar) || !hasArgumentFrom[start + 1]) {
+                throw new ShellException(ERR_SYNTAX);
+            }
+            end = start + 1;
+        }
+
+        position = end;
+        skipSpaces();
+        return input.substring(start, end);
+    }
+
+    private void skipSpaces() {
+        while (position < length && input.charAt(position) <= CHAR_SPACE) {
+            position++;
+        }
+    }
+
+    /**
+     * Returns the end (exclusive) of the longest argument starting at the given position.
+     */
+    private int scanArgument(int start) {
+        int current = start;
+        while (current < length) {
+            char chr = input.charAt(current);
+            int end;
+            if (isUnquotedChar(chr)) {
+                end = current + 1;
+            } else if (chr == CHAR_SINGLE_QUOTE) {
+                end = endOfQuote(nextSingleQuote, current);
+            } else if (chr == CHAR_DOUBLE_QUOTE) {
+                end = endOfNestedBackQuote(current);
+                if (end == FAIL) {
+                    end = endOfQuote(nextDoubleQuote, current);
+                }
+            } else if (chr == CHAR_BACK_QUOTE) {
+                end = endOfQuote(nextBackQuote, current);
+            } else {
+                end = FAIL;
+            }
+            if (end == FAIL) {
+                break;
+            }
+            current = end;
+        }
+        return current;
+    }
+
+    private int endOfQuote(int[] nextQuote, int openQuote) {
+        int closeQuote = nextQuote[openQuote + 1];
+        return closeQuote < length ? closeQuote + 1 : FAIL;
+    }
+
+    /**
+     * Returns the end of a NESTED_BACK_QUOTE argument opening at the given double quote, or FAIL.
+     * <p>
+     * The first back quote after the opening double quote must come before any double quote. The end
+     * is then the double quote chosen by the first successful attempt of the lazy <code>.*?</code>
+     * starting at that back quote, which {@link #computeNestedQuoteEnds()} precomputes.
+     */
+    private int endOfNestedBackQuote(int openQuote) {
+        int firstBackQuote = nextBackQuote[openQuote + 1];
+        if (firstBackQuote >= length || nextDoubleQuote[openQuote + 1] < firstBackQuote) {
+            return FAIL;
+        }
+        if (nestedQuoteEnds == null) {
+            computeNestedQuoteEnds();
+        }
+        int closeQuote = nestedQuoteEnds[Arrays.binarySearch(backQuotes, firstBackQuote)];
+        return closeQuote == FAIL ? FAIL : closeQuote + 1;
+    }
+
+    /**
+     * For every back quote k, computes the closing double quote reached when the group
+     * <code>`.*?`[^"`]*</code> starts at k, or FAIL.
+     * <p>
+     * The lazy <code>.*?</code> tries the following back quotes m in order, stopping at the first line
+     * terminator. After back quote m, <code>[^"`]*</code> runs up to the next double or back quote: a
+     * double quote closes the argument, a back quote starts the group again. So the result for k is the
+     * first successful result among the reachable m, and each m succeeds with the double quote in the gap
+     * after it, or else with the result for back quote m + 1. Both only depend on later back quotes, so
+     * one right to left pass is enough.
+     */
+    private void computeNestedQuoteEnds() {
+        int count = 0;
+        for (int i = nextBackQuote[0]; i < length; i = nextBackQuote[i + 1]) {
+            count++;
+        }
+        backQuotes = new int[count];
+        for (int i = nextBackQuote[0], k = 0; i < length; i = nextBackQuote[i + 1], k++) {
+            backQuotes[k] = i;
+        }
+
+        // lastReachable[k]: last back quote reachable from k without crossing a line terminator
+        int[] lastReachable = new int[count];
+        int reachable = 0;
+        int lineTerminator = -1;
+        for (int k = 0; k < count; k++) {
+            if (lineTerminator < backQuotes[k]) {
+                lineTerminator = nextLineTerminator(backQuotes[k] + 1);
+            }
+            reachable = Math.max(reachable, k);
+            while (reachable + 1 < count && backQuotes[reachable + 1] < lineTerminator) {
+                reachable++;
+            }
+            lastReachable[k] = reachable;
+        }
+
+        nestedQuoteEnds = new int[count];
+        int firstSuccess = -1;
+        int firstSuccessEnd = FAIL;
+        for (int k = count - 1; k >= 0; k--) {
+            nestedQuoteEnds[k] = firstSuccess != -1 && firstSuccess <= lastReachable[k] ? firstSuccessEnd : FAIL;
+
+            int gapEnd = k + 1 < count ? backQuotes[k + 1] : length;
+            int doubleQuote = nextDoubleQuote[backQuotes[k] + 1];
+            int end;
+            if (doubleQuote < gapEnd) {
+                end = doubleQuote;
+            } else if (k + 1 < count) {
+                end = nestedQuoteEnds[k + 1];
+            } else {
+                end = FAIL;
+            }
+            if (end != FAIL) {
+                firstSuccess = k;
+                firstSuccessEnd = end;
+            }
+        }
+    }
+
+    private int nextLineTerminator(int from) {
+        for (int i = from; i < length; i++) {
+            if (isLineTerminator(input.charAt(i))) {
+                return i;
+            }
+        }
+        return length;
+    }
+
+    /**
+     * Checks if an argument can start at the given position.
+     */
+    private boolean isArgumentStart(int index, char chr) {
+        switch (chr) {
+            case CHAR_SINGLE_QUOTE:
+                return nextSingleQuote[index + 1] < length;
+            case CHAR_DOUBLE_QUOTE:
+                return nextDoubleQuote[index + 1] < length;
+            case CHAR_BACK_QUOTE:
+                return nextBackQuote[index + 1] < length;
+            default:
+                return isUnquotedChar(chr);
+        }
+    }
+
+    private static boolean isOperatorChar(char chr) {
+        return chr == CHAR_REDIR_INPUT || chr == CHAR_REDIR_OUTPUT || chr == CHAR_PIPE || chr == CHAR_SEMICOLON;
+    }
+
+    /**
+     * Characters of NO_QUOTE: anything but quotes, operators and whitespace (\\s).
+     */
+    private static boolean isUnquotedChar(char chr) {
+        switch (chr) {
+            case CHAR_SINGLE_QUOTE:
+            case CHAR_DOUBLE_QUOTE:
+            case CHAR_BACK_QUOTE:
+            case CHAR_SPACE:
+            case CHAR_TAB:
+            case '\n':
+            case '\u000B':
+            case '\f':
+            case '\r':
+                return false;
+            default:
+                return !isOperatorChar(chr);
+        }
+    }
+
+    /**
+     * Characters not matched by the regex dot.
+     */
+    private static boolean isLineTerminator(char chr) {
+        return chr == '\n' || chr == '\r' || chr == '\u0085' || chr == '\u2028' || chr == '\u2029';
+    }
+}
@@ -0,0 +1,94 @@
+package sg.edu.nus.comp.cs4218.impl.util;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import static sg.edu.nus.comp.cs4218.impl.util.ErrorConstants.ERR_NULL_STREAMS;
+
+/**
+ * Output stream through which a sub-command writes directly to its parent's output stream.
+ * <p>
+ * Small writes are gathered in a bounded buffer and passed on when it fills up, when a write larger
+ * than the buffer arrives, or on {@link #flush()}, so at most one buffer of output is ever held.
+ * Closing the stream only flushes it; the parent stream stays open for the commands that follow.
+ */
+public class CommandOutputStream extends OutputStream {
+    public static final int DEFAULT_BUFFER_SIZE = 8 * 1024;
+
+    private final OutputStream parent;
+    private final byte[] buffer;
+    private int count;
+
+    /**
+     * @param parent Output stream the buffered bytes are written to.
+     */
+    public CommandOutputStream(OutputStream parent) {
+        this(parent, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * @param parent     Output stream the buffered bytes are written to.
+     * @param bufferSize Maximum number of bytes held before they are written to the parent.
+     */
+    public CommandOutputStream(OutputStream parent, int bufferSize) {
+        super();
+        if (parent == null) {
+            throw new IllegalArgumentException(ERR_NULL_STREAMS);
+        }
+        this.parent = parent;
+        this.buffer = new byte[Math.max(1, bufferSize)];
+    }
+
+    @Override
+    public void write(int value) throws IOException {
+        if (count == buffer.length) {
+            writeBuffer();
+        }
+        buffer[count++] = (byte) value;
+    }
+
+    @Override
+    public void write(byte[] bytes, int offset, int length) throws IOException {
+        if (length >= buffer.length) {
+            // nothing to gain from copying, pass large writes straight through
+            writeBuffer();
+            parent.write(bytes, offset, length);
+            return;
+        }
+        if (length > buffer.length - count) {
+            writeBuffer();
+        }
+        System.arraycopy(bytes, offset, buffer, count, length);
+        count += length;
+    }
+
+    /**
+     * Writes the buffered bytes to the parent stream and flushes it.
+     *
+     * @throws IOException If the parent stream cannot be written to.
+     */
+    @Override
+    public void flush() throws IOException {
+        writeBuffer();
+        parent.flush();
+    }
+
+    /**
+     * Flushes the buffered bytes without closing the parent stream.
+     *
+     * @throws IOException If the parent stream cannot be written to.
+     */
+    @Override
+    public void close() throws IOException {
+        flush();
+    }
+
+    private void writeBuffer() throws IOException {
+        if (count == 0) {
+            return;
+        }
+        int length = count;
+        count = 0;
+        parent.write(buffer, 0, length);
+    }
+}
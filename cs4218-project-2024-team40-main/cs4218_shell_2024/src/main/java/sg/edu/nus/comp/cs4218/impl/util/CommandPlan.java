@@ -0,0 +1,135 @@
+package sg.edu.nus.comp.cs4218.impl.util;
+
+import sg.edu.nus.comp.cs4218.Command;
+import sg.edu.nus.comp.cs4218.exception.ShellException;
+import sg.edu.nus.comp.cs4218.impl.cmd.CallCommand;
+import sg.edu.nus.comp.cs4218.impl.cmd.PipeCommand;
+import sg.edu.nus.comp.cs4218.impl.cmd.SequenceCommand;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+
+import static sg.edu.nus.comp.cs4218.impl.util.ErrorConstants.ERR_SYNTAX;
+import static sg.edu.nus.comp.cs4218.impl.util.StringUtils.*;
+
+/**
+ * Immutable result of tokenizing a command string: a sequence of pipelines, each pipeline a list of
+ * Call Commands, each Call Command a list of unresolved tokens.
+ * <p>
+ * A plan holds no ApplicationRunner and performs no argument resolution, so it can be shared and
+ * turned into a fresh Command tree any number of times. Quoting, globbing and command substitution
+ * still happen when the Command is evaluated.
+ */
+public final class CommandPlan {
+    private final List<List<List<String>>> sequence;
+
+    private CommandPlan(List<List<List<String>>> sequence) {
+        this.sequence = sequence;
+    }
+
+    /**
+     * Tokenizes the command string into a plan.
+     *
+     * @param commandString Command string, already checked to be non-blank and without newlines.
+     * @return The parsed plan.
+     * @throws ShellException If the provided command string has an invalid syntax.
+     */
+    public static CommandPlan parse(String commandString) throws ShellException {
+        List<List<List<String>>> sequence = new ArrayList<>();
+        List<List<String>> pipeline = new ArrayList<>();
+        List<String> tokens = new ArrayList<>();
+
+        CommandLexer lexer = new CommandLexer(commandString);
+        if (!lexer.hasNextToken()) {
+            throw new ShellException(ERR_SYNTAX);
+        }
+
+        while (lexer.hasNextToken()) {
+            String token = lexer.nextToken();
+
+            if (!CommandLexer.isOperator(token)) {
+                tokens.add(token);
+                continue;
+            }
+
+            switch (token.charAt(0)) {
+                case CHAR_REDIR_INPUT:
+                case CHAR_REDIR_OUTPUT:
+                    // add as a separate token on its own
+                    tokens.add(token);
+                    break;
+
+                case CHAR_PIPE:
+                    if (tokens.isEmpty()) {
+                        // cannot start a new command with pipe
+                        throw new ShellException(ERR_SYNTAX);
+                    }
+                    pipeline.add(List.copyOf(tokens));
+                    tokens = new ArrayList<>();
+                    break;
+
+                case CHAR_SEMICOLON:
+                    if (tokens.isEmpty()) {
+                        // cannot start a new command with semicolon
+                        throw new ShellException(ERR_SYNTAX);
+                    }
+                    pipeline.add(List.copyOf(tokens));
+                    sequence.add(List.copyOf(pipeline));
+                    pipeline = new ArrayList<>();
+                    tokens = new ArrayList<>();
+                    break;
+
+                default:
+                    // unreachable, CommandLexer only returns the operators above
+                    throw new ShellException(ERR_SYNTAX);
+            }
+        }
+
+        pipeline.add(List.copyOf(tokens));
+        sequence.add(List.copyOf(pipeline));
+        return new CommandPlan(List.copyOf(sequence));
+    }
+
+    /**
+     * Builds a new Command tree for this plan.
+     * <p>
+     * CallCommand takes in a list of tokens, PipeCommand takes in a list of CallCommands,
+     * and SequenceCommand takes in a list of CallCommands / PipeCommands.
+     *
+     * @param appRunner ApplicationRunner used by every Call Command of the tree.
+     * @return Final command to be evaluated.
+     * @throws ShellException If a command cannot be created.
+     */
+    public Command toCommand(ApplicationRunner appRunner) throws ShellException {
+        ArgumentResolver argumentResolver = new ArgumentResolver();
+        List<Command> cmdsForSequence = new LinkedList<>();
+
+        for (List<List<String>> pipeline : sequence) {
+            List<CallCommand> callCmdsForPipe = new LinkedList<>();
+            for (List<String> tokens : pipeline) {
+                callCmdsForPipe.add(new CallCommand(tokens, appRunner, argumentResolver,
+                        new IORedirectionHandlerFactory()));
+            }
+            if (callCmdsForPipe.size() == 1) {
+                cmdsForSequence.add(callCmdsForPipe.get(0));
+            } else {
+                cmdsForSequence.add(new PipeCommand(callCmdsForPipe));
+            }
+        }
+
+        if (cmdsForSequence.size() == 1) {
+            return cmdsForSequence.get(0);
+        }
+        return new SequenceCommand(cmdsForSequence);
+    }
+
+    /**
+     * Returns the tokens of every Call Command, grouped by pipeline.
+     *
+     * @return Unmodifiable list of pipelines.
+     */
+    public List<List<List<String>>> getSequence() {
+        return sequence;
+    }
+}
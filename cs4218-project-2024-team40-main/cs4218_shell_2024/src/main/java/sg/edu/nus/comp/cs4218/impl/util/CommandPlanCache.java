@@ -0,0 +1,151 @@
+package sg.edu.nus.comp.cs4218.impl.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded, thread-safe least recently used cache from command strings to their {@link CommandPlan}.
+ * A capacity of 0 disables caching.
+ * <p>
+ * A cache created without a capacity follows {@link ShellSettings#planCacheSize}: a change to the setting
+ * is applied on the next lookup, in the same way as {@link #setCapacity}.
+ */
+public class CommandPlanCache {
+    public static final String ERR_NEGATIVE_CAPACITY = "Capacity cannot be negative";
+
+    private final Map<String, CommandPlan> plans;
+    private final boolean isFollowingSettings;
+    private int capacity;
+    private int settingsCapacity;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    /**
+     * Creates a cache using the current {@link ShellSettings} plan cache size, following later changes to it.
+     */
+    public CommandPlanCache() {
+        this(Math.max(0, ShellSettings.planCacheSize), true);
+    }
+
+    /**
+     * @param capacity Maximum number of plans kept.
+     */
+    public CommandPlanCache(int capacity) {
+        this(capacity, false);
+    }
+
+    private CommandPlanCache(int capacity, boolean isFollowingSettings) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException(ERR_NEGATIVE_CAPACITY);
+        }
+        this.capacity = capacity;
+        this.isFollowingSettings = isFollowingSettings;
+        this.settingsCapacity = capacity;
+        this.plans = new LinkedHashMap<>(16, 0.75f, true) {
+            private static final long serialVersionUID = 2516154287423175093L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CommandPlan> eldest) {
+                if (size() > CommandPlanCache.this.capacity) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Returns the cached plan for the command string and marks it as most recently used.
+     *
+     * @param commandString Command string to look up.
+     * @return The cached plan, or null if there is none.
+     */
+    public synchronized CommandPlan get(String commandString) {
+        followSettings();
+        CommandPlan plan = plans.get(commandString);
+        if (plan == null) {
+            misses++;
+        } else {
+            hits++;
+        }
+        return plan;
+    }
+
+    /**
+     * Caches the plan for the command string, evicting the least recently used plan if full.
+     *
+     * @param commandString Command string the plan was parsed from.
+     * @param plan          Parsed plan.
+     */
+    public synchronized void put(String commandString, CommandPlan plan) {
+        followSettings();
+        if (capacity > 0) {
+            plans.put(commandString, plan);
+        }
+    }
+
+    /**
+     * Changes the capacity, evicting least recently used plans that no longer fit.
+     *
+     * @param capacity New maximum number of plans kept.
+     */
+    public synchronized void setCapacity(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException(ERR_NEGATIVE_CAPACITY);
+        }
+        this.capacity = capacity;
+        while (plans.size() > capacity) {
+            String eldest = plans.keySet().iterator().next();
+            plans.remove(eldest);
+            evictions++;
+        }
+    }
+
+    public synchronized int getCapacity() {
+        followSettings();
+        return capacity;
+    }
+
+    public synchronized int size() {
+        return plans.size();
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * Applies a change to {@link ShellSettings#planCacheSize} since it was last read, if this cache follows it.
+     * A capacity set with {@link #setCapacity} stays until the setting changes again.
+     */
+    private void followSettings() {
+        if (!isFollowingSettings) {
+            return;
+        }
+        int size = Math.max(0, ShellSettings.planCacheSize);
+        if (size != settingsCapacity) {
+            settingsCapacity = size;
+            setCapacity(size);
+        }
+    }
+
+    /**
+     * Removes all plans and resets the counters.
+     */
+    public synchronized void clear() {
+        plans.clear();
+        hits = 0;
+        misses = 0;
+        evictions = 0;
+    }
+}
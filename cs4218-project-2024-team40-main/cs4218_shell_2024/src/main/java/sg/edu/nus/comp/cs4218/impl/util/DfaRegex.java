@@ -0,0 +1,783 @@
+package sg.edu.nus.comp.cs4218.impl.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Finds a regex in lines in time linear in the length of the line, whatever the regex.
+ * <p>
+ * The regex is compiled to a Thompson NFA, whose sets of states are turned into DFA states lazily, as the
+ * lines need them, and cached. Each character of a line is then a single cached transition, instead of the
+ * backtracking of {@link java.util.regex}, which takes exponential time on regexes such as {@code (a+)+b}.
+ * <p>
+ * The regex has the syntax and meaning of {@link Pattern}, without or with {@link Pattern#CASE_INSENSITIVE},
+ * for the subset of it that can be matched without backtracking: characters and escapes, {@code .}, character
+ * classes without nested classes or intersections, the predefined classes {@code \d \s \w} and their
+ * negations, {@code ^ $}, groups, alternation, and greedy or lazy quantifiers. {@link #compile} returns null
+ * for the rest, such as backreferences, lookaround, word boundaries, possessive quantifiers and quantified
+ * anchors, to be matched with {@link java.util.regex} instead.
+ */
+public final class DfaRegex {
+    public static final int MAX_NFA_STATES = 20_000;
+    public static final int MAX_CACHED_STATES = 4096;
+
+    private static final int CHARS = 0;
+    private static final int SPLIT = 1;
+    private static final int EMPTY = 2;
+    private static final int BEGIN = 3;
+    private static final int END = 4;
+    private static final int MATCH = 5;
+    private static final int NONE = -1;
+    private static final int ASCII_SIZE = 128;
+
+    // the line terminators of Pattern that can be left in a line split at "\n" and "\r"
+    private static final String LINE_TERMINATORS = "\u0085\u2028\u2029";
+
+    private final Pattern pattern;
+    private final int[] kinds;
+    private final int[] outs;
+    private final int[] alternatives;
+    private final CharSet[] charSets;
+    private final int start;
+    private final boolean hasEnd;
+
+    private DfaRegex(Pattern pattern, Parser parser, int start) {
+        this.pattern = pattern;
+        this.start = start;
+        int size = parser.kinds.size();
+        kinds = new int[size];
+        outs = new int[size];
+        alternatives = new int[size];
+        charSets = parser.charSets.toArray(new CharSet[0]);
+        boolean isEndUsed = false;
+        for (int i = 0; i < size; i++) {
+            kinds[i] = parser.kinds.get(i);
+            outs[i] = parser.outs.get(i);
+            alternatives[i] = parser.alternatives.get(i);
+            isEndUsed |= kinds[i] == END;
+        }
+        hasEnd = isEndUsed;
+    }
+
+    /**
+     * Compiles the regex of the pattern, with its {@link Pattern#CASE_INSENSITIVE} flag.
+     *
+     * @param pattern A pattern compiled from the regex, which checks that its syntax is valid.
+     * @return The compiled regex, or null if it uses features or flags that it does not support.
+     */
+    public static DfaRegex compile(Pattern pattern) {
+        if ((pattern.flags() & ~Pattern.CASE_INSENSITIVE) != 0) {
+            return null;
+        }
+        Parser parser = new Parser(pattern.pattern(), (pattern.flags() & Pattern.CASE_INSENSITIVE) != 0);
+        try {
+            int[] fragment = parser.parseAlternation();
+            if (parser.position < parser.regex.length()) {
+                return null;
+            }
+            int match = parser.addState(MATCH, NONE, NONE);
+            parser.patch(fragment[1], match);
+            return new DfaRegex(pattern, parser, fragment[0]);
+        } catch (UnsupportedOperationException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Returns a new matcher, with its own cache of DFA states. A matcher must only be used by one thread at a
+     * time.
+     */
+    public LineMatcher matcher() {
+        return new LineMatcher();
+    }
+
+    /**
+     * Matches lines against the regex, caching the DFA states it builds across the lines.
+     */
+    public final class LineMatcher {
+        private Map<StateKey, DfaState> cache = new HashMap<>();
+        private DfaState initial;
+        private Boolean isEmptyMatch;
+        // NFA states of the closure being built, and whether each is in it
+        private final int[] stack = new int[kinds.length];
+        private final boolean[] isAdded = new boolean[kinds.length];
+        private final IntList members = new IntList();
+
+        /**
+         * Returns whether the regex is found in the line, in the same manner as {@link java.util.regex.Matcher#find}.
+         *
+         * @param line A line without "\n" or "\r".
+         */
+        public boolean find(CharSequence line) {
+            int length = line.length();
+            if (hasEnd && length > 0 && LINE_TERMINATORS.indexOf(line.charAt(length - 1)) >= 0) {
+                // $ also matches before a line terminator at the end, which is rare enough not to handle here
+                return pattern.matcher(line).find();
+            }
+            if (length == 0) {
+                if (isEmptyMatch == null) {
+                    isEmptyMatch = close(new int[]{start}, true, true).isMatch;
+                }
+                return isEmptyMatch;
+            }
+            if (initial == null) {
+                initial = close(new int[]{start}, true, false);
+            }
+            DfaState state = initial;
+            int index = 0;
+            while (!state.isMatch && index < length) {
+                char value = line.charAt(index++);
+                if (value < ASCII_SIZE) {
+                    DfaState next = state.asciiNext[value];
+                    state = next == null ? (state.asciiNext[value] = step(state, value)) : next;
+                } else {
+                    int codePoint = value;
+                    if (Character.isHighSurrogate(value) && index < length
+                            && Character.isLowSurrogate(line.charAt(index))) {
+                        codePoint = Character.toCodePoint(value, line.charAt(index++));
+                    }
+                    state = state.getNext(codePoint);
+                }
+            }
+            if (state.isMatch) {
+                return true;
+            }
+            if (state.isEndMatch == null) {
+                state.isEndMatch = close(state.states, false, true).isMatch;
+            }
+            return state.isEndMatch;
+        }
+
+        private DfaState step(DfaState state, int codePoint) {
+            IntList targets = new IntList();
+            for (int nfaState : state.states) {
+                if (kinds[nfaState] == CHARS && charSets[alternatives[nfaState]].contains(codePoint)) {
+                    targets.add(outs[nfaState]);
+                }
+            }
+            // the regex can also start at the next character
+            targets.add(start);
+            return close(targets.toArray(), false, false);
+        }
+
+        /**
+         * Returns the DFA state of the NFA states reachable from the given states without reading a character.
+         * States that wait for $ are kept in the DFA state, to be followed at the end of the line.
+         */
+        private DfaState close(int[] from, boolean isAtStart, boolean isAtEnd) {
+            members.clear();
+            int top = 0;
+            for (int nfaState : from) {
+                if (!isAdded[nfaState]) {
+                    isAdded[nfaState] = true;
+                    stack[top++] = nfaState;
+                }
+            }
+            boolean isMatch = false;
+            while (top > 0) {
+                int nfaState = stack[--top];
+                int next = NONE;
+                int alternative = NONE;
+                switch (kinds[nfaState]) {
+                    case SPLIT:
+                        next = outs[nfaState];
+                        alternative = alternatives[nfaState];
+                        break;
+                    case EMPTY:
+                        next = outs[nfaState];
+                        break;
+                    case BEGIN:
+                        next = isAtStart ? outs[nfaState] : NONE;
+                        break;
+                    case END:
+                        if (isAtEnd) {
+                            next = outs[nfaState];
+                        } else {
+                            members.add(nfaState);
+                        }
+                        break;
+                    case MATCH:
+                        isMatch = true;
+                        members.add(nfaState);
+                        break;
+                    default:
+                        members.add(nfaState);
+                        break;
+                }
+                if (next != NONE && !isAdded[next]) {
+                    isAdded[next] = true;
+                    stack[top++] = next;
+                }
+                if (alternative != NONE && !isAdded[alternative]) {
+                    isAdded[alternative] = true;
+                    stack[top++] = alternative;
+                }
+            }
+            Arrays.fill(isAdded, false);
+            int[] states = members.toArray();
+            Arrays.sort(states);
+            if (isAtEnd) {
+                return new DfaState(states, isMatch);
+            }
+            if (cache.size() >= MAX_CACHED_STATES) {
+                // start again rather than keep every state a long line or many lines have passed through
+                cache = new HashMap<>();
+                initial = null;
+            }
+            return cache.computeIfAbsent(new StateKey(states), key -> new DfaState(key.states, key.isMatch()));
+        }
+
+        /**
+         * A set of NFA states, with the transitions from it that have been followed.
+         */
+        private final class DfaState {
+            private final int[] states;
+            private final boolean isMatch;
+            private final DfaState[] asciiNext = new DfaState[ASCII_SIZE];
+            private Map<Integer, DfaState> otherNext;
+            private Boolean isEndMatch;
+
+            DfaState(int[] states, boolean isMatch) {
+                this.states = states;
+                this.isMatch = isMatch;
+            }
+
+            DfaState getNext(int codePoint) {
+                if (otherNext == null) {
+                    otherNext = new HashMap<>();
+                }
+                DfaState next = otherNext.get(codePoint);
+                if (next == null) {
+                    next = step(this, codePoint);
+                    otherNext.put(codePoint, next);
+                }
+                return next;
+            }
+        }
+
+        private final class StateKey {
+            private final int[] states;
+            private final int hash;
+
+            StateKey(int[] states) {
+                this.states = states;
+                this.hash = Arrays.hashCode(states);
+            }
+
+            boolean isMatch() {
+                for (int nfaState : states) {
+                    if (kinds[nfaState] == MATCH) {
+                        return true;
+                    }
+                }
+                return false;
+            }
+
+            @Override
+            public boolean equals(Object other) {
+                return other instanceof StateKey && Arrays.equals(states, ((StateKey) other).states);
+            }
+
+            @Override
+            public int hashCode() {
+                return hash;
+            }
+        }
+    }
+
+    /**
+     * Builds the NFA by recursive descent over the regex. Each fragment is an array of its start state and its
+     * end state, an EMPTY state whose out is patched to what follows the fragment. Throws
+     * UnsupportedOperationException on a feature that is not supported.
+     */
+    private static final class Parser {
+        private final String regex;
+        private final boolean isCaseInsensitive;
+        private final List<Integer> kinds = new ArrayList<>();
+        private final List<Integer> outs = new ArrayList<>();
+        // the second out of a SPLIT, or the char set of CHARS
+        private final List<Integer> alternatives = new ArrayList<>();
+        private final List<CharSet> charSets = new ArrayList<>();
+        private int position;
+        private int anchorCount;
+
+        Parser(String regex, boolean isCaseInsensitive) {
+            this.regex = regex;
+            this.isCaseInsensitive = isCaseInsensitive;
+        }
+
+        int addState(int kind, int out, int alternative) {
+            if (kinds.size() >= MAX_NFA_STATES) {
+                throw new UnsupportedOperationException("too many states");
+            }
+            kinds.add(kind);
+            outs.add(out);
+            alternatives.add(alternative);
+            return kinds.size() - 1;
+        }
+
+        void patch(int state, int out) {
+            outs.set(state, out);
+        }
+
+        private int[] fragment(int kind, int alternative) {
+            int end = addState(EMPTY, NONE, NONE);
+            return new int[]{addState(kind, end, alternative), end};
+        }
+
+        private int[] emptyFragment() {
+            int state = addState(EMPTY, NONE, NONE);
+            return new int[]{state, state};
+        }
+
+        private int[] concat(int[] first, int[] second) {
+            patch(first[1], second[0]);
+            return new int[]{first[0], second[1]};
+        }
+
+        int[] parseAlternation() {
+            int[] fragment = parseSequence();
+            while (position < regex.length() && regex.charAt(position) == '|') {
+                position++;
+                int[] other = parseSequence();
+                int end = addState(EMPTY, NONE, NONE);
+                patch(fragment[1], end);
+                patch(other[1], end);
+                fragment = new int[]{addState(SPLIT, fragment[0], other[0]), end};
+            }
+            return fragment;
+        }
+
+        private int[] parseSequence() {
+            int[] fragment = emptyFragment();
+            while (position < regex.length() && regex.charAt(position) != '|' && regex.charAt(position) != ')') {
+                fragment = concat(fragment, parseRepetition());
+            }
+            return fragment;
+        }
+
+        private int[] parseRepetition() {
+            int atomStart = position;
+            int anchorsBefore = anchorCount;
+            int[] atom = parseAtom();
+            if (position >= regex.length()) {
+                return atom;
+            }
+            char quantifier = regex.charAt(position);
+            if ("*+?{".indexOf(quantifier) >= 0 && anchorCount > anchorsBefore) {
+                // java.util.regex ends a loop at an empty iteration, which matters once anchors are repeated
+                throw new UnsupportedOperationException("quantified anchor");
+            }
+            int[] result;
+            if (quantifier == '*' || quantifier == '+' || quantifier == '?') {
+                position++;
+                result = quantify(atom, quantifier);
+            } else if (quantifier == '{') {
+                result = parseCount(atom, atomStart);
+            } else {
+                return atom;
+            }
+            if (position < regex.length() && regex.charAt(position) == '?') {
+                // a lazy quantifier matches the same lines
+                position++;
+            }
+            if (position < regex.length() && "*+?{".indexOf(regex.charAt(position)) >= 0) {
+                throw new UnsupportedOperationException("possessive or repeated quantifier");
+            }
+            return result;
+        }
+
+        private int[] quantify(int[] atom, char quantifier) {
+            int end = addState(EMPTY, NONE, NONE);
+            int split = addState(SPLIT, atom[0], end);
+            if (quantifier == '?') {
+                patch(atom[1], end);
+                return new int[]{split, end};
+            }
+            patch(atom[1], split);
+            return new int[]{quantifier == '*' ? split : atom[0], end};
+        }
+
+        /**
+         * Parses {n}, {n,} or {n,m} after an atom, repeating the atom by parsing it again.
+         */
+        private int[] parseCount(int[] atom, int atomStart) {
+            int close = regex.indexOf('}', position);
+            if (close < 0) {
+                throw new UnsupportedOperationException("unclosed count");
+            }
+            String[] bounds = regex.substring(position + 1, close).split(",", -1);
+            int afterCount = close + 1;
+            int min;
+            int max;
+            try {
+                min = Integer.parseInt(bounds[0]);
+                max = bounds.length == 1 ? min : bounds[1].isEmpty() ? -1 : Integer.parseInt(bounds[1]);
+            } catch (NumberFormatException e) {
+                throw new UnsupportedOperationException("invalid count", e);
+            }
+            if (bounds.length > 2 || min < 0 || max != -1 && max < min || Math.max(min, max) > MAX_NFA_STATES) {
+                throw new UnsupportedOperationException("invalid count");
+            }
+            int[] result = emptyFragment();
+            int copies = max == -1 ? Math.max(min, 1) : max;
+            for (int i = 0; i < copies; i++) {
+                int[] copy = atom;
+                if (i > 0) {
+                    position = atomStart;
+                    copy = parseAtom();
+                }
+                if (max == -1 && i == copies - 1) {
+                    copy = quantify(copy, min == 0 ? '*' : '+');
+                } else if (i >= min) {
+                    copy = quantify(copy, '?');
+                }
+                result = concat(result, copy);
+            }
+            position = afterCount;
+            return result;
+        }
+
+        private int[] parseAtom() {
+            int value = regex.codePointAt(position);
+            switch (value) {
+                case '(':
+                    return parseGroup();
+                case '[':
+                    position++;
+                    return fragment(CHARS, addCharSet(parseClass()));
+                case '.':
+                    position++;
+                    return fragment(CHARS, addCharSet(CharSet.of(LINE_TERMINATORS + "\n\r").negate()));
+                case '^':
+                    position++;
+                    anchorCount++;
+                    return fragment(BEGIN, NONE);
+                case '$':
+                    position++;
+                    anchorCount++;
+                    return fragment(END, NONE);
+                case '\\':
+                    position++;
+                    CharSet escaped = parseEscape();
+                    return fragment(CHARS, addCharSet(escaped.getSingle() >= 0 ? caseFold(escaped) : escaped));
+                case '*':
+                case '+':
+                case '?':
+                case '{':
+                case ')':
+                case '|':
+                    throw new UnsupportedOperationException("unexpected " + (char) value);
+                default:
+                    position += Character.charCount(value);
+                    return fragment(CHARS, addCharSet(caseFold(CharSet.range(value, value))));
+            }
+        }
+
+        private int[] parseGroup() {
+            position++;
+            if (regex.startsWith("?:", position)) {
+                position += 2;
+            } else if (position < regex.length() && regex.charAt(position) == '?') {
+                throw new UnsupportedOperationException("special group");
+            }
+            int[] fragment = parseAlternation();
+            if (position >= regex.length() || regex.charAt(position) != ')') {
+                throw new UnsupportedOperationException("unclosed group");
+            }
+            position++;
+            return fragment;
+        }
+
+        /**
+         * Parses a character class after its "[", with single characters, ranges and predefined classes.
+         */
+        private CharSet parseClass() {
+            boolean isNegated = position < regex.length() && regex.charAt(position) == '^';
+            if (isNegated) {
+                position++;
+            }
+            if (position < regex.length() && regex.charAt(position) == ']') {
+                throw new UnsupportedOperationException("empty class");
+            }
+            CharSet result = CharSet.EMPTY;
+            while (position < regex.length() && regex.charAt(position) != ']') {
+                int value = regex.codePointAt(position);
+                if (value == '[' || regex.startsWith("&&", position)) {
+                    throw new UnsupportedOperationException("nested class or intersection");
+                }
+                CharSet item;
+                int low;
+                if (value == '\\') {
+                    position++;
+                    item = parseEscape();
+                    low = item.getSingle();
+                } else {
+                    position += Character.charCount(value);
+                    item = CharSet.range(value, value);
+                    low = value;
+                }
+                if (position + 1 < regex.length() && regex.charAt(position) == '-'
+                        && regex.charAt(position + 1) != ']') {
+                    if (low < 0) {
+                        throw new UnsupportedOperationException("class as range bound");
+                    }
+                    position++;
+                    int high = parseClassChar();
+                    if (high < low) {
+                        throw new UnsupportedOperationException("invalid range");
+                    }
+                    item = CharSet.range(low, high);
+                    if (position < regex.length() && regex.charAt(position) == '-'
+                            && position + 1 < regex.length() && regex.charAt(position + 1) != ']') {
+                        throw new UnsupportedOperationException("range after a range");
+                    }
+                }
+                result = result.union(low >= 0 ? caseFold(item) : item);
+            }
+            if (position >= regex.length()) {
+                throw new UnsupportedOperationException("unclosed class");
+            }
+            position++;
+            return isNegated ? result.negate() : result;
+        }
+
+        private int parseClassChar() {
+            int value = regex.codePointAt(position);
+            if (value == '[' || value == '&') {
+                throw new UnsupportedOperationException("unexpected " + (char) value);
+            }
+            if (value != '\\') {
+                position += Character.charCount(value);
+                return value;
+            }
+            position++;
+            int single = parseEscape().getSingle();
+            if (single < 0) {
+                throw new UnsupportedOperationException("class as range bound");
+            }
+            return single;
+        }
+
+        /**
+         * Parses an escape after its backslash, into the characters it matches. Single characters are not yet
+         * case folded.
+         */
+        private CharSet parseEscape() {
+            if (position >= regex.length()) {
+                throw new UnsupportedOperationException("trailing backslash");
+            }
+            int value = regex.codePointAt(position);
+            position += Character.charCount(value);
+            switch (value) {
+                case 't':
+                    return CharSet.range('\t', '\t');
+                case 'n':
+                    return CharSet.range('\n', '\n');
+                case 'r':
+                    return CharSet.range('\r', '\r');
+                case 'f':
+                    return CharSet.range('\f', '\f');
+                case 'a':
+                    return CharSet.range('\u0007', '\u0007');
+                case 'e':
+                    return CharSet.range('\u001B', '\u001B');
+                case 'd':
+                    return CharSet.range('0', '9');
+                case 'D':
+                    return CharSet.range('0', '9').negate();
+                case 's':
+                    return CharSet.of(" \t\n\u000B\f\r");
+                case 'S':
+                    return CharSet.of(" \t\n\u000B\f\r").negate();
+                case 'w':
+                    return wordChars();
+                case 'W':
+                    return wordChars().negate();
+                case 'x':
+                    return parseHex(2);
+                case 'u':
+                    return parseHex(4);
+                default:
+                    if (Character.isLetterOrDigit(value)) {
+                        throw new UnsupportedOperationException("escape \\" + (char) value);
+                    }
+                    return CharSet.range(value, value);
+            }
+        }
+
+        private CharSet parseHex(int digits) {
+            if (position + digits > regex.length()) {
+                throw new UnsupportedOperationException("short hex escape");
+            }
+            int value;
+            try {
+                value = Integer.parseInt(regex.substring(position, position + digits), 16);
+            } catch (NumberFormatException e) {
+                throw new UnsupportedOperationException("hex escape", e);
+            }
+            if (Character.isSurrogate((char) value)) {
+                throw new UnsupportedOperationException("surrogate escape");
+            }
+            position += digits;
+            return CharSet.range(value, value);
+        }
+
+        private static CharSet wordChars() {
+            return CharSet.range('a', 'z').union(CharSet.range('A', 'Z')).union(CharSet.range('0', '9'))
+                    .union(CharSet.range('_', '_'));
+        }
+
+        /**
+         * Adds the other case of the ASCII letters that the characters from low to high match in the same
+         * manner as {@link Pattern#CASE_INSENSITIVE}: a character matches if it, or its ASCII upper or lower
+         * case, is in the range.
+         */
+        private CharSet caseFold(CharSet range) {
+            if (!isCaseInsensitive) {
+                return range;
+            }
+            CharSet result = range;
+            for (char letter = 'a'; letter <= 'z'; letter++) {
+                char upper = Character.toUpperCase(letter);
+                if (range.contains(letter) || range.contains(upper)) {
+                    result = result.union(CharSet.range(letter, letter)).union(CharSet.range(upper, upper));
+                }
+            }
+            return result;
+        }
+
+        private int addCharSet(CharSet charSet) {
+            charSets.add(charSet);
+            return charSets.size() - 1;
+        }
+    }
+
+    /**
+     * An immutable set of code points, as sorted, disjoint and non-adjacent ranges.
+     */
+    static final class CharSet {
+        static final CharSet EMPTY = new CharSet(new int[0]);
+
+        // pairs of the first and last code point of each range
+        private final int[] ranges;
+
+        private CharSet(int[] ranges) {
+            this.ranges = ranges;
+        }
+
+        static CharSet range(int low, int high) {
+            return new CharSet(new int[]{low, high});
+        }
+
+        static CharSet of(String chars) {
+            CharSet result = EMPTY;
+            for (int i = 0; i < chars.length(); i++) {
+                result = result.union(range(chars.charAt(i), chars.charAt(i)));
+            }
+            return result;
+        }
+
+        boolean contains(int codePoint) {
+            int low = 0;
+            int high = ranges.length / 2 - 1;
+            while (low <= high) {
+                int middle = (low + high) >>> 1;
+                if (codePoint < ranges[middle * 2]) {
+                    high = middle - 1;
+                } else if (codePoint > ranges[middle * 2 + 1]) {
+                    low = middle + 1;
+                } else {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Returns the code point if this is a single one, or -1.
+         */
+        int getSingle() {
+            return ranges.length == 2 && ranges[0] == ranges[1] ? ranges[0] : -1;
+        }
+
+        CharSet union(CharSet other) {
+            int[] all = Arrays.copyOf(ranges, ranges.length + other.ranges.length);
+            System.arraycopy(other.ranges, 0, all, ranges.length, other.ranges.length);
+            long[] sorted = new long[all.length / 2];
+            for (int i = 0; i < sorted.length; i++) {
+                sorted[i] = (long) all[i * 2] << 32 | all[i * 2 + 1];
+            }
+            Arrays.sort(sorted);
+            IntList merged = new IntList();
+            for (long range : sorted) {
+                int low = (int) (range >>> 32);
+                int high = (int) range;
+                int size = merged.size();
+                if (size > 0 && low <= merged.get(size - 1) + 1) {
+                    merged.set(size - 1, Math.max(merged.get(size - 1), high));
+                } else {
+                    merged.add(low);
+                    merged.add(high);
+                }
+            }
+            return new CharSet(merged.toArray());
+        }
+
+        CharSet negate() {
+            IntList result = new IntList();
+            int next = 0;
+            for (int i = 0; i < ranges.length; i += 2) {
+                if (ranges[i] > next) {
+                    result.add(next);
+                    result.add(ranges[i] - 1);
+                }
+                next = ranges[i + 1] + 1;
+            }
+            if (next <= Character.MAX_CODE_POINT) {
+                result.add(next);
+                result.add(Character.MAX_CODE_POINT);
+            }
+            return new CharSet(result.toArray());
+        }
+    }
+
+    /**
+     * A growable list of ints.
+     */
+    private static final class IntList {
+        private int[] values = new int[16];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        int get(int index) {
+            return values[index];
+        }
+
+        void set(int index, int value) {
+            values[index] = value;
+        }
+
+        int size() {
+            return size;
+        }
+
+        void clear() {
+            size = 0;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
@@ -0,0 +1,266 @@
+package sg.edu.nus.comp.cs4218.impl.util;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Sorts lines that may not fit in memory, in the same manner as GNU sort with {@code -S}.
+ * <p>
+ * Lines are read as bytes into {@link PackedLines} until their estimated size reaches the memory budget. Each
+ * full batch is then sorted on the given number of threads, without decoding the lines, and written to a
+ * temporary file as a run. The runs are finally merged with a heap, at most {@link #MAX_MERGE_WIDTH} at a time.
+ * The sort is stable. With reverse order the output is exactly the stable ascending output reversed, so equal
+ * lines come out in the reverse of their input order.
+ * <p>
+ * Closing the sorter deletes its temporary files.
+ */
+public class ExternalLineSorter implements Closeable {
+    public static final int MAX_MERGE_WIDTH = 64;
+
+    private static final String TEMP_PREFIX = "shell-sort-";
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final int FILE_BUFFER_SIZE = 64 * 1024;
+
+    private final ByteLineComparator comparator;
+    private final boolean isReverse;
+    private final long memoryBudget;
+    private final int parallelism;
+    private final List<Path> runs = new ArrayList<>();
+    private final PackedLines lines = new PackedLines();
+
+    /**
+     * Consumes the sorted lines one at a time. The bytes of a line are only valid during the call.
+     */
+    @FunctionalInterface
+    public interface LineConsumer {
+        void accept(byte[] bytes, int offset, int length) throws IOException;
+    }
+
+    /**
+     * @param comparator   Ascending order of the lines.
+     * @param isReverse    Whether to output the lines in reverse order.
+     * @param memoryBudget Estimated number of bytes of lines held in memory before a run is written.
+     * @param parallelism  Number of threads each batch is sorted with.
+     */
+    public ExternalLineSorter(ByteLineComparator comparator, boolean isReverse, long memoryBudget,
+                              int parallelism) {
+        this.comparator = comparator;
+        this.isReverse = isReverse;
+        this.memoryBudget = memoryBudget;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Adds the rest of the lines of the InputStream to be sorted.
+     *
+     * @throws IOException If the InputStream cannot be read or a run cannot be written to a temporary file.
+     */
+    public void addLines(InputStream input) throws IOException {
+        lines.addLines(input, () -> {
+            if (lines.estimateSize() >= memoryBudget) {
+                writeBatch();
+            }
+        });
+    }
+
+    /**
+     * Passes every line added so far to the consumer in sorted order.
+     *
+     * @throws IOException If the runs cannot be read or merged, or the consumer fails.
+     */
+    public void forEachSorted(LineConsumer consumer) throws IOException {
+        if (runs.isEmpty()) {
+            for (int line : lines.sort(comparator, isReverse, parallelism)) {
+                consumer.accept(lines.getBytes(line), lines.getOffset(line), lines.getLength(line));
+            }
+            return;
+        }
+        if (lines.size() > 0) {
+            writeBatch();
+        }
+        while (runs.size() > MAX_MERGE_WIDTH) {
+            mergePass();
+        }
+        merge(runs, consumer);
+    }
+
+    /**
+     * Returns the number of runs written to temporary files so far.
+     */
+    public int getRunCount() {
+        return runs.size();
+    }
+
+    /**
+     * Deletes the temporary files of all runs.
+     *
+     * @throws IOException If a temporary file cannot be deleted.
+     */
+    @Override
+    public void close() throws IOException {
+        lines.clear();
+        IOException failure = null;
+        for (Path run : runs) {
+            try {
+                Files.deleteIfExists(run);
+            } catch (IOException e) {
+                failure = e;
+            }
+        }
+        runs.clear();
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Sorts the lines in memory, writes them to a run and clears them.
+     */
+    private void writeBatch() throws IOException {
+        int[] order = lines.sort(comparator, isReverse, parallelism);
+        Path run = Files.createTempFile(TEMP_PREFIX, TEMP_SUFFIX);
+        try (OutputStream output = newRunOutput(run)) {
+            for (int line : order) {
+                lines.write(line, output);
+                output.write('\n');
+            }
+        } catch (IOException e) {
+            Files.deleteIfExists(run);
+            throw e;
+        }
+        runs.add(run);
+        lines.clear();
+    }
+
+    private static OutputStream newRunOutput(Path run) throws IOException {
+        return new BufferedOutputStream(Files.newOutputStream(run), FILE_BUFFER_SIZE);
+    }
+
+    /**
+     * Merges consecutive groups of runs into single runs, keeping the runs in input order.
+     */
+    private void mergePass() throws IOException {
+        List<Path> merged = new ArrayList<>();
+        try {
+            for (int start = 0; start < runs.size(); start += MAX_MERGE_WIDTH) {
+                List<Path> group = runs.subList(start, Math.min(runs.size(), start + MAX_MERGE_WIDTH));
+                Path run = Files.createTempFile(TEMP_PREFIX, TEMP_SUFFIX);
+                merged.add(run);
+                try (OutputStream output = newRunOutput(run)) {
+                    merge(group, (bytes, offset, length) -> {
+                        output.write(bytes, offset, length);
+                        output.write('\n');
+                    });
+                }
+            }
+        } catch (IOException e) {
+            for (Path run : merged) {
+                Files.deleteIfExists(run);
+            }
+            throw e;
+        }
+        for (Path run : runs) {
+            Files.deleteIfExists(run);
+        }
+        runs.clear();
+        runs.addAll(merged);
+    }
+
+    /**
+     * Merges the sorted runs with a heap. Equal lines are taken from the earliest run first, or from the
+     * latest run first in reverse order, which keeps the merge stable.
+     */
+    private void merge(List<Path> group, LineConsumer consumer) throws IOException {
+        PriorityQueue<RunCursor> heap = new PriorityQueue<>(Math.max(1, group.size()), (cursor1, cursor2) -> {
+            int result = comparator.compare(cursor1.line, 0, cursor1.length, cursor2.line, 0, cursor2.length);
+            if (result == 0) {
+                result = Integer.compare(cursor1.index, cursor2.index);
+            }
+            return isReverse ? -result : result;
+        });
+        List<InputStream> inputs = new ArrayList<>();
+        try {
+            for (int i = 0; i < group.size(); i++) {
+                InputStream input = Files.newInputStream(group.get(i));
+                inputs.add(input);
+                RunCursor cursor = new RunCursor(input, i);
+                if (cursor.advance()) {
+                    heap.add(cursor);
+                }
+            }
+            while (!heap.isEmpty()) {
+                RunCursor cursor = heap.poll();
+                consumer.accept(cursor.line, 0, cursor.length);
+                if (cursor.advance()) {
+                    heap.add(cursor);
+                }
+            }
+        } finally {
+            for (InputStream input : inputs) {
+                input.close();
+            }
+        }
+    }
+
+    /**
+     * The next unmerged line of a run, read into a reused array.
+     */
+    private static final class RunCursor {
+        private final InputStream input;
+        private final int index;
+        private final byte[] buffer = new byte[FILE_BUFFER_SIZE];
+        private int position;
+        private int limit;
+        private byte[] line = new byte[128];
+        private int length;
+
+        RunCursor(InputStream input, int index) {
+            this.input = input;
+            this.index = index;
+        }
+
+        /**
+         * Reads the next line of the run, which ends with "\n" like every line of a run.
+         *
+         * @return False at the end of the run.
+         */
+        boolean advance() throws IOException {
+            length = 0;
+            while (true) {
+                if (position == limit) {
+                    limit = input.read(buffer, 0, buffer.length);
+                    position = 0;
+                    if (limit <= 0) {
+                        limit = 0;
+                        return false;
+                    }
+                }
+                int end = position;
+                while (end < limit && buffer[end] != '\n') {
+                    end++;
+                }
+                int count = end - position;
+                if (length + count > line.length) {
+                    line = Arrays.copyOf(line, Math.max(2 * line.length, length + count));
+                }
+                System.arraycopy(buffer, position, line, length, count);
+                length += count;
+                position = end;
+                if (end < limit) {
+                    // skip the "\n"
+                    position++;
+                    return true;
+                }
+            }
+        }
+    }
+}
@@ -4,12 +4,17 @@ import sg.edu.nus.comp.cs4218.Environment;
 import sg.edu.nus.comp.cs4218.exception.ShellException;
 
 import java.io.*;
-import java.nio.charset.StandardCharsets;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.file.InvalidPathException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Stream;
 
 import static sg.edu.nus.comp.cs4218.impl.util.ErrorConstants.*;
 
@@ -20,6 +25,8 @@ import static sg.edu.nus.comp.cs4218.impl.util.ErrorConstants.*;
  * and reading lines from input streams.
  */
 public final class IOUtils {
+    public static final int TRANSFER_BUFFER_SIZE = 64 * 1024;
+
     private IOUtils() {
     }
 
@@ -43,6 +50,21 @@ public final class IOUtils {
         return fileInputStream;
     }
 
+    /**
+     * Open a read-only FileChannel based on the file name.
+     *
+     * @param fileName String containing file name.
+     * @return FileChannel of file opened.
+     * @throws ShellException If file destination is inaccessible.
+     */
+    public static FileChannel openFileChannel(String fileName) throws ShellException {
+        try {
+            return FileChannel.open(resolveFilePath(fileName), StandardOpenOption.READ);
+        } catch (IOException e) {
+            throw new ShellException(ERR_FILE_NOT_FND);
+        }
+    }
+
     /**
      * Open an outputStream based on the file name.
      *
@@ -119,8 +141,110 @@ public final class IOUtils {
         return filePath;
     }
 
+    /**
+     * Copies the rest of the file to the OutputStream without decoding it. If the OutputStream is a
+     * {@link FileOutputStream} or a {@link WritableByteChannel}, the bytes are moved with
+     * {@link FileChannel#transferTo}, otherwise they are copied in {@link #TRANSFER_BUFFER_SIZE} chunks.
+     * The channel is not closed.
+     *
+     * @param source FileChannel to copy from its current position.
+     * @param target OutputStream to copy to.
+     * @return The last byte copied, or -1 if nothing was copied.
+     * @throws IOException If the file cannot be read or the OutputStream cannot be written to.
+     */
+    public static int transfer(FileChannel source, OutputStream target) throws IOException {
+        WritableByteChannel targetChannel = getChannel(target);
+        long position = source.position();
+        long size = source.size();
+        if (targetChannel == null || size <= position) {
+            // special files may report a size of 0, so those are read until they end
+            return transfer(Channels.newInputStream(source), target);
+        }
+        long start = position;
+        while (position < size) {
+            long transferred = source.transferTo(position, size - position, targetChannel);
+            if (transferred <= 0) {
+                // the target takes no more bytes from the channel, so the rest is copied in chunks
+                source.position(position);
+                int lastByte = transfer(Channels.newInputStream(source), target);
+                return lastByte >= 0 ? lastByte : readLastByte(source, start, position);
+            }
+            position += transferred;
+        }
+        source.position(position);
+        return readLastByte(source, start, position);
+    }
+
+    /**
+     * Returns the byte before the position, or -1 if nothing was copied from start until the position.
+     */
+    private static int readLastByte(FileChannel source, long start, long position) throws IOException {
+        if (position <= start) {
+            return -1;
+        }
+        ByteBuffer lastByte = ByteBuffer.allocate(1);
+        source.read(lastByte, position - 1);
+        return lastByte.get(0) & 0xFF;
+    }
+
+    /**
+     * Copies the rest of the InputStream to the OutputStream in {@link #TRANSFER_BUFFER_SIZE} chunks,
+     * without decoding it. Neither stream is closed.
+     *
+     * @param source InputStream to copy from.
+     * @param target OutputStream to copy to.
+     * @return The last byte copied, or -1 if nothing was copied.
+     * @throws IOException If the InputStream cannot be read or the OutputStream cannot be written to.
+     */
+    public static int transfer(InputStream source, OutputStream target) throws IOException {
+        byte[] buffer = new byte[TRANSFER_BUFFER_SIZE];
+        int lastByte = -1;
+        int read;
+        while ((read = source.read(buffer, 0, buffer.length)) >= 0) {
+            if (read == 0) {
+                throw new IOException(LineReader.ERR_ZERO_BYTES);
+            }
+            target.write(buffer, 0, read);
+            lastByte = buffer[read - 1] & 0xFF;
+        }
+        return lastByte;
+    }
+
+    private static WritableByteChannel getChannel(OutputStream target) {
+        if (target instanceof FileOutputStream) {
+            return ((FileOutputStream) target).getChannel();
+        }
+        if (target instanceof WritableByteChannel) {
+            return (WritableByteChannel) target;
+        }
+        return null;
+    }
+
+    /**
+     * Returns a lazy reader of the lines of the given InputStream, see {@link LineReader}.
+     * Closing the reader closes the InputStream.
+     *
+     * @param input InputStream containing arguments from System.in or FileInputStream
+     */
+    public static LineReader newLineReader(InputStream input) {
+        return new LineReader(input);
+    }
+
+    /**
+     * Returns a lazy stream of the lines of the given InputStream. Lines are only read as the stream
+     * is consumed, and read errors are thrown as {@link UncheckedIOException}.
+     * Closing the stream closes the InputStream.
+     *
+     * @param input InputStream containing arguments from System.in or FileInputStream
+     */
+    public static Stream<String> lines(InputStream input) {
+        return newLineReader(input).stream();
+    }
+
     /**
      * Returns a list of lines based on the given InputStream.
+     * This reads the whole input into memory; prefer {@link #newLineReader(InputStream)} where lines
+     * can be processed one at a time.
      *
      * @param input InputStream containing arguments from System.in or FileInputStream
      * @throws Exception if error reading from input stream
@@ -128,8 +252,7 @@ public final class IOUtils {
     public static List<String> getLinesFromInputStream(InputStream input) throws IOException{
 
         List<String> output = new ArrayList<>();
-        BufferedReader reader = new BufferedReader(new InputStreamReader(input,
-                StandardCharsets.UTF_8));
+        LineReader reader = newLineReader(input);
         String line;
 
         while ((line = reader.readLine()) != null) {
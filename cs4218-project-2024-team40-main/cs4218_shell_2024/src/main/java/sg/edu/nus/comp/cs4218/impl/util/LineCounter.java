@@ -0,0 +1,489 @@
+package sg.edu.nus.comp.cs4218.impl.util;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Counts how many times each distinct line occurs in the whole input, as {@code sort | uniq -c} does, in a
+ * single pass without sorting the lines.
+ * <p>
+ * Distinct lines are kept in {@link PackedLines} and found through an open addressing hash table of their
+ * indices, so that a line seen before only costs a hash and a comparison of its bytes. When the estimated
+ * size of the table reaches the memory budget, its lines and counts are spilled by hash to
+ * {@link #PARTITION_COUNT} temporary files and the table is cleared. Equal lines always go to the same
+ * partition, so at the end each partition is counted on its own and the partitions are merged in output order.
+ * A partition whose distinct lines do not fit in the memory budget either is split again into
+ * {@link #PARTITION_COUNT} files by another hash of its lines, until the parts fit or hold a
+ * single distinct line.
+ * <p>
+ * Lines are given either in the order they were first seen, or by count from the highest, lines with the
+ * same count in the order they were first seen. Closing the counter deletes its temporary files.
+ */
+public class LineCounter implements Closeable {
+    public static final int PARTITION_COUNT = 32;
+
+    private static final int PARTITION_SHIFT = Integer.SIZE - Integer.numberOfTrailingZeros(PARTITION_COUNT);
+    private static final String TEMP_PREFIX = "shell-uniq-";
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final int FILE_BUFFER_SIZE = 64 * 1024;
+    // a partition is split at most this many times, which is only reached if its lines share many hashes
+    private static final int MAX_SPLIT_LEVEL = 8;
+
+    private final long memoryBudget;
+    private final CountTable table = new CountTable();
+    private final PackedLines input = new PackedLines();
+    private final List<Path> files = new ArrayList<>();
+    private Path[] partitionFiles;
+    private DataOutputStream[] partitions;
+    private long[] partitionSizes;
+    private long lineNumber;
+    // the counted partitions, each in output order, and their number of lines
+    private final List<Path> results = new ArrayList<>();
+    private final List<Long> resultSizes = new ArrayList<>();
+
+    /**
+     * Consumes the distinct lines with their counts. The bytes of a line are only valid during the call.
+     */
+    @FunctionalInterface
+    public interface CountConsumer {
+        void accept(byte[] bytes, int offset, int length, long count) throws IOException;
+    }
+
+    /**
+     * @param memoryBudget Estimated number of bytes of distinct lines and counts held in memory before they are
+     *                     spilled to temporary files.
+     */
+    public LineCounter(long memoryBudget) {
+        this.memoryBudget = memoryBudget;
+    }
+
+    /**
+     * Counts the rest of the lines of the InputStream, split in the same manner as {@link PackedLines}.
+     *
+     * @throws IOException If the InputStream cannot be read or the counts cannot be spilled.
+     */
+    public void addLines(InputStream input) throws IOException {
+        this.input.addLines(input, () -> {
+            add(this.input.getBytes(0), this.input.getOffset(0), this.input.getLength(0));
+            this.input.clear();
+        });
+    }
+
+    /**
+     * Counts one line, which must not contain line terminators.
+     *
+     * @throws IOException If the counts cannot be spilled.
+     */
+    public void add(byte[] bytes, int offset, int length) throws IOException {
+        if (table.add(bytes, offset, length, hash(bytes, offset, length), lineNumber++, 1)
+                && table.estimateSize() >= memoryBudget) {
+            spill();
+        }
+    }
+
+    /**
+     * Returns whether the counts did not fit in the memory budget and were spilled to temporary files.
+     */
+    public boolean isSpilled() {
+        return partitions != null;
+    }
+
+    /**
+     * Passes every distinct line with its count to the consumer, in the order they were first seen or by count.
+     * It is called once, after all lines are counted.
+     *
+     * @param isByCount Whether to give the lines by count from the highest instead of in the order they were
+     *                  first seen.
+     * @throws IOException If the temporary files cannot be read or written, or the consumer fails.
+     */
+    public void forEachCount(boolean isByCount, CountConsumer consumer) throws IOException {
+        if (!isSpilled()) {
+            for (int entry : table.order(isByCount)) {
+                table.accept(entry, consumer);
+            }
+            return;
+        }
+        spill();
+        for (DataOutputStream partition : partitions) {
+            partition.close();
+        }
+        for (int i = 0; i < PARTITION_COUNT; i++) {
+            countPartition(partitionFiles[i], partitionSizes[i], 0, isByCount);
+        }
+        merge(isByCount, consumer);
+    }
+
+    /**
+     * Returns the number of partitions counted on their own after the counts were spilled, including those
+     * of partitions that were split again.
+     */
+    int getCountedPartitions() {
+        return results.size();
+    }
+
+    /**
+     * Deletes the temporary files.
+     *
+     * @throws IOException If a temporary file cannot be closed or deleted.
+     */
+    @Override
+    public void close() throws IOException {
+        table.clear();
+        IOException failure = null;
+        if (partitions != null) {
+            for (DataOutputStream partition : partitions) {
+                try {
+                    partition.close();
+                } catch (IOException e) {
+                    failure = e;
+                }
+            }
+        }
+        for (Path file : files) {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                failure = e;
+            }
+        }
+        files.clear();
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Hashes the bytes and spreads the bits, so that both the low bits used by the table and the high bits used
+     * to choose a partition vary.
+     */
+    private static int hash(byte[] bytes, int offset, int length) {
+        return hash(bytes, offset, length, 0);
+    }
+
+    /**
+     * Hashes the bytes with a different multiplier for each level, so that lines with the same hash at one
+     * level are spread by the next.
+     */
+    private static int hash(byte[] bytes, int offset, int length, int level) {
+        int multiplier = 31 + 2 * level;
+        int hash = 1;
+        for (int i = offset; i < offset + length; i++) {
+            hash = multiplier * hash + bytes[i];
+        }
+        hash ^= hash >>> 16;
+        hash *= 0x85EB_CA6B;
+        hash ^= hash >>> 13;
+        hash *= 0xC2B2_AE35;
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * Appends the lines and counts of the table to the partitions and clears it.
+     */
+    private void spill() throws IOException {
+        if (partitions == null) {
+            partitionFiles = new Path[PARTITION_COUNT];
+            partitions = new DataOutputStream[PARTITION_COUNT];
+            partitionSizes = new long[PARTITION_COUNT];
+            for (int i = 0; i < PARTITION_COUNT; i++) {
+                partitionFiles[i] = createTempFile();
+                partitions[i] = new DataOutputStream(newOutput(partitionFiles[i]));
+            }
+        }
+        for (int entry = 0; entry < table.size(); entry++) {
+            int partition = table.hashes[entry] >>> PARTITION_SHIFT;
+            table.write(entry, partitions[partition]);
+            partitionSizes[partition]++;
+        }
+        table.clear();
+    }
+
+    /**
+     * Counts the lines of a partition in memory and writes them in output order to a new temporary file. If its
+     * distinct lines reach the memory budget, the partition is split again instead.
+     *
+     * @param level Number of times the lines of the partition were split after the first spill.
+     */
+    private void countPartition(Path file, long size, int level, boolean isByCount) throws IOException {
+        boolean isTooLarge = false;
+        try (DataInputStream records = new DataInputStream(newInput(file))) {
+            Record record = new Record();
+            for (long i = 0; i < size && !isTooLarge; i++) {
+                record.read(records);
+                isTooLarge = table.add(record.bytes, 0, record.length, hash(record.bytes, 0, record.length),
+                        record.firstSeen, record.count) && table.estimateSize() >= memoryBudget
+                        && table.size() > 1 && level < MAX_SPLIT_LEVEL;
+            }
+        }
+        if (isTooLarge) {
+            table.clear();
+            splitPartition(file, size, level + 1, isByCount);
+            return;
+        }
+        Files.delete(file);
+        Path result = createTempFile();
+        try (DataOutputStream output = new DataOutputStream(newOutput(result))) {
+            for (int entry : table.order(isByCount)) {
+                table.write(entry, output);
+            }
+        }
+        results.add(result);
+        resultSizes.add((long) table.size());
+        table.clear();
+    }
+
+    /**
+     * Splits the records of a partition into {@link #PARTITION_COUNT} files by the hash of their lines for the
+     * level, and counts each of them.
+     */
+    private void splitPartition(Path file, long size, int level, boolean isByCount) throws IOException {
+        Path[] parts = new Path[PARTITION_COUNT];
+        long[] partSizes = new long[PARTITION_COUNT];
+        DataOutputStream[] outputs = new DataOutputStream[PARTITION_COUNT];
+        try (DataInputStream records = new DataInputStream(newInput(file))) {
+            for (int i = 0; i < PARTITION_COUNT; i++) {
+                parts[i] = createTempFile();
+                outputs[i] = new DataOutputStream(newOutput(parts[i]));
+            }
+            Record record = new Record();
+            for (long i = 0; i < size; i++) {
+                record.read(records);
+                int part = hash(record.bytes, 0, record.length, level) >>> PARTITION_SHIFT;
+                record.write(outputs[part]);
+                partSizes[part]++;
+            }
+        } finally {
+            for (DataOutputStream output : outputs) {
+                if (output != null) {
+                    output.close();
+                }
+            }
+        }
+        Files.delete(file);
+        for (int i = 0; i < PARTITION_COUNT; i++) {
+            countPartition(parts[i], partSizes[i], level, isByCount);
+        }
+    }
+
+    /**
+     * Merges the counted partitions, each in output order, with a heap.
+     */
+    private void merge(boolean isByCount, CountConsumer consumer) throws IOException {
+        Comparator<Record> order = Comparator.comparingLong(record -> record.firstSeen);
+        if (isByCount) {
+            order = Comparator.<Record>comparingLong(record -> -record.count).thenComparing(order);
+        }
+        PriorityQueue<Record> heap = new PriorityQueue<>(Math.max(1, results.size()), order);
+        List<DataInputStream> inputs = new ArrayList<>();
+        try {
+            for (int i = 0; i < results.size(); i++) {
+                DataInputStream records = new DataInputStream(newInput(results.get(i)));
+                inputs.add(records);
+                Record record = new Record(records, resultSizes.get(i));
+                if (record.advance()) {
+                    heap.add(record);
+                }
+            }
+            while (!heap.isEmpty()) {
+                Record record = heap.poll();
+                consumer.accept(record.bytes, 0, record.length, record.count);
+                if (record.advance()) {
+                    heap.add(record);
+                }
+            }
+        } finally {
+            for (DataInputStream records : inputs) {
+                records.close();
+            }
+        }
+    }
+
+    private Path createTempFile() throws IOException {
+        Path file = Files.createTempFile(TEMP_PREFIX, TEMP_SUFFIX);
+        files.add(file);
+        return file;
+    }
+
+    private static BufferedOutputStream newOutput(Path file) throws IOException {
+        return new BufferedOutputStream(Files.newOutputStream(file), FILE_BUFFER_SIZE);
+    }
+
+    private static BufferedInputStream newInput(Path file) throws IOException {
+        return new BufferedInputStream(Files.newInputStream(file), FILE_BUFFER_SIZE);
+    }
+
+    /**
+     * A line with its count and the number of the line it was first seen at, as written to the temporary
+     * files, read into a reused array.
+     */
+    private static final class Record {
+        private final DataInputStream records;
+        private long remaining;
+        private long firstSeen;
+        private long count;
+        private byte[] bytes = new byte[128];
+        private int length;
+
+        Record() {
+            this(null, 0);
+        }
+
+        Record(DataInputStream records, long remaining) {
+            this.records = records;
+            this.remaining = remaining;
+        }
+
+        /**
+         * Reads the next record of its file.
+         *
+         * @return False at the end of the file.
+         */
+        boolean advance() throws IOException {
+            if (remaining == 0) {
+                return false;
+            }
+            remaining--;
+            read(records);
+            return true;
+        }
+
+        void read(DataInputStream input) throws IOException {
+            firstSeen = input.readLong();
+            count = input.readLong();
+            length = input.readInt();
+            if (length > bytes.length) {
+                bytes = new byte[Math.max(length, 2 * bytes.length)];
+            }
+            input.readFully(bytes, 0, length);
+        }
+
+        void write(DataOutputStream output) throws IOException {
+            output.writeLong(firstSeen);
+            output.writeLong(count);
+            output.writeInt(length);
+            output.write(bytes, 0, length);
+        }
+    }
+
+    /**
+     * The open addressing hash table of distinct lines, probed linearly. A slot holds the index of a line plus
+     * one, or 0 when it is empty, and the table is kept at most half full.
+     */
+    private static final class CountTable {
+        // hash, count and line number first seen of each line
+        private static final int ENTRY_SIZE = Integer.BYTES + 2 * Long.BYTES;
+        private static final int INITIAL_SLOTS = 1024;
+        private static final int INITIAL_ENTRIES = 256;
+
+        private final PackedLines lines = new PackedLines();
+        private int[] slots = new int[INITIAL_SLOTS];
+        private int[] hashes = new int[INITIAL_ENTRIES];
+        private long[] counts = new long[INITIAL_ENTRIES];
+        private long[] firstSeen = new long[INITIAL_ENTRIES];
+
+        /**
+         * Adds the count to the line, keeping the earliest line number it was seen at.
+         *
+         * @return Whether the line was not in the table before.
+         */
+        boolean add(byte[] bytes, int offset, int length, int hash, long lineNumber, long count) {
+            int mask = slots.length - 1;
+            int slot = hash & mask;
+            while (slots[slot] != 0) {
+                int entry = slots[slot] - 1;
+                if (hashes[entry] == hash && isEqual(entry, bytes, offset, length)) {
+                    counts[entry] += count;
+                    firstSeen[entry] = Math.min(firstSeen[entry], lineNumber);
+                    return false;
+                }
+                slot = (slot + 1) & mask;
+            }
+            int entry = lines.size();
+            if (entry == hashes.length) {
+                hashes = Arrays.copyOf(hashes, 2 * entry);
+                counts = Arrays.copyOf(counts, 2 * entry);
+                firstSeen = Arrays.copyOf(firstSeen, 2 * entry);
+            }
+            lines.add(bytes, offset, length);
+            hashes[entry] = hash;
+            counts[entry] = count;
+            firstSeen[entry] = lineNumber;
+            slots[slot] = entry + 1;
+            if (2 * lines.size() > slots.length) {
+                rehash(2 * slots.length);
+            }
+            return true;
+        }
+
+        private boolean isEqual(int entry, byte[] bytes, int offset, int length) {
+            int entryOffset = lines.getOffset(entry);
+            return Arrays.equals(lines.getBytes(entry), entryOffset, entryOffset + lines.getLength(entry),
+                    bytes, offset, offset + length);
+        }
+
+        private void rehash(int slotCount) {
+            slots = new int[slotCount];
+            int mask = slotCount - 1;
+            for (int entry = 0; entry < lines.size(); entry++) {
+                int slot = hashes[entry] & mask;
+                while (slots[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                slots[slot] = entry + 1;
+            }
+        }
+
+        int size() {
+            return lines.size();
+        }
+
+        long estimateSize() {
+            return lines.estimateSize() + (long) ENTRY_SIZE * lines.size() + (long) Integer.BYTES * slots.length;
+        }
+
+        /**
+         * Returns the indices of the lines in output order.
+         */
+        int[] order(boolean isByCount) {
+            int[] order = new int[lines.size()];
+            for (int i = 0; i < order.length; i++) {
+                order[i] = i;
+            }
+            ParallelMergeSort.IntComparator byFirstSeen = (entry1, entry2) ->
+                    Long.compare(firstSeen[entry1], firstSeen[entry2]);
+            ParallelMergeSort.sort(order, isByCount ? (entry1, entry2) -> {
+                int result = Long.compare(counts[entry2], counts[entry1]);
+                return result == 0 ? byFirstSeen.compare(entry1, entry2) : result;
+            } : byFirstSeen, 1);
+            return order;
+        }
+
+        void accept(int entry, CountConsumer consumer) throws IOException {
+            consumer.accept(lines.getBytes(entry), lines.getOffset(entry), lines.getLength(entry), counts[entry]);
+        }
+
+        void write(int entry, DataOutputStream output) throws IOException {
+            output.writeLong(firstSeen[entry]);
+            output.writeLong(counts[entry]);
+            output.writeInt(lines.getLength(entry));
+            lines.write(entry, output);
+        }
+
+        void clear() {
+            lines.clear();
+            slots = new int[INITIAL_SLOTS];
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package sg.edu.nus.comp.cs4218.impl.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Cuts the selected bytes, characters or fields out of every line of an InputStream, working on the raw bytes.
+ * <p>
+ * The input is read into a single reusable buffer and split at the same line terminators as
+ * {@link LineReader}: "\n", "\r\n" and "\r". For bytes, the selected spans of each line are written straight
+ * from the buffer, so the bytes are never decoded and are written unchanged. For characters, a line is only
+ * decoded as UTF-8 if one of the bytes up to the last selected position is not US-ASCII, since until then
+ * every character is a single byte. For fields, the selected fields are written separated by the delimiter,
+ * and a line without the delimiter is written whole, as GNU cut does. Every cut line is followed by
+ * {@link StringUtils#STRING_NEWLINE}.
+ * <p>
+ * Line terminators and delimiters are found with a {@link ByteScanner}, and a line is not scanned for
+ * delimiters past the last selected field.
+ */
+public final class LineCutter {
+    private static final int READ_SIZE = 64 * 1024;
+    private static final byte[] NEW_LINE = StringUtils.STRING_NEWLINE.getBytes(StandardCharsets.UTF_8);
+
+    private final RangeHelper ranges;
+    private final List<int[]> spans;
+    private final boolean isCharPo;
+    private final boolean isFieldPo;
+    private final byte delimiter;
+    // the last selected position, past which a line is never looked at
+    private final int lastPosition;
+
+    /**
+     * @param ranges   The positions to select from each line.
+     * @param isCharPo Boolean option to select characters instead of bytes.
+     */
+    public LineCutter(RangeHelper ranges, boolean isCharPo) {
+        this(ranges, isCharPo, false, (byte) 0);
+    }
+
+    /**
+     * Creates a cutter selecting fields.
+     *
+     * @param ranges    The fields to select from each line.
+     * @param delimiter The US-ASCII character that separates the fields.
+     */
+    public LineCutter(RangeHelper ranges, char delimiter) {
+        this(ranges, false, true, (byte) delimiter);
+    }
+
+    private LineCutter(RangeHelper ranges, boolean isCharPo, boolean isFieldPo, byte delimiter) {
+        this.ranges = ranges;
+        this.spans = ranges.getSpans();
+        this.isCharPo = isCharPo;
+        this.isFieldPo = isFieldPo;
+        this.delimiter = delimiter;
+        this.lastPosition = spans.isEmpty() ? 0 : spans.get(spans.size() - 1)[1];
+    }
+
+    /**
+     * Cuts every line of the rest of the input and writes them to the output.
+     *
+     * @throws IOException If the input cannot be read or the output cannot be written to.
+     */
+    public void cut(InputStream input, OutputStream output) throws IOException {
+        byte[] buffer = new byte[READ_SIZE];
+        int start = 0;
+        int end = 0;
+        boolean isAfterCarriageReturn = false;
+        int read;
+        while ((read = input.read(buffer, end, buffer.length - end)) != -1) {
+            if (read == 0) {
+                throw new IOException(LineReader.ERR_ZERO_BYTES);
+            }
+            int scanned = end;
+            end += read;
+            if (isAfterCarriageReturn) {
+                // the "\n" of a "\r\n" terminator split across two reads
+                if (buffer[scanned] == '\n') {
+                    start++;
+                    scanned++;
+                }
+                isAfterCarriageReturn = false;
+            }
+            int index;
+            while ((index = ByteScanner.indexOfLineTerminator(buffer, scanned, end)) >= 0) {
+                cutLine(buffer, start, index, output);
+                start = index + 1;
+                if (buffer[index] == '\r') {
+                    if (start == end) {
+                        isAfterCarriageReturn = true;
+                    } else if (buffer[start] == '\n') {
+                        start++;
+                    }
+                }
+                scanned = start;
+            }
+            if (start > 0) {
+                System.arraycopy(buffer, start, buffer, 0, end - start);
+                end -= start;
+                start = 0;
+            } else if (end == buffer.length) {
+                // the buffer is full of a single line
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);
+            }
+        }
+        if (start < end) {
+            cutLine(buffer, start, end, output);
+        }
+    }
+
+    /**
+     * Writes the selected part of the line from start until end, followed by a newline.
+     */
+    private void cutLine(byte[] bytes, int start, int end, OutputStream output) throws IOException {
+        if (isFieldPo) {
+            writeFields(bytes, start, end, output);
+        } else if (isCharPo && !isAscii(bytes, start, (int) Math.min(end, (long) start + lastPosition))) {
+            StringBuilder result = new StringBuilder();
+            appendCharSpans(new String(bytes, start, end - start, StandardCharsets.UTF_8), spans, result);
+            output.write(result.toString().getBytes(StandardCharsets.UTF_8));
+        } else {
+            writeByteSpans(bytes, start, end, spans, output);
+        }
+        output.write(NEW_LINE);
+    }
+
+    /**
+     * Writes the selected fields of the line from start until end. Fields selected one after another are
+     * written together with the delimiters between them.
+     */
+    private void writeFields(byte[] bytes, int start, int end, OutputStream output) throws IOException {
+        int index = ByteScanner.indexOf(bytes, start, end, delimiter);
+        if (index < 0) {
+            output.write(bytes, start, end - start);
+            return;
+        }
+        int field = 1;
+        int fieldStart = start;
+        // the selected fields not written yet, from runStart until runEnd
+        int runStart = -1;
+        int runEnd = -1;
+        boolean isPreviousSelected = false;
+        while (true) {
+            int fieldEnd = index < 0 ? end : index;
+            boolean isSelected = ranges.contains(field);
+            if (isSelected && isPreviousSelected) {
+                runEnd = fieldEnd;
+            } else if (isSelected) {
+                if (runStart >= 0) {
+                    output.write(bytes, runStart, runEnd - runStart);
+                    output.write(delimiter);
+                }
+                runStart = fieldStart;
+                runEnd = fieldEnd;
+            }
+            isPreviousSelected = isSelected;
+            if (index < 0 || field >= lastPosition) {
+                break;
+            }
+            field++;
+            fieldStart = index + 1;
+            index = ByteScanner.indexOf(bytes, fieldStart, end, delimiter);
+        }
+        if (runStart >= 0) {
+            output.write(bytes, runStart, runEnd - runStart);
+        }
+    }
+
+    private static boolean isAscii(byte[] bytes, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (bytes[i] < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Writes the bytes from start until end at the positions of the spans, the first byte being at position 1.
+     *
+     * @param spans The sorted spans of positions, as returned by {@link RangeHelper#getSpans()}.
+     * @throws IOException If the output cannot be written to.
+     */
+    public static void writeByteSpans(byte[] bytes, int start, int end, List<int[]> spans, OutputStream output)
+            throws IOException {
+        int length = end - start;
+        for (int[] span : spans) {
+            int from = Math.max(span[0], 1) - 1;
+            if (from >= length) {
+                break;
+            }
+            int to = Math.min(span[1], length);
+            if (to > from) {
+                output.write(bytes, start + from, to - from);
+            }
+        }
+    }
+
+    /**
+     * Appends the characters of the line at the positions of the spans, counting a surrogate pair as one
+     * character. The line is walked once, skipping from the end of one span to the start of the next.
+     *
+     * @param spans The sorted spans of positions, as returned by {@link RangeHelper#getSpans()}.
+     */
+    public static void appendCharSpans(String line, List<int[]> spans, StringBuilder result) {
+        int index = 0;
+        int position = 1;
+        for (int[] span : spans) {
+            while (position < span[0] && index < line.length()) {
+                index += Character.charCount(line.codePointAt(index));
+                position++;
+            }
+            if (index >= line.length()) {
+                break;
+            }
+            int start = index;
+            while (position <= span[1] && index < line.length()) {
+                index += Character.charCount(line.codePointAt(index));
+                position++;
+            }
+            result.append(line, start, index);
+        }
+    }
+}
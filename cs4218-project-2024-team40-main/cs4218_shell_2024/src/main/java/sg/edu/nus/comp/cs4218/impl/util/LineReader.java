@@ -0,0 +1,184 @@
+package sg.edu.nus.comp.cs4218.impl.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import static sg.edu.nus.comp.cs4218.impl.util.ErrorConstants.ERR_READ_STREAM;
+
+/**
+ * Lazily reads lines from an InputStream, one line at a time.
+ * <p>
+ * Bytes are read into a single reusable buffer and only the bytes of each line are decoded, so memory
+ * use depends on the longest line rather than the size of the input. Lines end at "\n", "\r" or "\r\n"
+ * and the terminator is not returned, in the same manner as {@link java.io.BufferedReader#readLine()}.
+ * <p>
+ * The lines can be read with {@link #readLine()}, as an {@link Iterator}, or as a {@link Stream}.
+ * Closing the reader closes the underlying InputStream.
+ */
+public class LineReader implements Iterator<String>, Closeable {
+    public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+    public static final String ERR_ZERO_BYTES = "Underlying input stream returned zero bytes";
+
+    private static final byte LINE_FEED = '\n';
+    private static final byte CARRIAGE_RETURN = '\r';
+
+    private final InputStream input;
+    private final Charset charset;
+    private byte[] buffer;
+    private int start;
+    private int end;
+    private boolean isEndOfInput;
+    private boolean isSkipLineFeed;
+    private String nextLine;
+
+    /**
+     * Creates a reader decoding UTF-8 lines with the default buffer size.
+     *
+     * @param input InputStream to read lines from.
+     */
+    public LineReader(InputStream input) {
+        this(input, StandardCharsets.UTF_8, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * @param input      InputStream to read lines from.
+     * @param charset    Charset the lines are decoded with. Line terminators must be single bytes.
+     * @param bufferSize Initial size of the read buffer; it only grows to fit longer lines.
+     */
+    public LineReader(InputStream input, Charset charset, int bufferSize) {
+        this.input = Objects.requireNonNull(input);
+        this.charset = charset;
+        this.buffer = new byte[Math.max(1, bufferSize)];
+    }
+
+    /**
+     * Reads the next line.
+     *
+     * @return The next line without its terminator, or null if there are no more lines.
+     * @throws IOException If the InputStream cannot be read.
+     */
+    public String readLine() throws IOException {
+        if (nextLine != null) {
+            String line = nextLine;
+            nextLine = null;
+            return line;
+        }
+        int scanned = start;
+        while (true) {
+            if (isSkipLineFeed && start < end) {
+                // the "\n" of a "\r\n" terminator split across two reads
+                if (buffer[start] == LINE_FEED) {
+                    start++;
+                    scanned = start;
+                }
+                isSkipLineFeed = false;
+            }
+            for (int i = scanned; i < end; i++) {
+                byte value = buffer[i];
+                if (value == LINE_FEED || value == CARRIAGE_RETURN) {
+                    String line = new String(buffer, start, i - start, charset);
+                    start = i + 1;
+                    if (value == CARRIAGE_RETURN) {
+                        isSkipLineFeed = true;
+                    }
+                    return line;
+                }
+            }
+            if (isEndOfInput) {
+                if (start == end) {
+                    return null;
+                }
+                String line = new String(buffer, start, end - start, charset);
+                start = end;
+                return line;
+            }
+            scanned = end - start;
+            fill();
+            scanned += start;
+        }
+    }
+
+    /**
+     * Moves the unread bytes to the front of the buffer, growing it if it is full of a single line,
+     * and reads more bytes after them.
+     */
+    private void fill() throws IOException {
+        int remaining = end - start;
+        if (remaining == buffer.length) {
+            byte[] grown = new byte[buffer.length * 2];
+            System.arraycopy(buffer, start, grown, 0, remaining);
+            buffer = grown;
+        } else if (start > 0) {
+            System.arraycopy(buffer, start, buffer, 0, remaining);
+        }
+        start = 0;
+        end = remaining;
+
+        int read = input.read(buffer, end, buffer.length - end);
+        if (read < 0) {
+            isEndOfInput = true;
+        } else if (read == 0) {
+            throw new IOException(ERR_ZERO_BYTES);
+        } else {
+            end += read;
+        }
+    }
+
+    /**
+     * @throws UncheckedIOException If the InputStream cannot be read.
+     */
+    @Override
+    public boolean hasNext() {
+        if (nextLine == null) {
+            try {
+                nextLine = readLine();
+            } catch (IOException e) {
+                throw new UncheckedIOException(ERR_READ_STREAM, e);
+            }
+        }
+        return nextLine != null;
+    }
+
+    /**
+     * @throws UncheckedIOException If the InputStream cannot be read.
+     */
+    @Override
+    public String next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        String line = nextLine;
+        nextLine = null;
+        return line;
+    }
+
+    /**
+     * Returns a sequential stream of the remaining lines. Closing the stream closes this reader.
+     */
+    public Stream<String> stream() {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(this,
+                Spliterator.ORDERED | Spliterator.NONNULL), false).onClose(() -> {
+                    try {
+                        close();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+    }
+
+    @Override
+    public void close() throws IOException {
+        input.close();
+    }
+}
@@ -0,0 +1,138 @@
+package sg.edu.nus.comp.cs4218.impl.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+
+/**
+ * Lazily reads the UTF-8 lines of an InputStream that contain a literal, one line at a time.
+ * <p>
+ * The literal is searched for in the raw bytes across many lines at once with a {@link LiteralMatcher}, and
+ * only the lines it is found in are decoded. The lines returned are the same as reading every line with a
+ * {@link LineReader} and keeping those that contain the literal: lines end at "\n", "\r" or "\r\n", and the
+ * literal never contains a terminator, so the empty line between "\r" and "\n" never matches.
+ * <p>
+ * Closing the reader closes the underlying InputStream.
+ */
+public class LiteralLineReader implements Closeable {
+    private static final byte LINE_FEED = '\n';
+    private static final byte CARRIAGE_RETURN = '\r';
+
+    private final InputStream input;
+    private final LiteralMatcher matcher;
+    private byte[] buffer;
+    // the start of the first line not yet returned or skipped
+    private int start;
+    private int end;
+    // where to search for the literal next, as no occurrence starts between start and it
+    private int searchFrom;
+    private boolean isEndOfInput;
+
+    /**
+     * Creates a reader with the default buffer size of a {@link LineReader}.
+     */
+    public LiteralLineReader(InputStream input, LiteralMatcher matcher) {
+        this(input, matcher, LineReader.DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * @param input      InputStream to read lines from.
+     * @param matcher    The literal the lines returned contain.
+     * @param bufferSize Initial size of the read buffer; it only grows to fit longer lines.
+     */
+    public LiteralLineReader(InputStream input, LiteralMatcher matcher, int bufferSize) {
+        this.input = Objects.requireNonNull(input);
+        this.matcher = matcher;
+        this.buffer = new byte[Math.max(matcher.length(), bufferSize)];
+    }
+
+    /**
+     * Reads the next line that contains the literal.
+     *
+     * @return The next matching line without its terminator, or null if there are no more.
+     * @throws IOException If the InputStream cannot be read.
+     */
+    public String readMatchingLine() throws IOException {
+        while (true) {
+            int index = matcher.indexOf(buffer, searchFrom, end);
+            if (index >= 0) {
+                int lineStart = findLineStart(index);
+                int lineEnd = findTerminator(index + matcher.length(), end);
+                if (lineEnd >= 0 || isEndOfInput) {
+                    int length = (lineEnd >= 0 ? lineEnd : end) - lineStart;
+                    String line = new String(buffer, lineStart, length, StandardCharsets.UTF_8);
+                    start = lineEnd >= 0 ? lineEnd + 1 : end;
+                    searchFrom = start;
+                    return line;
+                }
+                // the rest of the line has not been read yet, so search it again after reading more
+                start = lineStart;
+                searchFrom = index;
+            } else if (isEndOfInput) {
+                start = end;
+                searchFrom = end;
+                return null;
+            } else {
+                // lines before the last terminator cannot match, and a match can still start in the last bytes
+                start = findLineStart(end);
+                searchFrom = Math.max(start, end - matcher.length() + 1);
+            }
+            fill();
+        }
+    }
+
+    /**
+     * Returns the start of the line that the byte before index belongs to.
+     */
+    private int findLineStart(int index) {
+        for (int i = index - 1; i >= start; i--) {
+            if (buffer[i] == LINE_FEED || buffer[i] == CARRIAGE_RETURN) {
+                return i + 1;
+            }
+        }
+        return start;
+    }
+
+    private int findTerminator(int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (buffer[i] == LINE_FEED || buffer[i] == CARRIAGE_RETURN) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Moves the bytes from start to the front of the buffer, growing it if it is full of a single line,
+     * and reads more bytes after them.
+     */
+    private void fill() throws IOException {
+        int remaining = end - start;
+        if (remaining == buffer.length) {
+            byte[] grown = new byte[buffer.length * 2];
+            System.arraycopy(buffer, start, grown, 0, remaining);
+            buffer = grown;
+        } else if (start > 0) {
+            System.arraycopy(buffer, start, buffer, 0, remaining);
+        }
+        searchFrom -= start;
+        start = 0;
+        end = remaining;
+
+        int read = input.read(buffer, end, buffer.length - end);
+        if (read < 0) {
+            isEndOfInput = true;
+        } else if (read == 0) {
+            throw new IOException(LineReader.ERR_ZERO_BYTES);
+        } else {
+            end += read;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        input.close();
+    }
+}
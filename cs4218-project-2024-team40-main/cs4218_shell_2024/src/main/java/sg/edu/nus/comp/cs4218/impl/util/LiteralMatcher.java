@@ -0,0 +1,111 @@
+package sg.edu.nus.comp.cs4218.impl.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Finds a literal string in UTF-8 encoded bytes with the Boyer-Moore-Horspool algorithm, without decoding them.
+ * <p>
+ * A regex without metacharacters matches exactly where its UTF-8 bytes occur, since UTF-8 never encodes part
+ * of one character with the bytes of another. With {@link java.util.regex.Pattern#CASE_INSENSITIVE} only
+ * US-ASCII letters match regardless of case, so ignoring case only folds the bytes A-Z, the same as the regex.
+ */
+public final class LiteralMatcher {
+    private static final String METACHARACTERS = "\\^$.|?*+()[]{}";
+    private static final int CASE_OFFSET = 'a' - 'A';
+
+    private final byte[] literal;
+    private final boolean isCaseInsensitive;
+    // how far the literal can move when the byte under its last byte is the index
+    private final int[] shifts = new int[256];
+
+    /**
+     * @param literal           The string to find, which must be a literal as checked by {@link #isLiteral}.
+     * @param isCaseInsensitive Boolean option to match US-ASCII letters regardless of case
+     */
+    public LiteralMatcher(String literal, boolean isCaseInsensitive) {
+        this.isCaseInsensitive = isCaseInsensitive;
+        this.literal = literal.getBytes(StandardCharsets.UTF_8);
+        if (isCaseInsensitive) {
+            for (int i = 0; i < this.literal.length; i++) {
+                this.literal[i] = fold(this.literal[i]);
+            }
+        }
+        int last = this.literal.length - 1;
+        Arrays.fill(shifts, this.literal.length);
+        for (int i = 0; i < last; i++) {
+            shifts[this.literal[i] & 0xFF] = last - i;
+            if (isCaseInsensitive && this.literal[i] >= 'a' && this.literal[i] <= 'z') {
+                shifts[this.literal[i] - CASE_OFFSET] = last - i;
+            }
+        }
+    }
+
+    /**
+     * Returns whether the regex matches only its own text, so that it can be found with a LiteralMatcher. It has
+     * no metacharacters or line terminators, is not empty and can be encoded as UTF-8.
+     */
+    public static boolean isLiteral(String regex) {
+        if (regex.isEmpty()) {
+            return false;
+        }
+        for (int i = 0; i < regex.length(); i++) {
+            char value = regex.charAt(i);
+            if (METACHARACTERS.indexOf(value) >= 0 || value == '\n' || value == '\r'
+                    || value == '\uFFFD' || Character.isSurrogate(value) && !isSurrogatePair(regex, i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isSurrogatePair(String text, int index) {
+        if (Character.isHighSurrogate(text.charAt(index))) {
+            return index + 1 < text.length() && Character.isLowSurrogate(text.charAt(index + 1));
+        }
+        return index > 0 && Character.isHighSurrogate(text.charAt(index - 1));
+    }
+
+    /**
+     * Returns the length in bytes of the literal.
+     */
+    public int length() {
+        return literal.length;
+    }
+
+    /**
+     * Finds the first occurrence of the literal that starts at or after from and ends at or before to.
+     *
+     * @return The index of the occurrence, or -1 if there is none.
+     */
+    public int indexOf(byte[] bytes, int from, int to) {
+        int last = literal.length - 1;
+        byte lastByte = literal[last];
+        int index = from;
+        while (index <= to - literal.length) {
+            byte value = bytes[index + last];
+            if ((isCaseInsensitive ? fold(value) : value) == lastByte && isMatch(bytes, index, last)) {
+                return index;
+            }
+            index += shifts[value & 0xFF];
+        }
+        return -1;
+    }
+
+    /**
+     * Compares the literal, except its last byte, with the bytes at index.
+     */
+    private boolean isMatch(byte[] bytes, int index, int last) {
+        for (int i = 0; i < last; i++) {
+            byte value = isCaseInsensitive ? fold(bytes[index + i]) : bytes[index + i];
+            if (value != literal[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static byte fold(byte value) {
+        return value >= 'A' && value <= 'Z' ? (byte) (value + CASE_OFFSET) : value;
+    }
+}
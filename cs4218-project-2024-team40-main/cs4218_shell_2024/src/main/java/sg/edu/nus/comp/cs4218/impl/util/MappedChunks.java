@@ -0,0 +1,118 @@
+package sg.edu.nus.comp.cs4218.impl.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splits a file into chunks of whole lines that can be read independently, each through its own memory map.
+ * <p>
+ * A chunk ends after the first line terminator at or after its nominal size, so every line is in exactly one
+ * chunk. A "\r\n" terminator is never split, so reading the chunks one after another with a
+ * {@link LineReader} gives the same lines as reading the whole file.
+ */
+public final class MappedChunks {
+    public static final int CHUNK_SIZE = 8 * 1024 * 1024;
+
+    private static final int SCAN_SIZE = 8 * 1024;
+
+    private MappedChunks() {
+    }
+
+    /**
+     * Returns the boundaries of the chunks of the first size bytes of the file: chunk i runs from element i
+     * until element i + 1.
+     *
+     * @param chunkSize The size a chunk has at least, unless it is the last one.
+     * @return The boundaries, or null if a line is too long to be mapped as part of one chunk.
+     * @throws IOException If the file cannot be read.
+     */
+    public static long[] split(FileChannel channel, long size, int chunkSize) throws IOException {
+        List<Long> boundaries = new ArrayList<>();
+        long start = 0;
+        boundaries.add(start);
+        while (start < size) {
+            long end = size - start <= chunkSize ? size : findLineEnd(channel, start + chunkSize, size);
+            if (end - start > Integer.MAX_VALUE) {
+                return null;
+            }
+            boundaries.add(end);
+            start = end;
+        }
+        long[] result = new long[boundaries.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = boundaries.get(i);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the position after the terminator of the line that the byte before position belongs to.
+     */
+    private static long findLineEnd(FileChannel channel, long position, long size) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(SCAN_SIZE);
+        long offset = position - 1;
+        boolean isAfterCarriageReturn = false;
+        while (offset < size) {
+            buffer.clear();
+            int read = channel.read(buffer, offset);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                byte value = buffer.get(i);
+                if (isAfterCarriageReturn) {
+                    return value == '\n' ? offset + i + 1 : offset + i;
+                }
+                if (value == '\n') {
+                    return offset + i + 1;
+                }
+                isAfterCarriageReturn = value == '\r';
+            }
+            offset += read;
+        }
+        return size;
+    }
+
+    /**
+     * Maps the bytes of the file from start until end, and returns an InputStream reading them.
+     *
+     * @throws IOException If the bytes cannot be mapped.
+     */
+    public static InputStream open(FileChannel channel, long start, long end) throws IOException {
+        return new BufferInputStream(channel.map(FileChannel.MapMode.READ_ONLY, start, end - start));
+    }
+
+    /**
+     * Reads the remaining bytes of a buffer.
+     */
+    private static final class BufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        BufferInputStream(ByteBuffer buffer) {
+            super();
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) {
+            if (length == 0) {
+                return 0;
+            }
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int count = Math.min(length, buffer.remaining());
+            buffer.get(bytes, offset, count);
+            return count;
+        }
+    }
+}
@@ -0,0 +1,256 @@
+package sg.edu.nus.comp.cs4218.impl.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Lines stored as their raw bytes, packed one after another into large byte arrays, instead of as one
+ * String per line.
+ * <p>
+ * Besides its bytes, each line only costs its position in a long array and its length in an int array,
+ * where a List of Strings costs 60 or more bytes of object headers and references per line. Lines are split
+ * at the same line terminators as {@link LineReader}: "\n", "\r\n" and "\r". They are only decoded, as UTF-8,
+ * by {@link #getString(int)}.
+ */
+public final class PackedLines {
+    /**
+     * Estimated bytes used by each line besides its bytes: its position, its length and the int arrays it is
+     * sorted with.
+     */
+    public static final int LINE_OVERHEAD = 20;
+    public static final int MIN_SLAB_SIZE = 16 * 1024;
+    public static final int MAX_SLAB_SIZE = 1024 * 1024;
+
+    private static final int INITIAL_CAPACITY = 256;
+    private static final int READ_SIZE = 64 * 1024;
+    private static final int SLAB_SHIFT = 32;
+
+    private final List<byte[]> slabs = new ArrayList<>();
+    private byte[] slab;
+    private int slabUsed;
+    // offset in the current slab of the line being added
+    private int lineStart;
+    // slab index in the high and offset in the low 32 bits
+    private long[] positions = new long[INITIAL_CAPACITY];
+    private int[] lengths = new int[INITIAL_CAPACITY];
+    private int size;
+    private long byteCount;
+
+    public PackedLines() {
+        clear();
+    }
+
+    /**
+     * Called after every line that is added from an InputStream.
+     */
+    @FunctionalInterface
+    public interface LineListener {
+        void lineAdded() throws IOException;
+    }
+
+    /**
+     * Adds the rest of the lines of the InputStream.
+     *
+     * @throws IOException If the InputStream cannot be read.
+     */
+    public void addLines(InputStream input) throws IOException {
+        addLines(input, () -> { });
+    }
+
+    /**
+     * Adds the rest of the lines of the InputStream, calling the listener after each of them. The listener
+     * may clear the lines.
+     *
+     * @throws IOException If the InputStream cannot be read or the listener fails.
+     */
+    public void addLines(InputStream input, LineListener listener) throws IOException {
+        byte[] buffer = new byte[READ_SIZE];
+        boolean isLineStarted = false;
+        boolean isAfterCarriageReturn = false;
+        int read;
+        while ((read = input.read(buffer, 0, buffer.length)) != -1) {
+            if (read == 0) {
+                throw new IOException(LineReader.ERR_ZERO_BYTES);
+            }
+            int start = 0;
+            for (int i = 0; i < read; i++) {
+                byte value = buffer[i];
+                if (value == '\n' && isAfterCarriageReturn) {
+                    // the second byte of "\r\n"
+                    start = i + 1;
+                    isAfterCarriageReturn = false;
+                } else if (value == '\n' || value == '\r') {
+                    append(buffer, start, i - start);
+                    endLine();
+                    listener.lineAdded();
+                    isLineStarted = false;
+                    isAfterCarriageReturn = value == '\r';
+                    start = i + 1;
+                } else {
+                    isAfterCarriageReturn = false;
+                }
+            }
+            if (start < read) {
+                append(buffer, start, read - start);
+                isLineStarted = true;
+            }
+        }
+        if (isLineStarted) {
+            endLine();
+            listener.lineAdded();
+        }
+    }
+
+    /**
+     * Adds a line, which must not contain line terminators.
+     */
+    public void add(byte[] bytes, int offset, int length) {
+        append(bytes, offset, length);
+        endLine();
+    }
+
+    private void append(byte[] bytes, int offset, int length) {
+        if (length == 0) {
+            return;
+        }
+        if (slabUsed + length > slab.length) {
+            moveLineToNewSlab(slabUsed - lineStart + length);
+        }
+        System.arraycopy(bytes, offset, slab, slabUsed, length);
+        slabUsed += length;
+    }
+
+    /**
+     * Starts a new slab of at least the required size and moves the bytes of the line being added to it.
+     */
+    private void moveLineToNewSlab(int required) {
+        int lineLength = slabUsed - lineStart;
+        int slabSize = Math.max(Math.min(MAX_SLAB_SIZE, 2 * slab.length), required);
+        if (required > MAX_SLAB_SIZE) {
+            // a line longer than a slab grows the way an ArrayList does
+            slabSize = (int) Math.min(Integer.MAX_VALUE - 8, Math.max(required, 2L * lineLength));
+        }
+        byte[] newSlab = new byte[slabSize];
+        System.arraycopy(slab, lineStart, newSlab, 0, lineLength);
+        if (lineStart == 0) {
+            // no line ends in the current slab, so nothing refers to it
+            slabs.set(slabs.size() - 1, newSlab);
+        } else {
+            slabs.add(newSlab);
+        }
+        slab = newSlab;
+        slabUsed = lineLength;
+        lineStart = 0;
+    }
+
+    private void endLine() {
+        if (size == positions.length) {
+            positions = Arrays.copyOf(positions, 2 * size);
+            lengths = Arrays.copyOf(lengths, 2 * size);
+        }
+        positions[size] = ((long) (slabs.size() - 1) << SLAB_SHIFT) | lineStart;
+        lengths[size] = slabUsed - lineStart;
+        byteCount += lengths[size];
+        size++;
+        lineStart = slabUsed;
+    }
+
+    /**
+     * Returns the number of lines.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the byte array that holds the line.
+     */
+    public byte[] getBytes(int line) {
+        return slabs.get((int) (positions[line] >>> SLAB_SHIFT));
+    }
+
+    /**
+     * Returns the offset of the line in the array returned by {@link #getBytes(int)}.
+     */
+    public int getOffset(int line) {
+        return (int) positions[line];
+    }
+
+    public int getLength(int line) {
+        return lengths[line];
+    }
+
+    /**
+     * Decodes the line from UTF-8.
+     */
+    public String getString(int line) {
+        return new String(getBytes(line), getOffset(line), getLength(line), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Returns whether the two lines have the same bytes.
+     */
+    public boolean isEqual(int line1, int line2) {
+        int offset1 = getOffset(line1);
+        int offset2 = getOffset(line2);
+        return Arrays.equals(getBytes(line1), offset1, offset1 + lengths[line1],
+                getBytes(line2), offset2, offset2 + lengths[line2]);
+    }
+
+    /**
+     * Writes the bytes of the line, without a line terminator.
+     *
+     * @throws IOException If the OutputStream cannot be written to.
+     */
+    public void write(int line, OutputStream output) throws IOException {
+        output.write(getBytes(line), getOffset(line), getLength(line));
+    }
+
+    /**
+     * Estimates the number of bytes of memory used by the lines, see {@link #LINE_OVERHEAD}.
+     */
+    public long estimateSize() {
+        return byteCount + (long) LINE_OVERHEAD * size;
+    }
+
+    /**
+     * Returns the indices of the lines in sorted order. The sort is stable, and with reverse order the result
+     * is exactly the stable ascending order reversed.
+     *
+     * @param parallelism Number of threads to sort with.
+     */
+    public int[] sort(ByteLineComparator comparator, boolean isReverse, int parallelism) {
+        int[] order = new int[size];
+        for (int i = 0; i < size; i++) {
+            // sorting the reversed lines stably in descending order puts equal lines last in first, exactly as
+            // reversing the ascending order would
+            order[isReverse ? size - 1 - i : i] = i;
+        }
+        ParallelMergeSort.IntComparator ascending = (line1, line2) -> comparator.compare(
+                getBytes(line1), getOffset(line1), lengths[line1], getBytes(line2), getOffset(line2), lengths[line2]);
+        ParallelMergeSort.sort(order, isReverse ? (line1, line2) -> ascending.compare(line2, line1) : ascending,
+                parallelism);
+        return order;
+    }
+
+    /**
+     * Removes all lines and releases their bytes. The current slab is kept to add lines to, unless it only
+     * fits a line longer than a slab, so that clearing after every line does not allocate.
+     */
+    public void clear() {
+        slabs.clear();
+        if (slab == null || slab.length > MAX_SLAB_SIZE) {
+            slab = new byte[MIN_SLAB_SIZE];
+        }
+        slabs.add(slab);
+        slabUsed = 0;
+        lineStart = 0;
+        size = 0;
+        byteCount = 0;
+    }
+}
@@ -0,0 +1,231 @@
+package sg.edu.nus.comp.cs4218.impl.util;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Stable merge sort of an array on a given number of threads.
+ * <p>
+ * The array is split in halves until the parts are small enough, the parts are sorted with
+ * {@link Arrays#sort(Object[], Comparator)}, or a sequential merge sort for int arrays, and then merged
+ * pairwise, taking equal elements from the left part first. The sort runs on the common {@link ForkJoinPool}
+ * when its parallelism is the one asked for, and otherwise on a pool shared by every sort with that parallelism,
+ * so that the number of threads does not depend on the parallelism of the common pool and no pool is created
+ * per sort. The threads of a shared pool end on their own once it is idle. The result is the same as that of a
+ * sequential stable sort.
+ */
+public final class ParallelMergeSort {
+    /**
+     * Arrays and parts of at most this many elements are sorted on one thread.
+     */
+    public static final int MIN_PARALLEL_LENGTH = 8192;
+    private static final int PARTS_PER_THREAD = 4;
+    // the most threads a ForkJoinPool can have
+    private static final int MAX_PARALLELISM = 0x7fff;
+    private static final int INSERTION_SORT_LENGTH = 32;
+    private static final Map<Integer, ForkJoinPool> POOLS = new ConcurrentHashMap<>();
+
+    /**
+     * Compares two ints, such as the indices of the elements to sort, without boxing them.
+     */
+    @FunctionalInterface
+    public interface IntComparator {
+        int compare(int left, int right);
+    }
+
+    private ParallelMergeSort() {
+    }
+
+    /**
+     * Sorts the array in place.
+     *
+     * @param parallelism Number of threads to sort with. 1 sorts on the calling thread.
+     * @throws IllegalArgumentException If parallelism is not positive.
+     */
+    public static <T> void sort(T[] array, Comparator<? super T> comparator, int parallelism) {
+        checkParallelism(parallelism);
+        if (parallelism == 1 || array.length <= MIN_PARALLEL_LENGTH) {
+            Arrays.sort(array, comparator);
+            return;
+        }
+        T[] buffer = Arrays.copyOf(array, array.length);
+        invoke(new SortTask<>(array, buffer, 0, array.length, getPartLength(array.length, parallelism),
+                comparator), parallelism);
+    }
+
+    /**
+     * Sorts the int array in place.
+     *
+     * @param parallelism Number of threads to sort with. 1 sorts on the calling thread.
+     * @throws IllegalArgumentException If parallelism is not positive.
+     */
+    public static void sort(int[] array, IntComparator comparator, int parallelism) {
+        checkParallelism(parallelism);
+        int[] buffer = new int[array.length];
+        if (parallelism == 1 || array.length <= MIN_PARALLEL_LENGTH) {
+            mergeSort(array, buffer, 0, array.length, comparator);
+            return;
+        }
+        invoke(new IntSortTask(array, buffer, 0, array.length, getPartLength(array.length, parallelism),
+                comparator), parallelism);
+    }
+
+    private static void checkParallelism(int parallelism) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("parallelism must be positive: " + parallelism);
+        }
+    }
+
+    private static int getPartLength(int length, int parallelism) {
+        return (int) Math.max(MIN_PARALLEL_LENGTH, length / ((long) parallelism * PARTS_PER_THREAD));
+    }
+
+    private static void invoke(RecursiveAction task, int parallelism) {
+        getPool(parallelism).invoke(task);
+    }
+
+    /**
+     * Returns the pool to sort on with the given number of threads, the common pool if it has that many.
+     */
+    static ForkJoinPool getPool(int parallelism) {
+        int threads = Math.min(parallelism, MAX_PARALLELISM);
+        if (threads == ForkJoinPool.getCommonPoolParallelism()) {
+            return ForkJoinPool.commonPool();
+        }
+        return POOLS.computeIfAbsent(threads, ForkJoinPool::new);
+    }
+
+    private static void mergeSort(int[] array, int[] buffer, int start, int end, IntComparator comparator) {
+        if (end - start <= INSERTION_SORT_LENGTH) {
+            for (int i = start + 1; i < end; i++) {
+                int value = array[i];
+                int j = i;
+                while (j > start && comparator.compare(value, array[j - 1]) < 0) {
+                    array[j] = array[j - 1];
+                    j--;
+                }
+                array[j] = value;
+            }
+            return;
+        }
+        int middle = (start + end) >>> 1;
+        mergeSort(array, buffer, start, middle, comparator);
+        mergeSort(array, buffer, middle, end, comparator);
+        merge(array, buffer, start, middle, end, comparator);
+    }
+
+    private static void merge(int[] array, int[] buffer, int start, int middle, int end,
+                              IntComparator comparator) {
+        if (comparator.compare(array[middle - 1], array[middle]) <= 0) {
+            return;
+        }
+        System.arraycopy(array, start, buffer, start, middle - start);
+        int left = start;
+        int right = middle;
+        int target = start;
+        while (left < middle && right < end) {
+            // ties take the left element, which keeps the sort stable
+            if (comparator.compare(array[right], buffer[left]) < 0) {
+                array[target++] = array[right++];
+            } else {
+                array[target++] = buffer[left++];
+            }
+        }
+        System.arraycopy(buffer, left, array, target, middle - left);
+    }
+
+    /**
+     * Sorts the elements of the array from start until end, using the same part of the buffer to merge.
+     */
+    private static final class SortTask<T> extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final transient T[] array;
+        private final transient T[] buffer;
+        private final int start;
+        private final int end;
+        private final int partLength;
+        private final transient Comparator<? super T> comparator;
+
+        SortTask(T[] array, T[] buffer, int start, int end, int partLength, Comparator<? super T> comparator) {
+            super();
+            this.array = array;
+            this.buffer = buffer;
+            this.start = start;
+            this.end = end;
+            this.partLength = partLength;
+            this.comparator = comparator;
+        }
+
+        @Override
+        protected void compute() {
+            if (end - start <= partLength) {
+                Arrays.sort(array, start, end, comparator);
+                return;
+            }
+            int middle = start + (end - start) / 2;
+            invokeAll(new SortTask<>(array, buffer, start, middle, partLength, comparator),
+                    new SortTask<>(array, buffer, middle, end, partLength, comparator));
+            merge(middle);
+        }
+
+        private void merge(int middle) {
+            if (comparator.compare(array[middle - 1], array[middle]) <= 0) {
+                return;
+            }
+            System.arraycopy(array, start, buffer, start, middle - start);
+            int left = start;
+            int right = middle;
+            int target = start;
+            while (left < middle && right < end) {
+                // ties take the left element, which keeps the sort stable
+                if (comparator.compare(array[right], buffer[left]) < 0) {
+                    array[target++] = array[right++];
+                } else {
+                    array[target++] = buffer[left++];
+                }
+            }
+            System.arraycopy(buffer, left, array, target, middle - left);
+        }
+    }
+
+    /**
+     * Sorts the ints of the array from start until end, using the same part of the buffer to merge.
+     */
+    private static final class IntSortTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int[] array;
+        private final int[] buffer;
+        private final int start;
+        private final int end;
+        private final int partLength;
+        private final transient IntComparator comparator;
+
+        IntSortTask(int[] array, int[] buffer, int start, int end, int partLength, IntComparator comparator) {
+            super();
+            this.array = array;
+            this.buffer = buffer;
+            this.start = start;
+            this.end = end;
+            this.partLength = partLength;
+            this.comparator = comparator;
+        }
+
+        @Override
+        protected void compute() {
+            if (end - start <= partLength) {
+                mergeSort(array, buffer, start, end, comparator);
+                return;
+            }
+            int middle = (start + end) >>> 1;
+            invokeAll(new IntSortTask(array, buffer, start, middle, partLength, comparator),
+                    new IntSortTask(array, buffer, middle, end, partLength, comparator));
+            merge(array, buffer, start, middle, end, comparator);
+        }
+    }
+}
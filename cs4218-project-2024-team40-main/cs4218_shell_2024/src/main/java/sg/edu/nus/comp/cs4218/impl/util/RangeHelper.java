@@ -4,15 +4,27 @@ import sg.edu.nus.comp.cs4218.exception.RangeHelperException;
 
 import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
 
 /**
  * The RangeHelper class provides functionality for managing a list of integer ranges.
  * It allows adding, accessing, and checking if a number is within any of the defined ranges.
+ * <p>
+ * The ranges are merged into sorted, disjoint spans whenever they change, and the positions below
+ * {@link #MAX_INDEXED_LENGTH} are indexed in a BitSet, so checking a number in a line of up to that length takes
+ * constant time however many ranges there are. Larger numbers are looked up in the spans by binary search, so a
+ * range far out (such as one that ends at Integer.MAX_VALUE) takes no more memory than a small one.
  */
 public class RangeHelper extends AbstractList<int[]> {
+    public static final int MAX_INDEXED_LENGTH = 1 << 16;
+
     private final List<int[]> ranges = new ArrayList<>();
+    private List<int[]> spans = Collections.emptyList();
+    // the selected positions from 0 until MAX_INDEXED_LENGTH
+    private BitSet positions = new BitSet();
     public static final String ERR_NULL_RANGES = "Ranges cannot be null";
 
     public static final String ERR_INVALID_RANGE = "Invalid range";
@@ -34,6 +46,33 @@ public class RangeHelper extends AbstractList<int[]> {
         }
         this.ranges.addAll(ranges);
         this.ranges.sort(Comparator.comparingInt(range -> range[0]));
+        compile();
+    }
+
+    /**
+     * Merges the ranges into spans and indexes their positions.
+     */
+    private void compile() {
+        List<int[]> merged = new ArrayList<>();
+        for (int[] range : ranges) {
+            int[] last = merged.isEmpty() ? null : merged.get(merged.size() - 1);
+            if (last != null && (long) range[0] <= (long) last[1] + 1) {
+                last[1] = Math.max(last[1], range[1]);
+            } else {
+                merged.add(new int[]{range[0], range[1]});
+            }
+        }
+        BitSet indexed = new BitSet();
+        for (int[] span : merged) {
+            if (span[0] >= MAX_INDEXED_LENGTH) {
+                break;
+            }
+            if (span[1] >= 0) {
+                indexed.set(Math.max(span[0], 0), Math.min(span[1], MAX_INDEXED_LENGTH - 1) + 1);
+            }
+        }
+        spans = Collections.unmodifiableList(merged);
+        positions = indexed;
     }
 
     /**
@@ -67,9 +106,20 @@ public class RangeHelper extends AbstractList<int[]> {
     public boolean add(int[] range) {
         ranges.add(range);
         ranges.sort(Comparator.comparingInt(range2 -> range2[0]));
+        compile();
         return true;
     }
 
+    /**
+     * Retrieves the ranges merged into sorted spans that neither overlap nor touch each other, so that the
+     * selected positions can be visited one span at a time.
+     *
+     * @return The spans, each a 2-element array of its first and last position.
+     */
+    public List<int[]> getSpans() {
+        return spans;
+    }
+
     /**
      * Checks if the specified number is within any of the ranges.
      *
@@ -77,8 +127,19 @@ public class RangeHelper extends AbstractList<int[]> {
      * @return true if the number is within any of the ranges, false otherwise.
      */
     public boolean contains(int number) {
-        for (int[] range : ranges) {
-            if (number >= range[0] && number <= range[1]) {
+        if (number >= 0 && number < MAX_INDEXED_LENGTH) {
+            return positions.get(number);
+        }
+        int low = 0;
+        int high = spans.size() - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int[] span = spans.get(middle);
+            if (number < span[0]) {
+                high = middle - 1;
+            } else if (number > span[1]) {
+                low = middle + 1;
+            } else {
                 return true;
             }
         }
@@ -0,0 +1,308 @@
+package sg.edu.nus.comp.cs4218.impl.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.locks.LockSupport;
+
+import static sg.edu.nus.comp.cs4218.impl.util.ErrorConstants.ERR_STREAM_CLOSED;
+
+/**
+ * A bounded single-producer/single-consumer byte pipe backed by a ring buffer.
+ * <p>
+ * The writing thread uses {@link #getOutputStream()} and the reading thread uses
+ * {@link #getInputStream()}. Each side only ever advances its own position, so no locks are taken:
+ * a write copies a whole chunk into the free space and publishes it with a single volatile store,
+ * and a read takes everything published so far. When a side has to wait it spins briefly and yields
+ * twice before registering itself and parking until the other side unparks it: the reader as soon as
+ * any data is published, the writer once the buffer is at least half empty, and either side on close.
+ * The side that unparks takes the registration, so a wait costs a single unpark however many chunks are
+ * written or read before the parked thread runs again. A waiting thread that is interrupted gets an
+ * {@link InterruptedIOException}.
+ */
+public class RingBufferPipe {
+    public static final String ERR_INVALID_CAPACITY = "Capacity must be positive";
+    public static final String ERR_CAPACITY_TOO_LARGE = "Capacity must be at most 2^30";
+    public static final int MAX_CAPACITY = 1 << 30;
+
+    // spinning only helps when the other side can make progress on another core
+    private static final int SPIN_LIMIT = Runtime.getRuntime().availableProcessors() > 1 ? 128 : 0;
+    // on a single core the other side can only make progress if this one gives up the processor, and it
+    // usually fills or drains the whole buffer before the next yield returns, with no park and unpark
+    private static final int YIELD_LIMIT = 2;
+    private static final VarHandle WAITING_READER;
+    private static final VarHandle WAITING_WRITER;
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            WAITING_READER = lookup.findVarHandle(RingBufferPipe.class, "waitingReader", Thread.class);
+            WAITING_WRITER = lookup.findVarHandle(RingBufferPipe.class, "waitingWriter", Thread.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final byte[] buffer;
+    private final int mask;
+    private final int wakeThreshold;
+    private final PipeInputStream inputStream = new PipeInputStream();
+    private final PipeOutputStream outputStream = new PipeOutputStream();
+
+    private volatile long readPosition;
+    private volatile long writePosition;
+    private volatile boolean isWriterClosed;
+    private volatile boolean isReaderClosed;
+    private volatile boolean isBroken;
+    private volatile Thread waitingReader;
+    private volatile Thread waitingWriter;
+
+    /**
+     * Creates a pipe holding at least the given number of bytes.
+     * The capacity is rounded up to the next power of two.
+     *
+     * @param capacity Minimum number of bytes the pipe can hold before the writer waits, at most
+     *                 {@link #MAX_CAPACITY}.
+     */
+    public RingBufferPipe(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException(ERR_INVALID_CAPACITY);
+        }
+        if (capacity > MAX_CAPACITY) {
+            throw new IllegalArgumentException(ERR_CAPACITY_TOO_LARGE);
+        }
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+        buffer = new byte[size];
+        mask = size - 1;
+        wakeThreshold = Math.max(1, size / 2);
+    }
+
+    public int getCapacity() {
+        return buffer.length;
+    }
+
+    /**
+     * Returns the read end of the pipe. Closing it makes further writes fail.
+     */
+    public InputStream getInputStream() {
+        return inputStream;
+    }
+
+    /**
+     * Returns the write end of the pipe. Closing it signals end of stream to the reader.
+     */
+    public OutputStream getOutputStream() {
+        return outputStream;
+    }
+
+    /**
+     * Checks whether a write was rejected because the read end had been closed.
+     *
+     * @return true if the writer hit a broken pipe.
+     */
+    public boolean isBroken() {
+        return isBroken;
+    }
+
+    private void wakeReader() {
+        // a plain read first, so a write only pays for the atomic swap when the reader is waiting
+        if (waitingReader != null) {
+            Thread reader = (Thread) WAITING_READER.getAndSet(this, null);
+            if (reader != null) {
+                LockSupport.unpark(reader);
+            }
+        }
+    }
+
+    private void wakeWriterIfSpace() {
+        if (buffer.length - (writePosition - readPosition) >= wakeThreshold) {
+            wakeWriter();
+        }
+    }
+
+    private void wakeWriter() {
+        if (waitingWriter != null) {
+            Thread writer = (Thread) WAITING_WRITER.getAndSet(this, null);
+            if (writer != null) {
+                LockSupport.unpark(writer);
+            }
+        }
+    }
+
+    private static void checkInterrupted() throws InterruptedIOException {
+        if (Thread.currentThread().isInterrupted()) {
+            throw new InterruptedIOException();
+        }
+    }
+
+    /**
+     * Waits until there is data to read or the writer has closed.
+     *
+     * @return Number of bytes available, 0 if the writer has closed and everything was read.
+     */
+    private int awaitData() throws IOException {
+        for (int spins = 0; ; spins++) {
+            if (isReaderClosed) {
+                throw new IOException(ERR_STREAM_CLOSED);
+            }
+            int available = (int) (writePosition - readPosition);
+            if (available > 0 || isWriterClosed) {
+                // re-read in case the last bytes were published just before closing
+                return (int) (writePosition - readPosition);
+            }
+            if (spins < SPIN_LIMIT) {
+                Thread.onSpinWait();
+            } else if (spins < SPIN_LIMIT + YIELD_LIMIT) {
+                Thread.yield();
+            } else {
+                checkInterrupted();
+                // registered before checking again, so data published after the check always unparks it
+                waitingReader = Thread.currentThread();
+                if (writePosition == readPosition && !isWriterClosed && !isReaderClosed) {
+                    LockSupport.park(this);
+                }
+                waitingReader = null;
+            }
+        }
+    }
+
+    /**
+     * Waits until there is free space to write into or the reader has closed.
+     *
+     * @return Number of bytes of free space.
+     */
+    private int awaitSpace() throws IOException {
+        for (int spins = 0; ; spins++) {
+            if (isReaderClosed) {
+                isBroken = true;
+                throw new IOException(ERR_STREAM_CLOSED);
+            }
+            if (isWriterClosed) {
+                throw new IOException(ERR_STREAM_CLOSED);
+            }
+            int free = buffer.length - (int) (writePosition - readPosition);
+            if (free > 0) {
+                return free;
+            }
+            if (spins < SPIN_LIMIT) {
+                Thread.onSpinWait();
+            } else if (spins < SPIN_LIMIT + YIELD_LIMIT) {
+                Thread.yield();
+            } else {
+                checkInterrupted();
+                waitingWriter = Thread.currentThread();
+                if (buffer.length - (writePosition - readPosition) < wakeThreshold && !isReaderClosed
+                        && !isWriterClosed) {
+                    LockSupport.park(this);
+                }
+                waitingWriter = null;
+            }
+        }
+    }
+
+    /**
+     * Read end of the pipe. Must only be used by a single thread.
+     */
+    private class PipeInputStream extends InputStream {
+        @Override
+        public int read() throws IOException {
+            if (awaitData() == 0) {
+                return -1;
+            }
+            long position = readPosition;
+            int value = buffer[(int) position & mask] & 0xFF;
+            readPosition = position + 1;
+            wakeWriterIfSpace();
+            return value;
+        }
+
+        @Override
+        public int read(byte[] bytes, int off, int len) throws IOException {
+            if (off < 0 || len < 0 || len > bytes.length - off) {
+                throw new IndexOutOfBoundsException();
+            }
+            if (len == 0) {
+                return 0;
+            }
+            int available = awaitData();
+            if (available == 0) {
+                return -1;
+            }
+            int count = Math.min(available, len);
+            long position = readPosition;
+            int start = (int) position & mask;
+            int firstPart = Math.min(count, buffer.length - start);
+            System.arraycopy(buffer, start, bytes, off, firstPart);
+            System.arraycopy(buffer, 0, bytes, off + firstPart, count - firstPart);
+            readPosition = position + count;
+            wakeWriterIfSpace();
+            return count;
+        }
+
+        @Override
+        public int available() throws IOException {
+            if (isReaderClosed) {
+                throw new IOException(ERR_STREAM_CLOSED);
+            }
+            return (int) (writePosition - readPosition);
+        }
+
+        @Override
+        public void close() {
+            isReaderClosed = true;
+            wakeWriter();
+        }
+    }
+
+    /**
+     * Write end of the pipe. Must only be used by a single thread.
+     */
+    private class PipeOutputStream extends OutputStream {
+        @Override
+        public void write(int value) throws IOException {
+            awaitSpace();
+            long position = writePosition;
+            buffer[(int) position & mask] = (byte) value;
+            writePosition = position + 1;
+            wakeReader();
+        }
+
+        @Override
+        public void write(byte[] bytes, int off, int len) throws IOException {
+            if (off < 0 || len < 0 || len > bytes.length - off) {
+                throw new IndexOutOfBoundsException();
+            }
+            int remaining = len;
+            int offset = off;
+            while (remaining > 0) {
+                int count = Math.min(awaitSpace(), remaining);
+                long position = writePosition;
+                int start = (int) position & mask;
+                int firstPart = Math.min(count, buffer.length - start);
+                System.arraycopy(bytes, offset, buffer, start, firstPart);
+                System.arraycopy(bytes, offset + firstPart, buffer, 0, count - firstPart);
+                writePosition = position + count;
+                wakeReader();
+                offset += count;
+                remaining -= count;
+            }
+        }
+
+        @Override
+        public void flush() {
+            wakeReader();
+        }
+
+        @Override
+        public void close() {
+            isWriterClosed = true;
+            wakeReader();
+        }
+    }
+}
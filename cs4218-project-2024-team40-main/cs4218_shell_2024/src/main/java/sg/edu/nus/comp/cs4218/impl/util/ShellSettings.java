@@ -0,0 +1,131 @@
+package sg.edu.nus.comp.cs4218.impl.util;
+
+/**
+ * Centralized holder for tunable shell execution settings.
+ * <p>
+ * Each setting is initialised from a JVM system property (e.g. {@code -Dshell.pipe.concurrent=true})
+ * and may be changed at runtime, in the same manner as {@code Environment.currentDirectory}.
+ */
+public final class ShellSettings {
+    public static final String PROP_PIPE_CONCURRENT = "shell.pipe.concurrent";
+    public static final String PROP_PIPE_BUFFER_SIZE = "shell.pipe.bufferSize";
+    public static final String PROP_PLAN_CACHE_SIZE = "shell.planCache.size";
+    public static final String PROP_SPILL_THRESHOLD = "shell.spill.threshold";
+    public static final String PROP_SPILL_MEMORY_BUDGET = "shell.spill.memoryBudget";
+    public static final String PROP_WC_PARALLEL_THRESHOLD = "shell.wc.parallelThreshold";
+    public static final String PROP_SORT_MEMORY_BUDGET = "shell.sort.memoryBudget";
+    public static final String PROP_SORT_PARALLELISM = "shell.sort.parallelism";
+    public static final String PROP_UNIQ_MEMORY_BUDGET = "shell.uniq.memoryBudget";
+    public static final String PROP_GREP_LITERAL_SEARCH = "shell.grep.literalSearch";
+    public static final String PROP_GREP_PARALLELISM = "shell.grep.parallelism";
+    public static final String PROP_GREP_PARALLEL_THRESHOLD = "shell.grep.parallelThreshold";
+    public static final String PROP_GREP_ENGINE = "shell.grep.engine";
+    public static final String PROP_TEE_QUEUE_CAPACITY = "shell.tee.queueCapacity";
+
+    public static final int DEFAULT_PIPE_BUFFER_SIZE = 64 * 1024;
+    public static final int DEFAULT_PLAN_CACHE_SIZE = 256;
+    public static final int DEFAULT_SPILL_THRESHOLD = 16 * 1024 * 1024;
+    public static final long DEFAULT_SPILL_MEMORY_BUDGET = 64L * 1024 * 1024;
+    public static final long DEFAULT_WC_PARALLEL_THRESHOLD = 32L * 1024 * 1024;
+    public static final long DEFAULT_SORT_MEMORY_BUDGET = 64L * 1024 * 1024;
+    public static final int DEFAULT_SORT_PARALLELISM = 1;
+    public static final long DEFAULT_UNIQ_MEMORY_BUDGET = 64L * 1024 * 1024;
+    public static final int DEFAULT_GREP_PARALLELISM = 1;
+    public static final long DEFAULT_GREP_PARALLEL_THRESHOLD = 32L * 1024 * 1024;
+    public static final String DEFAULT_GREP_ENGINE = "java";
+    public static final int DEFAULT_TEE_QUEUE_CAPACITY = 0;
+
+    /**
+     * Whether the stages of a PipeCommand run concurrently, connected by bounded pipes,
+     * instead of one after another through fully buffered output.
+     */
+    public static volatile boolean concurrentPipes = Boolean.getBoolean(PROP_PIPE_CONCURRENT);
+
+    /**
+     * Capacity in bytes of each pipe connecting two concurrently running pipeline stages.
+     */
+    public static volatile int pipeBufferSize = Integer.getInteger(PROP_PIPE_BUFFER_SIZE, DEFAULT_PIPE_BUFFER_SIZE);
+
+    /**
+     * Number of parsed command plans kept by CommandBuilder, see {@link CommandPlanCache}. 0 disables the cache.
+     */
+    public static volatile int planCacheSize = Integer.getInteger(PROP_PLAN_CACHE_SIZE, DEFAULT_PLAN_CACHE_SIZE);
+
+    /**
+     * Number of bytes a single {@link SpillBuffer} keeps in memory before moving to a temporary file.
+     */
+    public static volatile int spillThreshold = Integer.getInteger(PROP_SPILL_THRESHOLD, DEFAULT_SPILL_THRESHOLD);
+
+    /**
+     * Number of bytes all open {@link SpillBuffer}s together may keep in memory.
+     */
+    public static volatile long spillMemoryBudget = Long.getLong(PROP_SPILL_MEMORY_BUDGET,
+            DEFAULT_SPILL_MEMORY_BUDGET);
+
+    /**
+     * Size in bytes from which wc counts a regular file in parallel chunks, see {@link WordCounter}.
+     */
+    public static volatile long wcParallelThreshold = Long.getLong(PROP_WC_PARALLEL_THRESHOLD,
+            DEFAULT_WC_PARALLEL_THRESHOLD);
+
+    /**
+     * Estimated number of bytes of lines sort keeps in memory before writing a sorted run to a temporary
+     * file, unless given with {@code -S}. See {@link ExternalLineSorter}.
+     */
+    public static volatile long sortMemoryBudget = Long.getLong(PROP_SORT_MEMORY_BUDGET,
+            DEFAULT_SORT_MEMORY_BUDGET);
+
+    /**
+     * Number of threads sort sorts the lines in memory with, unless given with {@code --parallel}.
+     * See {@link ParallelMergeSort}.
+     */
+    public static volatile int sortParallelism = Integer.getInteger(PROP_SORT_PARALLELISM,
+            DEFAULT_SORT_PARALLELISM);
+
+    /**
+     * Estimated number of bytes of distinct lines uniq {@code --global} keeps in memory before spilling them to
+     * temporary files. See {@link LineCounter}.
+     */
+    public static volatile long uniqMemoryBudget = Long.getLong(PROP_UNIQ_MEMORY_BUDGET,
+            DEFAULT_UNIQ_MEMORY_BUDGET);
+
+    /**
+     * Whether grep searches for a pattern without regex metacharacters in the raw bytes of its input, instead
+     * of matching the regex against every line. On unless the property is {@code false}.
+     * See {@link LiteralLineReader}.
+     */
+    public static volatile boolean grepLiteralSearch = Boolean.parseBoolean(
+            System.getProperty(PROP_GREP_LITERAL_SEARCH, "true"));
+
+    /**
+     * Number of files grep searches at the same time when given several. Their results are still written in
+     * the order of the arguments, so the results of the files searched ahead are held in memory until their
+     * turn. 1, the default, searches them one after another and writes every match as it is found.
+     */
+    public static volatile int grepParallelism = Integer.getInteger(PROP_GREP_PARALLELISM,
+            DEFAULT_GREP_PARALLELISM);
+
+    /**
+     * Size in bytes from which grep searches a regular file in parallel chunks, see {@link MappedChunks}.
+     */
+    public static volatile long grepParallelThreshold = Long.getLong(PROP_GREP_PARALLEL_THRESHOLD,
+            DEFAULT_GREP_PARALLEL_THRESHOLD);
+
+    /**
+     * Regex engine grep uses unless given with {@code --engine}: "java" for {@code java.util.regex}, or "dfa"
+     * for {@link DfaRegex}, which matches in linear time and falls back to {@code java.util.regex} for the
+     * features it does not support. Case is ignored, and grep fails on any other value.
+     */
+    public static volatile String grepEngine = System.getProperty(PROP_GREP_ENGINE, DEFAULT_GREP_ENGINE);
+
+    /**
+     * Number of chunks of input tee queues for each file before waiting for it, see {@link ChunkFileWriter}.
+     * Every file then has its own writer thread, so a slow file does not hold up stdout until its queue is
+     * full. 0 writes the files one after another from the thread running tee.
+     */
+    public static volatile int teeQueueCapacity = Integer.getInteger(PROP_TEE_QUEUE_CAPACITY,
+            DEFAULT_TEE_QUEUE_CAPACITY);
+
+    private ShellSettings() {
+    }
+}
@@ -0,0 +1,100 @@
+package sg.edu.nus.comp.cs4218.impl.util;
+
+import java.math.BigInteger;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * A line for sort together with what it is compared by, extracted once per line instead of on every
+ * comparison.
+ * <p>
+ * The text is the line, in lower case for {@code -f}. With {@code -n} the number at the start of the text,
+ * an optional "-" followed by digits, is compared first and the text breaks ties. A line that does not start
+ * with a number counts as 0, and an empty line is only compared by its text. Numbers of at most
+ * {@link #MAX_LONG_DIGITS} digits are kept in a long; only longer ones need a BigInteger.
+ */
+public final class SortKey implements Comparable<SortKey> {
+    public static final int MAX_LONG_DIGITS = 18;
+
+    private final String line;
+    private final String text;
+    private final boolean isNumberCompared;
+    private final long number;
+    private final BigInteger bigNumber;
+
+    private SortKey(String line, String text, boolean isNumberCompared, long number, BigInteger bigNumber) {
+        this.line = line;
+        this.text = text;
+        this.isNumberCompared = isNumberCompared;
+        this.number = number;
+        this.bigNumber = bigNumber;
+    }
+
+    /**
+     * Extracts the key of a line.
+     *
+     * @param line              The line, without its line terminator.
+     * @param isCaseIndependent Boolean option to compare the line in lower case
+     * @param isFirstWordNumber Boolean option to compare the number at the start of the line first
+     */
+    public static SortKey of(String line, boolean isCaseIndependent, boolean isFirstWordNumber) {
+        String text = isCaseIndependent ? line.toLowerCase(Locale.ENGLISH) : line;
+        if (!isFirstWordNumber || text.isEmpty()) {
+            return new SortKey(line, text, false, 0, null);
+        }
+        int start = text.charAt(0) == '-' ? 1 : 0;
+        int end = start;
+        while (end < text.length() && Character.isDigit(text.charAt(end))) {
+            end++;
+        }
+        if (end == start) {
+            return new SortKey(line, text, true, 0, null);
+        }
+        if (end - start > MAX_LONG_DIGITS) {
+            return new SortKey(line, text, true, 0, new BigInteger(text.substring(0, end)));
+        }
+        long value = 0;
+        for (int i = start; i < end; i++) {
+            value = value * 10 + Character.digit(text.charAt(i), 10);
+        }
+        return new SortKey(line, text, true, start == 0 ? value : -value, null);
+    }
+
+    /**
+     * Sorts the keys stably, in reverse order if isReverse, without changing the list.
+     *
+     * @param parallelism Number of threads to sort with.
+     * @return The sorted keys.
+     */
+    public static SortKey[] sort(List<SortKey> keys, boolean isReverse, int parallelism) {
+        SortKey[] sorted = new SortKey[keys.size()];
+        for (int i = 0; i < sorted.length; i++) {
+            // sorting the reversed input stably in descending order puts equal keys last in first, exactly
+            // as reversing the ascending output would
+            sorted[isReverse ? sorted.length - 1 - i : i] = keys.get(i);
+        }
+        Comparator<SortKey> order = isReverse ? Comparator.reverseOrder() : Comparator.naturalOrder();
+        ParallelMergeSort.sort(sorted, order, parallelism);
+        return sorted;
+    }
+
+    public String getLine() {
+        return line;
+    }
+
+    @Override
+    public int compareTo(SortKey other) {
+        if (!isNumberCompared || !other.isNumberCompared) {
+            return text.compareTo(other.text);
+        }
+        int result = bigNumber == null && other.bigNumber == null
+                ? Long.compare(number, other.number)
+                : toBigInteger().compareTo(other.toBigInteger());
+        return result == 0 ? text.compareTo(other.text) : result;
+    }
+
+    private BigInteger toBigInteger() {
+        return bigNumber == null ? BigInteger.valueOf(number) : bigNumber;
+    }
+}
@@ -0,0 +1,315 @@
+package sg.edu.nus.comp.cs4218.impl.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static sg.edu.nus.comp.cs4218.impl.util.ErrorConstants.ERR_STREAM_CLOSED;
+
+/**
+ * Output buffer for intermediate command output that is kept in memory while it is small and moves
+ * to a temporary file once it grows past {@link ShellSettings#spillThreshold}, or once all buffers
+ * together would hold more than {@link ShellSettings#spillMemoryBudget} bytes in memory.
+ * <p>
+ * The contents are read back with {@link #getInputStream()}, from the file through its
+ * {@link FileChannel} if the buffer spilled. {@link #close()} releases the memory and deletes the file.
+ * Spilling is counted globally, see {@link #getSpilledBytes()} and {@link #getSpillCount()}.
+ */
+public class SpillBuffer extends OutputStream {
+    private static final int MIN_CAPACITY = 256;
+    private static final int FILE_BUFFER_SIZE = 64 * 1024;
+    private static final String TEMP_PREFIX = "shell-spill-";
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final byte[] EMPTY = new byte[0];
+
+    private static final AtomicLong MEMORY_IN_USE = new AtomicLong();
+    private static final AtomicLong SPILLED_BYTES = new AtomicLong();
+    private static final AtomicLong SPILL_COUNT = new AtomicLong();
+
+    private final int threshold;
+    private final long memoryBudget;
+    // reused by write(int) when the byte does not fit in the buffer
+    private final byte[] single = new byte[1];
+    private byte[] buffer = EMPTY;
+    private int count;
+    private long reserved;
+    private FileChannel channel;
+    private long size;
+    private boolean isClosed;
+
+    /**
+     * Creates a buffer using the current {@link ShellSettings} threshold and memory budget.
+     */
+    public SpillBuffer() {
+        this(ShellSettings.spillThreshold, ShellSettings.spillMemoryBudget);
+    }
+
+    /**
+     * @param threshold    Maximum number of bytes this buffer holds in memory before spilling.
+     * @param memoryBudget Maximum number of bytes all buffers together may hold in memory.
+     */
+    public SpillBuffer(int threshold, long memoryBudget) {
+        super();
+        this.threshold = Math.max(0, threshold);
+        this.memoryBudget = memoryBudget;
+    }
+
+    @Override
+    public void write(int value) throws IOException {
+        if (!isClosed && count < buffer.length) {
+            buffer[count++] = (byte) value;
+            size++;
+            return;
+        }
+        single[0] = (byte) value;
+        write(single, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] bytes, int offset, int length) throws IOException {
+        if (isClosed) {
+            throw new IOException(ERR_STREAM_CLOSED);
+        }
+        if (length <= 0) {
+            return;
+        }
+        if (channel == null && count + length > buffer.length && !grow(count + length)) {
+            spill();
+        }
+        if (channel != null && length > buffer.length - count) {
+            writeBufferToFile();
+            if (length >= buffer.length) {
+                writeToFile(ByteBuffer.wrap(bytes, offset, length));
+                size += length;
+                return;
+            }
+        }
+        System.arraycopy(bytes, offset, buffer, count, length);
+        count += length;
+        size += length;
+    }
+
+    /**
+     * Returns a stream reading the buffer from its first byte, including bytes written later.
+     * Closing the stream does not close the buffer.
+     *
+     * @throws IOException If buffered bytes cannot be written to the file.
+     */
+    public InputStream getInputStream() throws IOException {
+        if (isClosed) {
+            throw new IOException(ERR_STREAM_CLOSED);
+        }
+        if (channel != null) {
+            writeBufferToFile();
+        }
+        return new BufferInputStream();
+    }
+
+    /**
+     * Decodes the whole buffer with the given charset.
+     *
+     * @throws IOException If the buffer cannot be read back.
+     */
+    public String toString(Charset charset) throws IOException {
+        if (channel == null) {
+            return new String(buffer, 0, count, charset);
+        }
+        try (InputStream inputStream = getInputStream()) {
+            return new String(inputStream.readAllBytes(), charset);
+        }
+    }
+
+    /**
+     * Returns the total number of bytes written.
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Returns whether the contents have moved to a temporary file.
+     */
+    public boolean isSpilled() {
+        return channel != null;
+    }
+
+    /**
+     * Releases the memory held and deletes the temporary file, if any.
+     *
+     * @throws IOException If the temporary file cannot be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        if (isClosed) {
+            return;
+        }
+        isClosed = true;
+        buffer = EMPTY;
+        count = 0;
+        release();
+        if (channel != null) {
+            channel.close();
+        }
+    }
+
+    /**
+     * Returns the total number of bytes written to temporary files by all buffers.
+     */
+    public static long getSpilledBytes() {
+        return SPILLED_BYTES.get();
+    }
+
+    /**
+     * Returns the number of buffers that have spilled to a temporary file.
+     */
+    public static long getSpillCount() {
+        return SPILL_COUNT.get();
+    }
+
+    /**
+     * Returns the number of bytes currently held in memory by all open buffers.
+     */
+    public static long getMemoryInUse() {
+        return MEMORY_IN_USE.get();
+    }
+
+    /**
+     * Resets the spilled bytes and spill count counters.
+     */
+    public static void resetCounters() {
+        SPILLED_BYTES.set(0);
+        SPILL_COUNT.set(0);
+    }
+
+    /**
+     * Grows the in-memory buffer to hold at least the given number of bytes, doubling where the
+     * threshold and memory budget allow.
+     *
+     * @return Whether the buffer could grow, false if it has to spill instead.
+     */
+    private boolean grow(int minCapacity) {
+        if (minCapacity > threshold) {
+            return false;
+        }
+        int preferred = (int) Math.min(threshold, Math.max((long) buffer.length * 2, MIN_CAPACITY));
+        int capacity = Math.max(minCapacity, preferred);
+        if (!reserve(capacity - buffer.length)) {
+            capacity = minCapacity;
+            if (!reserve(capacity - buffer.length)) {
+                return false;
+            }
+        }
+        byte[] grown = new byte[capacity];
+        System.arraycopy(buffer, 0, grown, 0, count);
+        buffer = grown;
+        return true;
+    }
+
+    private boolean reserve(long bytes) {
+        long inUse;
+        do {
+            inUse = MEMORY_IN_USE.get();
+            if (inUse + bytes > memoryBudget) {
+                return false;
+            }
+        } while (!MEMORY_IN_USE.compareAndSet(inUse, inUse + bytes));
+        reserved += bytes;
+        return true;
+    }
+
+    private void release() {
+        MEMORY_IN_USE.addAndGet(-reserved);
+        reserved = 0;
+    }
+
+    /**
+     * Moves the buffered bytes to a new temporary file, which is deleted when the buffer is closed.
+     * Later writes go through a small fixed size buffer that is not counted against the budget.
+     */
+    private void spill() throws IOException {
+        Path file = Files.createTempFile(TEMP_PREFIX, TEMP_SUFFIX);
+        try {
+            channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE,
+                    StandardOpenOption.DELETE_ON_CLOSE);
+        } catch (IOException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+        SPILL_COUNT.incrementAndGet();
+        writeBufferToFile();
+        buffer = new byte[FILE_BUFFER_SIZE];
+        release();
+    }
+
+    private void writeBufferToFile() throws IOException {
+        writeToFile(ByteBuffer.wrap(buffer, 0, count));
+        count = 0;
+    }
+
+    private void writeToFile(ByteBuffer bytes) throws IOException {
+        SPILLED_BYTES.addAndGet(bytes.remaining());
+        while (bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+    }
+
+    /**
+     * Reads the buffer from memory, or from the temporary file with positional channel reads.
+     */
+    private class BufferInputStream extends InputStream {
+        private final byte[] single = new byte[1];
+        private long position;
+
+        @Override
+        public int read() throws IOException {
+            if (!isClosed && channel == null && position < size) {
+                return buffer[(int) position++] & 0xFF;
+            }
+            return read(single, 0, 1) == -1 ? -1 : single[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) throws IOException {
+            if (isClosed) {
+                throw new IOException(ERR_STREAM_CLOSED);
+            }
+            if (length == 0) {
+                return 0;
+            }
+            if (position >= size) {
+                return -1;
+            }
+            int read;
+            if (channel == null) {
+                read = (int) Math.min(length, count - position);
+                System.arraycopy(buffer, (int) position, bytes, offset, read);
+            } else {
+                if (count > 0) {
+                    writeBufferToFile();
+                }
+                read = channel.read(ByteBuffer.wrap(bytes, offset, length), position);
+            }
+            position += read;
+            return read;
+        }
+
+        @Override
+        public long skip(long bytes) {
+            long skipped = Math.max(0, Math.min(bytes, size - position));
+            position += skipped;
+            return skipped;
+        }
+
+        @Override
+        public int available() {
+            return (int) Math.min(Integer.MAX_VALUE, size - position);
+        }
+    }
+}
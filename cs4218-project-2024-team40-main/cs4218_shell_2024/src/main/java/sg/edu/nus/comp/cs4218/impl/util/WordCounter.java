@@ -0,0 +1,203 @@
+package sg.edu.nus.comp.cs4218.impl.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Counts the lines, words and bytes of an input in the same manner as wc.
+ * <p>
+ * A line is counted for every "\n" and a word for every run of bytes that are not whitespace according to
+ * {@link Character#isWhitespace(int)}. Regular files of at least {@link ShellSettings#wcParallelThreshold}
+ * bytes are split into chunks that are counted in parallel on the common {@link ForkJoinPool}. Each chunk
+ * remembers whether it starts and ends inside a word, so that a word crossing two chunks is counted once
+ * when their counts are merged.
+ */
+public final class WordCounter {
+    public static final int LINES_INDEX = 0;
+    public static final int WORDS_INDEX = 1;
+    public static final int BYTES_INDEX = 2;
+    public static final int CHUNK_SIZE = 4 * 1024 * 1024;
+    public static final int READ_SIZE = 64 * 1024;
+
+    private static final boolean[] IS_WHITESPACE = new boolean[256];
+    private static final ThreadLocal<ByteBuffer> READ_BUFFER =
+            ThreadLocal.withInitial(() -> ByteBuffer.allocate(READ_SIZE));
+
+    static {
+        for (int i = 0; i < IS_WHITESPACE.length; i++) {
+            // bytes are signed, as in the scan wc has always done
+            IS_WHITESPACE[i] = Character.isWhitespace((byte) i);
+        }
+    }
+
+    private WordCounter() {
+    }
+
+    /**
+     * Counts the rest of the InputStream.
+     *
+     * @return Array of the number of lines, words and bytes.
+     * @throws IOException If the InputStream cannot be read.
+     */
+    public static long[] count(InputStream input) throws IOException {
+        Counts counts = new Counts();
+        byte[] data = new byte[READ_SIZE];
+        int read;
+        while ((read = input.read(data, 0, data.length)) != -1) {
+            if (read == 0) {
+                throw new IOException(LineReader.ERR_ZERO_BYTES);
+            }
+            counts.scan(data, 0, read);
+        }
+        return counts.toArray();
+    }
+
+    /**
+     * Counts the file from its start, in parallel chunks if it is large enough.
+     *
+     * @return Array of the number of lines, words and bytes.
+     * @throws IOException If the file cannot be read.
+     */
+    public static long[] count(FileChannel channel) throws IOException {
+        long size = channel.size();
+        if (size < ShellSettings.wcParallelThreshold) {
+            return countRange(channel, 0, Long.MAX_VALUE).toArray();
+        }
+        try {
+            return ForkJoinPool.commonPool().invoke(new ChunkTask(channel, 0, size)).toArray();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Counts the bytes of the file from start until end, or until the file ends, with positional reads.
+     */
+    private static Counts countRange(FileChannel channel, long start, long end) throws IOException {
+        Counts counts = new Counts();
+        ByteBuffer buffer = READ_BUFFER.get();
+        long position = start;
+        while (position < end) {
+            buffer.clear();
+            buffer.limit((int) Math.min(buffer.capacity(), end - position));
+            int read = channel.read(buffer, position);
+            if (read == -1) {
+                break;
+            }
+            counts.scan(buffer.array(), 0, read);
+            position += read;
+        }
+        return counts;
+    }
+
+    /**
+     * Line, word and byte counts of a contiguous part of the input, with the word state at both of its ends.
+     */
+    static final class Counts {
+        private long lines;
+        private long words;
+        private long bytes;
+        private boolean isStartInWord;
+        private boolean isEndInWord;
+
+        /**
+         * Adds the given bytes, which directly follow the bytes already counted.
+         */
+        void scan(byte[] data, int offset, int length) {
+            if (length <= 0) {
+                return;
+            }
+            boolean isInWord = isEndInWord;
+            long lineCount = 0;
+            long wordCount = 0;
+            for (int i = offset; i < offset + length; i++) {
+                byte value = data[i];
+                if (IS_WHITESPACE[value & 0xFF]) {
+                    if (value == '\n') {
+                        lineCount++;
+                    }
+                    isInWord = false;
+                } else {
+                    if (!isInWord) {
+                        wordCount++;
+                    }
+                    isInWord = true;
+                }
+            }
+            if (bytes == 0) {
+                isStartInWord = !IS_WHITESPACE[data[offset] & 0xFF];
+            }
+            lines += lineCount;
+            words += wordCount;
+            bytes += length;
+            isEndInWord = isInWord;
+        }
+
+        /**
+         * Returns the counts of this part followed directly by the next part.
+         */
+        Counts merge(Counts next) {
+            if (bytes == 0) {
+                return next;
+            }
+            if (next.bytes == 0) {
+                return this;
+            }
+            Counts merged = new Counts();
+            merged.lines = lines + next.lines;
+            // a word running across the boundary was counted at the start of both parts
+            merged.words = words + next.words - (isEndInWord && next.isStartInWord ? 1 : 0);
+            merged.bytes = bytes + next.bytes;
+            merged.isStartInWord = isStartInWord;
+            merged.isEndInWord = next.isEndInWord;
+            return merged;
+        }
+
+        long[] toArray() {
+            long[] result = new long[3];
+            result[LINES_INDEX] = lines;
+            result[WORDS_INDEX] = words;
+            result[BYTES_INDEX] = bytes;
+            return result;
+        }
+    }
+
+    /**
+     * Splits a range of the file in halves until it is at most {@link #CHUNK_SIZE} bytes long.
+     */
+    private static final class ChunkTask extends RecursiveTask<Counts> {
+        private static final long serialVersionUID = 1L;
+
+        private final transient FileChannel channel;
+        private final long start;
+        private final long end;
+
+        ChunkTask(FileChannel channel, long start, long end) {
+            super();
+            this.channel = channel;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected Counts compute() {
+            if (end - start <= CHUNK_SIZE) {
+                try {
+                    return countRange(channel, start, end);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            long middle = start + (end - start) / 2;
+            ChunkTask second = new ChunkTask(channel, middle, end);
+            second.fork();
+            Counts first = new ChunkTask(channel, start, middle).compute();
+            return first.merge(second.join());
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package ef2test;
 
 import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
 import org.mockito.Mock;
@@ -13,6 +14,7 @@ import sg.edu.nus.comp.cs4218.exception.ShellException;
 import sg.edu.nus.comp.cs4218.impl.app.PasteApplication;
 import sg.edu.nus.comp.cs4218.impl.parser.PasteArgsParser;
 import sg.edu.nus.comp.cs4218.impl.util.IOUtils;
+import sg.edu.nus.comp.cs4218.impl.util.LineReader;
 
 import java.io.*;
 import java.nio.file.Files;
@@ -54,7 +56,6 @@ public class PasteApplicationTest {
     private static final String STDIN_ARG = "-";
     private static final String[] LINES1 = {"1", "2", "3", "4"};
     private static final String[] LINES2 = {"A", "B", "C", "D"};
-    private static final String[] LINES3 = {"hello", "world"};
     private static final String SINGLE_ARG = "Single Arg";
     private static final String MULTIPLE_ARG = "1" + STRING_NEWLINE + "2" + STRING_NEWLINE;
     private static final String MTL_ARG_RES = "1" + STRING_NEWLINE + "2";
@@ -71,7 +72,7 @@ public class PasteApplicationTest {
     private static final String TEST_STR = "Test";
     private static final String BLANK_FILE = "";
     private static final String ILLEGAL_ARG = "-a";
-    private static final String D_F_D_S_RES = "1\t2\t3\t4" + STRING_NEWLINE + "A\tB\tC\tD" + STRING_NEWLINE + "hello\tworld";
+    private static final String D_F_D_S_RES = "1\t2\t3\t4" + STRING_NEWLINE + "A\tB\tC\tD" + STRING_NEWLINE;
     private static final String D_F_D_RES = "1\tA\t2" + STRING_NEWLINE + "3\tB\t4" + STRING_NEWLINE + "\tC\t" + STRING_NEWLINE + "\tD\t";
 
     /**
@@ -85,6 +86,16 @@ public class PasteApplicationTest {
         this.pasteApplication = new PasteApplication(pasteParser);
     }
 
+    private static InputStream toStream(String... lines) {
+        return new ByteArrayInputStream(String.join(STRING_NEWLINE, lines).getBytes());
+    }
+
+    private static InputStream failingStream() throws IOException {
+        InputStream input = mock(InputStream.class);
+        when(input.read(any(byte[].class), anyInt(), anyInt())).thenThrow(new IOException(TEST_STR));
+        return input;
+    }
+
     /**
      * Merge stdin stdin null throw exception.
      */
@@ -96,14 +107,10 @@ public class PasteApplicationTest {
     }
 
     @Test
-    void mergeStdin_CannotGetLinesFromInputStream_ThrowException() {
-        try (MockedStatic<IOUtils> mockedIo = mockStatic(IOUtils.class)) {
-            InputStream input = mock(InputStream.class);
-            mockedIo.when(() -> IOUtils.getLinesFromInputStream(any()))
-                    .thenThrow(new IOException(TEST_STR));
-            Throwable exp = assertThrows(PasteException.class, () -> pasteApplication.mergeStdin(false, input));
-            assertEquals(new PasteException(new IOException(TEST_STR)).getMessage(), exp.getMessage());
-        }
+    void mergeStdin_CannotGetLinesFromInputStream_ThrowException() throws IOException {
+        InputStream input = failingStream();
+        Throwable exp = assertThrows(PasteException.class, () -> pasteApplication.mergeStdin(false, input));
+        assertEquals(new PasteException(new IOException(TEST_STR)).getMessage(), exp.getMessage());
     }
 
     /**
@@ -253,8 +260,9 @@ public class PasteApplicationTest {
      * Merge file cannot get lines from stream throw exception.
      */
     @Test
-    void mergeFile_CannotGetLinesFromStream_ThrowException() {
+    void mergeFile_CannotGetLinesFromStream_ThrowException() throws IOException {
         String[] files = {FILE_PATH_A};
+        InputStream fileStream = failingStream();
         try (
                 MockedStatic<IOUtils> mockedIo = mockStatic(IOUtils.class);
                 MockedStatic<Files> mockedFiles = mockStatic(Files.class)
@@ -266,9 +274,9 @@ public class PasteApplicationTest {
             mockedFiles.when(() -> Files.isDirectory(any()))
                     .thenReturn(false);
             mockedIo.when(() -> IOUtils.openInputStream(any()))
-                    .thenReturn(mock(InputStream.class));
-            mockedIo.when(() -> IOUtils.getLinesFromInputStream(any()))
-                    .thenThrow(new IOException(TEST_STR));
+                    .thenReturn(fileStream);
+            mockedIo.when(() -> IOUtils.newLineReader(any()))
+                    .thenAnswer(invocation -> new LineReader(invocation.getArgument(0)));
             Throwable exp = assertThrows(PasteException.class, ()-> pasteApplication.mergeFile(false, files));
             assertEquals(new PasteException(new IOException(TEST_STR)).getMessage(), exp.getMessage());
         }
@@ -292,9 +300,9 @@ public class PasteApplicationTest {
             mockedIo.when(() -> IOUtils.resolveFilePath(any()))
                     .thenReturn(Paths.get(FILE_PATH_A));
             mockedIo.when(() -> IOUtils.openInputStream(any()))
-                    .thenReturn(mock(InputStream.class));
-            mockedIo.when(() -> IOUtils.getLinesFromInputStream(any()))
-                    .thenReturn(Arrays.asList(LINES1));
+                    .thenReturn(toStream(LINES1));
+            mockedIo.when(() -> IOUtils.newLineReader(any()))
+                    .thenAnswer(invocation -> new LineReader(invocation.getArgument(0)));
             String[] files = {FILE_PATH_A};
             String output = pasteApplication.mergeFile(false, files);
             assertEquals(L1_EXPECTED, output);
@@ -319,9 +327,9 @@ public class PasteApplicationTest {
             mockedIo.when(() -> IOUtils.resolveFilePath(any()))
                     .thenReturn(Paths.get(FILE_PATH_A));
             mockedIo.when(() -> IOUtils.openInputStream(any()))
-                    .thenReturn(mock(InputStream.class));
-            mockedIo.when(() -> IOUtils.getLinesFromInputStream(any()))
-                    .thenReturn(Arrays.asList(LINES1));
+                    .thenReturn(toStream(LINES1));
+            mockedIo.when(() -> IOUtils.newLineReader(any()))
+                    .thenAnswer(invocation -> new LineReader(invocation.getArgument(0)));
             String[] files = {FILE_PATH_A};
             String output = pasteApplication.mergeFile(true, files);
             assertEquals(L1_SERIAL, output);
@@ -385,15 +393,11 @@ public class PasteApplicationTest {
      * @throws AbstractApplicationException the abstract application exception
      */
     @Test
-    void mergeFileAndStdin_CannotGetLinesFromInputStream_ThrowException() {
-        try (MockedStatic<IOUtils> mockedIo = mockStatic(IOUtils.class)) {
-            InputStream input = mock(InputStream.class);
-            mockedIo.when(() -> IOUtils.getLinesFromInputStream(any()))
-                    .thenThrow(new IOException(TEST_STR));
-            String[] files = {STDIN_ARG};
-            Throwable exp = assertThrows(PasteException.class, () -> pasteApplication.mergeFileAndStdin(false, input, files));
-            assertEquals(new PasteException(new IOException(TEST_STR)).getMessage(), exp.getMessage());
-        }
+    void mergeFileAndStdin_CannotGetLinesFromInputStream_ThrowException() throws IOException {
+        InputStream input = failingStream();
+        String[] files = {STDIN_ARG};
+        Throwable exp = assertThrows(PasteException.class, () -> pasteApplication.mergeFileAndStdin(false, input, files));
+        assertEquals(new PasteException(new IOException(TEST_STR)).getMessage(), exp.getMessage());
     }
 
     /**
@@ -402,15 +406,11 @@ public class PasteApplicationTest {
      * @throws AbstractApplicationException the abstract application exception
      */
     @Test
-    void mergeFileAndStdin_CannotGetLinesFromInputStreamSerial_ThrowException() {
-        try (MockedStatic<IOUtils> mockedIo = mockStatic(IOUtils.class)) {
-            InputStream input = mock(InputStream.class);
-            mockedIo.when(() -> IOUtils.getLinesFromInputStream(any()))
-                    .thenThrow(new IOException(TEST_STR));
-            String[] files = {STDIN_ARG};
-            Throwable exp = assertThrows(PasteException.class, () -> pasteApplication.mergeFileAndStdin(true, input, files));
-            assertEquals(new PasteException(new IOException(TEST_STR)).getMessage(), exp.getMessage());
-        }
+    void mergeFileAndStdin_CannotGetLinesFromInputStreamSerial_ThrowException() throws IOException {
+        InputStream input = failingStream();
+        String[] files = {STDIN_ARG};
+        Throwable exp = assertThrows(PasteException.class, () -> pasteApplication.mergeFileAndStdin(true, input, files));
+        assertEquals(new PasteException(new IOException(TEST_STR)).getMessage(), exp.getMessage());
     }
 
     /**
@@ -480,7 +480,8 @@ public class PasteApplicationTest {
      * @throws AbstractApplicationException the abstract application exception
      */
     @Test
-    void mergeFileAndStdin_CannotGetLinesFromFileStream_ThrowException() {
+    void mergeFileAndStdin_CannotGetLinesFromFileStream_ThrowException() throws IOException {
+        InputStream fileStream = failingStream();
         try (
                 MockedStatic<IOUtils> mockedIo = mockStatic(IOUtils.class);
                 MockedStatic<Files> mockedFiles = mockStatic(Files.class)
@@ -492,11 +493,11 @@ public class PasteApplicationTest {
             mockedFiles.when(() -> Files.isDirectory(any()))
                     .thenReturn(false);
             mockedIo.when(() -> IOUtils.openInputStream(any()))
-                    .thenReturn(mock(InputStream.class));
-            mockedIo.when(() -> IOUtils.getLinesFromInputStream(any()))
-                    .thenThrow(new IOException(TEST_STR));
+                    .thenReturn(fileStream);
+            mockedIo.when(() -> IOUtils.newLineReader(any()))
+                    .thenAnswer(invocation -> new LineReader(invocation.getArgument(0)));
             String[] files = {FILE_PATH_A};
-            InputStream inputStream = mock(InputStream.class);
+            InputStream inputStream = toStream();
             Throwable exp = assertThrows(PasteException.class, () -> pasteApplication.mergeFileAndStdin(false, inputStream, files));
             assertEquals(new PasteException(new IOException(TEST_STR)).getMessage(), exp.getMessage());
         }
@@ -520,12 +521,11 @@ public class PasteApplicationTest {
             mockedIo.when(() -> IOUtils.resolveFilePath(any()))
                     .thenReturn(Paths.get(FILE_PATH_B));
             mockedIo.when(() -> IOUtils.openInputStream(any()))
-                    .thenReturn(mock(InputStream.class));
-            mockedIo.when(() -> IOUtils.getLinesFromInputStream(any()))
-                    .thenReturn(Arrays.asList(LINES2)) // File input stream reaad first when not serial
-                    .thenReturn(Arrays.asList(LINES1));
+                    .thenReturn(toStream(LINES2));
+            mockedIo.when(() -> IOUtils.newLineReader(any()))
+                    .thenAnswer(invocation -> new LineReader(invocation.getArgument(0)));
             String[] files = {STDIN_ARG, FILE_PATH_B};
-            String output = pasteApplication.mergeFileAndStdin(false, mock(InputStream.class), files);
+            String output = pasteApplication.mergeFileAndStdin(false, toStream(LINES1), files);
             assertEquals(L1_L2_MERGE_DEF, output);
         }
     }
@@ -549,12 +549,11 @@ public class PasteApplicationTest {
             mockedIo.when(() -> IOUtils.resolveFilePath(any()))
                     .thenReturn(Paths.get(FILE_PATH_A));
             mockedIo.when(() -> IOUtils.openInputStream(any()))
-                    .thenReturn(mock(InputStream.class));
-            mockedIo.when(() -> IOUtils.getLinesFromInputStream(any()))
-                    .thenReturn(Arrays.asList(LINES1)) // this is for file
-                    .thenReturn(Arrays.asList(SINGLE_ARG)); // this is for stdin
+                    .thenReturn(toStream(LINES1));
+            mockedIo.when(() -> IOUtils.newLineReader(any()))
+                    .thenAnswer(invocation -> new LineReader(invocation.getArgument(0)));
             String[] files = {STDIN_ARG, FILE_PATH_B};
-            String output = pasteApplication.mergeFileAndStdin(false, mock(InputStream.class), files);
+            String output = pasteApplication.mergeFileAndStdin(false, toStream(SINGLE_ARG), files);
             assertEquals(SINGLE_ARG_L2, output);
         }
     }
@@ -577,12 +576,11 @@ public class PasteApplicationTest {
             mockedIo.when(() -> IOUtils.resolveFilePath(any()))
                     .thenReturn(Paths.get(FILE_PATH_A));
             mockedIo.when(() -> IOUtils.openInputStream(any()))
-                    .thenReturn(mock(InputStream.class));
-            mockedIo.when(() -> IOUtils.getLinesFromInputStream(any()))
-                    .thenReturn(Arrays.asList(SINGLE_ARG))
-                    .thenReturn(Arrays.asList(LINES1));
+                    .thenReturn(toStream(LINES1));
+            mockedIo.when(() -> IOUtils.newLineReader(any()))
+                    .thenAnswer(invocation -> new LineReader(invocation.getArgument(0)));
             String[] files = {STDIN_ARG, FILE_PATH_A};
-            String output = pasteApplication.mergeFileAndStdin(true, mock(InputStream.class), files);
+            String output = pasteApplication.mergeFileAndStdin(true, toStream(SINGLE_ARG), files);
             assertEquals(SINGLE_L2_SERIAL, output);
         }
     }
@@ -606,12 +604,11 @@ public class PasteApplicationTest {
             mockedIo.when(() -> IOUtils.resolveFilePath(any()))
                     .thenReturn(Paths.get(FILE_PATH_B));
             mockedIo.when(() -> IOUtils.openInputStream(any()))
-                    .thenReturn(mock(InputStream.class));
-            mockedIo.when(() -> IOUtils.getLinesFromInputStream(any()))
-                    .thenReturn(Arrays.asList(LINES1))
-                    .thenReturn(Arrays.asList(LINES2));
+                    .thenReturn(toStream(LINES2));
+            mockedIo.when(() -> IOUtils.newLineReader(any()))
+                    .thenAnswer(invocation -> new LineReader(invocation.getArgument(0)));
             String[] files = {STDIN_ARG, FILE_PATH_B};
-            String output = pasteApplication.mergeFileAndStdin(true, mock(InputStream.class), files);
+            String output = pasteApplication.mergeFileAndStdin(true, toStream(LINES1), files);
             assertEquals(L1_L2_SERIAL, output);
         }
     }
@@ -634,12 +631,11 @@ public class PasteApplicationTest {
             mockedIo.when(() -> IOUtils.resolveFilePath(any()))
                     .thenReturn(Paths.get(FILE_PATH_A));
             mockedIo.when(() -> IOUtils.openInputStream(any()))
-                    .thenReturn(mock(InputStream.class));
-            mockedIo.when(() -> IOUtils.getLinesFromInputStream(any()))
-                    .thenReturn(Arrays.asList(LINES2)) // Files inputstream get read first
-                    .thenReturn(Arrays.asList(LINES1)); // Stdin inputstream
+                    .thenReturn(toStream(LINES2));
+            mockedIo.when(() -> IOUtils.newLineReader(any()))
+                    .thenAnswer(invocation -> new LineReader(invocation.getArgument(0)));
             String[] files = {STDIN_ARG, FILE_PATH_A, STDIN_ARG};
-            String output = pasteApplication.mergeFileAndStdin(false, mock(InputStream.class), files);
+            String output = pasteApplication.mergeFileAndStdin(false, toStream(LINES1), files);
             assertEquals(D_F_D_RES, output);
         }
     }
@@ -662,13 +658,11 @@ public class PasteApplicationTest {
             mockedIo.when(() -> IOUtils.resolveFilePath(any()))
                     .thenReturn(Paths.get(FILE_PATH_A));
             mockedIo.when(() -> IOUtils.openInputStream(any()))
-                    .thenReturn(mock(InputStream.class));
-            mockedIo.when(() -> IOUtils.getLinesFromInputStream(any()))
-                    .thenReturn(Arrays.asList(LINES1))
-                    .thenReturn(Arrays.asList(LINES2))
-                    .thenReturn(Arrays.asList(LINES3));
+                    .thenReturn(toStream(LINES2));
+            mockedIo.when(() -> IOUtils.newLineReader(any()))
+                    .thenAnswer(invocation -> new LineReader(invocation.getArgument(0)));
             String[] files = {STDIN_ARG, FILE_PATH_A, STDIN_ARG};
-            String output = pasteApplication.mergeFileAndStdin(true, mock(InputStream.class), files);
+            String output = pasteApplication.mergeFileAndStdin(true, toStream(LINES1), files);
             assertEquals(D_F_D_S_RES, output);
         }
     }
@@ -685,12 +679,10 @@ public class PasteApplicationTest {
                 MockedStatic<IOUtils> mockedIo = mockStatic(IOUtils.class);
                 MockedStatic<Files> mockedFiles = mockStatic(Files.class)
         ) {
-            mockedIo.when(() -> IOUtils.openInputStream(any()))
-                    .thenReturn(mock(InputStream.class));
-            mockedIo.when(() -> IOUtils.getLinesFromInputStream(any()))
-                    .thenReturn(Arrays.asList(LINES1));
+            mockedIo.when(() -> IOUtils.newLineReader(any()))
+                    .thenAnswer(invocation -> new LineReader(invocation.getArgument(0)));
             String[] files = {STDIN_ARG, STDIN_ARG, STDIN_ARG, STDIN_ARG, STDIN_ARG};
-            String output = pasteApplication.mergeFileAndStdin(false, mock(InputStream.class), files);
+            String output = pasteApplication.mergeFileAndStdin(false, toStream(LINES1), files);
             assertEquals(L1_SERIAL + '\t', output);
         }
     }
@@ -737,78 +729,75 @@ public class PasteApplicationTest {
     }
 
     /**
-     * Run cannot merge file throw exception.
+     * Run cannot write to output stream throws exception.
      *
      * @throws IOException
-     * @throws AbstractApplicationException
      */
     @Test
-    void run_CannotWriteToOutputStream_ThrowsException() throws IOException, AbstractApplicationException {
-        InputStream inputStream = mock(InputStream.class);
+    void run_CannotWriteToOutputStream_ThrowsException() throws IOException {
+        InputStream inputStream = new ByteArrayInputStream(TEST_STR.getBytes());
         OutputStream outputStream = mock(OutputStream.class);
-        doThrow(new IOException(TEST_STR)).when(outputStream).write(any());
+        doThrow(new IOException(TEST_STR)).when(outputStream).write(any(byte[].class), anyInt(), anyInt());
         String[] args = {};
         when(pasteParser.isPasteStdin()).thenReturn(true);
-        PasteApplication spyApp = spy(pasteApplication);
-        doReturn(TEST_STR).when(spyApp).mergeStdin(anyBoolean(), any(InputStream.class));
-        Throwable exp = assertThrows(PasteException.class, ()-> spyApp.run(args, inputStream, outputStream));
+        Throwable exp = assertThrows(PasteException.class, ()-> pasteApplication.run(args, inputStream, outputStream));
         assertEquals(new PasteException(new IOException(TEST_STR)).getMessage(), exp.getMessage());
     }
 
     /**
-     * Run args is paste files merge file called.
+     * Run args is paste stdin writes the merged stdin lines.
      *
+     * @param isSerial whether the lines are pasted serially
      * @throws AbstractApplicationException
      */
-    @Test
-    void run_ArgsIsPasteStdin_PasteStdinCalled() throws AbstractApplicationException, IOException {
-        InputStream inputStream = mock(InputStream.class);
-        OutputStream outputStream = mock(OutputStream.class);
+    @ParameterizedTest
+    @ValueSource(booleans = {true, false})
+    void run_ArgsIsPasteStdin_WritesMergedStdin(boolean isSerial) throws AbstractApplicationException {
+        InputStream inputStream = new ByteArrayInputStream(MULTIPLE_ARG.getBytes());
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
         String[] args = {};
         when(pasteParser.isPasteStdin()).thenReturn(true);
-        PasteApplication spyApp = spy(pasteApplication);
-        doReturn(TEST_STR).when(spyApp).mergeStdin(anyBoolean(), any(InputStream.class));
-        spyApp.run(args, inputStream, outputStream);
-        verify(spyApp, times(1)).mergeStdin(anyBoolean(), any(InputStream.class));
-        verify(outputStream, times(1)).write(TEST_STR.getBytes());
-        verify(outputStream, times(1)).write(STRING_NEWLINE.getBytes());
+        when(pasteParser.isSerial()).thenReturn(isSerial);
+        pasteApplication.run(args, inputStream, outputStream);
+        assertEquals((isSerial ? MTL_ARG_S_RES : MTL_ARG_RES) + STRING_NEWLINE, outputStream.toString());
     }
 
     /**
-     * Run args is paste files merge file called.
+     * Run args is paste files writes the merged files.
      *
+     * @param tempDir the directory of the files
      * @throws AbstractApplicationException
+     * @throws IOException
      */
     @Test
-    void run_ArgsIsPasteFiles_MergeFileCalled() throws AbstractApplicationException, IOException {
-        InputStream inputStream = mock(InputStream.class);
-        OutputStream outputStream = mock(OutputStream.class);
-        String[] args = {FILE_PATH_A, FILE_PATH_B};
+    void run_ArgsIsPasteFiles_WritesMergedFiles(@TempDir Path tempDir) throws AbstractApplicationException, IOException {
+        Path fileA = Files.write(tempDir.resolve("A.txt"), Arrays.asList(LINES1));
+        Path fileB = Files.write(tempDir.resolve("B.txt"), Arrays.asList(LINES2));
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        String[] args = {fileA.toString(), fileB.toString()};
         when(pasteParser.isPasteFiles()).thenReturn(true);
-        PasteApplication spyApp = spy(pasteApplication);
-        doReturn(TEST_STR).when(spyApp).mergeFile(anyBoolean(), any(String[].class));
-        spyApp.run(args, inputStream, outputStream);
-        verify(spyApp, times(1)).mergeFile(anyBoolean(), any(String[].class));
-        verify(outputStream, times(1)).write(TEST_STR.getBytes());
-        verify(outputStream, times(1)).write(STRING_NEWLINE.getBytes());
+        when(pasteParser.getFileNames()).thenReturn(Arrays.asList(args));
+        pasteApplication.run(args, mock(InputStream.class), outputStream);
+        assertEquals(L1_L2_MERGE_DEF + STRING_NEWLINE, outputStream.toString());
     }
 
     /**
-     * Run args is paste file and stdin merge file and stdin called.
+     * Run args is paste file and stdin shares the stdin lines among the stdin args.
      *
+     * @param tempDir the directory of the file
      * @throws AbstractApplicationException
+     * @throws IOException
      */
     @Test
-    void run_ArgsIsPasteFileAndStdin_MergeFileAndStdinCalled() throws AbstractApplicationException, IOException {
-        InputStream inputStream = mock(InputStream.class);
-        OutputStream outputStream = mock(OutputStream.class);
-        String[] args = {FILE_PATH_A, STDIN_ARG};
+    void run_ArgsIsPasteFileAndStdin_WritesMergedFileAndStdin(@TempDir Path tempDir)
+            throws AbstractApplicationException, IOException {
+        Path fileB = Files.write(tempDir.resolve("B.txt"), Arrays.asList(LINES2));
+        InputStream inputStream = new ByteArrayInputStream(String.join(STRING_NEWLINE, LINES1).getBytes());
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        String[] args = {STDIN_ARG, fileB.toString(), STDIN_ARG};
         when(pasteParser.isPasteFileAndStdin()).thenReturn(true);
-        PasteApplication spyApp = spy(pasteApplication);
-        doReturn(TEST_STR).when(spyApp).mergeFileAndStdin(anyBoolean(), any(InputStream.class), any(String[].class));
-        spyApp.run(args, inputStream, outputStream);
-        verify(spyApp, times(1)).mergeFileAndStdin(anyBoolean(), any(InputStream.class), any(String[].class));
-        verify(outputStream, times(1)).write(TEST_STR.getBytes());
-        verify(outputStream, times(1)).write(STRING_NEWLINE.getBytes());
+        when(pasteParser.getFileNames()).thenReturn(Arrays.asList(args));
+        pasteApplication.run(args, inputStream, outputStream);
+        assertEquals(D_F_D_RES + STRING_NEWLINE, outputStream.toString());
     }
 }
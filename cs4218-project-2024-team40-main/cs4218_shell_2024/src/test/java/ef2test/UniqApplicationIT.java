@@ -38,6 +38,9 @@ public class UniqApplicationIT { //NOPMD - suppressed ClassNamingConventions - A
     UniqArgsParser uniqArgsParser;
 
     private static final String BASE_PATH = Environment.currentDirectory;
+    private static final String LARGE_TEST_TAG = "large";
+    // about 3 GB of input
+    private static final int LARGE_LINE_COUNT = 240_000_000;
     private static final String TEST_RESOURCE_DIR = "src/test/resources/app";
     private static final String TEST_PATH = BASE_PATH + File.separator + TEST_RESOURCE_DIR + File.separator + "UniqApplicationITest";
     private static final String FILE_A = "A.txt";
@@ -746,6 +749,188 @@ public class UniqApplicationIT { //NOPMD - suppressed ClassNamingConventions - A
         assertEquals(expected, exp.getMessage());
     }
 
+    /**
+     * Run with the same input and output file writes the unique lines of the original input.
+     *
+     * @throws AbstractApplicationException the abstract application exception
+     */
+    @Test
+    void run_SameInputAndOutputFile_WritesUniqueLines() throws AbstractApplicationException, IOException {
+        String[] args = {FILE_A, FILE_A};
+        uniqApplication.run(args, System.in, new ByteArrayOutputStream());
+        assertEquals(EXPECTED_L1, normalizeLineEndings2(readString(Path.of(FILE_PATH_A))));
+    }
+
+    /**
+     * Run on a large generated stdin writes groups before the input ends, without holding the input or output.
+     *
+     * @throws AbstractApplicationException the abstract application exception
+     */
+    @Test
+    void run_LargeStdin_WritesGroupsBeforeInputEnds() throws AbstractApplicationException {
+        GeneratedLines input = new GeneratedLines(300_000, 3);
+        CountingOutputStream output = new CountingOutputStream(input);
+        uniqApplication.run(new String[]{"-c"}, input, output);
+        assertEquals(100_000, output.lineCount);
+        assertTrue(output.inputReadAtFirstWrite < input.bytesRead / 2);
+    }
+
+    /**
+     * Run on a multi-gigabyte generated stdin completes within a heap that is a small fraction of the input.
+     * Only run by the large-tests profile, which limits the heap, see pom.xml.
+     *
+     * @throws AbstractApplicationException the abstract application exception
+     */
+    @Test
+    @Tag(LARGE_TEST_TAG)
+    void run_MultiGigabyteStdin_CompletesInBoundedHeap() throws AbstractApplicationException {
+        GeneratedLines input = new GeneratedLines(LARGE_LINE_COUNT, 3);
+        CountingOutputStream output = new CountingOutputStream(input);
+        uniqApplication.run(new String[]{"-c"}, input, output);
+        assertEquals(LARGE_LINE_COUNT / 3, output.lineCount);
+        assertTrue(Runtime.getRuntime().maxMemory() * 16 < input.bytesRead,
+                "the heap must be limited, run with -Plarge-tests");
+    }
+
+    /**
+     * Run with global counts lines that are not adjacent, in the order they are first seen.
+     *
+     * @throws AbstractApplicationException the abstract application exception
+     */
+    @Test
+    void run_GlobalCountFile_ReturnCorrect() throws AbstractApplicationException {
+        String[] args = {"-c", "--global", FILE_B};
+        OutputStream outputStream = new ByteArrayOutputStream();
+        uniqApplication.run(args, System.in, outputStream);
+        assertEquals("\t2 A\n\t2 B\n\t1 C" + NEW_LINE, normalizeLineEndings2(outputStream.toString()));
+    }
+
+    /**
+     * Run with global by count and duplicate writes only repeated lines, the most frequent first.
+     *
+     * @throws AbstractApplicationException the abstract application exception
+     */
+    @Test
+    void run_GlobalByCountDuplicateStdin_ReturnCorrect() throws AbstractApplicationException {
+        InputStream inputStream = new ByteArrayInputStream("x\ny\nz\ny\nz\nz\n".getBytes());
+        OutputStream outputStream = new ByteArrayOutputStream();
+        String[] args = {"-c", "-d", "--global=count"};
+        uniqApplication.run(args, inputStream, outputStream);
+        assertEquals("\t3 z\n\t2 y" + NEW_LINE, normalizeLineEndings2(outputStream.toString()));
+    }
+
+    /**
+     * Run with global to the input file writes the counts of the original input.
+     *
+     * @throws AbstractApplicationException the abstract application exception
+     */
+    @Test
+    void run_GlobalSameInputAndOutputFile_WritesCounts() throws AbstractApplicationException, IOException {
+        String[] args = {"--global", FILE_B, FILE_B};
+        uniqApplication.run(args, System.in, new ByteArrayOutputStream());
+        assertEquals("A\nB\nC", normalizeLineEndings2(readString(Path.of(FILE_PATH_B))));
+    }
+
+    /**
+     * Run with global, count and all repeated throws exception.
+     */
+    @Test
+    void run_GlobalCountNDuplicateAll_ThrowException() {
+        String[] args = {"-c", "-D", "--global", FILE_B};
+        Throwable exp = assertThrows(UniqueException.class, () -> uniqApplication.run(args, System.in,
+                new ByteArrayOutputStream()));
+        assertEquals(UNIQ_PREFIX + INCOMPAT_FLAG_MSG, exp.getMessage());
+    }
+
+    /**
+     * Lines "line 0" to "line N", each repeated a number of times, generated as they are read.
+     */
+    private static final class GeneratedLines extends InputStream {
+        private final int groupCount;
+        private final int repeats;
+        private byte[] line = new byte[0];
+        private int position;
+        private int lineIndex;
+        private long bytesRead;
+
+        GeneratedLines(int lineCount, int repeats) {
+            this.groupCount = lineCount / repeats;
+            this.repeats = repeats;
+        }
+
+        @Override
+        public int read() {
+            if (!hasRemaining()) {
+                return -1;
+            }
+            bytesRead++;
+            return line[position++];
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) {
+            if (length == 0) {
+                return 0;
+            }
+            int count = 0;
+            while (count < length && hasRemaining()) {
+                int chunk = Math.min(length - count, line.length - position);
+                System.arraycopy(line, position, bytes, offset + count, chunk);
+                position += chunk;
+                count += chunk;
+            }
+            bytesRead += count;
+            return count == 0 ? -1 : count;
+        }
+
+        /**
+         * Generates the next line once the current one is read, and returns whether there are bytes left.
+         */
+        private boolean hasRemaining() {
+            if (position == line.length) {
+                if (lineIndex == groupCount * repeats) {
+                    return false;
+                }
+                line = ("line " + lineIndex / repeats + "\n").getBytes();
+                position = 0;
+                lineIndex++;
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Counts the lines written, and how much of the input had been read at the first write.
+     */
+    private static final class CountingOutputStream extends OutputStream {
+        private final GeneratedLines input;
+        private long inputReadAtFirstWrite = -1;
+        private long lineCount;
 
+        CountingOutputStream(GeneratedLines input) {
+            this.input = input;
+        }
+
+        @Override
+        public void write(int value) {
+            if (inputReadAtFirstWrite == -1) {
+                inputReadAtFirstWrite = input.bytesRead;
+            }
+            if (value == '\n') {
+                lineCount++;
+            }
+        }
 
+        @Override
+        public void write(byte[] bytes, int offset, int length) {
+            if (inputReadAtFirstWrite == -1 && length > 0) {
+                inputReadAtFirstWrite = input.bytesRead;
+            }
+            for (int i = offset; i < offset + length; i++) {
+                if (bytes[i] == '\n') {
+                    lineCount++;
+                }
+            }
+        }
+    }
 }
@@ -388,6 +388,8 @@ public class UniqApplicationTest {
         try (MockedStatic<IOUtils> mockedStatic = mockStatic(IOUtils.class)) {
             mockedStatic.when(() -> IOUtils.resolveFilePath(FILE_A))
                     .thenReturn(Paths.get(FILE_PATH_A));
+            mockedStatic.when(() -> IOUtils.openInputStream(FILE_A))
+                    .thenReturn(new ByteArrayInputStream(STDIN_1.getBytes()));
             mockedStatic.when(() -> IOUtils.closeInputStream(any()))
                     .thenThrow(ShellException.class);
             String exp =uniqApplication.uniqFromFile(false, false, false, FILE_A, null);
@@ -401,12 +403,13 @@ public class UniqApplicationTest {
      * Uniq from file error reading line from input throw exception.
      */
     @Test
-    void uniqFromFile_ErrorReadLine_ThrowException() throws AbstractApplicationException{
+    void uniqFromFile_ErrorReadLine_ThrowException() throws AbstractApplicationException, IOException {
         try (MockedStatic<IOUtils> mockedStatic = mockStatic(IOUtils.class)) {
             mockedStatic.when(() -> IOUtils.resolveFilePath(FILE_A))
                     .thenReturn(Paths.get(FILE_PATH_A));
-            mockedStatic.when(() -> IOUtils.getLinesFromInputStream(any()))
-                    .thenThrow(IOException.class);
+            InputStream inputStream = mock(InputStream.class);
+            when(inputStream.read(any(byte[].class), anyInt(), anyInt())).thenThrow(IOException.class);
+            mockedStatic.when(() -> IOUtils.openInputStream(FILE_A)).thenReturn(inputStream);
             String exp = uniqApplication.uniqFromFile(false, false, false, FILE_A, null);
             String expected = UNIQ_PREFIX + ERR_IO_EXCEPTION;
             assertEquals(expected, exp);
@@ -702,16 +705,11 @@ public class UniqApplicationTest {
      *
      */
     @Test
-    void uniqFromStdin_IOErrorWhenGetLineFromInput_ThrowException() throws AbstractApplicationException{
-        try (MockedStatic<IOUtils> mockedStatic = mockStatic(IOUtils.class)) {
-            mockedStatic.when(() -> IOUtils.getLinesFromInputStream(any(InputStream.class)))
-                    .thenThrow(IOException.class);
-            String argument = STDIN_1;
-            byte[] bytes = argument.getBytes();
-            InputStream inputStream = new ByteArrayInputStream(bytes);
-            String exp = uniqApplication.uniqFromStdin(false, false, false, inputStream, null);
-            assertEquals(UNIQ_PREFIX + ERR_IO_EXCEPTION, exp);
-        }
+    void uniqFromStdin_IOErrorWhenGetLineFromInput_ThrowException() throws AbstractApplicationException, IOException {
+        InputStream inputStream = mock(InputStream.class);
+        when(inputStream.read(any(byte[].class), anyInt(), anyInt())).thenThrow(IOException.class);
+        String exp = uniqApplication.uniqFromStdin(false, false, false, inputStream, null);
+        assertEquals(UNIQ_PREFIX + ERR_IO_EXCEPTION, exp);
     }
 
     /**
@@ -1116,6 +1114,7 @@ public class UniqApplicationTest {
         when(uniqArgsParser.getInputFile()).thenReturn(FILE_A);
         when(uniqArgsParser.getOutputFile()).thenReturn(null);
         doThrow(IOException.class).when(outputStream).write(any());
+        doThrow(IOException.class).when(outputStream).write(any(byte[].class), anyInt(), anyInt());
         Throwable exp = assertThrows(UniqueException.class, () -> uniqApplication.run(args, System.in, outputStream));
         String expected = UNIQ_PREFIX + ERR_WRITE_STREAM;
         assertEquals(expected, exp.getMessage());
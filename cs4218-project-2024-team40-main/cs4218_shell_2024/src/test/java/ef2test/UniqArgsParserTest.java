@@ -3,6 +3,9 @@ package ef2test;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
 import sg.edu.nus.comp.cs4218.exception.InvalidArgsException;
 import sg.edu.nus.comp.cs4218.impl.parser.UniqArgsParser;
 import sg.edu.nus.comp.cs4218.impl.parser.WcArgsParser;
@@ -285,4 +288,60 @@ public class UniqArgsParserTest {
         uniqArgsParser.parse(args);
         assertEquals(FILE_2, uniqArgsParser.getOutputFile());
     }
+
+    /**
+     * Is global without order returns global in the order first seen.
+     *
+     * @throws InvalidArgsException the invalid args exception
+     */
+    @Test
+    void isGlobal_GlobalOption_GlobalInOrderFirstSeen() throws InvalidArgsException {
+        String[] args = {"-c", "--global", FILE_1};
+        uniqArgsParser.parse(args);
+        assertTrue(uniqArgsParser.isGlobal());
+        assertFalse(uniqArgsParser.isByCount());
+        assertTrue(uniqArgsParser.isCount());
+        assertEquals(List.of(FILE_1), uniqArgsParser.getFileNames());
+    }
+
+    /**
+     * Is by count with the count order returns true.
+     *
+     * @param order the order given to --global
+     * @throws InvalidArgsException the invalid args exception
+     */
+    @ParameterizedTest
+    @CsvSource({"count, true", "first, false"})
+    void isByCount_GlobalOptionWithOrder_ReturnCorrect(String order, boolean isByCount) throws InvalidArgsException {
+        String[] args = {"--global=" + order, FILE_1};
+        uniqArgsParser.parse(args);
+        assertTrue(uniqArgsParser.isGlobal());
+        assertEquals(isByCount, uniqArgsParser.isByCount());
+    }
+
+    /**
+     * Is global without the option returns false.
+     *
+     * @throws InvalidArgsException the invalid args exception
+     */
+    @Test
+    void isGlobal_NoGlobalOption_ReturnFalse() throws InvalidArgsException {
+        String[] args = {"-c", FILE_1};
+        uniqArgsParser.parse(args);
+        assertFalse(uniqArgsParser.isGlobal());
+        assertFalse(uniqArgsParser.isByCount());
+    }
+
+    /**
+     * Parse global with an unknown order throws exception.
+     *
+     * @param order the order given to --global
+     */
+    @ParameterizedTest
+    @ValueSource(strings = {"", "COUNT", "last"})
+    void parse_GlobalOptionInvalidOrder_ThrowException(String order) {
+        String[] args = {"--global=" + order, FILE_1};
+        Throwable exp = assertThrows(InvalidArgsException.class, () -> uniqArgsParser.parse(args));
+        assertEquals(UniqArgsParser.ILLEGAL_ORDER_MSG + "'" + order + "'", exp.getMessage());
+    }
 }
@@ -0,0 +1,58 @@
+package sg.edu.nus.comp.cs4218.benchmark;
+
+import java.util.Locale;
+import java.util.concurrent.Callable;
+
+/**
+ * Minimal timing helpers shared by the benchmarks in this package.
+ * <p>
+ * Benchmarks are plain main-method programs so that they are not picked up by surefire. Run one with
+ * {@code mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=<benchmark class>},
+ * or from the IDE.
+ */
+public final class BenchmarkUtils {
+    public static final int WARMUP_ROUNDS = 3;
+    public static final int MEASURED_ROUNDS = 5;
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+    private static final double BYTES_PER_MB = 1024.0 * 1024.0;
+
+    private BenchmarkUtils() {
+    }
+
+    /**
+     * Runs the task for the warmup rounds, then returns the best time in nanoseconds
+     * over the measured rounds.
+     *
+     * @param task Task to measure. Its result is ignored but kept alive to prevent dead code elimination.
+     * @return Best elapsed time in nanoseconds.
+     */
+    public static long measureBest(Callable<?> task) throws Exception {
+        Object sink = null;
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            sink = task.call();
+        }
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            long start = System.nanoTime();
+            sink = task.call();
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        if (sink == null) {
+            System.out.print("");
+        }
+        return best;
+    }
+
+    /**
+     * Prints one result line with elapsed time and, if bytes is positive, throughput.
+     */
+    public static void report(String name, long nanos, long bytes) {
+        double millis = nanos / NANOS_PER_MILLI;
+        if (bytes > 0) {
+            double throughput = bytes / BYTES_PER_MB / (nanos / 1e9);
+            System.out.println(String.format(Locale.ENGLISH, "%-40s %10.2f ms %10.1f MB/s", name, millis, throughput));
+        } else {
+            System.out.println(String.format(Locale.ENGLISH, "%-40s %10.2f ms", name, millis));
+        }
+    }
+}
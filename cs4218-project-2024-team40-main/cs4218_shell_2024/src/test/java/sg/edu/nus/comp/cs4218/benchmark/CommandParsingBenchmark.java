@@ -0,0 +1,74 @@
+package sg.edu.nus.comp.cs4218.benchmark;
+
+import sg.edu.nus.comp.cs4218.impl.util.ApplicationRunner;
+import sg.edu.nus.comp.cs4218.impl.util.CommandBuilder;
+import sg.edu.nus.comp.cs4218.impl.util.CommandLexer;
+import sg.edu.nus.comp.cs4218.impl.util.CommandPlan;
+import sg.edu.nus.comp.cs4218.testutils.RegexCommandTokenizer;
+
+/**
+ * Measures tokenizing throughput of long generated command lines, comparing CommandLexer with the
+ * regular expression tokenizer CommandBuilder used before, and full parsing with and without the plan cache.
+ * <p>
+ * Usage: CommandParsingBenchmark [maxArguments]
+ */
+public final class CommandParsingBenchmark {
+    private static final int DEFAULT_MAX_ARGUMENTS = 20_000;
+
+    private CommandParsingBenchmark() {
+    }
+
+    public static void main(String... args) throws Exception {
+        int maxArguments = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_MAX_ARGUMENTS;
+        ApplicationRunner appRunner = new ApplicationRunner();
+
+        for (int numArguments = 100; numArguments <= maxArguments; numArguments *= 10) {
+            String command = generateCommand(numArguments);
+            System.out.println(numArguments + " arguments, " + command.length() + " characters");
+            BenchmarkUtils.report("  regex tokenizer",
+                    BenchmarkUtils.measureBest(() -> RegexCommandTokenizer.tokenize(command)), command.length());
+            BenchmarkUtils.report("  CommandLexer",
+                    BenchmarkUtils.measureBest(() -> lexAll(command)), command.length());
+            BenchmarkUtils.report("  CommandPlan.parse + toCommand",
+                    BenchmarkUtils.measureBest(() -> CommandPlan.parse(command).toCommand(appRunner)),
+                    command.length());
+            BenchmarkUtils.report("  parseCommand, cached plan",
+                    BenchmarkUtils.measureBest(() -> CommandBuilder.parseCommand(command, appRunner)),
+                    command.length());
+        }
+    }
+
+    /**
+     * Generates a pipeline of a few commands whose arguments mix plain, quoted and substituted words.
+     */
+    private static String generateCommand(int numArguments) {
+        StringBuilder command = new StringBuilder("echo");
+        for (int i = 0; i < numArguments; i++) {
+            switch (i % 4) {
+                case 0:
+                    command.append(" file").append(i).append(".txt");
+                    break;
+                case 1:
+                    command.append(" 'single ").append(i).append('\'');
+                    break;
+                case 2:
+                    command.append(" \"double `echo ").append(i).append("` quoted\"");
+                    break;
+                default:
+                    command.append(i % 100 == 3 ? " | grep x" : " -n");
+                    break;
+            }
+        }
+        return command.toString();
+    }
+
+    private static int lexAll(String command) throws Exception {
+        CommandLexer lexer = new CommandLexer(command);
+        int count = 0;
+        while (lexer.hasNextToken()) {
+            lexer.nextToken();
+            count++;
+        }
+        return count;
+    }
+}
@@ -0,0 +1,98 @@
+package sg.edu.nus.comp.cs4218.benchmark;
+
+import sg.edu.nus.comp.cs4218.Environment;
+import sg.edu.nus.comp.cs4218.impl.app.CutApplication;
+import sg.edu.nus.comp.cs4218.impl.parser.CutArgsParser;
+import sg.edu.nus.comp.cs4218.impl.util.RangeHelperFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Compares cut -d, -f on a generated wide CSV file with cut -c and cut -b selecting about the same bytes,
+ * to check that splitting fields costs little more than cutting positions.
+ * <p>
+ * Usage: CutBenchmark [megabytes] [columns]
+ */
+public final class CutBenchmark {
+    private static final int DEFAULT_MEGABYTES = 64;
+    private static final int DEFAULT_COLUMNS = 60;
+
+    private CutBenchmark() {
+    }
+
+    public static void main(String... args) throws Exception {
+        int megabytes = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_MEGABYTES;
+        int columns = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_COLUMNS;
+        Path file = Files.createTempFile("cut-benchmark-", ".csv");
+        String previousDirectory = Environment.currentDirectory;
+        Environment.currentDirectory = file.getParent().toString();
+        try {
+            writeFile(file, (long) megabytes * 1024 * 1024, columns);
+            System.out.println(String.format(Locale.ENGLISH, "cut on %d MB of CSV with %d columns",
+                    megabytes, columns));
+            String name = file.getFileName().toString();
+            long size = Files.size(file);
+            runCut(size, "-d,", "-f", "3,7", name);
+            runCut(size, "-d,", "-f", "1-" + columns, name);
+            // each column is 8 bytes and its comma, so these select columns 3 and 7
+            runCut(size, "-c", "19-26,55-62", name);
+            runCut(size, "-b", "19-26,55-62", name);
+            runCut(size, "-c", "1-" + columns * 9, name);
+        } finally {
+            Environment.currentDirectory = previousDirectory;
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static void runCut(long size, String... args) throws Exception {
+        long nanos = BenchmarkUtils.measureBest(() -> {
+            CountingStream output = new CountingStream();
+            new CutApplication(new CutArgsParser(), new RangeHelperFactory()).run(args, System.in, output);
+            return output.count;
+        });
+        BenchmarkUtils.report("cut " + String.join(" ", args).replaceAll(" \\S+$", ""), nanos, size);
+    }
+
+    /**
+     * Writes lines of columns of 8 random digits, separated by commas, until the file has at least the size.
+     */
+    private static void writeFile(Path file, long size, int columns) throws IOException {
+        Random random = new Random(4218);
+        long written = 0;
+        try (OutputStream output = new BufferedOutputStream(Files.newOutputStream(file), 1 << 20)) {
+            StringBuilder line = new StringBuilder();
+            while (written < size) {
+                line.setLength(0);
+                for (int i = 0; i < columns; i++) {
+                    if (i > 0) {
+                        line.append(',');
+                    }
+                    line.append(String.format(Locale.ENGLISH, "%08d", random.nextInt(100_000_000)));
+                }
+                byte[] bytes = line.append('\n').toString().getBytes();
+                output.write(bytes);
+                written += bytes.length;
+            }
+        }
+    }
+
+    private static final class CountingStream extends OutputStream {
+        private long count;
+
+        @Override
+        public void write(int value) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) {
+            count += length;
+        }
+    }
+}
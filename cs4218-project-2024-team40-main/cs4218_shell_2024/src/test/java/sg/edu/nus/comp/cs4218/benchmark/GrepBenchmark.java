@@ -0,0 +1,92 @@
+package sg.edu.nus.comp.cs4218.benchmark;
+
+import sg.edu.nus.comp.cs4218.Environment;
+import sg.edu.nus.comp.cs4218.impl.app.GrepApplication;
+import sg.edu.nus.comp.cs4218.impl.parser.GrepArgsParser;
+import sg.edu.nus.comp.cs4218.impl.util.ShellSettings;
+
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Compares grep matching a regex against every line with searching for a literal pattern in the raw bytes,
+ * on a generated log file where few lines match, with and without -i.
+ * <p>
+ * Usage: GrepBenchmark [megabytes]
+ */
+public final class GrepBenchmark {
+    private static final int DEFAULT_MEGABYTES = 256;
+    private static final String PATTERN = "connection refused";
+    private static final String[] MESSAGES = {"request served", "cache miss for key", "user logged in",
+        "slow query detected", "connection reset by peer"};
+
+    private GrepBenchmark() {
+    }
+
+    public static void main(String... args) throws Exception {
+        int megabytes = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_MEGABYTES;
+        Path file = Files.createTempFile("grep-benchmark-", ".log");
+        try {
+            writeFile(file, (long) megabytes * 1024 * 1024);
+            System.out.println("grep on " + megabytes + " MB");
+            runGrep(file, PATTERN);
+            runGrep(file, "-i", PATTERN.toUpperCase());
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static void runGrep(Path file, String... options) throws Exception {
+        String[] args = Arrays.copyOf(options, options.length + 1);
+        args[options.length] = file.getFileName().toString();
+        String previousDirectory = Environment.currentDirectory;
+        boolean previousSetting = ShellSettings.grepLiteralSearch;
+        Environment.currentDirectory = file.getParent().toString();
+        try {
+            ShellSettings.grepLiteralSearch = false;
+            String regexOutput = grep(args);
+            BenchmarkUtils.report("grep " + String.join(" ", options) + " (regex)",
+                    BenchmarkUtils.measureBest(() -> grep(args)), Files.size(file));
+            ShellSettings.grepLiteralSearch = true;
+            String literalOutput = grep(args);
+            BenchmarkUtils.report("grep " + String.join(" ", options) + " (literal)",
+                    BenchmarkUtils.measureBest(() -> grep(args)), Files.size(file));
+            if (!regexOutput.equals(literalOutput)) {
+                throw new IllegalStateException("The literal search gave a different output");
+            }
+        } finally {
+            Environment.currentDirectory = previousDirectory;
+            ShellSettings.grepLiteralSearch = previousSetting;
+        }
+    }
+
+    private static String grep(String... args) throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        new GrepApplication(new GrepArgsParser()).run(args, System.in, output);
+        return output.toString(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Writes log lines until the file has at least the given size, about one in a thousand of them matching.
+     */
+    private static void writeFile(Path file, long size) throws IOException {
+        Random random = new Random(size);
+        long written = 0;
+        try (Writer writer = new BufferedWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8), 1 << 20)) {
+            for (long i = 0; written < size; i++) {
+                String message = random.nextInt(1000) == 0 ? PATTERN : MESSAGES[random.nextInt(MESSAGES.length)];
+                String line = "2024-03-01T12:00:" + i % 60 + " INFO worker-" + random.nextInt(16) + " " + message
+                        + " id=" + random.nextInt(1_000_000) + "\n";
+                writer.write(line);
+                written += line.length();
+            }
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package sg.edu.nus.comp.cs4218.benchmark;
+
+import sg.edu.nus.comp.cs4218.impl.util.ByteLineComparator;
+import sg.edu.nus.comp.cs4218.impl.util.PackedLines;
+import sg.edu.nus.comp.cs4218.impl.util.SortKey;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Compares the heap used to hold short lines for sort -nf as Strings with their SortKeys against PackedLines,
+ * and the time to sort each of them.
+ * <p>
+ * Usage: LineStorageBenchmark [lines]
+ */
+public final class LineStorageBenchmark {
+    private static final int DEFAULT_LINES = 2_000_000;
+    private static final String[] WORDS = {"apple", "Banana", "cherry", "Date", "elderberry", "fig", "Grape"};
+
+    private LineStorageBenchmark() {
+    }
+
+    public static void main(String... args) throws Exception {
+        int lineCount = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_LINES;
+        byte[] input = makeInput(lineCount);
+        System.out.println("Holding " + lineCount + " lines of " + input.length + " bytes");
+
+        long before = usedHeap();
+        List<SortKey> keys = new ArrayList<>();
+        for (String line : new String(input, StandardCharsets.UTF_8).split("\n")) {
+            keys.add(SortKey.of(line, true, true));
+        }
+        long keysHeap = usedHeap() - before;
+        reportHeap("ArrayList of Strings and SortKeys", keysHeap, lineCount);
+        BenchmarkUtils.report("sort SortKeys", BenchmarkUtils.measureBest(() -> SortKey.sort(keys, false, 1)), 0);
+        keys.clear();
+
+        before = usedHeap();
+        PackedLines lines = new PackedLines();
+        lines.addLines(new ByteArrayInputStream(input));
+        long packedHeap = usedHeap() - before;
+        reportHeap("PackedLines", packedHeap, lineCount);
+        ByteLineComparator comparator = new ByteLineComparator(true, true);
+        BenchmarkUtils.report("sort PackedLines",
+                BenchmarkUtils.measureBest(() -> lines.sort(comparator, false, 1)), 0);
+        System.out.println(String.format(Locale.ENGLISH, "Heap reduction: %.1fx", (double) keysHeap / packedHeap));
+    }
+
+    private static byte[] makeInput(int lineCount) {
+        Random random = new Random(lineCount);
+        StringBuilder input = new StringBuilder();
+        for (int i = 0; i < lineCount; i++) {
+            input.append(random.nextInt(100_000)).append(' ').append(WORDS[random.nextInt(WORDS.length)])
+                    .append('\n');
+        }
+        return input.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static void reportHeap(String name, long bytes, int lineCount) {
+        System.out.println(String.format(Locale.ENGLISH, "%-40s %10.1f MB %8.1f bytes/line", name,
+                bytes / 1024.0 / 1024.0, (double) bytes / lineCount));
+    }
+}
@@ -0,0 +1,99 @@
+package sg.edu.nus.comp.cs4218.benchmark;
+
+import sg.edu.nus.comp.cs4218.impl.util.RingBufferPipe;
+import sg.edu.nus.comp.cs4218.impl.util.ShellSettings;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Compares ways of handing bytes from one pipeline stage to the next:
+ * the sequential ByteArrayOutputStream copy used by PipeCommand, java.io pipes and RingBufferPipe.
+ * <p>
+ * Usage: PipeTransportBenchmark [megabytes] [chunkSize]
+ */
+public final class PipeTransportBenchmark {
+    private static final int DEFAULT_MEGABYTES = 256;
+    private static final int DEFAULT_CHUNK_SIZE = 8192;
+
+    private PipeTransportBenchmark() {
+    }
+
+    public static void main(String... args) throws Exception {
+        int megabytes = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_MEGABYTES;
+        int chunkSize = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_CHUNK_SIZE;
+        long totalBytes = (long) megabytes * 1024 * 1024;
+        byte[] chunk = new byte[chunkSize];
+
+        System.out.println("Transferring " + megabytes + " MB in " + chunkSize + " byte writes");
+        try {
+            BenchmarkUtils.report("ByteArrayOutputStream copy",
+                    BenchmarkUtils.measureBest(() -> copyHandoff(chunk, totalBytes)), totalBytes);
+        } catch (OutOfMemoryError e) {
+            System.out.println("ByteArrayOutputStream copy: out of memory");
+        }
+        BenchmarkUtils.report("PipedInputStream",
+                BenchmarkUtils.measureBest(() -> pipedHandoff(chunk, totalBytes)), totalBytes);
+        BenchmarkUtils.report("RingBufferPipe",
+                BenchmarkUtils.measureBest(() -> ringBufferHandoff(chunk, totalBytes)), totalBytes);
+    }
+
+    private static long copyHandoff(byte[] chunk, long totalBytes) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        writeAll(output, chunk, totalBytes);
+        InputStream input = new ByteArrayInputStream(output.toByteArray());
+        return drain(input, chunk.length);
+    }
+
+    private static long pipedHandoff(byte[] chunk, long totalBytes) throws Exception {
+        PipedInputStream input = new PipedInputStream(ShellSettings.DEFAULT_PIPE_BUFFER_SIZE);
+        PipedOutputStream output = new PipedOutputStream(input);
+        return runConcurrently(output, input, chunk, totalBytes);
+    }
+
+    private static long ringBufferHandoff(byte[] chunk, long totalBytes) throws Exception {
+        RingBufferPipe pipe = new RingBufferPipe(ShellSettings.DEFAULT_PIPE_BUFFER_SIZE);
+        return runConcurrently(pipe.getOutputStream(), pipe.getInputStream(), chunk, totalBytes);
+    }
+
+    private static long runConcurrently(OutputStream output, InputStream input, byte[] chunk, long totalBytes)
+            throws Exception {
+        AtomicReference<IOException> failure = new AtomicReference<>();
+        Thread writer = new Thread(() -> {
+            try (output) {
+                writeAll(output, chunk, totalBytes);
+            } catch (IOException e) {
+                failure.set(e);
+            }
+        });
+        writer.start();
+        long received = drain(input, chunk.length);
+        writer.join();
+        if (failure.get() != null) {
+            throw failure.get();
+        }
+        return received;
+    }
+
+    private static void writeAll(OutputStream output, byte[] chunk, long totalBytes) throws IOException {
+        for (long written = 0; written < totalBytes; written += chunk.length) {
+            output.write(chunk, 0, (int) Math.min(chunk.length, totalBytes - written));
+        }
+    }
+
+    private static long drain(InputStream input, int chunkSize) throws IOException {
+        byte[] buffer = new byte[chunkSize];
+        long total = 0;
+        int read;
+        while ((read = input.read(buffer)) != -1) {
+            total += read;
+        }
+        return total;
+    }
+}
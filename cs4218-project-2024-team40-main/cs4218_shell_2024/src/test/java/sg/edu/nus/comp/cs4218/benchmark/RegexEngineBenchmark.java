@@ -0,0 +1,78 @@
+package sg.edu.nus.comp.cs4218.benchmark;
+
+import sg.edu.nus.comp.cs4218.impl.util.DfaRegex;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Pattern;
+
+/**
+ * Compares java.util.regex with DfaRegex on pathological regexes, which make java.util.regex backtrack
+ * polynomially or exponentially on a line that does not match, and on an ordinary regex over many log lines.
+ * The time java.util.regex takes grows quickly with the length of the line, while DfaRegex reads a much longer
+ * line in linear time.
+ * <p>
+ * Usage: RegexEngineBenchmark [longest line for java.util.regex]
+ */
+public final class RegexEngineBenchmark {
+    private static final int DEFAULT_LONGEST = 30;
+    private static final int DFA_LINE_LENGTH = 1_000_000;
+    // each regex with the text a line repeats; the first two are exponential on older JDKs only
+    private static final String[][] PATHOLOGICAL = {{"(a+)+b", "a"}, {"(x+x+)+y", "x"}, {"(.*a){8}b", "a"},
+        {"(.*,){8}P", ","}};
+    private static final String ORDINARY = "worker-1[0-5] .*(refused|reset)";
+    private static final int LOG_LINES = 200_000;
+
+    private RegexEngineBenchmark() {
+    }
+
+    public static void main(String... args) throws Exception {
+        int longest = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_LONGEST;
+        for (String[] pathological : PATHOLOGICAL) {
+            String regex = pathological[0];
+            Pattern pattern = Pattern.compile(regex);
+            DfaRegex dfaRegex = DfaRegex.compile(pattern);
+            for (int length = longest - 10; length <= longest; length += 5) {
+                String line = pathological[1].repeat(length) + "!";
+                long start = System.nanoTime();
+                boolean isFound = pattern.matcher(line).find();
+                BenchmarkUtils.report(regex + " java, " + length + " chars", System.nanoTime() - start, 0);
+                check(isFound, dfaRegex.matcher().find(line));
+            }
+            String line = pathological[1].repeat(DFA_LINE_LENGTH) + "!";
+            BenchmarkUtils.report(regex + " dfa, " + DFA_LINE_LENGTH + " chars",
+                    BenchmarkUtils.measureBest(() -> dfaRegex.matcher().find(line)), line.length());
+        }
+
+        List<String> lines = makeLogLines();
+        long bytes = lines.stream().mapToLong(String::length).sum();
+        Pattern pattern = Pattern.compile(ORDINARY);
+        DfaRegex dfaRegex = DfaRegex.compile(pattern);
+        BenchmarkUtils.report(ORDINARY + " java", BenchmarkUtils.measureBest(() -> {
+            java.util.regex.Matcher matcher = pattern.matcher("");
+            return lines.stream().filter(line -> matcher.reset(line).find()).count();
+        }), bytes);
+        BenchmarkUtils.report(ORDINARY + " dfa", BenchmarkUtils.measureBest(() -> {
+            DfaRegex.LineMatcher matcher = dfaRegex.matcher();
+            return lines.stream().filter(matcher::find).count();
+        }), bytes);
+    }
+
+    private static void check(boolean expected, boolean actual) {
+        if (expected != actual) {
+            throw new IllegalStateException("DfaRegex gave " + actual + " instead of " + expected);
+        }
+    }
+
+    private static List<String> makeLogLines() {
+        Random random = new Random(LOG_LINES);
+        String[] messages = {"request served", "connection refused", "user logged in", "connection reset"};
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < LOG_LINES; i++) {
+            lines.add("2024-03-01T12:00:" + i % 60 + " INFO worker-" + random.nextInt(20) + " "
+                    + messages[random.nextInt(messages.length)] + " id=" + random.nextInt(1_000_000));
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,48 @@
+package sg.edu.nus.comp.cs4218.benchmark;
+
+import sg.edu.nus.comp.cs4218.impl.util.SortKey;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Measures how sorting lines in memory for sort -nf scales from 1 thread to the number of processors, and
+ * checks that every thread count gives the same order as 1 thread.
+ * <p>
+ * Usage: SortBenchmark [lines] [max threads]
+ */
+public final class SortBenchmark {
+    private static final int DEFAULT_LINES = 2_000_000;
+    private static final String[] WORDS = {"apple", "Banana", "cherry", "Date", "elderberry", "fig", "Grape"};
+
+    private SortBenchmark() {
+    }
+
+    public static void main(String... args) throws Exception {
+        int lineCount = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_LINES;
+        int maxThreads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        List<SortKey> keys = makeKeys(lineCount);
+        System.out.println("Sorting " + lineCount + " lines with up to " + maxThreads + " threads");
+        SortKey[] expected = SortKey.sort(keys, true, 1);
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            int parallelism = threads;
+            if (!Arrays.equals(expected, SortKey.sort(keys, true, parallelism))) {
+                throw new IllegalStateException(parallelism + " threads sorted differently from 1 thread");
+            }
+            BenchmarkUtils.report(parallelism + " thread(s)",
+                    BenchmarkUtils.measureBest(() -> SortKey.sort(keys, true, parallelism)), 0);
+        }
+    }
+
+    private static List<SortKey> makeKeys(int lineCount) {
+        Random random = new Random(lineCount);
+        List<SortKey> keys = new ArrayList<>(lineCount);
+        for (int i = 0; i < lineCount; i++) {
+            String line = random.nextInt(100_000) + " " + WORDS[random.nextInt(WORDS.length)];
+            keys.add(SortKey.of(line, true, true));
+        }
+        return keys;
+    }
+}
@@ -0,0 +1,116 @@
+package sg.edu.nus.comp.cs4218.benchmark;
+
+import sg.edu.nus.comp.cs4218.Environment;
+import sg.edu.nus.comp.cs4218.impl.app.UniqApplication;
+import sg.edu.nus.comp.cs4218.impl.parser.UniqArgsParser;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Runs uniq -c on a generated file much larger than the heap, to check that uniq streams its input, and then
+ * uniq -c --global=count, which spills its counts to temporary files when they do not fit in memory.
+ * <p>
+ * Run it with a small heap, for example {@code MAVEN_OPTS=-Xmx64m}. It fails with an OutOfMemoryError if uniq
+ * holds the input or the output in memory.
+ * <p>
+ * Usage: UniqBenchmark [megabytes]
+ */
+public final class UniqBenchmark {
+    private static final int DEFAULT_MEGABYTES = 4096;
+    private static final int REPEATS = 3;
+
+    private UniqBenchmark() {
+    }
+
+    public static void main(String... args) throws Exception {
+        int megabytes = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_MEGABYTES;
+        Path file = Files.createTempFile("uniq-benchmark-", ".txt");
+        try {
+            long lines = writeFile(file, (long) megabytes * 1024 * 1024);
+            System.out.println(String.format(Locale.ENGLISH, "uniq -c on %d MB (%d lines) with a %d MB heap",
+                    megabytes, lines, Runtime.getRuntime().maxMemory() / 1024 / 1024));
+            runUniq(file, lines, "-c");
+            runUniq(file, lines, "-c", "--global=count");
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static void runUniq(Path file, long lines, String... options) throws Exception {
+        String[] args = Arrays.copyOf(options, options.length + 1);
+        args[options.length] = file.getFileName().toString();
+        String previousDirectory = Environment.currentDirectory;
+        Environment.currentDirectory = file.getParent().toString();
+        LineCountingStream output = new LineCountingStream();
+        long start = System.nanoTime();
+        try {
+            new UniqApplication(new UniqArgsParser()).run(args, System.in, output);
+        } finally {
+            Environment.currentDirectory = previousDirectory;
+        }
+        BenchmarkUtils.report("uniq " + String.join(" ", options), System.nanoTime() - start, Files.size(file));
+        if (output.lineCount != lines / REPEATS) {
+            throw new IllegalStateException("Expected " + lines / REPEATS + " lines but got " + output.lineCount);
+        }
+        System.out.println(String.format(Locale.ENGLISH, "Peak heap used: %.1f MB",
+                peakHeapUsed() / 1024.0 / 1024.0));
+    }
+
+    /**
+     * Writes groups of REPEATS equal lines until the file has at least the given size.
+     *
+     * @return The number of lines written.
+     */
+    private static long writeFile(Path file, long size) throws IOException {
+        long lines = 0;
+        long written = 0;
+        try (OutputStream output = new BufferedOutputStream(Files.newOutputStream(file), 1 << 20)) {
+            while (written < size || lines % REPEATS != 0) {
+                byte[] line = ("line number " + lines / REPEATS + "\n").getBytes();
+                output.write(line);
+                written += line.length;
+                lines++;
+            }
+        }
+        return lines;
+    }
+
+    private static long peakHeapUsed() {
+        long peak = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                peak += pool.getPeakUsage().getUsed();
+            }
+        }
+        return peak;
+    }
+
+    private static final class LineCountingStream extends OutputStream {
+        private long lineCount;
+
+        @Override
+        public void write(int value) {
+            if (value == '\n') {
+                lineCount++;
+            }
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) {
+            for (int i = offset; i < offset + length; i++) {
+                if (bytes[i] == '\n') {
+                    lineCount++;
+                }
+            }
+        }
+    }
+}
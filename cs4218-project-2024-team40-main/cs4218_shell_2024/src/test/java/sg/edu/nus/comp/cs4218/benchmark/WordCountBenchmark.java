@@ -0,0 +1,115 @@
+package sg.edu.nus.comp.cs4218.benchmark;
+
+import sg.edu.nus.comp.cs4218.impl.util.ShellSettings;
+import sg.edu.nus.comp.cs4218.impl.util.WordCounter;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Compares the single threaded 1 KB buffer scan wc used before with WordCounter, sequentially and in
+ * parallel chunks, and with reading the size of the file for wc -c.
+ * <p>
+ * Usage: WordCountBenchmark [megabytes]
+ */
+public final class WordCountBenchmark {
+    private static final int DEFAULT_MEGABYTES = 2048;
+    private static final byte[] WORDS = "lorem ipsum dolor sit amet\nconsectetur\tadipiscing elit ".getBytes();
+
+    private WordCountBenchmark() {
+    }
+
+    public static void main(String... args) throws Exception {
+        int megabytes = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_MEGABYTES;
+        Path file = Files.createTempFile("wc-benchmark-", ".txt");
+        try {
+            long bytes = writeFile(file, (long) megabytes * 1024 * 1024);
+            System.out.println("Counting " + megabytes + " MB with " + Runtime.getRuntime().availableProcessors()
+                    + " processors");
+            long[] expected = countOneKilobyteBuffer(file);
+            BenchmarkUtils.report("1 KB InputStream scan",
+                    BenchmarkUtils.measureBest(() -> countOneKilobyteBuffer(file)), bytes);
+
+            ShellSettings.wcParallelThreshold = Long.MAX_VALUE;
+            check(expected, countChannel(file));
+            BenchmarkUtils.report("WordCounter, sequential",
+                    BenchmarkUtils.measureBest(() -> countChannel(file)), bytes);
+
+            ShellSettings.wcParallelThreshold = 0;
+            check(expected, countChannel(file));
+            BenchmarkUtils.report("WordCounter, parallel chunks",
+                    BenchmarkUtils.measureBest(() -> countChannel(file)), bytes);
+
+            BenchmarkUtils.report("Files.size (wc -c)",
+                    BenchmarkUtils.measureBest(() -> Files.size(file)), bytes);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static long writeFile(Path file, long size) throws IOException {
+        Random random = new Random(size);
+        byte[] chunk = new byte[1024 * 1024];
+        for (int i = 0; i < chunk.length; i++) {
+            chunk[i] = WORDS[random.nextInt(WORDS.length)];
+        }
+        try (OutputStream output = new BufferedOutputStream(Files.newOutputStream(file))) {
+            for (long written = 0; written < size; written += chunk.length) {
+                output.write(chunk, 0, (int) Math.min(chunk.length, size - written));
+            }
+        }
+        return size;
+    }
+
+    private static long[] countChannel(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file)) {
+            return WordCounter.count(channel);
+        }
+    }
+
+    private static void check(long[] expected, long... actual) {
+        if (!Arrays.equals(expected, actual)) {
+            throw new IllegalStateException("Expected " + Arrays.toString(expected) + " but counted "
+                    + Arrays.toString(actual));
+        }
+    }
+
+    /**
+     * The scan wc used before WordCounter.
+     */
+    private static long[] countOneKilobyteBuffer(Path file) throws IOException {
+        long[] result = new long[3];
+        byte[] data = new byte[1024];
+        int inRead;
+        boolean inWord = false;
+        try (InputStream input = Files.newInputStream(file)) {
+            while ((inRead = input.read(data, 0, data.length)) != -1) {
+                for (int i = 0; i < inRead; ++i) {
+                    if (Character.isWhitespace(data[i])) {
+                        if (data[i] == '\n') {
+                            ++result[0];
+                        }
+                        if (inWord) {
+                            ++result[1];
+                        }
+                        inWord = false;
+                    } else {
+                        inWord = true;
+                    }
+                }
+                result[2] += inRead;
+            }
+        }
+        if (inWord) {
+            ++result[1];
+        }
+        return result;
+    }
+}
@@ -3,6 +3,7 @@ package sg.edu.nus.comp.cs4218.impl.app;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
 import org.mockito.MockedStatic;
@@ -13,11 +14,14 @@ import sg.edu.nus.comp.cs4218.exception.ShellException;
 import sg.edu.nus.comp.cs4218.impl.parser.CatArgsParser;
 import sg.edu.nus.comp.cs4218.impl.util.IOUtils;
 
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -32,6 +36,10 @@ import static sg.edu.nus.comp.cs4218.impl.util.StringUtils.STRING_NEWLINE;
  * Tests Functionality of cat application
  */
 public class CatApplicationTest {
+    private static InputStream toStream(String text) {
+        return new ByteArrayInputStream(text.getBytes());
+    }
+
     /**
      * The type Positive tests.
      */
@@ -94,6 +102,11 @@ public class CatApplicationTest {
             catApplication.setStdout(outputStream);
         }
 
+        private Object writeOutput(OutputStream output) throws IOException {
+            output.write(OUTPUT.getBytes());
+            return null;
+        }
+
         /**
          * Run call cat stdin prints to stdout.
          *
@@ -103,12 +116,26 @@ public class CatApplicationTest {
         void run_CallCatStdin_PrintsToStdout() throws AbstractApplicationException {
             when(catArgsParser.isCatStdin()).thenReturn(true);
             CatApplication spyApplication = spy(new CatApplication(catArgsParser));
-            doReturn(OUTPUT).when(spyApplication).catStdin(anyBoolean(), any(InputStream.class));
+            doAnswer(invocation -> writeOutput(invocation.getArgument(2))).when(spyApplication)
+                    .catStdin(anyBoolean(), any(InputStream.class), any(OutputStream.class));
             OutputStream outputStream = new ByteArrayOutputStream();
             spyApplication.run(new String[]{"-"}, inputStream, outputStream);
             assertEquals(OUTPUT, outputStream.toString());
         }
 
+        /**
+         * Run cat stdin streams lines to stdout.
+         *
+         * @throws AbstractApplicationException the abstract application exception
+         */
+        @Test
+        void run_CatStdin_StreamsLinesToStdout() throws AbstractApplicationException {
+            when(catArgsParser.isCatStdin()).thenReturn(true);
+            OutputStream outputStream = new ByteArrayOutputStream();
+            catApplication.run(new String[]{"-"}, toStream(LINE_1 + "\n" + LINE_2), outputStream);
+            assertEquals(LINE_1 + STRING_NEWLINE + LINE_2 + STRING_NEWLINE, outputStream.toString());
+        }
+
         /**
          * Run call cat file and stdin prints to stdout.
          *
@@ -118,13 +145,30 @@ public class CatApplicationTest {
         void run_CallCatFileAndStdin_PrintsToStdout() throws AbstractApplicationException {
             when(catArgsParser.isCatFileAndStdin()).thenReturn(true);
             CatApplication spyApplication = spy(new CatApplication(catArgsParser));
-            doReturn(OUTPUT).when(spyApplication).catFileAndStdin(
-                    anyBoolean(), any(InputStream.class), any(String[].class));
+            doAnswer(invocation -> writeOutput(invocation.getArgument(2))).when(spyApplication).catFileAndStdin(
+                    anyBoolean(), any(InputStream.class), any(OutputStream.class), any(String[].class));
             OutputStream outputStream = new ByteArrayOutputStream();
             spyApplication.run(new String[]{"-"}, inputStream, outputStream);
             assertEquals(OUTPUT, outputStream.toString());
         }
 
+        /**
+         * Run cat file and stdin streams numbered stdin lines to stdout.
+         *
+         * @throws AbstractApplicationException the abstract application exception
+         */
+        @Test
+        void run_CatFileAndStdinWithLineNumbers_StreamsNumberedLines() throws AbstractApplicationException {
+            when(catArgsParser.isCatFileAndStdin()).thenReturn(true);
+            when(catArgsParser.isShowLineNumber()).thenReturn(true);
+            when(catArgsParser.getFileNames()).thenReturn(List.of("-"));
+            OutputStream outputStream = new ByteArrayOutputStream();
+            catApplication.run(new String[]{"-n", "-"}, toStream(LINE_1 + "\r\n" + LINE_2 + "\n"), outputStream);
+            assertEquals(CatApplication.LINE_NUM_PREFIX + "1" + CatApplication.LINE_NUM_SUFFIX + LINE_1
+                    + STRING_NEWLINE + CatApplication.LINE_NUM_PREFIX + "2" + CatApplication.LINE_NUM_SUFFIX
+                    + LINE_2 + STRING_NEWLINE, outputStream.toString());
+        }
+
         /**
          * Run call cat files prints to stdout.
          *
@@ -134,12 +178,49 @@ public class CatApplicationTest {
         void run_CallCatFiles_PrintsToStdout() throws AbstractApplicationException {
             when(catArgsParser.isCatFiles()).thenReturn(true);
             CatApplication spyApplication = spy(new CatApplication(catArgsParser));
-            doReturn(OUTPUT).when(spyApplication).catFiles(anyBoolean(), any(String[].class));
+            doAnswer(invocation -> writeOutput(invocation.getArgument(1))).when(spyApplication)
+                    .catFiles(anyBoolean(), any(OutputStream.class), any(String[].class));
             OutputStream outputStream = new ByteArrayOutputStream();
             spyApplication.run(new String[]{"-"}, inputStream, outputStream);
             assertEquals(OUTPUT, outputStream.toString());
         }
 
+        /**
+         * Run cat files prints error message of unreadable file to stdout.
+         *
+         * @throws AbstractApplicationException the abstract application exception
+         */
+        @Test
+        void run_CatUnreadableFile_PrintsErrorMessage() throws AbstractApplicationException {
+            when(catArgsParser.isCatFiles()).thenReturn(true);
+            when(catArgsParser.getFileNames()).thenReturn(List.of(" "));
+            OutputStream outputStream = new ByteArrayOutputStream();
+            catApplication.run(new String[]{" "}, inputStream, outputStream);
+            assertEquals(new CatException(ERR_NO_FILE_ARGS).getMessage() + STRING_NEWLINE, outputStream.toString());
+        }
+
+        /**
+         * Run cat files without line numbers copies the raw bytes and ends the last line.
+         *
+         * @param tempDir the temp dir
+         * @throws AbstractApplicationException the abstract application exception
+         * @throws IOException                  the io exception
+         */
+        @Test
+        void run_CatFilesToFileOutputStream_CopiesBytesAndEndsLastLine(@TempDir Path tempDir)
+                throws AbstractApplicationException, IOException {
+            Path file = Files.writeString(tempDir.resolve(FILE_1), LINE_1 + "\t\n" + LINE_2);
+            Path empty = Files.writeString(tempDir.resolve(FILE_2), "");
+            Path target = tempDir.resolve(OUTPUT);
+            when(catArgsParser.isCatFiles()).thenReturn(true);
+            when(catArgsParser.getFileNames()).thenReturn(List.of(file.toString(), empty.toString(), file.toString()));
+            try (FileOutputStream outputStream = new FileOutputStream(target.toFile())) {
+                catApplication.run(new String[]{FILE_1}, inputStream, outputStream);
+            }
+            String expected = LINE_1 + "\t\n" + LINE_2 + STRING_NEWLINE;
+            assertEquals(expected + expected, Files.readString(target));
+        }
+
         /**
          * Cat files succesful read returns string.
          *
@@ -150,15 +231,13 @@ public class CatApplicationTest {
         @ValueSource(booleans = {true, false})
         void catFiles_SuccesfulRead_ReturnsString(boolean isLine) throws AbstractApplicationException {
             try (
-                    MockedStatic<IOUtils> mockedStatic = mockStatic(IOUtils.class);
+                    MockedStatic<IOUtils> mockedStatic = mockStatic(IOUtils.class, CALLS_REAL_METHODS);
                     MockedStatic<Files> mockedFiles = mockStatic(Files.class)
             ) {
                 mockedFiles.when(() -> Files.exists(any())).thenReturn(true);
                 mockedFiles.when(() -> Files.isDirectory(any())).thenReturn(false);
                 mockedStatic.when(() -> IOUtils.openInputStream(anyString()))
-                        .thenReturn(inputStream);
-                mockedStatic.when(() -> IOUtils.getLinesFromInputStream(inputStream))
-                        .thenReturn(List.of(LINE_1, LINE_2));
+                        .thenAnswer(invocation -> toStream(LINE_1 + "\n" + LINE_2));
                 String result = catApplication.catFiles(isLine, FILE_1, "file2");
                 String expected = (isLine ? CatApplication.LINE_NUM_PREFIX + "1" + CatApplication.LINE_NUM_SUFFIX : "")
                         + LINE_1 + System.lineSeparator() + (isLine ? CatApplication.LINE_NUM_PREFIX + "2"
@@ -176,15 +255,11 @@ public class CatApplicationTest {
         @ParameterizedTest
         @ValueSource(booleans = {true, false})
         void catStdin_SuccesfulRead_ReturnsString(boolean isLine) throws AbstractApplicationException {
-            try (MockedStatic<IOUtils> mockedStatic = mockStatic(IOUtils.class)) {
-                mockedStatic.when(() -> IOUtils.getLinesFromInputStream(inputStream))
-                        .thenReturn(List.of(LINE_1, LINE_2));
-                String result = catApplication.catStdin(isLine, inputStream);
-                String expected = (isLine ? CatApplication.LINE_NUM_PREFIX + "1" + CatApplication.LINE_NUM_SUFFIX : "")
-                        + LINE_1 + System.lineSeparator() + (isLine ? CatApplication.LINE_NUM_PREFIX + "2"
-                        + CatApplication.LINE_NUM_SUFFIX : "") + LINE_2 + System.lineSeparator();
-                assertEquals(expected, result);
-            }
+            String result = catApplication.catStdin(isLine, toStream(LINE_1 + "\n" + LINE_2));
+            String expected = (isLine ? CatApplication.LINE_NUM_PREFIX + "1" + CatApplication.LINE_NUM_SUFFIX : "")
+                    + LINE_1 + System.lineSeparator() + (isLine ? CatApplication.LINE_NUM_PREFIX + "2"
+                    + CatApplication.LINE_NUM_SUFFIX : "") + LINE_2 + System.lineSeparator();
+            assertEquals(expected, result);
         }
 
         /**
@@ -335,16 +410,13 @@ public class CatApplicationTest {
          * Run closed output stream throws exception.
          *
          * @throws IOException                  the io exception
-         * @throws AbstractApplicationException the abstract application exception
          */
         @Test
-        void run_ClosedOutputStream_ThrowsException() throws IOException, AbstractApplicationException {
-            doThrow(new IOException(CLOSED_STRING)).when(outputStream).write(any());
+        void run_ClosedOutputStream_ThrowsException() throws IOException {
+            doThrow(new IOException(CLOSED_STRING)).when(outputStream).write(any(byte[].class), anyInt(), anyInt());
             when(catArgsParser.isCatStdin()).thenReturn(true);
-            CatApplication spyCatApplication = spy(new CatApplication(catArgsParser));
-            doReturn("output").when(spyCatApplication).catStdin(anyBoolean(), any(InputStream.class));
             Throwable exp = assertThrows(CatException.class, () -> {
-                spyCatApplication.run(new String[]{MOCK_STRING}, inputStream, outputStream);
+                catApplication.run(new String[]{MOCK_STRING}, toStream("output"), outputStream);
             });
             assertEquals(new CatException(ERR_IO_EXCEPTION, new IOException(CLOSED_STRING)).getMessage(), exp.getMessage());
         }
@@ -358,7 +430,8 @@ public class CatApplicationTest {
         void run_catStdinThrowsException_PropagatesException() throws AbstractApplicationException {
             when(catArgsParser.isCatStdin()).thenReturn(true);
             CatApplication spyApplication = spy(new CatApplication(catArgsParser));
-            doThrow(new CatException(TEST_STRING)).when(spyApplication).catStdin(anyBoolean(), any(InputStream.class));
+            doThrow(new CatException(TEST_STRING)).when(spyApplication).catStdin(anyBoolean(), any(InputStream.class),
+                    any(OutputStream.class));
             Throwable thrown = assertThrows(CatException.class, () -> {
                 spyApplication.run(new String[]{MOCK_STRING}, inputStream, outputStream);
             });
@@ -366,6 +439,22 @@ public class CatApplicationTest {
                     thrown.getMessage());
         }
 
+        /**
+         * Run cat stdin cannot read stdin throws exception.
+         *
+         * @throws IOException the io exception
+         */
+        @Test
+        void run_CatStdinCannotRead_ThrowsException() throws IOException {
+            when(catArgsParser.isCatStdin()).thenReturn(true);
+            when(inputStream.read(any(byte[].class), anyInt(), anyInt())).thenThrow(new IOException(TEST_STRING));
+            Throwable thrown = assertThrows(CatException.class, () -> {
+                catApplication.run(new String[]{MOCK_STRING}, inputStream, outputStream);
+            });
+            assertEquals(new CatException(ERR_IO_EXCEPTION, new IOException(TEST_STRING)).getMessage(),
+                    thrown.getMessage());
+        }
+
         /**
          * Run cat files and stdin throws exception propagates exception.
          *
@@ -376,7 +465,7 @@ public class CatApplicationTest {
             when(catArgsParser.isCatFileAndStdin()).thenReturn(true);
             CatApplication spyApplication = spy(new CatApplication(catArgsParser));
             doThrow(new CatException(TEST_STRING)).when(spyApplication).catFileAndStdin(anyBoolean(),
-                    any(InputStream.class), any(String[].class));
+                    any(InputStream.class), any(OutputStream.class), any(String[].class));
             Throwable thrown = assertThrows(CatException.class, () -> {
                 spyApplication.run(new String[]{MOCK_STRING}, inputStream, outputStream);
             });
@@ -384,6 +473,23 @@ public class CatApplicationTest {
                     thrown.getMessage());
         }
 
+        /**
+         * Run cat files and stdin cannot read stdin throws exception.
+         *
+         * @throws IOException the io exception
+         */
+        @Test
+        void run_CatFilesAndStdinCannotRead_ThrowsException() throws IOException {
+            when(catArgsParser.isCatFileAndStdin()).thenReturn(true);
+            when(catArgsParser.getFileNames()).thenReturn(List.of("-"));
+            when(inputStream.read(any(byte[].class), anyInt(), anyInt())).thenThrow(new IOException(TEST_STRING));
+            Throwable thrown = assertThrows(CatException.class, () -> {
+                catApplication.run(new String[]{MOCK_STRING}, inputStream, outputStream);
+            });
+            assertEquals(new CatException(ERR_IO_EXCEPTION, new IOException(TEST_STRING)).getMessage(),
+                    thrown.getMessage());
+        }
+
         /**
          * Run cat files throws exception propagates exception.
          *
@@ -393,7 +499,8 @@ public class CatApplicationTest {
         void run_catFilesThrowsException_PropagatesException() throws AbstractApplicationException {
             when(catArgsParser.isCatFiles()).thenReturn(true);
             CatApplication spyApplication = spy(new CatApplication(catArgsParser));
-            doThrow(new CatException(TEST_STRING)).when(spyApplication).catFiles(anyBoolean(), any(String[].class));
+            doThrow(new CatException(TEST_STRING)).when(spyApplication).catFiles(anyBoolean(), any(OutputStream.class),
+                    any(String[].class));
             Throwable thrown = assertThrows(CatException.class, () -> {
                 spyApplication.run(new String[]{MOCK_STRING}, inputStream, outputStream);
             });
@@ -401,6 +508,23 @@ public class CatApplicationTest {
                     thrown.getMessage());
         }
 
+        /**
+         * Run cat files cannot write error message throws exception.
+         *
+         * @throws IOException the io exception
+         */
+        @Test
+        void run_CatFilesCannotWrite_ThrowsException() throws IOException {
+            when(catArgsParser.isCatFiles()).thenReturn(true);
+            when(catArgsParser.getFileNames()).thenReturn(List.of(" "));
+            doThrow(new IOException(CLOSED_STRING)).when(outputStream).write(any(byte[].class));
+            Throwable thrown = assertThrows(CatException.class, () -> {
+                catApplication.run(new String[]{MOCK_STRING}, inputStream, outputStream);
+            });
+            assertEquals(new CatException(ERR_IO_EXCEPTION, new IOException(CLOSED_STRING)).getMessage(),
+                    thrown.getMessage());
+        }
+
         /**
          * Cat files null file name throws exception.
          *
@@ -450,7 +574,7 @@ public class CatApplicationTest {
         @ValueSource(booleans = {true, false})
         void catFiles_CannotOpenInputStream_ReturnsException(boolean isLine) throws AbstractApplicationException {
             try (
-                    MockedStatic<IOUtils> mockedStatic = mockStatic(IOUtils.class);
+                    MockedStatic<IOUtils> mockedStatic = mockStatic(IOUtils.class, CALLS_REAL_METHODS);
                     MockedStatic<Files> mockedFiles = mockStatic(Files.class)
             ) {
                 mockedFiles.when(() -> Files.exists(any())).thenReturn(true);
@@ -471,15 +595,16 @@ public class CatApplicationTest {
          */
         @ParameterizedTest
         @ValueSource(booleans = {true, false})
-        void catFiles_CannotGetLinesFromInputStream_ReturnsException(boolean isLine) throws AbstractApplicationException {
+        void catFiles_CannotGetLinesFromInputStream_ReturnsException(boolean isLine)
+                throws AbstractApplicationException, IOException {
             try (
-                    MockedStatic<IOUtils> mockedStatic = mockStatic(IOUtils.class);
+                    MockedStatic<IOUtils> mockedStatic = mockStatic(IOUtils.class, CALLS_REAL_METHODS);
                     MockedStatic<Files> mockedFiles = mockStatic(Files.class)
             ) {
                 mockedFiles.when(() -> Files.exists(any())).thenReturn(true);
                 mockedFiles.when(() -> Files.isDirectory(any())).thenReturn(false);
-                mockedStatic.when(() -> IOUtils.getLinesFromInputStream(any()))
-                        .thenThrow(new IOException(ERR_STRM_CLOSED));
+                when(inputStream.read(any(byte[].class), anyInt(), anyInt())).thenThrow(new IOException(ERR_STRM_CLOSED));
+                mockedStatic.when(() -> IOUtils.openInputStream(anyString())).thenReturn(inputStream);
 
                 String result = catApplication.catFiles(isLine, "test");
 
@@ -509,15 +634,12 @@ public class CatApplicationTest {
          */
         @ParameterizedTest
         @ValueSource(booleans = {true, false})
-        void catStdin_CannotGetLinesFromStdin_ThrowsException(boolean isLine) {
-            try (MockedStatic<IOUtils> mockedStatic = mockStatic(IOUtils.class)) {
-                mockedStatic.when(() -> IOUtils.getLinesFromInputStream(any()))
-                        .thenThrow(new IOException(ERR_STRM_CLOSED));
-                Throwable exp = assertThrows(CatException.class, () -> {
-                    catApplication.catStdin(isLine, inputStream);
-                });
-                assertEquals(new CatException(ERR_IO_EXCEPTION, new IOException(ERR_STRM_CLOSED)).getMessage(), exp.getMessage());
-            }
+        void catStdin_CannotGetLinesFromStdin_ThrowsException(boolean isLine) throws IOException {
+            when(inputStream.read(any(byte[].class), anyInt(), anyInt())).thenThrow(new IOException(ERR_STRM_CLOSED));
+            Throwable exp = assertThrows(CatException.class, () -> {
+                catApplication.catStdin(isLine, inputStream);
+            });
+            assertEquals(new CatException(ERR_IO_EXCEPTION, new IOException(ERR_STRM_CLOSED)).getMessage(), exp.getMessage());
         }
 
         /**
@@ -456,4 +456,38 @@ public class CutApplicationIT { //NOPMD - suppressed ClassNamingConventions - As
                 testOutContent.toString());
         cutAppThread.interrupt();
     }
+
+    /**
+     * Run field and delimiter for stdin print selected fields.
+     *
+     * @throws AbstractApplicationException the abstract application exception
+     * @throws IOException                  the io exception
+     * @throws InterruptedException         the interrupted exception
+     */
+    @Test
+    void run_FieldAndDelimiterForStdin_PrintSelectedFields()
+            throws AbstractApplicationException, IOException, InterruptedException {
+        writeToStdin("id,name,city,zip,state,country,code" + System.lineSeparator()
+                + "7,Ann,Paris,75001,IDF,France,FR" + System.lineSeparator() + "no fields" + System.lineSeparator());
+        String[] args = {"-d,", "-f", "3,7"};
+        cutApplication.run(args, System.in, System.out);
+        String output = testOutContent.toString();
+        assertEquals("city,code" + System.lineSeparator() + "Paris,FR" + System.lineSeparator()
+                + "no fields" + System.lineSeparator(), output);
+    }
+
+    /**
+     * Run field with default tab delimiter for file print selected fields.
+     *
+     * @throws AbstractApplicationException the abstract application exception
+     */
+    @Test
+    void run_FieldWithoutDelimiterForFile_SplitsOnTabs() throws AbstractApplicationException {
+        String[] args = {"-f", "2", TEST_FILE_LF};
+        cutApplication.run(args, System.in, System.out);
+        // the file has no tabs, so every line is printed whole
+        String output = testOutContent.toString();
+        assertEquals(String.join(System.lineSeparator(), "Hello", "", "From", "CutTest.txt", "£И€\uD800\uDF48", ""),
+                output);
+    }
 }
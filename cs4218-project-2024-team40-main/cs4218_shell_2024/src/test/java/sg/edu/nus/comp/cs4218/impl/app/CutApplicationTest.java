@@ -3,6 +3,7 @@ package sg.edu.nus.comp.cs4218.impl.app;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
 import org.mockito.MockedStatic;
@@ -12,12 +13,14 @@ import sg.edu.nus.comp.cs4218.impl.util.IOUtils;
 import sg.edu.nus.comp.cs4218.impl.util.RangeHelper;
 import sg.edu.nus.comp.cs4218.impl.util.RangeHelperFactory;
 
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
@@ -35,10 +38,13 @@ public class CutApplicationTest {
     private final String newLine = System.getProperty("line.separator");
     private static final String EXPECTED_ARG = "abc";
     private static final String EXPECTED_CHAR = "£€\uD800\uDF48";
-    private static final String EXPECTED_OUTPUT = "expected output";
     private static final String FILE = "file";
     private static final String MOCK = "mock";
 
+    private static InputStream toStream(String text) {
+        return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+    }
+
     /**
      * The type Positive tests.
      */
@@ -86,12 +92,8 @@ public class CutApplicationTest {
         void setUp() throws RangeHelperException {
             this.cutArgsParser = mock(CutArgsParser.class);
             this.rangeHelpFact = mock(RangeHelperFactory.class);
-            this.rangeHelper = mock(RangeHelper.class);
+            this.rangeHelper = new RangeHelper(List.of(new int[]{1, 3}));
             when(this.rangeHelpFact.createRangeHelper(any())).thenReturn(this.rangeHelper);
-            when(rangeHelper.contains(1)).thenReturn(true);
-            when(rangeHelper.contains(2)).thenReturn(true);
-            when(rangeHelper.contains(3)).thenReturn(true);
-            when(rangeHelper.isEmpty()).thenReturn(false);
             this.cutApplication = new CutApplication(cutArgsParser, rangeHelpFact);
             this.inputStream = mock(InputStream.class);
             this.outputStream = mock(OutputStream.class);
@@ -107,33 +109,52 @@ public class CutApplicationTest {
         @Test
         void run_CallCutStdin_WritesToOutputStream() throws AbstractApplicationException {
             when(cutArgsParser.isCutStdin()).thenReturn(true);
-            CutApplication spyApplication = spy(new CutApplication(cutArgsParser, rangeHelpFact));
-            doReturn(EXPECTED_OUTPUT).when(spyApplication).cutFromStdin(anyBoolean(), anyBoolean(), any(),
-                    any(InputStream.class));
+            when(cutArgsParser.isCutByChar()).thenReturn(true);
             OutputStream outputStream = new ByteArrayOutputStream();
-            spyApplication.run(new String[]{"-c", "1"}, inputStream, outputStream);
-            assertEquals(EXPECTED_OUTPUT, outputStream.toString());
+            cutApplication.run(new String[]{"-c", "1"}, toStream("abcd" + newLine + "ef"), outputStream);
+            assertEquals("abc" + newLine + "ef" + newLine, outputStream.toString());
         }
 
         /**
-         * Run call cut files writes to output stream.
+         * Run call cut files writes to output stream, with an error line for a missing file.
          *
          * @throws AbstractApplicationException the abstract application exception
-         * @throws RangeHelperException         the range helper exception
          */
         @Test
-        void run_CallCutFiles_WritesToOutputStream() throws AbstractApplicationException, RangeHelperException {
+        void run_CallCutFiles_WritesToOutputStream() throws AbstractApplicationException {
             when(cutArgsParser.isCutStdin()).thenReturn(false);
             when(cutArgsParser.isCutFiles()).thenReturn(true);
             when(cutArgsParser.isCutByByte()).thenReturn(true);
-            when(cutArgsParser.getFiles()).thenReturn(new String[]{FILE});
-            when(rangeHelpFact.createRangeHelper(any())).thenReturn(rangeHelper);
-            CutApplication spyApplication = spy(new CutApplication(cutArgsParser, rangeHelpFact));
-            doReturn(EXPECTED_OUTPUT).when(spyApplication).cutFromFiles(anyBoolean(), anyBoolean(), any(),
-                    anyString());
+            when(cutArgsParser.getFiles()).thenReturn(new String[]{FILE, "-"});
+            OutputStream outputStream = new ByteArrayOutputStream();
+            cutApplication.run(new String[]{"-b", "1"}, toStream(EXPECTED_ARG), outputStream);
+            assertEquals(new CutException(ERR_FILE_NOT_FND, FILE).getMessage() + newLine + EXPECTED_ARG + newLine,
+                    outputStream.toString());
+        }
+
+        /**
+         * Run with a file that fails while being read writes an error line for it and goes on with the next file.
+         *
+         * @param tempDir the temp dir
+         * @throws AbstractApplicationException the abstract application exception
+         * @throws IOException                  the io exception
+         */
+        @Test
+        void run_FileReadFails_WritesErrorAndCutsNextFile(@TempDir Path tempDir)
+                throws AbstractApplicationException, IOException {
+            String failing = Files.writeString(tempDir.resolve("failing"), EXPECTED_ARG).toString();
+            String next = Files.writeString(tempDir.resolve("next"), "abcd").toString();
+            doThrow(new IOException(MOCK)).when(inputStream).read(any(byte[].class), anyInt(), anyInt());
+            when(cutArgsParser.isCutFiles()).thenReturn(true);
+            when(cutArgsParser.isCutByByte()).thenReturn(true);
+            when(cutArgsParser.getFiles()).thenReturn(new String[]{failing, next});
             OutputStream outputStream = new ByteArrayOutputStream();
-            spyApplication.run(new String[]{"-c", "1"}, inputStream, outputStream);
-            assertEquals(EXPECTED_OUTPUT, outputStream.toString());
+            try (MockedStatic<IOUtils> mockedStatic = mockStatic(IOUtils.class, CALLS_REAL_METHODS)) {
+                mockedStatic.when(() -> IOUtils.openInputStream(failing)).thenReturn(inputStream);
+                cutApplication.run(new String[]{"-b", "1-3", failing, next}, toStream(""), outputStream);
+            }
+            assertEquals(new CutException(ERR_IO_EXCEPTION, new IOException(MOCK)).getMessage() + newLine
+                    + EXPECTED_ARG + newLine, outputStream.toString());
         }
 
         /**
@@ -170,13 +191,9 @@ public class CutApplicationTest {
         @ParameterizedTest
         @ValueSource(strings = {EXPECTED_ARG, "", EXPECTED_CHAR})
         void cutFromStdin_CutByCharSuccessful_ReturnsCutOutput(String line) throws RangeHelperException, AbstractApplicationException {
-            try (MockedStatic<IOUtils> mockedStatic = mockStatic(IOUtils.class)) {
-                mockedStatic.when(() -> IOUtils.getLinesFromInputStream(any(InputStream.class)))
-                        .thenReturn(List.of(line));
-                String output = cutApplication.cutFromStdin(true, false,
-                        List.of(new int[]{1, 3}), inputStream);
-                assertEquals(getExpectedLineChar(line), output);
-            }
+            String output = cutApplication.cutFromStdin(true, false,
+                    List.of(new int[]{1, 3}), toStream(line + "\n"));
+            assertEquals(getExpectedLineChar(line), output);
         }
 
         /**
@@ -188,13 +205,9 @@ public class CutApplicationTest {
         @ParameterizedTest
         @ValueSource(strings = {EXPECTED_ARG, "", EXPECTED_CHAR})
         void cutFromStdin_CutByByteSuccessful_ReturnsCutOutput(String line) throws AbstractApplicationException {
-            try (MockedStatic<IOUtils> mockedStatic = mockStatic(IOUtils.class)) {
-                mockedStatic.when(() -> IOUtils.getLinesFromInputStream(any(InputStream.class)))
-                        .thenReturn(List.of(line));
-                String output = cutApplication.cutFromStdin(false, true,
-                        List.of(new int[]{1, 3}), inputStream);
-                assertEquals(getExpectedLineByte(line), output);
-            }
+            String output = cutApplication.cutFromStdin(false, true,
+                    List.of(new int[]{1, 3}), toStream(line + "\n"));
+            assertEquals(getExpectedLineByte(line), output);
         }
 
         /**
@@ -207,20 +220,16 @@ public class CutApplicationTest {
         @ValueSource(strings = {"-c", "-b"})
         void cutFromFiles_OnlyDash_PrintsNothingAndReturns(String flag)
                throws AbstractApplicationException {
-            CutApplication spyApplication = spy(new CutApplication(cutArgsParser, rangeHelpFact));
-            doReturn(EXPECTED_OUTPUT).when(spyApplication).cutFromStdin(anyBoolean(), anyBoolean(), any(),
-                    any(InputStream.class));
-            spyApplication.setStdIn(inputStream);
-            spyApplication.setStdOut(outputStream);
+            cutApplication.setStdIn(toStream("example input\nhi"));
             String output;
             if ("-c".equals(flag)) {
-                output = spyApplication.cutFromFiles(true, false, List.of(new int[]{1, 3}),
+                output = cutApplication.cutFromFiles(true, false, List.of(new int[]{1, 3}),
                         "-");
             } else {
-                output = spyApplication.cutFromFiles(false, true, List.of(new int[]{1, 3}),
+                output = cutApplication.cutFromFiles(false, true, List.of(new int[]{1, 3}),
                         "-");
             }
-            assertEquals(EXPECTED_OUTPUT, output);
+            assertEquals("exa" + newLine + "hi" + newLine, output);
         }
 
         /**
@@ -240,9 +249,7 @@ public class CutApplicationTest {
                 mockedFiles.when(() -> Files.exists(any())).thenReturn(true);
                 mockedFiles.when(() -> Files.isDirectory(any())).thenReturn(false);
                 mockedStatic.when(() -> IOUtils.openInputStream(anyString()))
-                        .thenReturn(inputStream);
-                mockedStatic.when(() -> IOUtils.getLinesFromInputStream(any(InputStream.class)))
-                        .thenReturn(List.of("example input", "hi"));
+                        .thenReturn(toStream("example input\nhi"));
                 String output;
                 if ("-c".equals(flag)) {
                     output = cutApplication.cutFromFiles(true, false, List.of(new int[]{1, 3}),
@@ -274,10 +281,9 @@ public class CutApplicationTest {
             ) {
                 mockedFiles.when(() -> Files.exists(any())).thenReturn(true);
                 mockedFiles.when(() -> Files.isDirectory(any())).thenReturn(false);
-                mockedStatic.when(() -> IOUtils.getLinesFromInputStream(any(InputStream.class)))
-                        .thenReturn(List.of("example input", "hi"));
                 mockedStatic.when(() -> IOUtils.openInputStream(anyString()))
-                        .thenReturn(inputStream);
+                        .thenReturn(toStream("example input\nhi"));
+                cutApplication.setStdIn(toStream("example input\nhi"));
                 String output;
                 if ("-c".equals(flag)) {
                     output = cutApplication.cutFromFiles(true, false, List.of(new int[]{1, 3}),
@@ -418,53 +424,44 @@ public class CutApplicationTest {
          * @throws AbstractApplicationException the abstract application exception
          */
         @Test
-        void run_ClosedOutputStream_ThrowsException() throws IOException, AbstractApplicationException {
-            doThrow(new IOException("closed")).when(outputStream).write(any());
+        void run_ClosedOutputStream_ThrowsException() throws IOException {
+            doThrow(new IOException("closed")).when(outputStream).write(any(byte[].class), anyInt(), anyInt());
             when(cutArgsParser.isCutStdin()).thenReturn(true);
-            CutApplication spyApplication = spy(new CutApplication(cutArgsParser, rangeHelpFact));
-            doReturn(EXPECTED_OUTPUT).when(spyApplication).cutFromStdin(anyBoolean(), anyBoolean(), any(),
-                    any(InputStream.class));
+            when(cutArgsParser.isCutByChar()).thenReturn(true);
             Throwable thrown = assertThrows(CutException.class, () -> {
-                spyApplication.run(new String[]{MOCK}, inputStream, outputStream);
+                cutApplication.run(new String[]{MOCK}, toStream(EXPECTED_ARG), outputStream);
             });
             assertEquals(new CutException(ERR_IO_EXCEPTION).getMessage(),
                     thrown.getMessage());
         }
 
         /**
-         * Run cut stdin throws exception propagates exception.
+         * Run with stdin that cannot be read throws exception.
          *
-         * @throws AbstractApplicationException the abstract application exception
+         * @throws IOException the io exception
          */
         @Test
-        void run_CutStdinThrowsException_PropagatesException() throws AbstractApplicationException {
+        void run_CutStdinThrowsException_PropagatesException() throws IOException {
             when(cutArgsParser.isCutStdin()).thenReturn(true);
-            CutApplication spyApplication = spy(new CutApplication(cutArgsParser, rangeHelpFact));
-            doThrow(new CutException(TEST_STRING)).when(spyApplication).cutFromStdin(anyBoolean(), anyBoolean(), any(),
-                    any(InputStream.class));
+            doThrow(new IOException(TEST_STRING)).when(inputStream).read(any(byte[].class), anyInt(), anyInt());
             Throwable thrown = assertThrows(CutException.class, () -> {
-                spyApplication.run(new String[]{MOCK}, inputStream, outputStream);
+                cutApplication.run(new String[]{MOCK}, inputStream, new ByteArrayOutputStream());
             });
-            assertEquals(new CutException(TEST_STRING).getMessage(),
+            assertEquals(new CutException(ERR_IO_EXCEPTION).getMessage(),
                     thrown.getMessage());
         }
 
         /**
-         * Run cut from files throws exception propagates exception.
-         *
-         * @throws AbstractApplicationException the abstract application exception
+         * Run with null file names throws exception.
          */
         @Test
-        void run_CutFromFilesThrowsException_PropagatesException() throws AbstractApplicationException {
+        void run_CutFilesNullFileNames_ThrowsException() {
             when(cutArgsParser.isCutFiles()).thenReturn(true);
-            when(cutArgsParser.getFiles()).thenReturn(new String[]{MOCK});
-            CutApplication spyApplication = spy(new CutApplication(cutArgsParser, rangeHelpFact));
-            doThrow(new CutException(TEST_STRING)).when(spyApplication).cutFromFiles(anyBoolean(), anyBoolean(), any(),
-                    any(String[].class));
+            when(cutArgsParser.getFiles()).thenReturn(null);
             Throwable thrown = assertThrows(CutException.class, () -> {
-                spyApplication.run(new String[]{MOCK}, inputStream, outputStream);
+                cutApplication.run(new String[]{MOCK}, inputStream, outputStream);
             });
-            assertEquals(new CutException(TEST_STRING).getMessage(),
+            assertEquals(new CutException(ERR_NULL_ARGS).getMessage(),
                     thrown.getMessage());
         }
 
@@ -637,20 +634,20 @@ public class CutApplicationTest {
         }
 
         /**
-         * Cut from files cut from file cannot get lines throws exception.
+         * Cut from files cut from file cannot read file prints exception.
          */
         @Test
-        void cutFromFiles_CutFromFileCannotGetLines_ThrowsException() throws AbstractApplicationException {
+        void cutFromFiles_CutFromFileCannotRead_PrintsException() throws AbstractApplicationException,
+                IOException {
             try (
                     MockedStatic<IOUtils> mockedStatic = mockStatic(IOUtils.class);
                     MockedStatic<Files> mockedFiles = mockStatic(Files.class)
             ) {
                 mockedFiles.when(() -> Files.exists(any())).thenReturn(true);
                 mockedFiles.when(() -> Files.isDirectory(any())).thenReturn(false);
+                doThrow(new IOException(TEST_STRING)).when(inputStream).read(any(byte[].class), anyInt(), anyInt());
                 mockedStatic.when(() -> IOUtils.openInputStream(anyString()))
                         .thenReturn(inputStream);
-                mockedStatic.when(() -> IOUtils.getLinesFromInputStream(any(InputStream.class)))
-                        .thenThrow(new IOException(TEST_STRING));
                 String results = cutApplication.cutFromFiles(true, false, List.of(new int[]{1, 1}),
                         FILE_STRING);
                 assertEquals(new CutException(ERR_IO_EXCEPTION, new IOException(TEST_STRING)).getMessage() + newLine,
@@ -695,21 +692,16 @@ public class CutApplicationTest {
         }
 
         /**
-         * Cut from stdin io utils throws io exception throws exception.
+         * Cut from stdin read throws io exception throws exception.
          *
-         * @throws RangeHelperException the range helper exception
+         * @throws IOException the io exception
          */
         @Test
-        void cutFromStdin_IOUtilsThrowsIOException_ThrowsException() throws RangeHelperException {
-            when(rangeHelpFact.createRangeHelper(any())).thenReturn(rangeHelper);
-            try (MockedStatic<IOUtils> mockedStatic = mockStatic(IOUtils.class)) {
-                mockedStatic.when(() -> IOUtils.getLinesFromInputStream(any(InputStream.class)))
-                        .thenThrow(new IOException("Stream closed"));
-
-                Throwable exp = assertThrows(CutException.class, () -> cutApplication.cutFromStdin(true,
-                                false, List.of(new int[]{1, 2}), inputStream));
-                assertEquals(new CutException("Stream closed").getMessage(), exp.getMessage());
-            }
+        void cutFromStdin_ReadThrowsIOException_ThrowsException() throws IOException {
+            doThrow(new IOException("Stream closed")).when(inputStream).read(any(byte[].class), anyInt(), anyInt());
+            Throwable exp = assertThrows(CutException.class, () -> cutApplication.cutFromStdin(true,
+                            false, List.of(new int[]{1, 2}), inputStream));
+            assertEquals(new CutException("Stream closed").getMessage(), exp.getMessage());
         }
 
         /**
@@ -719,16 +711,12 @@ public class CutApplicationTest {
          */
         @Test
         void cutFromStdin_RangeHelperThrowsException_ThrowsException() throws RangeHelperException {
-            try (MockedStatic<IOUtils> mockedStatic = mockStatic(IOUtils.class)) {
-                mockedStatic.when(() -> IOUtils.getLinesFromInputStream(any(InputStream.class)))
-                        .thenReturn(List.of("example input", "hi"));
-                when(rangeHelpFact.createRangeHelper(anyList())).thenThrow(new RangeHelperException(TEST_STRING));
-                Throwable exp = assertThrows(CutException.class, () -> {
-                    cutApplication.cutFromStdin(true, false, List.of(new int[]{1, 2}), inputStream);
-                });
-                assertEquals(new CutException(new RangeHelperException(TEST_STRING).getMessage())
-                        .getMessage(), exp.getMessage());
-            }
+            when(rangeHelpFact.createRangeHelper(anyList())).thenThrow(new RangeHelperException(TEST_STRING));
+            Throwable exp = assertThrows(CutException.class, () -> {
+                cutApplication.cutFromStdin(true, false, List.of(new int[]{1, 2}), inputStream);
+            });
+            assertEquals(new CutException(new RangeHelperException(TEST_STRING).getMessage())
+                    .getMessage(), exp.getMessage());
         }
     }
 }
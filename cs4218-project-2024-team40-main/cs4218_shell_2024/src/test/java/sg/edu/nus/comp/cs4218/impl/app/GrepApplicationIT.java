@@ -4,14 +4,18 @@ import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
 import sg.edu.nus.comp.cs4218.exception.AbstractApplicationException;
 import sg.edu.nus.comp.cs4218.exception.GrepException;
 import sg.edu.nus.comp.cs4218.impl.parser.GrepArgsParser;
+import sg.edu.nus.comp.cs4218.impl.util.MappedChunks;
+import sg.edu.nus.comp.cs4218.impl.util.ShellSettings;
 
 import java.io.*;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Random;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static sg.edu.nus.comp.cs4218.impl.util.ErrorConstants.*;
@@ -379,6 +383,152 @@ public class GrepApplicationIT { //NOPMD
         }
     }
 
+    @Nested
+    class ParallelTests {
+        private static final String DIR_NAME = "grepDirectory";
+        private static final String MISSING = "missingFile.txt";
+        private final String[] fileNames = {FILE_MUL_LOREM, MISSING, FILE_LOREM, DIR_NAME, FILE_MUL_LOREM,
+            FILE_LOREM};
+        private int previousParallelism;
+
+        @BeforeEach
+        void setUp() throws IOException {
+            createTestFile(FILE_LOREM, INPUT_1);
+            createTestFile(FILE_MUL_LOREM, INPUT_1 + STRING_NEWLINE + "other" + STRING_NEWLINE + INPUT_2);
+            Files.createDirectories(Paths.get(DIR_NAME));
+            previousParallelism = ShellSettings.grepParallelism;
+        }
+
+        @AfterEach
+        void tearDown() throws IOException {
+            ShellSettings.grepParallelism = previousParallelism;
+            Files.deleteIfExists(Paths.get(DIR_NAME));
+        }
+
+        private String run(int parallelism, String... args) throws AbstractApplicationException {
+            ShellSettings.grepParallelism = parallelism;
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            new GrepApplication(new GrepArgsParser()).run(args, new ByteArrayInputStream(INPUT_2.getBytes()),
+                    output);
+            return output.toString();
+        }
+
+        private String[] withArgs(String[] files, String... options) {
+            String[] args = new String[options.length + files.length];
+            System.arraycopy(options, 0, args, 0, options.length);
+            System.arraycopy(files, 0, args, options.length, files.length);
+            return args;
+        }
+
+        @Test
+        void run_ParallelFiles_SameOutputInArgumentOrder() throws AbstractApplicationException {
+            String expected = run(1, withArgs(fileNames, LOREM));
+            assertEquals(expected, run(4, withArgs(fileNames, LOREM)));
+            assertTrue(expected.indexOf(MISSING) < expected.indexOf(DIR_NAME));
+            assertTrue(expected.contains(new GrepException(MISSING, ERR_FILE_NOT_FND).getMessage()));
+            assertTrue(expected.contains(new GrepException(DIR_NAME, ERR_IS_DIR).getMessage()));
+        }
+
+        @Test
+        void run_ParallelCount_SameOutputInArgumentOrder() throws AbstractApplicationException {
+            assertEquals(run(1, withArgs(fileNames, "-c", LOREM)), run(4, withArgs(fileNames, "-c", LOREM)));
+        }
+
+        @Test
+        void run_ParallelFilesAndStdin_StdinKeepsItsPosition() throws AbstractApplicationException {
+            String[] files = {FILE_LOREM, MISSING, "-", FILE_MUL_LOREM, DIR_NAME, FILE_LOREM};
+            String expected = run(1, withArgs(files, "-H", LOREM));
+            assertEquals(expected, run(3, withArgs(files, "-H", LOREM)));
+            assertTrue(expected.indexOf(MISSING) < expected.indexOf("(standard input)"));
+            assertTrue(expected.indexOf("(standard input)") < expected.indexOf(DIR_NAME));
+        }
+
+        @Test
+        void grepFromFiles_Parallel_SameResult() throws AbstractApplicationException {
+            GrepApplication grepApplication = new GrepApplication(new GrepArgsParser());
+            ShellSettings.grepParallelism = 1;
+            String expected = grepApplication.grepFromFiles(LOREM, true, false, false, fileNames);
+            ShellSettings.grepParallelism = 4;
+            assertEquals(expected, grepApplication.grepFromFiles(LOREM, true, false, false, fileNames));
+        }
+    }
+
+    @Nested
+    class EngineTests {
+        private final String lines = "aaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaa!"
+                + STRING_NEWLINE + "abba" + STRING_NEWLINE + "aab" + STRING_NEWLINE;
+
+        private String run(String... args) throws AbstractApplicationException {
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            new GrepApplication(new GrepArgsParser()).run(args, new ByteArrayInputStream(lines.getBytes()), output);
+            return output.toString();
+        }
+
+        @Test
+        @Timeout(10)
+        void run_DfaEnginePathologicalPattern_PrintsMatchesQuickly() throws AbstractApplicationException {
+            assertEquals("aab" + STRING_NEWLINE, run("--engine=dfa", "(a+)+b$"));
+        }
+
+        @Test
+        void run_DfaEngine_SameAsJavaEngine() throws AbstractApplicationException {
+            assertEquals(run("--engine=java", "-i", "^A[b-c]+"), run("--engine=dfa", "-i", "^A[b-c]+"));
+            assertEquals(run("--engine=java", "-c", "b{2}|!$"), run("--engine=dfa", "-c", "b{2}|!$"));
+        }
+
+        @Test
+        void run_DfaEngineBackreference_FallsBackToJavaRegex() throws AbstractApplicationException {
+            assertEquals("abba" + STRING_NEWLINE, run("--engine=dfa", "(b)\\1"));
+        }
+    }
+
+    @Nested
+    class LargeFileTests {
+        private static final String LARGE_FILE = "largeFile.txt";
+        private final byte[] alphabet = {'a', 'b', ' ', '\r', '\n', (byte) 0xC3, (byte) 0xA9};
+        private long previousThreshold;
+
+        @BeforeEach
+        void setUp() throws IOException {
+            Random random = new Random(4218);
+            byte[] bytes = new byte[2 * MappedChunks.CHUNK_SIZE + 13];
+            for (int i = 0; i < bytes.length; i++) {
+                // mostly short lines, with \r\n at some chunk boundaries
+                bytes[i] = i % 40 == 0 ? (byte) '\n' : alphabet[random.nextInt(alphabet.length)];
+            }
+            bytes[MappedChunks.CHUNK_SIZE - 1] = '\r';
+            bytes[MappedChunks.CHUNK_SIZE] = '\n';
+            Files.write(Paths.get(LARGE_FILE), bytes);
+            previousThreshold = ShellSettings.grepParallelThreshold;
+        }
+
+        @AfterEach
+        void tearDown() throws IOException {
+            ShellSettings.grepParallelThreshold = previousThreshold;
+            Files.deleteIfExists(Paths.get(LARGE_FILE));
+        }
+
+        private String run(long threshold, String... args) throws AbstractApplicationException {
+            ShellSettings.grepParallelThreshold = threshold;
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            new GrepApplication(new GrepArgsParser()).run(args, new ByteArrayInputStream(new byte[0]), output);
+            return output.toString();
+        }
+
+        @Test
+        void run_LargeFileInChunks_SameAsSequential() throws AbstractApplicationException {
+            assertEquals(run(Long.MAX_VALUE, "ab a", LARGE_FILE), run(0, "ab a", LARGE_FILE));
+            assertEquals(run(Long.MAX_VALUE, "-i", "^B.é", LARGE_FILE), run(0, "-i", "^B.é", LARGE_FILE));
+        }
+
+        @Test
+        void run_LargeFileCountInChunks_SameAsSequential() throws AbstractApplicationException {
+            assertEquals(run(Long.MAX_VALUE, "-c", "^$", LARGE_FILE), run(0, "-c", "^$", LARGE_FILE));
+            assertEquals(run(Long.MAX_VALUE, "-c", "-H", "ba", LARGE_FILE, FILE_LOREM),
+                    run(0, "-c", "-H", "ba", LARGE_FILE, FILE_LOREM));
+        }
+    }
+
     /**
      * Tear down.
      *
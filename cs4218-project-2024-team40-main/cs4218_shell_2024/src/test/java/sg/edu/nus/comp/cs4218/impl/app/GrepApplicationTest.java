@@ -2,6 +2,7 @@ package sg.edu.nus.comp.cs4218.impl.app;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.MockedStatic;
 import sg.edu.nus.comp.cs4218.exception.AbstractApplicationException;
 import sg.edu.nus.comp.cs4218.exception.GrepException;
@@ -9,7 +10,10 @@ import sg.edu.nus.comp.cs4218.exception.InvalidArgsException;
 import sg.edu.nus.comp.cs4218.exception.ShellException;
 import sg.edu.nus.comp.cs4218.impl.parser.GrepArgsParser;
 import sg.edu.nus.comp.cs4218.impl.util.IOUtils;
+import sg.edu.nus.comp.cs4218.impl.util.ShellSettings;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
@@ -31,6 +35,11 @@ public class GrepApplicationTest {
     private static final String INVALID = "invalid";
     private static final String TEST_STR = "test";
     private static final String STDIN_ARG = "-";
+    private static final String STDIN_NAME = "(standard input)";
+    private static InputStream toStream(String text) {
+        return new ByteArrayInputStream(text.getBytes());
+    }
+
     @BeforeEach
     void setup() {
         grepArgsParser = mock(GrepArgsParser.class);
@@ -60,13 +69,22 @@ public class GrepApplicationTest {
     }
 
     @Test
-    void run_CannotWriteToStdout_ThrowsException() throws IOException, AbstractApplicationException {
-        doThrow(new IOException(TEST_STR)).when(outputStream).write(any());
+    void run_CannotWriteToStdout_ThrowsException() throws IOException {
+        doThrow(new IOException(TEST_STR)).when(outputStream).write(any(byte[].class), anyInt(), anyInt());
         doReturn(true).when(grepArgsParser).isGrepFromStdin();
         doReturn(TEST_STR).when(grepArgsParser).getPattern();
-        GrepApplication spyApp = spy(grepApplication);
-        doReturn(TEST_STR).when(spyApp).grepFromStdin(anyString(), any(), any(), any(), any(InputStream.class));
-        Throwable exp = assertThrows(GrepException.class, () -> spyApp.run(new String[]{TEST_STR}, inputStream, outputStream));
+        Throwable exp = assertThrows(GrepException.class, () -> grepApplication.run(new String[]{TEST_STR},
+                toStream(TEST_STR), outputStream));
+        assertEquals(new GrepException(new IOException(TEST_STR)).getMessage(), exp.getMessage());
+    }
+
+    @Test
+    void run_CannotReadStdin_ThrowsException() throws IOException {
+        doThrow(new IOException(TEST_STR)).when(inputStream).read(any(byte[].class), anyInt(), anyInt());
+        doReturn(true).when(grepArgsParser).isGrepFromStdin();
+        doReturn(TEST_STR).when(grepArgsParser).getPattern();
+        Throwable exp = assertThrows(GrepException.class, () -> grepApplication.run(new String[]{TEST_STR},
+                inputStream, outputStream));
         assertEquals(new GrepException(new IOException(TEST_STR)).getMessage(), exp.getMessage());
     }
 
@@ -84,11 +102,9 @@ public class GrepApplicationTest {
 
     @Test
     void grepFromStdin_CannotReadStdin_ThrowsException() throws IOException {
-        try (MockedStatic<IOUtils> mockedIo = mockStatic(IOUtils.class)) {
-            mockedIo.when(() -> IOUtils.getLinesFromInputStream(any(InputStream.class))).thenThrow(new IOException(TEST_STR));
-            Throwable exp = assertThrows(GrepException.class, () -> grepApplication.grepFromStdin(TEST_STR, false, false, false, inputStream));
-            assertEquals(new GrepException(new IOException(TEST_STR)).getMessage(), exp.getMessage());
-        }
+        doThrow(new IOException(TEST_STR)).when(inputStream).read(any(byte[].class), anyInt(), anyInt());
+        Throwable exp = assertThrows(GrepException.class, () -> grepApplication.grepFromStdin(TEST_STR, false, false, false, inputStream));
+        assertEquals(new GrepException(new IOException(TEST_STR)).getMessage(), exp.getMessage());
     }
 
     @Test
@@ -135,13 +151,13 @@ public class GrepApplicationTest {
     }
 
     @Test
-    void run_IsGrepFromStdin_CallsGrepFromStdin() throws AbstractApplicationException, IOException {
+    void run_IsGrepFromStdin_CallsGrepFromStdin() throws AbstractApplicationException {
         doReturn(true).when(grepArgsParser).isGrepFromStdin();
         doReturn(TEST_STR).when(grepArgsParser).getPattern();
         GrepApplication spyApp = spy(grepApplication);
-        doReturn(TEST_STR).when(spyApp).grepFromStdin(anyString(), anyBoolean(), anyBoolean(), anyBoolean(), any(InputStream.class));
+        doNothing().when(spyApp).grepFromStdin(anyString(), anyBoolean(), anyBoolean(), anyBoolean(), any(InputStream.class), any());
         spyApp.run(new String[]{TEST_STR}, inputStream, outputStream);
-        verify(spyApp).grepFromStdin(TEST_STR, false, false, false, inputStream);
+        verify(spyApp).grepFromStdin(eq(TEST_STR), eq(false), eq(false), eq(false), eq(inputStream), any());
     }
 
     @Test
@@ -150,41 +166,161 @@ public class GrepApplicationTest {
         doReturn(TEST_STR).when(grepArgsParser).getPattern();
         doReturn(new String[]{TEST_STR}).when(grepArgsParser).getFileNames();
         GrepApplication spyApp = spy(grepApplication);
-        doReturn(TEST_STR).when(spyApp).grepFromFiles(anyString(), anyBoolean(), anyBoolean(), anyBoolean(), any());
+        doNothing().when(spyApp).grepFromFiles(anyString(), anyBoolean(), anyBoolean(), anyBoolean(), any(), any(String[].class));
         spyApp.run(new String[]{TEST_STR}, inputStream, outputStream);
-        verify(spyApp).grepFromFiles(TEST_STR, false, false, false, new String[]{TEST_STR});
+        verify(spyApp).grepFromFiles(eq(TEST_STR), eq(false), eq(false), eq(false), any(), eq(new String[]{TEST_STR}));
     }
 
     @Test
-    void run_IsGrepFromFilesAndStdin_CallsGrepFromFileAndStdin() throws AbstractApplicationException, IOException {
+    void run_IsGrepFromFilesAndStdin_CallsGrepFromFileAndStdin() throws AbstractApplicationException {
         doReturn(true).when(grepArgsParser).isGrepFromFilesAndStdin();
         doReturn(TEST_STR).when(grepArgsParser).getPattern();
         doReturn(new String[]{TEST_STR}).when(grepArgsParser).getFileNames();
         GrepApplication spyApp = spy(grepApplication);
-        doReturn(TEST_STR).when(spyApp).grepFromFileAndStdin(anyString(), anyBoolean(), anyBoolean(), anyBoolean(), any(InputStream.class), anyString());
+        doNothing().when(spyApp).grepFromFileAndStdin(anyString(), anyBoolean(), anyBoolean(), anyBoolean(), any(InputStream.class), any(), any(String[].class));
         spyApp.run(new String[]{TEST_STR}, inputStream, outputStream);
-        verify(spyApp).grepFromFileAndStdin(TEST_STR, false, false, false, inputStream, TEST_STR);
+        verify(spyApp).grepFromFileAndStdin(eq(TEST_STR), eq(false), eq(false), eq(false), eq(inputStream), any(), eq(new String[]{TEST_STR}));
     }
 
     @Test
-    void grepFromFileAndStdin_FileThenStdin_PrintsAndReturnsOutput() throws AbstractApplicationException, IOException {
-        GrepApplication spyApp = spy(grepApplication);
-        doReturn(TEST_STR).when(spyApp).grepFromFiles(anyString(), anyBoolean(), anyBoolean(), anyBoolean(), any());
-        doReturn(TEST_STR).when(spyApp).grepFromStdin(anyString(), anyBoolean(), anyBoolean(), anyBoolean(), any(InputStream.class));
-        spyApp.setOutputStream(outputStream);
-        String res = spyApp.grepFromFileAndStdin(TEST_STR, false, false, false, inputStream, TEST_STR, STDIN_ARG);
-        assertEquals(TEST_STR, res);
-        verify(outputStream).write((TEST_STR + STRING_NEWLINE).getBytes());
+    void run_IsGrepFromStdin_PrintsMatchingLines() throws AbstractApplicationException {
+        doReturn(true).when(grepArgsParser).isGrepFromStdin();
+        doReturn(TEST_STR).when(grepArgsParser).getPattern();
+        ByteArrayOutputStream stdout = new ByteArrayOutputStream();
+        grepApplication.run(new String[]{TEST_STR}, toStream(TEST_STR + "\nother\n" + TEST_STR + "2"), stdout);
+        assertEquals(TEST_STR + STRING_NEWLINE + TEST_STR + "2" + STRING_NEWLINE, stdout.toString());
     }
 
     @Test
-    void grepFromFileAndStdin_StdinThenFile_PrintsEmptyStringAndReturnsOutput() throws AbstractApplicationException, IOException {
-        GrepApplication spyApp = spy(grepApplication);
-        doReturn(TEST_STR).when(spyApp).grepFromFiles(anyString(), anyBoolean(), anyBoolean(), anyBoolean(), any());
-        doReturn(TEST_STR).when(spyApp).grepFromStdin(anyString(), anyBoolean(), anyBoolean(), anyBoolean(), any(InputStream.class));
-        spyApp.setOutputStream(outputStream);
-        String res = spyApp.grepFromFileAndStdin(TEST_STR, false, false, false, inputStream, STDIN_ARG, TEST_STR);
-        assertEquals(TEST_STR + STRING_NEWLINE + TEST_STR, res);
+    void run_IsGrepFromFiles_PrintsSameAsGrepFromFiles() throws AbstractApplicationException {
+        String[] fileNames = {" ", INVALID};
+        doReturn(true).when(grepArgsParser).isGrepFromFiles();
+        doReturn(TEST_STR).when(grepArgsParser).getPattern();
+        doReturn(fileNames).when(grepArgsParser).getFileNames();
+        ByteArrayOutputStream stdout = new ByteArrayOutputStream();
+        grepApplication.run(new String[]{TEST_STR}, inputStream, stdout);
+        assertEquals(grepApplication.grepFromFiles(TEST_STR, false, false, false, fileNames) + STRING_NEWLINE,
+                stdout.toString());
+    }
+
+    @Test
+    void run_IsGrepFromFilesAndStdin_PrintsSameAsGrepFromFileAndStdin() throws AbstractApplicationException {
+        String[] fileNames = {INVALID, STDIN_ARG, " "};
+        String stdin = TEST_STR + "\n" + INVALID;
+        doReturn(true).when(grepArgsParser).isGrepFromFilesAndStdin();
+        doReturn(TEST_STR).when(grepArgsParser).getPattern();
+        doReturn(true).when(grepArgsParser).isCount();
+        doReturn(fileNames).when(grepArgsParser).getFileNames();
+        ByteArrayOutputStream stdout = new ByteArrayOutputStream();
+        grepApplication.run(new String[]{TEST_STR}, toStream(stdin), stdout);
+
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        grepApplication.setOutputStream(expected);
+        String rest = grepApplication.grepFromFileAndStdin(TEST_STR, false, true, false, toStream(stdin), fileNames);
+        assertEquals(expected + rest + STRING_NEWLINE, stdout.toString());
+    }
+
+    @Test
+    void run_SlowStdin_PrintsMatchBeforeReadingMore() throws AbstractApplicationException {
+        doReturn(true).when(grepArgsParser).isGrepFromStdin();
+        doReturn(TEST_STR).when(grepArgsParser).getPattern();
+        ByteArrayOutputStream stdout = new ByteArrayOutputStream();
+        InputStream stdin = new InputStream() {
+            private int reads;
+
+            @Override
+            public int read() {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public int read(byte[] bytes, int offset, int length) {
+                byte[] chunk = (TEST_STR + "\n").getBytes();
+                if (reads++ == 0) {
+                    System.arraycopy(chunk, 0, bytes, offset, chunk.length);
+                    return chunk.length;
+                }
+                // the match of the first chunk is out before waiting for the next one
+                assertEquals(TEST_STR, stdout.toString());
+                return -1;
+            }
+        };
+        grepApplication.run(new String[]{TEST_STR}, stdin, stdout);
+        assertEquals(TEST_STR + STRING_NEWLINE, stdout.toString());
+    }
+
+    @Test
+    void run_LiteralPattern_PrintsSameAsRegexSearch() throws AbstractApplicationException {
+        String stdin = "Test one\r\nno match\r\n\r\ntest\ttwo\rTEST é three\nteSt";
+        doReturn(true).when(grepArgsParser).isGrepFromStdin();
+        doReturn(TEST_STR).when(grepArgsParser).getPattern();
+        doReturn(true).when(grepArgsParser).isIgnoreCase();
+        boolean previous = ShellSettings.grepLiteralSearch;
+        try {
+            ShellSettings.grepLiteralSearch = true;
+            ByteArrayOutputStream literal = new ByteArrayOutputStream();
+            grepApplication.run(new String[]{TEST_STR}, toStream(stdin), literal);
+            ShellSettings.grepLiteralSearch = false;
+            ByteArrayOutputStream regex = new ByteArrayOutputStream();
+            grepApplication.run(new String[]{TEST_STR}, toStream(stdin), regex);
+            assertEquals(regex.toString(), literal.toString());
+            assertEquals(String.join(STRING_NEWLINE, "Test one", "test\ttwo", "TEST é three", "teSt")
+                    + STRING_NEWLINE, literal.toString());
+        } finally {
+            ShellSettings.grepLiteralSearch = previous;
+        }
+    }
+
+    @Test
+    void run_EngineSettingInUpperCase_UsesEngine() throws AbstractApplicationException {
+        doReturn(true).when(grepArgsParser).isGrepFromStdin();
+        doReturn("t.st").when(grepArgsParser).getPattern();
+        String previous = ShellSettings.grepEngine;
+        try {
+            ShellSettings.grepEngine = " DFA ";
+            ByteArrayOutputStream stdout = new ByteArrayOutputStream();
+            grepApplication.run(new String[]{"t.st"}, toStream("test\nno\ntost"), stdout);
+            assertEquals("test" + STRING_NEWLINE + "tost" + STRING_NEWLINE, stdout.toString());
+        } finally {
+            ShellSettings.grepEngine = previous;
+        }
+    }
+
+    @Test
+    void run_UnknownEngineSetting_ThrowsException() {
+        doReturn(true).when(grepArgsParser).isGrepFromStdin();
+        doReturn("t.st").when(grepArgsParser).getPattern();
+        String previous = ShellSettings.grepEngine;
+        try {
+            ShellSettings.grepEngine = "perl";
+            Throwable exp = assertThrows(GrepException.class,
+                    () -> grepApplication.run(new String[]{"t.st"}, toStream(TEST_STR), new ByteArrayOutputStream()));
+            assertEquals(new GrepException(new InvalidArgsException(GrepArgsParser.ILLEGAL_ENGINE_MSG + "'perl'"))
+                    .getMessage(), exp.getMessage());
+        } finally {
+            ShellSettings.grepEngine = previous;
+        }
+    }
+
+    @Test
+    void grepFromFileAndStdin_FileThenStdin_PrintsAndReturnsOutput(@TempDir Path tempDir)
+            throws AbstractApplicationException, IOException {
+        String file = Files.writeString(tempDir.resolve(TEST_STR), TEST_STR).toString();
+        grepApplication.setOutputStream(outputStream);
+        String res = grepApplication.grepFromFileAndStdin(TEST_STR, false, false, false, toStream(TEST_STR), file,
+                STDIN_ARG);
+        assertEquals(STDIN_NAME + ":" + TEST_STR, res);
+        verify(outputStream).write((file + ":" + TEST_STR + STRING_NEWLINE).getBytes());
+    }
+
+    @Test
+    void grepFromFileAndStdin_StdinThenFile_PrintsEmptyStringAndReturnsOutput(@TempDir Path tempDir)
+            throws AbstractApplicationException, IOException {
+        String file = Files.writeString(tempDir.resolve(TEST_STR), TEST_STR).toString();
+        grepApplication.setOutputStream(outputStream);
+        String res = grepApplication.grepFromFileAndStdin(TEST_STR, false, false, false, toStream(TEST_STR),
+                STDIN_ARG, file);
+        assertEquals(STDIN_NAME + ":" + TEST_STR + STRING_NEWLINE + file + ":" + TEST_STR, res);
         verify(outputStream).write(("").getBytes());
     }
 }
@@ -4,9 +4,11 @@ import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
+import org.junit.jupiter.params.provider.ValueSource;
 import org.mockito.MockedStatic;
 import sg.edu.nus.comp.cs4218.exception.AbstractApplicationException;
 import sg.edu.nus.comp.cs4218.exception.InvalidArgsException;
@@ -14,13 +16,20 @@ import sg.edu.nus.comp.cs4218.exception.ShellException;
 import sg.edu.nus.comp.cs4218.exception.SortException;
 import sg.edu.nus.comp.cs4218.impl.parser.SortArgsParser;
 import sg.edu.nus.comp.cs4218.impl.util.IOUtils;
+import sg.edu.nus.comp.cs4218.impl.util.ParallelMergeSort;
+import sg.edu.nus.comp.cs4218.impl.util.ShellSettings;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.List;
+import java.util.Random;
 import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -65,6 +74,10 @@ public class SortApplicationTest { //NOPMD - suppressed UseUtilityClass - Test M
      */
     public static final String TEST = "test";
 
+    private static InputStream toStream(String text) {
+        return new ByteArrayInputStream(text.getBytes());
+    }
+
     /**
      * The type Positive run tests.
      */
@@ -80,6 +93,9 @@ public class SortApplicationTest { //NOPMD - suppressed UseUtilityClass - Test M
         @BeforeEach
         void setUp() {
             sortArgsParser = mock(SortArgsParser.class);
+            // a mock returns 0 instead of null for these, which are never 0 when parsed
+            when(sortArgsParser.getBufferSize()).thenReturn(null);
+            when(sortArgsParser.getParallelism()).thenReturn(null);
             inputStream = mock(InputStream.class);
             outputStream = mock(OutputStream.class);
         }
@@ -91,33 +107,143 @@ public class SortApplicationTest { //NOPMD - suppressed UseUtilityClass - Test M
          * @throws IOException                  the io exception
          */
         @Test
-        void run_SuccessfulSortFromStdin_PrintsToOutputStream() throws AbstractApplicationException, IOException {
-            SortApplication spyApplication = spy(new SortApplication(sortArgsParser));
-            doReturn(MOCK).when(spyApplication).sortFromStdin(anyBoolean(), anyBoolean(), anyBoolean(),
-                    any(InputStream.class));
+        void run_SuccessfulSortFromStdin_PrintsToOutputStream() throws AbstractApplicationException {
             when(sortArgsParser.isSortFromStdin()).thenReturn(true);
-            spyApplication.run(new String[]{MOCK}, inputStream, outputStream);
-            verify(spyApplication).sortFromStdin(anyBoolean(), anyBoolean(), anyBoolean(), any(InputStream.class));
-            verify(outputStream, times(1)).write(MOCK.getBytes());
-            verify(outputStream, times(1)).write(STRING_NEWLINE.getBytes());
+            ByteArrayOutputStream stdout = new ByteArrayOutputStream();
+            new SortApplication(sortArgsParser).run(new String[0], toStream(MOCK + "\nB2\n" + TEST_INPUT), stdout);
+            assertEquals(TEST_INPUT + STRING_NEWLINE + "B2" + STRING_NEWLINE + MOCK + STRING_NEWLINE,
+                    stdout.toString());
         }
 
         /**
-         * Run successful sort from files prints to output stream.
+         * Run successful sort from files prints the same output as sort from files, followed by a newline.
          *
+         * @param tempDir the temp dir
          * @throws AbstractApplicationException the abstract application exception
          * @throws IOException                  the io exception
          */
         @Test
-        void run_SuccessfulSortFromFiles_PrintsToOutputStream() throws AbstractApplicationException, IOException {
-            SortApplication spyApplication = spy(new SortApplication(sortArgsParser));
-            doReturn(MOCK).when(spyApplication).sortFromFiles(anyBoolean(), anyBoolean(), anyBoolean(),
-                    any(String[].class));
+        void run_SuccessfulSortFromFiles_PrintsToOutputStream(@TempDir Path tempDir)
+                throws AbstractApplicationException, IOException {
+            String file1 = Files.write(tempDir.resolve("file1"), MOCK_INPUT_ALL).toString();
+            String file2 = Files.write(tempDir.resolve("file2"), List.of(MOCK_CAPITAL, RANDOM_NUMBER)).toString();
             when(sortArgsParser.isSortFromFiles()).thenReturn(true);
-            spyApplication.run(new String[]{MOCK}, inputStream, outputStream);
-            verify(spyApplication).sortFromFiles(anyBoolean(), anyBoolean(), anyBoolean(), any(String[].class));
-            verify(outputStream, times(1)).write(MOCK.getBytes());
-            verify(outputStream, times(1)).write(STRING_NEWLINE.getBytes());
+            when(sortArgsParser.isFirstWordNumber()).thenReturn(true);
+            when(sortArgsParser.getFileNames()).thenReturn(List.of(file1, file2));
+            SortApplication sortApplication = new SortApplication(sortArgsParser);
+            ByteArrayOutputStream stdout = new ByteArrayOutputStream();
+            sortApplication.run(new String[0], inputStream, stdout);
+            assertEquals(sortApplication.sortFromFiles(true, false, false, file1, file2) + STRING_NEWLINE,
+                    stdout.toString());
+        }
+
+        /**
+         * Run with a memory budget smaller than the input merges sorted runs into the same output.
+         *
+         * @param isReverse whether to sort in reverse order
+         * @throws AbstractApplicationException the abstract application exception
+         */
+        @ParameterizedTest
+        @ValueSource(booleans = {true, false})
+        void run_InputLargerThanBufferSize_PrintsSameAsInMemorySort(boolean isReverse)
+                throws AbstractApplicationException {
+            StringBuilder input = new StringBuilder();
+            for (int i = 0; i < 500; i++) {
+                input.append(MOCK_INPUT_ALL.get(i % MOCK_INPUT_ALL.size())).append(i % 7).append('\n');
+            }
+            when(sortArgsParser.isSortFromStdin()).thenReturn(true);
+            when(sortArgsParser.isReverseOrder()).thenReturn(isReverse);
+            when(sortArgsParser.isCaseIndependent()).thenReturn(true);
+            when(sortArgsParser.getBufferSize()).thenReturn(1024L);
+            SortApplication sortApplication = new SortApplication(sortArgsParser);
+            ByteArrayOutputStream stdout = new ByteArrayOutputStream();
+            sortApplication.run(new String[0], toStream(input.toString()), stdout);
+            assertEquals(sortApplication.sortFromStdin(false, isReverse, true, toStream(input.toString()))
+                    + STRING_NEWLINE, stdout.toString());
+        }
+
+        /**
+         * Run with more than one thread prints the same output as the sequential sort.
+         *
+         * @param isReverse whether to sort in reverse order
+         * @throws AbstractApplicationException the abstract application exception
+         */
+        @ParameterizedTest
+        @ValueSource(booleans = {true, false})
+        void run_ParallelOption_PrintsSameAsSequentialSort(boolean isReverse) throws AbstractApplicationException {
+            StringBuilder input = new StringBuilder();
+            for (int i = 0; i < 3 * ParallelMergeSort.MIN_PARALLEL_LENGTH; i++) {
+                input.append(MOCK_INPUT_ALL.get(i % MOCK_INPUT_ALL.size())).append(i % 13).append('\n');
+            }
+            when(sortArgsParser.isSortFromStdin()).thenReturn(true);
+            when(sortArgsParser.isReverseOrder()).thenReturn(isReverse);
+            when(sortArgsParser.isFirstWordNumber()).thenReturn(true);
+            when(sortArgsParser.isCaseIndependent()).thenReturn(true);
+            when(sortArgsParser.getParallelism()).thenReturn(4);
+            SortApplication sortApplication = new SortApplication(sortArgsParser);
+            ByteArrayOutputStream stdout = new ByteArrayOutputStream();
+            sortApplication.run(new String[0], toStream(input.toString()), stdout);
+            assertEquals(sortApplication.sortFromStdin(true, isReverse, true, toStream(input.toString()))
+                    + STRING_NEWLINE, stdout.toString());
+        }
+
+        /**
+         * Run and sort from stdin sort sequentially when the parallelism setting is not positive.
+         *
+         * @param parallelism the sort parallelism setting
+         * @throws AbstractApplicationException the abstract application exception
+         */
+        @ParameterizedTest
+        @ValueSource(ints = {0, -1})
+        void run_SortParallelismSettingNotPositive_SortsSequentially(int parallelism)
+                throws AbstractApplicationException {
+            int sortParallelism = ShellSettings.sortParallelism;
+            try {
+                ShellSettings.sortParallelism = parallelism;
+                when(sortArgsParser.isSortFromStdin()).thenReturn(true);
+                SortApplication sortApplication = new SortApplication(sortArgsParser);
+                ByteArrayOutputStream stdout = new ByteArrayOutputStream();
+                sortApplication.run(new String[0], toStream(MOCK + "\nB2\n" + TEST_INPUT), stdout);
+                String expected = TEST_INPUT + STRING_NEWLINE + "B2" + STRING_NEWLINE + MOCK;
+                assertEquals(expected + STRING_NEWLINE, stdout.toString());
+                assertEquals(expected, sortApplication.sortFromStdin(false, false, false,
+                        toStream(MOCK + "\nB2\n" + TEST_INPUT)));
+            } finally {
+                ShellSettings.sortParallelism = sortParallelism;
+            }
+        }
+
+        /**
+         * Run prints the same order as sort from stdin for random lines under every combination of flags.
+         *
+         * @param flags the first word number, reverse and case independent flags as bits
+         * @throws AbstractApplicationException the abstract application exception
+         */
+        @ParameterizedTest
+        @ValueSource(ints = {0, 1, 2, 3, 4, 5, 6, 7})
+        void run_RandomLines_PrintsSameAsSortFromStdin(int flags) throws AbstractApplicationException {
+            boolean isFirstWordNumber = (flags & 1) != 0;
+            boolean isReverse = (flags & 2) != 0;
+            boolean isCaseIndependent = (flags & 4) != 0;
+            String alphabet = "0123456789-- aAbBzZ#_.~£é€";
+            Random random = new Random(flags);
+            StringBuilder input = new StringBuilder();
+            for (int i = 0; i < 2000; i++) {
+                int length = random.nextInt(8);
+                for (int j = 0; j < length; j++) {
+                    input.append(alphabet.charAt(random.nextInt(alphabet.length())));
+                }
+                input.append('\n');
+            }
+            when(sortArgsParser.isSortFromStdin()).thenReturn(true);
+            when(sortArgsParser.isFirstWordNumber()).thenReturn(isFirstWordNumber);
+            when(sortArgsParser.isReverseOrder()).thenReturn(isReverse);
+            when(sortArgsParser.isCaseIndependent()).thenReturn(isCaseIndependent);
+            SortApplication sortApplication = new SortApplication(sortArgsParser);
+            ByteArrayOutputStream stdout = new ByteArrayOutputStream();
+            sortApplication.run(new String[0], toStream(input.toString()), stdout);
+            assertEquals(sortApplication.sortFromStdin(isFirstWordNumber, isReverse, isCaseIndependent,
+                    toStream(input.toString())) + STRING_NEWLINE, stdout.toString(StandardCharsets.UTF_8));
         }
     }
 
@@ -393,6 +519,9 @@ public class SortApplicationTest { //NOPMD - suppressed UseUtilityClass - Test M
         @BeforeEach
         void setUp() {
             sortArgsParser = mock(SortArgsParser.class);
+            // a mock returns 0 instead of null for these, which are never 0 when parsed
+            when(sortArgsParser.getBufferSize()).thenReturn(null);
+            when(sortArgsParser.getParallelism()).thenReturn(null);
             inputStream = mock(InputStream.class);
             outputStream = mock(OutputStream.class);
             sortApplication = new SortApplication(sortArgsParser);
@@ -455,33 +584,27 @@ public class SortApplicationTest { //NOPMD - suppressed UseUtilityClass - Test M
          * @throws AbstractApplicationException the abstract application exception
          */
         @Test
-        void run_sortFromStdinThrowsException_PropagatesException() throws AbstractApplicationException {
+        void run_StdinCannotBeRead_ThrowsException() throws IOException {
             when(sortArgsParser.isSortFromStdin()).thenReturn(true);
-            SortApplication spyApplication = spy(new SortApplication(sortArgsParser));
-            doThrow(new SortException(TEST)).when(spyApplication).sortFromStdin(anyBoolean(),
-                    anyBoolean(), anyBoolean(), any(InputStream.class));
+            doThrow(new IOException(TEST)).when(inputStream).read(any(byte[].class), anyInt(), anyInt());
             Throwable thrown = assertThrows(SortException.class, () -> {
-                spyApplication.run(new String[]{MOCK}, inputStream, outputStream);
+                sortApplication.run(new String[]{MOCK}, inputStream, outputStream);
             });
-            assertEquals(new SortException(TEST).getMessage(),
+            assertEquals(new SortException(ERR_IO_EXCEPTION).getMessage(),
                     thrown.getMessage());
         }
 
         /**
-         * Run sort from files throws exception propagates exception.
-         *
-         * @throws AbstractApplicationException the abstract application exception
+         * Run sort from a missing file throws exception.
          */
         @Test
-        void run_sortFromFilesThrowsException_PropagatesException() throws AbstractApplicationException {
+        void run_FileDoesntExist_ThrowsException() {
             when(sortArgsParser.isSortFromFiles()).thenReturn(true);
-            SortApplication spyApplication = spy(new SortApplication(sortArgsParser));
-            doThrow(new SortException(TEST)).when(spyApplication).sortFromFiles(anyBoolean(),
-                    anyBoolean(), anyBoolean(), any(String[].class));
+            when(sortArgsParser.getFileNames()).thenReturn(List.of(MOCK));
             Throwable thrown = assertThrows(SortException.class, () -> {
-                spyApplication.run(new String[]{MOCK}, inputStream, outputStream);
+                sortApplication.run(new String[]{MOCK}, inputStream, outputStream);
             });
-            assertEquals(new SortException(TEST).getMessage(),
+            assertEquals(new SortException(MOCK, ERR_FILE_NOT_FND).getMessage(),
                     thrown.getMessage());
         }
 
@@ -492,17 +615,13 @@ public class SortApplicationTest { //NOPMD - suppressed UseUtilityClass - Test M
          */
         @Test
         void run_OutputStreamClosed_ThrowsException() throws IOException {
-            try (MockedStatic<IOUtils> mockedStatic = mockStatic(IOUtils.class)) {
-                mockedStatic.when(() -> IOUtils.getLinesFromInputStream(any(InputStream.class)))
-                        .thenReturn(List.of(MOCK));
-                doThrow(new IOException("closed")).when(outputStream).write(any());
-                when(sortArgsParser.isSortFromStdin()).thenReturn(true);
-                Throwable thrown = assertThrows(SortException.class, () -> {
-                    sortApplication.run(new String[]{MOCK}, inputStream, outputStream);
-                });
-                assertEquals(new SortException(ERR_WRITE_STREAM).getMessage(),
-                        thrown.getMessage());
-            }
+            doThrow(new IOException("closed")).when(outputStream).write(any(byte[].class), anyInt(), anyInt());
+            when(sortArgsParser.isSortFromStdin()).thenReturn(true);
+            Throwable thrown = assertThrows(SortException.class, () -> {
+                sortApplication.run(new String[]{MOCK}, toStream(MOCK), outputStream);
+            });
+            assertEquals(new SortException(ERR_WRITE_STREAM).getMessage(),
+                    thrown.getMessage());
         }
 
         /**
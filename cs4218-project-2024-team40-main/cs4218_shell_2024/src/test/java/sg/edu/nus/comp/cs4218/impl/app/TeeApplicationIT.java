@@ -15,7 +15,6 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
 
 import static java.nio.file.StandardOpenOption.*;
@@ -39,7 +38,6 @@ public class TeeApplicationIT { //NOPMD - suppressed ClassNamingConventions - de
      */
     boolean isClosed;
     private static final String EXAMPLE_INPUT = "Hello" + System.lineSeparator() + "World" + System.lineSeparator() + "Bye";
-    private static final List<String> EXAMPLE_LINES = Arrays.asList("Hello", "World", "Bye");
     private static final String FILE_NAME1 = "file1.txt";
     private static final String FILE_NAME2 = "file2.txt";
     private static final String ILLEGAL_FILE_NAME = "file2*?.txt";
@@ -143,116 +141,94 @@ public class TeeApplicationIT { //NOPMD - suppressed ClassNamingConventions - de
     }
 
     /**
-     * Gets input stream success read return correctoutput.
+     * Tee from stdin no file return input.
      *
      * @throws AbstractApplicationException the abstract application exception
      */
     @Test
-    void getInputStream_successRead_returnCorrectoutput() throws AbstractApplicationException {
-        List<String> lines = EXAMPLE_LINES;
-        List<String> returnVal = teeApplication.getInputStream(inputStream);
+    void teeFromStdin_NoFile_ReturnInput() throws AbstractApplicationException {
+        String returnVal = teeApplication.teeFromStdin(false, inputStream);
 
-        assertEquals(lines, returnVal);
+        assertEquals(EXAMPLE_INPUT, returnVal);
 
     }
 
 
     /**
-     * Tee to file existing file no append correct file content.
+     * Tee from stdin non existing file no append correct file content.
      *
      * @throws AbstractApplicationException the abstract application exception
      * @throws IOException                  the io exception
      */
     @Test
-    void teeToFile_ExistingFileNoAppend_CorrectFileContent() throws AbstractApplicationException, IOException {
-        List<String> contents = EXAMPLE_LINES;
-        teeApplication.teeToFile(false, contents,FILE_PATH1);
-        String contentFile1 = readString(Path.of(FILE_PATH1));
-        assertEquals(EXAMPLE_INPUT + System.lineSeparator(), contentFile1);
-
-    }
-
-    /**
-     * Tee to file non existing file no append correct file content.
-     *
-     * @throws AbstractApplicationException the abstract application exception
-     * @throws IOException                  the io exception
-     */
-    @Test
-    void teeToFile_NonExistingFileNoAppend_CorrectFileContent() throws AbstractApplicationException, IOException {
-        List<String> contents = EXAMPLE_LINES;
-        teeApplication.teeToFile(false, contents, MISSING_FILE_PATH);
+    void teeFromStdin_NonExistingFileNoAppend_CorrectFileContent() throws AbstractApplicationException, IOException {
+        teeApplication.teeFromStdin(false, inputStream, MISSING_FILE_PATH);
         String contentFile1 = readString(Path.of(MISSING_FILE_PATH));
         assertEquals(EXAMPLE_INPUT + System.lineSeparator(), contentFile1);
 
     }
 
     /**
-     * Tee to file existing file append correct file content.
+     * Tee from stdin existing file append correct file content.
      *
      * @throws AbstractApplicationException the abstract application exception
      * @throws IOException                  the io exception
      */
     @Test
-    void teeToFile_ExistingFileAppend_CorrectFileContent() throws AbstractApplicationException, IOException {
+    void teeFromStdin_ExistingFileAppend_CorrectFileContent() throws AbstractApplicationException, IOException {
         StringBuilder string = new StringBuilder();
         for (String s : LINES1) {
             string.append(s).append(System.lineSeparator());
         }
         string.append(EXAMPLE_INPUT);
-        List<String> contents = EXAMPLE_LINES;
-        teeApplication.teeToFile(true, contents,FILE_PATH1);
+        teeApplication.teeFromStdin(true, inputStream, FILE_PATH1);
         String contentFile1 = readString(Path.of(FILE_PATH1));
         assertEquals(string + System.lineSeparator(), contentFile1);
 
     }
 
     /**
-     * Tee to file no file throw exception.
+     * Tee from stdin empty file name throw exception.
      */
     @Test
-    void teeToFile_NoFile_ThrowException() {
-        List<String> contents = EXAMPLE_LINES;
-        Throwable exp = assertThrows(TeeException.class, () -> teeApplication.teeToFile(true, contents,""));
+    void teeFromStdin_EmptyFileName_ThrowException() {
+        Throwable exp = assertThrows(TeeException.class, () -> teeApplication.teeFromStdin(true, inputStream, ""));
         assertEquals(TEE_PREFIX + ERR_FILE_NOT_FND, exp.getMessage());
 
     }
 
     /**
-     * Tee to file not file is dir throw exception.
+     * Tee from stdin not file is dir throw exception.
      */
     @Test
-    void teeToFile_NotFileIsDir_ThrowException() {
-        List<String> contents = EXAMPLE_LINES;
-        Throwable exp = assertThrows(TeeException.class, () -> teeApplication.teeToFile(true, contents,FOLDER1_PATH));
+    void teeFromStdin_NotFileIsDir_ThrowException() {
+        Throwable exp = assertThrows(TeeException.class, () -> teeApplication.teeFromStdin(true, inputStream, FOLDER1_PATH));
 
         assertEquals(TEE_PREFIX + ERR_IS_DIR, exp.getMessage());
 
     }
 
     /**
-     * Tee to file no file perm throw exception.
+     * Tee from stdin no file perm throw exception.
      *
      */
     @Test
-    void teeToFile_NoFilePerm_ThrowException()  {
-        List<String> contents = EXAMPLE_LINES;
-        Throwable exp = assertThrows(TeeException.class, () -> teeApplication.teeToFile(true, contents,NO_PERM_FILE_PATH));
+    void teeFromStdin_NoFilePerm_ThrowException()  {
+        Throwable exp = assertThrows(TeeException.class, () -> teeApplication.teeFromStdin(true, inputStream, NO_PERM_FILE_PATH));
 
         assertEquals(TEE_PREFIX + ERR_NO_PERM, exp.getMessage());
 
     }
 
     /**
-     * Tee to file invalid file char name throw exception.
+     * Tee from stdin invalid file char name throw exception.
      */
 // Not sure why it passes on intellij but not on Github actions
     @Disabled
     @ParameterizedTest
     @ValueSource(strings = { "*", ":", "?", "<", ">", "|"})
-    void teeToFile_InvalidFileCharName_ThrowException() {
-        List<String> contents = EXAMPLE_LINES;
-        Throwable exp = assertThrows(TeeException.class, () -> teeApplication.teeToFile(true, contents,ILLEGAL_FILE_NAME));
+    void teeFromStdin_InvalidFileCharName_ThrowException() {
+        Throwable exp = assertThrows(TeeException.class, () -> teeApplication.teeFromStdin(true, inputStream, ILLEGAL_FILE_NAME));
 
         assertEquals(TEE_PREFIX + ERR_NOT_SUPPORTED, exp.getMessage());
 
@@ -3,13 +3,12 @@ package sg.edu.nus.comp.cs4218.impl.app;
 import org.junit.jupiter.api.*;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
-import org.mockito.MockedStatic;
 import sg.edu.nus.comp.cs4218.exception.AbstractApplicationException;
 import sg.edu.nus.comp.cs4218.Environment;
 import sg.edu.nus.comp.cs4218.exception.InvalidArgsException;
 import sg.edu.nus.comp.cs4218.exception.TeeException;
 import sg.edu.nus.comp.cs4218.impl.parser.TeeArgsParser;
-import sg.edu.nus.comp.cs4218.impl.util.IOUtils;
+import sg.edu.nus.comp.cs4218.impl.util.ShellSettings;
 
 
 
@@ -17,7 +16,6 @@ import java.io.*;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -44,7 +42,6 @@ public class TeeApplicationTest {
      */
     TeeApplication teeApplication;
     private static final String EXAMPLE_INPUT = "Hello" + System.lineSeparator() + "World" + System.lineSeparator() + "Bye";
-    private static final List<String> EXAMPLE_LINES = Arrays.asList("Hello", "World", "Bye");
     private static final String FILE_NAME1 = "file1.txt";
     private static final String FILE_NAME2 = "file2.txt";
     private static final String ILLEGAL_FILE_NAME = "file2*?.txt";
@@ -144,200 +141,143 @@ public class TeeApplicationTest {
     }
 
     /**
-     * Gets input stream success read return correctoutput.
+     * Tee from stdin no file return input.
      *
      * @throws AbstractApplicationException the abstract application exception
      */
     @Test
-    void getInputStream_SuccessRead_ReturnCorrectoutput() throws AbstractApplicationException {
-        List<String> lines = EXAMPLE_LINES;
-        try(MockedStatic<IOUtils> mockedStatic = mockStatic(IOUtils.class)) {
-            mockedStatic.when(() -> IOUtils.getLinesFromInputStream(any(InputStream.class)))
-                    .thenReturn(lines);
-            List<String> returnVal = teeApplication.getInputStream(inputStream);
-            List<String> expected = EXAMPLE_LINES;
-            assertEquals(returnVal, expected);
-        }
+    void teeFromStdin_NoFile_ReturnInput() throws AbstractApplicationException {
+        String returnVal = teeApplication.teeFromStdin(false, inputStream);
+        assertEquals(EXAMPLE_INPUT, returnVal);
     }
 
     /**
-     * Gets input stream null stdin throws exception.
+     * Tee from stdin null stdin throws exception.
      *
      * @throws AbstractApplicationException the abstract application exception
      */
     @Test
-    void getInputStream_NullStdin_ThrowsException() throws AbstractApplicationException {
-        Throwable exp = assertThrows(TeeException.class, () -> teeApplication.getInputStream(null));
-        assertEquals(new TeeException(ERR_NULL_STREAMS).getMessage(),
+    void teeFromStdin_NullStdin_ThrowsException() throws AbstractApplicationException {
+        Throwable exp = assertThrows(TeeException.class, () -> teeApplication.teeFromStdin(false, null));
+        assertEquals(new TeeException(ERR_NO_ISTREAM).getMessage(),
                 exp.getMessage());
     }
 
     /**
-     * Gets input stream i outils throw i oexcp throws exception.
+     * Tee from stdin read throw i oexcp throws exception.
      *
-     * @throws AbstractApplicationException the abstract application exception
+     * @throws IOException the io exception
      */
     @Test
-    void getInputStream_IOutilsThrowIOexcp_ThrowsException() throws AbstractApplicationException {
-        try (MockedStatic<IOUtils> mockedStatic = mockStatic(IOUtils.class)) {
-            mockedStatic.when(() -> IOUtils.getLinesFromInputStream(any(InputStream.class)))
-                    .thenThrow(new IOException());
-            Throwable exp = assertThrows(TeeException.class, () -> teeApplication.getInputStream(inputStream));
-            assertEquals(exp.getMessage(), TEE_PREFIX + ERR_READ_STREAM);
-        }
+    void teeFromStdin_ReadThrowIOexcp_ThrowsException() throws IOException {
+        InputStream failingStream = mock(InputStream.class);
+        when(failingStream.read(any(byte[].class), anyInt(), anyInt())).thenThrow(new IOException());
+        Throwable exp = assertThrows(TeeException.class, () -> teeApplication.teeFromStdin(false, failingStream));
+        assertEquals(TEE_PREFIX + ERR_READ_STREAM, exp.getMessage());
     }
 
     /**
-     * Tee to file existing file no append correct file content.
+     * Tee from stdin carriage returns written to file unchanged.
      *
      * @throws AbstractApplicationException the abstract application exception
      * @throws IOException                  the io exception
      */
     @Test
-    void teeToFile_ExistingFileNoAppend_CorrectFileContent() throws AbstractApplicationException, IOException {
-        List<String> contents = EXAMPLE_LINES;
-        teeApplication.teeToFile(false, contents,FILE_NAME1);
-        String contentFile1 = readString(Path.of(FILE_PATH1));
-        assertEquals(EXAMPLE_INPUT + System.lineSeparator(), contentFile1);
-
+    void teeFromStdin_CarriageReturns_WrittenToFileUnchanged() throws AbstractApplicationException, IOException {
+        String input = "Hello\r\nWorld\rBye\r\n";
+        String returnVal = teeApplication.teeFromStdin(false, new ByteArrayInputStream(input.getBytes()), FILE_NAME1);
+        assertEquals("Hello\r\nWorld\rBye", returnVal);
+        assertEquals(input, readString(Path.of(FILE_PATH1)));
     }
 
     /**
-     * Tee to file non existing file no append correct file content.
+     * Tee from stdin non existing file no append correct file content.
      *
      * @throws AbstractApplicationException the abstract application exception
      * @throws IOException                  the io exception
      */
     @Test
-    void teeToFile_NonExistingFileNoAppend_CorrectFileContent() throws AbstractApplicationException, IOException {
-        List<String> contents = EXAMPLE_LINES;
-        teeApplication.teeToFile(false, contents, NON_EXISTENT_FILE);
+    void teeFromStdin_NonExistingFileNoAppend_CorrectFileContent() throws AbstractApplicationException, IOException {
+        teeApplication.teeFromStdin(false, inputStream, NON_EXISTENT_FILE);
         String contentFile1 = readString(Path.of(MISSING_FILE_PATH));
         assertEquals(EXAMPLE_INPUT + System.lineSeparator(), contentFile1);
 
     }
 
     /**
-     * Tee to file existing file append correct file content.
+     * Tee from stdin existing file append correct file content.
      *
      * @throws AbstractApplicationException the abstract application exception
      * @throws IOException                  the io exception
      */
     @Test
-    void teeToFile_ExistingFileAppend_CorrectFileContent() throws AbstractApplicationException, IOException {
+    void teeFromStdin_ExistingFileAppend_CorrectFileContent() throws AbstractApplicationException, IOException {
         StringBuilder string = new StringBuilder();
         for (String s : LINES1) {
             string.append(s).append(System.lineSeparator());
         }
         string.append(EXAMPLE_INPUT);
-        List<String> contents = EXAMPLE_LINES;
-        teeApplication.teeToFile(true, contents, FILE_NAME1);
+        teeApplication.teeFromStdin(true, inputStream, FILE_NAME1);
         String contentFile1 = readString(Path.of(FILE_PATH1));
         assertEquals(string.toString() + System.lineSeparator(), contentFile1);
 
     }
 
     /**
-     * Tee to file no file throw exception.
-     *
-     * @throws AbstractApplicationException the abstract application exception
-     * @throws IOException                  the io exception
+     * Tee from stdin no file name throw exception.
      */
     @Test
-    void teeToFile_NoFile_ThrowException() throws AbstractApplicationException, IOException {
-        StringBuilder string = new StringBuilder();
-        for (String s : LINES1) {
-            string.append(s).append(System.lineSeparator());
-        }
-        string.append(EXAMPLE_INPUT);
-        List<String> contents = EXAMPLE_LINES;
-        Throwable exp = assertThrows(TeeException.class, () -> teeApplication.teeToFile(true, contents,""));
+    void teeFromStdin_EmptyFileName_ThrowException() {
+        Throwable exp = assertThrows(TeeException.class, () -> teeApplication.teeFromStdin(true, inputStream, ""));
 
         assertEquals(TEE_PREFIX + ERR_FILE_NOT_FND, exp.getMessage());
 
     }
 
     /**
-     * Tee to file not file is dir throw exception.
-     *
-     * @throws AbstractApplicationException the abstract application exception
-     * @throws IOException                  the io exception
+     * Tee from stdin not file is dir throw exception.
      */
     @Test
-    void teeToFile_NotFileIsDir_ThrowException() throws AbstractApplicationException, IOException {
-        StringBuilder string = new StringBuilder();
-        for (String s : LINES1) {
-            string.append(s).append(System.lineSeparator());
-        }
-        string.append(EXAMPLE_INPUT);
-        List<String> contents = EXAMPLE_LINES;
-        Throwable exp = assertThrows(TeeException.class, () -> teeApplication.teeToFile(true, contents,FOLDER_NAME));
+    void teeFromStdin_NotFileIsDir_ThrowException() {
+        Throwable exp = assertThrows(TeeException.class, () -> teeApplication.teeFromStdin(true, inputStream, FOLDER_NAME));
 
         assertEquals(TEE_PREFIX + ERR_IS_DIR, exp.getMessage());
 
     }
 
     /**
-     * Tee to file no file perm throw exception.
-     *
-     * @throws AbstractApplicationException the abstract application exception
-     * @throws IOException                  the io exception
+     * Tee from stdin no file perm throw exception.
      */
     @Test
-    void teeToFile_NoFilePerm_ThrowException() throws AbstractApplicationException, IOException {
-        StringBuilder string = new StringBuilder();
-        for (String s : LINES1) {
-            string.append(s).append(System.lineSeparator());
-        }
-        string.append(EXAMPLE_INPUT);
-        List<String> contents = EXAMPLE_LINES;
-        Throwable exp = assertThrows(TeeException.class, () -> teeApplication.teeToFile(true, contents,NO_PERM_FILE));
+    void teeFromStdin_NoFilePerm_ThrowException() {
+        Throwable exp = assertThrows(TeeException.class, () -> teeApplication.teeFromStdin(true, inputStream, NO_PERM_FILE));
 
         assertEquals(TEE_PREFIX + ERR_NO_PERM, exp.getMessage());
 
     }
 
     /**
-     * Tee to file cannot write to file throw exception.
-     *
-     * @throws AbstractApplicationException the abstract application exception
-     * @throws IOException                  the io exception
+     * Tee from stdin cannot write to file throw exception.
      */
     @Test
-    void teeToFile_CannotWriteToFile_ThrowException() throws AbstractApplicationException, IOException {
-        try (MockedStatic<Files> mockedFiles = mockStatic(Files.class)) {
-            mockedFiles.when(() -> Files.write(any(Path.class), anyList(), eq(CREATE), eq(WRITE), eq(APPEND)))
-                    .thenThrow(new IOException());
-            StringBuilder string = new StringBuilder();
-            for (String s : LINES1) {
-                string.append(s).append(System.lineSeparator());
-            }
-            string.append(EXAMPLE_INPUT);
-            List<String> contents = EXAMPLE_LINES;
-            Throwable exp = assertThrows(TeeException.class, () -> teeApplication.teeToFile(true, contents, FILE_NAME1));
-            assertEquals(new TeeException(ERR_WRITING_FILE).getMessage(),
-                    exp.getMessage());
-        }
+    void teeFromStdin_CannotWriteToFile_ThrowException() {
+        Path fullDevice = Path.of("/dev/full");
+        Assumptions.assumeTrue(Files.isWritable(fullDevice));
+        Throwable exp = assertThrows(TeeException.class,
+                () -> teeApplication.teeFromStdin(true, inputStream, fullDevice.toString()));
+        assertEquals(new TeeException(ERR_WRITING_FILE).getMessage(),
+                exp.getMessage());
     }
 
     /**
-     * Tee to file invalid file char name throw exception.
-     *
-     * @throws AbstractApplicationException the abstract application exception
-     * @throws IOException                  the io exception
+     * Tee from stdin invalid file char name throw exception.
      */
 // Not sure why it passes on intellij but not on Github actions
     @Disabled
     @ParameterizedTest
     @ValueSource(strings = { "*", ":", "?", "<", ">", "|"})
-    void teeToFile_InvalidFileCharName_ThrowException() throws AbstractApplicationException, IOException {
-        StringBuilder string = new StringBuilder();
-        for (String s : LINES1) {
-            string.append(s).append(System.lineSeparator());
-        }
-        string.append(EXAMPLE_INPUT);
-        List<String> contents =EXAMPLE_LINES;
-        Throwable exp = assertThrows(TeeException.class, () -> teeApplication.teeToFile(true, contents, ILLEGAL_FILE_NAME));
+    void teeFromStdin_InvalidFileCharName_ThrowException() {
+        Throwable exp = assertThrows(TeeException.class, () -> teeApplication.teeFromStdin(true, inputStream, ILLEGAL_FILE_NAME));
 
         assertEquals(TEE_PREFIX + ERR_NOT_SUPPORTED, exp.getMessage());
 
@@ -654,7 +594,7 @@ public class TeeApplicationTest {
     @SuppressWarnings("PMD.CloseResource")
     void run_CannotWriteToStdout_ThrowException() throws AbstractApplicationException, IOException, InvalidArgsException {
         OutputStream outputStream = mock(OutputStream.class);
-        doThrow(new IOException()).when(outputStream).write(any(byte[].class));
+        doThrow(new IOException()).when(outputStream).write(any(byte[].class), anyInt(), anyInt());
         String [] args = new String[]{FILE_NAME1};
         List<String> files = new ArrayList<>();
         files.add(FILE_NAME1);
@@ -664,6 +604,138 @@ public class TeeApplicationTest {
         assertEquals(TEE_PREFIX + ERR_IO_EXCEPTION, exp.getMessage());
     }
 
+    /**
+     * Run with files written from their own threads should write the same content.
+     *
+     * @throws AbstractApplicationException the abstract application exception
+     * @throws IOException                  the io exception
+     */
+    @Test
+    void run_QueuedFileWriters_shouldWriteSameContent() throws AbstractApplicationException, IOException {
+        int previousCapacity = ShellSettings.teeQueueCapacity;
+        ShellSettings.teeQueueCapacity = 2;
+        try {
+            // several chunks, with the queues full most of the time
+            String input = ("line of input" + System.lineSeparator()).repeat(50_000);
+            when(teeArgsParser.isAppend()).thenReturn(true);
+            when(teeArgsParser.getFileNames()).thenReturn(Arrays.asList(FILE_NAME1, FILE_NAME2));
+            teeApplication.run(new String[]{"-a", FILE_NAME1, FILE_NAME2},
+                    new ByteArrayInputStream(input.getBytes()), outputStream);
+            assertEquals(input, outputStream.toString());
+            assertEquals(String.join(System.lineSeparator(), LINES1) + System.lineSeparator() + input,
+                    readString(Path.of(FILE_PATH1)));
+            assertEquals(String.join(System.lineSeparator(), LINES2) + System.lineSeparator() + input,
+                    readString(Path.of(FILE_PATH2)));
+        } finally {
+            ShellSettings.teeQueueCapacity = previousCapacity;
+        }
+    }
+
+    /**
+     * Run should copy the bytes of the input unchanged and only add a line separator after an unterminated last
+     * line.
+     *
+     * @throws AbstractApplicationException the abstract application exception
+     * @throws IOException                  the io exception
+     */
+    @Test
+    void run_RawBytes_CopiedUnchanged() throws AbstractApplicationException, IOException {
+        byte[] input = {'a', '\r', '\n', (byte) 0xFF, 0, '\r'};
+        when(teeArgsParser.isAppend()).thenReturn(false);
+        when(teeArgsParser.getFileNames()).thenReturn(Arrays.asList(FILE_NAME1));
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        teeApplication.run(new String[]{FILE_NAME1}, new ByteArrayInputStream(input), output);
+        assertArrayEquals(input, output.toByteArray());
+        assertArrayEquals(input, Files.readAllBytes(Path.of(FILE_PATH1)));
+    }
+
+    /**
+     * Run should write what it has read to stdout before the input ends.
+     *
+     * @throws AbstractApplicationException the abstract application exception
+     * @throws IOException                  the io exception
+     */
+    @Test
+    void run_InputNotEnded_WritesReadChunksToStdout() throws AbstractApplicationException, IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        InputStream input = new InputStream() {
+            private int reads;
+
+            @Override
+            public int read() {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public int read(byte[] bytes, int offset, int length) {
+                if (reads++ == 0) {
+                    bytes[offset] = 'x';
+                    return 1;
+                }
+                // the first chunk is out before the second read
+                assertEquals("x", output.toString());
+                return -1;
+            }
+        };
+        when(teeArgsParser.isAppend()).thenReturn(false);
+        when(teeArgsParser.getFileNames()).thenReturn(Arrays.asList(FILE_NAME1));
+        teeApplication.run(new String[]{FILE_NAME1}, input, output);
+        assertEquals("x" + System.lineSeparator(), output.toString());
+        assertEquals("x" + System.lineSeparator(), readString(Path.of(FILE_PATH1)));
+    }
+
+    /**
+     * Run with stdin returning no bytes should throw exception instead of reading forever.
+     */
+    @Test
+    @Timeout(10)
+    void run_StdinReturnsZeroBytes_ThrowException() {
+        InputStream input = new InputStream() {
+            @Override
+            public int read() {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public int read(byte[] bytes, int offset, int length) {
+                return 0;
+            }
+        };
+        when(teeArgsParser.isAppend()).thenReturn(false);
+        when(teeArgsParser.getFileNames()).thenReturn(Arrays.asList(FILE_NAME1));
+        Throwable exp = assertThrows(TeeException.class,
+                () -> teeApplication.run(new String[]{FILE_NAME1}, input, outputStream));
+        assertEquals(TEE_PREFIX + ERR_READ_STREAM, exp.getMessage());
+    }
+
+    /**
+     * Run failing to read stdin should throw the read failure, with the file that could not be written
+     * suppressed.
+     *
+     * @throws IOException the io exception
+     */
+    @Test
+    void run_ReadFailsAndFileNotWritten_ThrowsReadFailure() throws IOException {
+        Path fullDevice = Path.of("/dev/full");
+        Assumptions.assumeTrue(Files.isWritable(fullDevice));
+        int previousCapacity = ShellSettings.teeQueueCapacity;
+        ShellSettings.teeQueueCapacity = 2;
+        try {
+            InputStream input = mock(InputStream.class);
+            when(input.read(any(byte[].class), anyInt(), anyInt())).thenReturn(1)
+                    .thenThrow(new IOException(ERR_READ_STREAM));
+            when(teeArgsParser.isAppend()).thenReturn(false);
+            when(teeArgsParser.getFileNames()).thenReturn(Arrays.asList(fullDevice.toString()));
+            Throwable exp = assertThrows(TeeException.class,
+                    () -> teeApplication.run(new String[]{fullDevice.toString()}, input, outputStream));
+            assertEquals(TEE_PREFIX + ERR_READ_STREAM, exp.getMessage());
+            assertEquals(1, exp.getSuppressed().length);
+            assertEquals(TEE_PREFIX + ERR_WRITING_FILE, exp.getSuppressed()[0].getMessage());
+        } finally {
+            ShellSettings.teeQueueCapacity = previousCapacity;
+        }
+    }
+
     /**
      * Run illegal flag throw exception.
      *
@@ -342,10 +342,10 @@ public class WcApplicationTest {
     }
 
     /**
-     * Count from files cannot open input stream throw wc exception.
+     * Count from files cannot open file channel throw wc exception.
      */
     @Test
-    void countFromFiles_CannotOpenInputStream_ThrowWcException() {
+    void countFromFiles_CannotOpenFileChannel_ThrowWcException() {
         try (MockedStatic<IOUtils> mockedStatic = mockStatic(IOUtils.class)) {
             Path mockPath = mock(Path.class);
             File mockFile = mock(File.class);
@@ -355,7 +355,7 @@ public class WcApplicationTest {
             when(mockFile.canRead()).thenReturn(true);
             mockedStatic.when(() -> IOUtils.resolveFilePath(anyString()))
                     .thenReturn(mockPath);
-            mockedStatic.when(() -> IOUtils.openInputStream(anyString()))
+            mockedStatic.when(() -> IOUtils.openFileChannel(anyString()))
                     .thenThrow(new ShellException(STDIN_TEST_STRING));
             Throwable thrown = assertThrows(WcException.class, () -> wcApplication.countFromFiles(false, false, false, "Hello.txt"));
             assertEquals(WC_PREFIX + SHELL_PREFIX + STDIN_TEST_STRING, thrown.getMessage());
@@ -0,0 +1,196 @@
+package sg.edu.nus.comp.cs4218.impl.cmd;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import sg.edu.nus.comp.cs4218.exception.AbstractApplicationException;
+import sg.edu.nus.comp.cs4218.exception.CatException;
+import sg.edu.nus.comp.cs4218.exception.ShellException;
+import sg.edu.nus.comp.cs4218.impl.cmd.stubs.CallCommandStub;
+import sg.edu.nus.comp.cs4218.impl.util.ShellSettings;
+import sg.edu.nus.comp.cs4218.impl.util.SpillBuffer;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FileNotFoundException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests the concurrent evaluation mode of Pipe Command, and spilling of large outputs in sequential mode.
+ */
+public class PipeCommandTest {
+    private static final String STDIN_TEXT = "Hello World";
+    private static final String NEW_LINE = System.lineSeparator();
+    private List<CallCommand> callCommands;
+    private InputStream inputStream;
+    private ByteArrayOutputStream outputStream;
+
+    @BeforeEach
+    void setUp() {
+        callCommands = new ArrayList<>();
+        inputStream = new ByteArrayInputStream(STDIN_TEXT.getBytes());
+        outputStream = new ByteArrayOutputStream();
+    }
+
+    /**
+     * Creates a Call Command that copies stdin to stdout byte by byte.
+     */
+    private CallCommand makeCopyCommand() throws Exception {
+        CallCommand command = mock(CallCommand.class);
+        doAnswer(invocation -> {
+            InputStream stdin = invocation.getArgument(0);
+            OutputStream stdout = invocation.getArgument(1);
+            stdin.transferTo(stdout);
+            return null;
+        }).when(command).evaluate(any(InputStream.class), any(OutputStream.class));
+        return command;
+    }
+
+    /**
+     * Creates a Call Command that writes the given number of bytes without reading stdin.
+     */
+    private CallCommand makeProducerCommand(int numBytes) throws Exception {
+        CallCommand command = mock(CallCommand.class);
+        doAnswer(invocation -> {
+            OutputStream stdout = invocation.getArgument(1);
+            byte[] chunk = new byte[1024];
+            Arrays.fill(chunk, (byte) 'a');
+            for (int written = 0; written < numBytes; written += chunk.length) {
+                stdout.write(chunk, 0, Math.min(chunk.length, numBytes - written));
+            }
+            return null;
+        }).when(command).evaluate(any(InputStream.class), any(OutputStream.class));
+        return command;
+    }
+
+    private CallCommand makeFailingCommand(Exception exception) throws Exception {
+        CallCommand command = mock(CallCommand.class);
+        doThrow(exception).when(command).evaluate(any(InputStream.class), any(OutputStream.class));
+        return command;
+    }
+
+    @Test
+    void evaluate_ConcurrentThreeStubs_PrintsSameOutputAsSequential() throws Exception {
+        callCommands.add(new CallCommandStub());
+        callCommands.add(new CallCommandStub());
+        callCommands.add(new CallCommandStub());
+
+        new PipeCommand(callCommands, true).evaluate(inputStream, outputStream);
+
+        ByteArrayOutputStream sequentialOutput = new ByteArrayOutputStream();
+        new PipeCommand(callCommands).evaluate(new ByteArrayInputStream(STDIN_TEXT.getBytes()), sequentialOutput);
+        assertEquals(STDIN_TEXT + NEW_LINE, outputStream.toString());
+        assertEquals(sequentialOutput.toString(), outputStream.toString());
+    }
+
+    @Test
+    void evaluate_SequentialOutputLargerThanThreshold_SpillsAndStreamsAllBytes() throws Exception {
+        int numBytes = 256 * 1024 + 7;
+        int oldThreshold = ShellSettings.spillThreshold;
+        ShellSettings.spillThreshold = 4 * 1024;
+        try {
+            callCommands.add(makeProducerCommand(numBytes));
+            callCommands.add(makeCopyCommand());
+            callCommands.add(makeCopyCommand());
+            long spillCount = SpillBuffer.getSpillCount();
+
+            new PipeCommand(callCommands).evaluate(inputStream, outputStream);
+
+            assertEquals(numBytes, outputStream.size());
+            assertEquals(spillCount + 2, SpillBuffer.getSpillCount());
+            assertEquals(0, SpillBuffer.getMemoryInUse());
+        } finally {
+            ShellSettings.spillThreshold = oldThreshold;
+        }
+    }
+
+    @Test
+    void evaluate_ConcurrentOutputLargerThanPipe_StreamsAllBytes() throws Exception {
+        int numBytes = 1024 * 1024 + 7;
+        callCommands.add(makeProducerCommand(numBytes));
+        callCommands.add(makeCopyCommand());
+        callCommands.add(makeCopyCommand());
+
+        new PipeCommand(callCommands, true).evaluate(inputStream, outputStream);
+
+        assertEquals(numBytes, outputStream.size());
+    }
+
+    @Test
+    void evaluate_ConcurrentDownstreamIgnoresInput_DoesNotThrowBrokenPipe() throws Exception {
+        CallCommand writeFailsOnBrokenPipe = mock(CallCommand.class);
+        doAnswer(invocation -> {
+            OutputStream stdout = invocation.getArgument(1);
+            try {
+                for (int i = 0; i < 1024; i++) {
+                    stdout.write(new byte[1024]);
+                }
+            } catch (java.io.IOException e) {
+                throw new CatException(e.getMessage());
+            }
+            return null;
+        }).when(writeFailsOnBrokenPipe).evaluate(any(InputStream.class), any(OutputStream.class));
+        callCommands.add(writeFailsOnBrokenPipe);
+        callCommands.add(new CallCommandStub() {
+            @Override
+            public void evaluate(InputStream stdin, OutputStream stdout) throws ShellException {
+                try {
+                    stdout.write(STDIN_TEXT.getBytes());
+                } catch (java.io.IOException e) {
+                    throw new ShellException(e);
+                }
+            }
+        });
+
+        new PipeCommand(callCommands, true).evaluate(inputStream, outputStream);
+
+        assertEquals(STDIN_TEXT, outputStream.toString());
+    }
+
+    @Test
+    void evaluate_ConcurrentShellExceptionThenAbstractException_ThrowsAbstractException() throws Exception {
+        ShellException shellException = new ShellException("first");
+        AbstractApplicationException appException = new CatException("second");
+        callCommands.add(makeFailingCommand(shellException));
+        callCommands.add(makeFailingCommand(appException));
+
+        Throwable thrown = assertThrows(AbstractApplicationException.class, () ->
+                new PipeCommand(callCommands, true).evaluate(inputStream, outputStream));
+
+        assertEquals(appException, thrown);
+    }
+
+    @Test
+    void evaluate_ConcurrentFileNotFoundThenShellException_ThrowsShellException() throws Exception {
+        FileNotFoundException fileException = new FileNotFoundException("first");
+        ShellException shellException = new ShellException("second");
+        callCommands.add(makeFailingCommand(fileException));
+        callCommands.add(makeFailingCommand(shellException));
+
+        Throwable thrown = assertThrows(ShellException.class, () ->
+                new PipeCommand(callCommands, true).evaluate(inputStream, outputStream));
+
+        assertEquals(shellException, thrown);
+    }
+
+    @Test
+    void evaluate_ConcurrentFirstStageFails_ThrowsExceptionAndNextStageSeesEndOfInput() throws Exception {
+        FileNotFoundException fileException = new FileNotFoundException("missing");
+        CallCommand copyCommand = makeCopyCommand();
+        callCommands.add(makeFailingCommand(fileException));
+        callCommands.add(copyCommand);
+
+        Throwable thrown = assertThrows(FileNotFoundException.class, () ->
+                new PipeCommand(callCommands, true).evaluate(inputStream, outputStream));
+
+        assertEquals(fileException, thrown);
+        assertEquals("", outputStream.toString());
+        verify(copyCommand, times(1)).evaluate(any(InputStream.class), any(OutputStream.class));
+    }
+}
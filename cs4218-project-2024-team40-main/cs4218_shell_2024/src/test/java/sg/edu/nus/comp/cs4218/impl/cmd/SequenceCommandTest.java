@@ -7,8 +7,6 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
-import org.mockito.ArgumentCaptor;
-import org.mockito.Captor;
 import org.mockito.MockedStatic;
 import sg.edu.nus.comp.cs4218.Command;
 import sg.edu.nus.comp.cs4218.exception.AbstractApplicationException;
@@ -19,6 +17,7 @@ import sg.edu.nus.comp.cs4218.impl.cmd.stubs.CommandStubThatFails;
 import sg.edu.nus.comp.cs4218.impl.cmd.stubs.ExitCommandStub;
 import sg.edu.nus.comp.cs4218.impl.util.IOUtils;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
@@ -46,7 +45,7 @@ public class SequenceCommandTest {
     class SuccessfulCommandEvaluations {
         private SequenceCommand sequenceCommand;
         private  InputStream inputStream;
-        private OutputStream outputStream;
+        private ByteArrayOutputStream outputStream;
         private MockedStatic<IOUtils> mockedIOUtils;
 
         /**
@@ -58,7 +57,7 @@ public class SequenceCommandTest {
         void setUp() throws ShellException {
             sequenceCommand = new SequenceCommand(List.of(SUCCESS_COMMAND, SUCCESS_COMMAND));
             inputStream = mock(InputStream.class);
-            outputStream = mock(OutputStream.class);
+            outputStream = new ByteArrayOutputStream();
             mockedIOUtils = mockStatic(IOUtils.class);
             mockedIOUtils.when(() -> IOUtils.getLinesFromInputStream(inputStream))
                     .thenReturn(List.of("Hello", "World"));
@@ -87,7 +86,7 @@ public class SequenceCommandTest {
                 ShellException, IOException {
             sequenceCommand.evaluate(inputStream, outputStream);
             String expectedOutput = TEST_STRING + System.lineSeparator();
-            verify(outputStream, times(2)).write(expectedOutput.getBytes());
+            assertEquals(expectedOutput + expectedOutput, outputStream.toString());
         }
 
         /**
@@ -105,7 +104,7 @@ public class SequenceCommandTest {
             });
             assertEquals(new ExitException("exit").getMessage(), thrown.getMessage());
             String expectedOutput = TEST_STRING + System.lineSeparator();
-            verify(outputStream, times(1)).write(expectedOutput.getBytes());
+            assertEquals(expectedOutput, outputStream.toString());
         }
 
         /**
@@ -122,7 +121,7 @@ public class SequenceCommandTest {
                 sequenceCommand.evaluate(inputStream, outputStream);
             });
             assertEquals(new ExitException("exit").getMessage(), thrown.getMessage());
-            verify(outputStream, times(0)).write(any());
+            assertEquals("", outputStream.toString());
         }
     }
 
@@ -131,11 +130,6 @@ public class SequenceCommandTest {
      */
     @Nested
     class UnsuccessfulCommandEvaluations {
-        /**
-         * The Byte captor.
-         */
-        @Captor
-        ArgumentCaptor<byte[]> byteCaptor;
         private SequenceCommand sequenceCommand;
         private  InputStream inputStream;
         private OutputStream outputStream;
@@ -185,16 +179,11 @@ public class SequenceCommandTest {
         void evaluate_TwoCommandsFirstCommandFails_PrintsErrorAndExecutesSecond() throws AbstractApplicationException,
                 ShellException, IOException {
             sequenceCommand = new SequenceCommand(List.of(FAIL_COMMAND, SUCCESS_COMMAND));
-            sequenceCommand.evaluate(inputStream, outputStream);
+            ByteArrayOutputStream stdout = new ByteArrayOutputStream();
+            sequenceCommand.evaluate(inputStream, stdout);
             String expectedMsg = new ShellException("Error").getMessage() + System.lineSeparator();
             String expectedOutput = TEST_STRING + System.lineSeparator();
-            byteCaptor = ArgumentCaptor.forClass(byte[].class);
-            verify(outputStream, times(2)).write(byteCaptor.capture());
-            List<byte[]> capturedValues = byteCaptor.getAllValues();
-            String actualErrorMsg = new String(capturedValues.get(0));
-            String actualSuccessMsg = new String(capturedValues.get(1));
-            assertEquals(expectedMsg, actualErrorMsg);
-            assertEquals(expectedOutput, actualSuccessMsg);
+            assertEquals(expectedMsg + expectedOutput, stdout.toString());
         }
 
         /**
@@ -208,16 +197,11 @@ public class SequenceCommandTest {
         void evaluate_TwoCommandsSecondCommandFails_ExecutesFirstThenPrintsError() throws AbstractApplicationException,
                 ShellException, IOException {
             sequenceCommand = new SequenceCommand(List.of(SUCCESS_COMMAND, FAIL_COMMAND));
-            sequenceCommand.evaluate(inputStream, outputStream);
+            ByteArrayOutputStream stdout = new ByteArrayOutputStream();
+            sequenceCommand.evaluate(inputStream, stdout);
             String expectedMsg = new ShellException("Error").getMessage() + System.lineSeparator();
             String expectedOutput = TEST_STRING + System.lineSeparator();
-            byteCaptor = ArgumentCaptor.forClass(byte[].class);
-            verify(outputStream, times(2)).write(byteCaptor.capture());
-            List<byte[]> capturedValues = byteCaptor.getAllValues();
-            String actualErrorMsg = new String(capturedValues.get(1));
-            String actualSuccessMsg = new String(capturedValues.get(0));
-            assertEquals(expectedMsg, actualErrorMsg);
-            assertEquals(expectedOutput, actualSuccessMsg);
+            assertEquals(expectedOutput + expectedMsg, stdout.toString());
         }
 
         /**
@@ -241,6 +225,38 @@ public class SequenceCommandTest {
         }
     }
 
+    @Test
+    void evaluate_FirstCommandWritesOutput_OutputVisibleBeforeSecondRuns() throws Exception {
+        ByteArrayOutputStream stdout = new ByteArrayOutputStream();
+        Command writeCommand = mock(Command.class);
+        doAnswer(invocation -> {
+            invocation.getArgument(1, OutputStream.class).write(TEST_STRING.getBytes());
+            return null;
+        }).when(writeCommand).evaluate(any(), any());
+        Command checkCommand = mock(Command.class);
+        doAnswer(invocation -> {
+            assertEquals(TEST_STRING, stdout.toString());
+            return null;
+        }).when(checkCommand).evaluate(any(), any());
+
+        new SequenceCommand(List.of(writeCommand, checkCommand)).evaluate(mock(InputStream.class), stdout);
+        verify(checkCommand).evaluate(any(), any());
+    }
+
+    @Test
+    void evaluate_CommandFailsAfterWriting_PrintsOutputThenError() throws Exception {
+        ByteArrayOutputStream stdout = new ByteArrayOutputStream();
+        Command failCommand = mock(Command.class);
+        doAnswer(invocation -> {
+            invocation.getArgument(1, OutputStream.class).write(TEST_STRING.getBytes());
+            throw new ShellException("Error");
+        }).when(failCommand).evaluate(any(), any());
+
+        new SequenceCommand(List.of(failCommand)).evaluate(mock(InputStream.class), stdout);
+        assertEquals(TEST_STRING + new ShellException("Error").getMessage() + System.lineSeparator(),
+                stdout.toString());
+    }
+
     static Stream<Arguments> getCommandArgsProvider() {
         return Stream.of(
                 Arguments.of((Object) List.of(SUCCESS_COMMAND)),
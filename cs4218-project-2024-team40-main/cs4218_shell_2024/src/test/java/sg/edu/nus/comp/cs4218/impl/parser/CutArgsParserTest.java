@@ -372,4 +372,103 @@ public class CutArgsParserTest {
             assertArrayEquals(expected, actual);
         }
     }
+
+    /**
+     * A nested class containing tests specific to the field flag (`-f`) and the delimiter option (`-d`).
+     */
+    @Nested
+    class FieldFlagTests {
+        /**
+         * Tests that the delimiter is parsed whether it is joined to `-d` or given after it.
+         *
+         * @param args The arguments to be parsed.
+         * @throws InvalidArgsException if an exception occurs during parsing.
+         */
+        @ParameterizedTest
+        @MethodSource("sg.edu.nus.comp.cs4218.impl.parser.CutArgsParserTest#getDelimiterArgs")
+        void getDelimiter_DelimiterOption_ReturnsDelimiter(String... args) throws InvalidArgsException {
+            cutArgsParser = new CutArgsParser();
+            cutArgsParser.parse(args);
+            assertTrue(cutArgsParser.isCutByField());
+            assertFalse(cutArgsParser.isCutByChar());
+            assertEquals(',', cutArgsParser.getDelimiter());
+            assertArrayEquals(new String[]{FILE_1}, cutArgsParser.getFiles());
+            assertEquals(3, cutArgsParser.getRanges().get(0)[1]);
+        }
+
+        /**
+         * Tests that fields are separated by tabs when no delimiter is given.
+         *
+         * @throws InvalidArgsException if an exception occurs during parsing.
+         */
+        @Test
+        void getDelimiter_NoDelimiterOption_ReturnsTab() throws InvalidArgsException {
+            cutArgsParser = new CutArgsParser();
+            cutArgsParser.parse("-f", ARG_1_3);
+            assertEquals('\t', cutArgsParser.getDelimiter());
+            assertTrue(cutArgsParser.isCutStdin());
+        }
+
+        /**
+         * Tests that a delimiter that is not a single US-ASCII character is rejected.
+         *
+         * @param delimiter The invalid delimiter.
+         */
+        @ParameterizedTest
+        @ValueSource(strings = {"", ",,", "€"})
+        void parse_InvalidDelimiter_ThrowsInvalidArgsException(String delimiter) {
+            cutArgsParser = new CutArgsParser();
+            Throwable thrown = assertThrows(InvalidArgsException.class,
+                    () -> cutArgsParser.parse("-f", ARG_1_3, "-d", delimiter));
+            assertEquals(new InvalidArgsException(CutArgsParser.ILLEGAL_DELIMITER_MSG).getMessage(),
+                    thrown.getMessage());
+        }
+
+        /**
+         * Tests that `-d` without a delimiter is rejected.
+         */
+        @Test
+        void parse_MissingDelimiter_ThrowsInvalidArgsException() {
+            cutArgsParser = new CutArgsParser();
+            Throwable thrown = assertThrows(InvalidArgsException.class,
+                    () -> cutArgsParser.parse("-f", ARG_1_3, "-d"));
+            assertEquals(new InvalidArgsException(CutArgsParser.MISSING_DELIMITER_MSG).getMessage(),
+                    thrown.getMessage());
+        }
+
+        /**
+         * Tests that `-f` cannot be used with `-c` or `-b`.
+         *
+         * @param flag The other flag to be used in the test (`-c` or `-b`).
+         */
+        @ParameterizedTest
+        @ValueSource(strings = {"-c", "-b"})
+        void parse_FieldFlagWithCharOrByteFlag_ThrowsInvalidArgsException(String flag) {
+            cutArgsParser = new CutArgsParser();
+            Throwable thrown = assertThrows(InvalidArgsException.class,
+                    () -> cutArgsParser.parse("-f", flag, ARG_1_3));
+            assertEquals(new InvalidArgsException(CutArgsParser.ILLEGAL_FIELD_FLAG).getMessage(),
+                    thrown.getMessage());
+        }
+
+        /**
+         * Tests that a delimiter cannot be given without `-f`.
+         */
+        @Test
+        void parse_DelimiterWithoutFieldFlag_ThrowsInvalidArgsException() {
+            cutArgsParser = new CutArgsParser();
+            Throwable thrown = assertThrows(InvalidArgsException.class,
+                    () -> cutArgsParser.parse("-c", ARG_1_3, "-d,"));
+            assertEquals(new InvalidArgsException(CutArgsParser.ILLEGAL_DELIMITER_FLAG).getMessage(),
+                    thrown.getMessage());
+        }
+    }
+
+    static Stream<Arguments> getDelimiterArgs() {
+        return Stream.of(
+                Arguments.of((Object) new String[]{"-d,", "-f", ARG_1_3, FILE_1}),
+                Arguments.of((Object) new String[]{"-f", ARG_1_3, "-d", ",", FILE_1}),
+                Arguments.of((Object) new String[]{"-f", "-d", ",", ARG_1_3, FILE_1})
+        );
+    }
 }
@@ -177,4 +177,26 @@ public class GrepArgsParserTest {
         assertFalse(grepArgsParser.isGrepFromFiles());
         assertTrue(grepArgsParser.isGrepFromFilesAndStdin());
     }
-}
\ No newline at end of file
+
+    @Test
+    void parse_EngineOption_ReturnsEngine() throws InvalidArgsException {
+        grepArgsParser.parse("--engine=dfa", "-c", PATTERN, FILE_1);
+        assertEquals(GrepArgsParser.ENGINE_DFA, grepArgsParser.getEngine());
+        assertTrue(grepArgsParser.isCount());
+        assertEquals(PATTERN, grepArgsParser.getPattern());
+        assertArrayEquals(new String[]{FILE_1}, grepArgsParser.getFileNames());
+    }
+
+    @Test
+    void parse_NoEngineOption_ReturnsNull() throws InvalidArgsException {
+        grepArgsParser.parse(PATTERN);
+        assertNull(grepArgsParser.getEngine());
+    }
+
+    @Test
+    void parse_InvalidEngine_ThrowsException() {
+        Throwable exp = assertThrows(InvalidArgsException.class,
+                () -> grepArgsParser.parse("--engine=perl", PATTERN));
+        assertEquals(GrepArgsParser.ILLEGAL_ENGINE_MSG + "'perl'", exp.getMessage());
+    }
+}
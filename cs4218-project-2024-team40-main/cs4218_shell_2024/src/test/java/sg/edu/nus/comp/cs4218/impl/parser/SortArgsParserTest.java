@@ -5,6 +5,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
+import org.junit.jupiter.params.provider.ValueSource;
 import sg.edu.nus.comp.cs4218.exception.InvalidArgsException;
 
 import java.util.Arrays;
@@ -208,6 +209,100 @@ public class SortArgsParserTest {
         assertFalse(sortArgsParser.isCaseIndependent());
     }
 
+    static Stream<Arguments> bufferSizeArgs() {
+        return Stream.of(
+                Arguments.of(new String[]{"-S", "10M", FILE}, 10L * 1024 * 1024),
+                Arguments.of(new String[]{"-S1K", FILE}, 1024L),
+                Arguments.of(new String[]{"--buffer-size=5b", FILE}, 5L),
+                Arguments.of(new String[]{FILE, "-S", "2"}, 2048L),
+                Arguments.of(new String[]{"-S", "1g", FILE}, 1024L * 1024 * 1024)
+        );
+    }
+
+    /**
+     * Tests that the buffer size option is parsed in bytes and not taken as a file name.
+     *
+     * @throws InvalidArgsException If an error occurs during parsing.
+     */
+    @ParameterizedTest
+    @MethodSource("bufferSizeArgs")
+    void getBufferSize_BufferSizeOption_ReturnsBytes(String[] args, long expected) throws InvalidArgsException {
+        sortArgsParser.parse(args);
+        assertEquals(expected, sortArgsParser.getBufferSize());
+        assertEquals(List.of(FILE), sortArgsParser.getFileNames());
+    }
+
+    /**
+     * Tests that getBufferSize returns null when no buffer size is given.
+     *
+     * @throws InvalidArgsException If an error occurs during parsing.
+     */
+    @Test
+    void getBufferSize_NoBufferSizeOption_ReturnsNull() throws InvalidArgsException {
+        sortArgsParser.parse("-rn", FILE);
+        assertNull(sortArgsParser.getBufferSize());
+        assertTrue(sortArgsParser.isReverseOrder());
+        assertTrue(sortArgsParser.isFirstWordNumber());
+    }
+
+    /**
+     * Tests that an invalid buffer size throws an exception.
+     *
+     * @param size The invalid size.
+     */
+    @ParameterizedTest
+    @ValueSource(strings = {"0", "10X", "K", "-5", "99999999999999999999"})
+    void parse_InvalidBufferSize_ThrowsException(String size) {
+        Throwable thrown = assertThrows(InvalidArgsException.class, () -> sortArgsParser.parse("-S", size));
+        assertEquals(SortArgsParser.ILLEGAL_SIZE_MSG + "'" + size + "'", thrown.getMessage());
+    }
+
+    /**
+     * Tests that the buffer size option without a size throws an exception.
+     */
+    @Test
+    void parse_BufferSizeWithoutValue_ThrowsException() {
+        Throwable thrown = assertThrows(InvalidArgsException.class, () -> sortArgsParser.parse(FILE, "-S"));
+        assertEquals(SortArgsParser.MISSING_SIZE_MSG, thrown.getMessage());
+    }
+
+    /**
+     * Tests that the parallel option is parsed and not taken as a file name.
+     *
+     * @throws InvalidArgsException If an error occurs during parsing.
+     */
+    @Test
+    void getParallelism_ParallelOption_ReturnsThreads() throws InvalidArgsException {
+        sortArgsParser.parse("--parallel=4", "-r", FILE);
+        assertEquals(4, sortArgsParser.getParallelism());
+        assertTrue(sortArgsParser.isReverseOrder());
+        assertEquals(List.of(FILE), sortArgsParser.getFileNames());
+    }
+
+    /**
+     * Tests that getParallelism returns null when no parallel option is given.
+     *
+     * @throws InvalidArgsException If an error occurs during parsing.
+     */
+    @Test
+    void getParallelism_NoParallelOption_ReturnsNull() throws InvalidArgsException {
+        sortArgsParser.parse(FILE);
+        assertNull(sortArgsParser.getParallelism());
+    }
+
+    /**
+     * Tests that an invalid number of threads throws an exception.
+     *
+     * @param threads The invalid number of threads.
+     */
+    @ParameterizedTest
+    @ValueSource(strings = {"", "0", "-2", "two", "99999999999"})
+    void parse_InvalidParallelism_ThrowsException(String threads) {
+        Throwable thrown = assertThrows(InvalidArgsException.class,
+                () -> sortArgsParser.parse(SortArgsParser.LONG_OPTION_PARALLEL + threads));
+        assertEquals(SortArgsParser.ILLEGAL_PARALLEL_MSG + "'" + threads + "'", thrown.getMessage());
+    }
+
 //    @Test
 //    void parse_FirstWordNumberOptionWithFiles() throws InvalidArgsException {
 //        String[] args = {"-n", "file1.txt"};
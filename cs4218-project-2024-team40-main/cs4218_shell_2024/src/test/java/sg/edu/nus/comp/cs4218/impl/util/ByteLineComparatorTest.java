@@ -0,0 +1,65 @@
+package sg.edu.nus.comp.cs4218.impl.util;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ByteLineComparatorTest {
+    private static final long SEED = 4218;
+    private static final String[] PARTS = {"", "a", "A", "b", "Z", "-", "0", "7", "-12", "007", " ",
+        "123456789012345678", "1234567890123456789", "é", "É", "ΑΣ", "σ", "٣", "", "😀", "İ"};
+
+    private static List<byte[]> makeLines(int count) {
+        Random random = new Random(SEED);
+        List<byte[]> lines = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            StringBuilder line = new StringBuilder();
+            int parts = random.nextInt(4);
+            for (int j = 0; j < parts; j++) {
+                line.append(PARTS[random.nextInt(PARTS.length)]);
+            }
+            byte[] bytes = line.toString().getBytes(StandardCharsets.UTF_8);
+            if (bytes.length > 1 && random.nextInt(10) == 0) {
+                // an invalid line that ends inside a character
+                bytes = Arrays.copyOf(bytes, bytes.length - 1);
+            }
+            lines.add(bytes);
+        }
+        return lines;
+    }
+
+    @ParameterizedTest
+    @CsvSource({"false, false", "true, false", "false, true", "true, true"})
+    void compare_AllPairs_SameOrderAsSortKey(boolean isCaseIndependent, boolean isFirstWordNumber) {
+        ByteLineComparator comparator = new ByteLineComparator(isCaseIndependent, isFirstWordNumber);
+        List<byte[]> lines = makeLines(300);
+        for (byte[] line1 : lines) {
+            SortKey key1 = SortKey.of(new String(line1, StandardCharsets.UTF_8), isCaseIndependent,
+                    isFirstWordNumber);
+            for (byte[] line2 : lines) {
+                SortKey key2 = SortKey.of(new String(line2, StandardCharsets.UTF_8), isCaseIndependent,
+                        isFirstWordNumber);
+                assertEquals(Integer.signum(key1.compareTo(key2)),
+                        Integer.signum(comparator.compare(line1, 0, line1.length, line2, 0, line2.length)),
+                        key1.getLine() + " vs " + key2.getLine());
+            }
+        }
+    }
+
+    @ParameterizedTest
+    @CsvSource({"9, 10", "-10, -9", "-99999999999999999999, 5", "0000000000000000000001, 2", "x, 1", "-, 1"})
+    void compare_FirstWordNumber_OrdersByValue(String smaller, String larger) {
+        ByteLineComparator comparator = new ByteLineComparator(false, true);
+        byte[] bytes1 = smaller.getBytes(StandardCharsets.UTF_8);
+        byte[] bytes2 = ("  " + larger).getBytes(StandardCharsets.UTF_8);
+        assertEquals(-1, Integer.signum(comparator.compare(bytes1, 0, bytes1.length, bytes2, 2, larger.length())));
+        assertEquals(1, Integer.signum(comparator.compare(bytes2, 2, larger.length(), bytes1, 0, bytes1.length)));
+    }
+}
@@ -0,0 +1,69 @@
+package sg.edu.nus.comp.cs4218.impl.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ByteScannerTest {
+    private static int naiveIndexOf(byte[] bytes, int from, int to, byte value) {
+        for (int i = from; i < to; i++) {
+            if (bytes[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Test
+    void indexOf_ValueInWordOrTail_ReturnsFirstIndex() {
+        byte[] bytes = "abcdefgh,jklmnop,rs,".getBytes();
+        assertEquals(8, ByteScanner.indexOf(bytes, 0, bytes.length, (byte) ','));
+        assertEquals(16, ByteScanner.indexOf(bytes, 9, bytes.length, (byte) ','));
+        assertEquals(19, ByteScanner.indexOf(bytes, 17, bytes.length, (byte) ','));
+        assertEquals(-1, ByteScanner.indexOf(bytes, 17, 19, (byte) ','));
+        assertEquals(-1, ByteScanner.indexOf(bytes, 0, 0, (byte) ','));
+    }
+
+    @Test
+    void indexOf_ByteBelowAMatch_IsNotMistakenForOne() {
+        // the borrow from a matching byte can flag the byte above it, here 0x01 above ','
+        byte[] bytes = {'x', ',', (byte) (',' + 1), 'x', 'x', 'x', 'x', 'x', 'x'};
+        assertEquals(1, ByteScanner.indexOf(bytes, 0, bytes.length, (byte) ','));
+        assertEquals(-1, ByteScanner.indexOf(bytes, 2, bytes.length, (byte) ','));
+    }
+
+    @Test
+    void indexOf_RandomBytes_SameAsNaiveSearch() {
+        Random random = new Random(4218);
+        for (int trial = 0; trial < 2000; trial++) {
+            byte[] bytes = new byte[random.nextInt(40)];
+            for (int i = 0; i < bytes.length; i++) {
+                // few distinct values, with bytes above 0x7F and around the searched one
+                bytes[i] = (byte) new int[]{0, 1, ',', ',' + 1, 0x80, 0xFF, 'a'}[random.nextInt(7)];
+            }
+            int from = bytes.length == 0 ? 0 : random.nextInt(bytes.length);
+            byte value = random.nextBoolean() ? (byte) ',' : (byte) 0xFF;
+            assertEquals(naiveIndexOf(bytes, from, bytes.length, value),
+                    ByteScanner.indexOf(bytes, from, bytes.length, value));
+        }
+    }
+
+    @Test
+    void indexOfLineTerminator_RandomBytes_ReturnsFirstLineFeedOrCarriageReturn() {
+        Random random = new Random(4218);
+        for (int trial = 0; trial < 2000; trial++) {
+            byte[] bytes = new byte[random.nextInt(40)];
+            for (int i = 0; i < bytes.length; i++) {
+                bytes[i] = (byte) new int[]{'\n', '\r', '\n' + 1, '\r' + 1, 0x80, 'a', 'b'}[random.nextInt(7)];
+            }
+            int from = bytes.length == 0 ? 0 : random.nextInt(bytes.length);
+            int lineFeed = naiveIndexOf(bytes, from, bytes.length, (byte) '\n');
+            int carriageReturn = naiveIndexOf(bytes, from, bytes.length, (byte) '\r');
+            int expected = lineFeed < 0 || carriageReturn < 0 ? Math.max(lineFeed, carriageReturn)
+                    : Math.min(lineFeed, carriageReturn);
+            assertEquals(expected, ByteScanner.indexOfLineTerminator(bytes, from, bytes.length));
+        }
+    }
+}
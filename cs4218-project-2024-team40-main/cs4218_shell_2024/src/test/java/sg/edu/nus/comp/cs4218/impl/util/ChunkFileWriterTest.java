@@ -0,0 +1,79 @@
+package sg.edu.nus.comp.cs4218.impl.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static java.nio.file.StandardOpenOption.APPEND;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ChunkFileWriterTest {
+    @TempDir
+    Path tempDir;
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, 1, 4})
+    void write_ManyChunks_WritesThemInOrder(int queueCapacity) throws IOException {
+        Path file = tempDir.resolve("chunks.txt");
+        Files.writeString(file, "before" + System.lineSeparator());
+        StringBuilder expected = new StringBuilder("before" + System.lineSeparator());
+        try (ChunkFileWriter writer = new ChunkFileWriter(FileChannel.open(file, WRITE, APPEND), queueCapacity,
+                "test-writer")) {
+            for (int i = 0; i < 1000; i++) {
+                String chunk = i + System.lineSeparator();
+                writer.write(ByteBuffer.wrap(chunk.getBytes()));
+                expected.append(chunk);
+            }
+        }
+        assertEquals(expected.toString(), Files.readString(file));
+    }
+
+    @Test
+    void write_SameChunkToSeveralWriters_LeavesChunkUnchanged() throws IOException {
+        Path first = tempDir.resolve("first.txt");
+        Path second = tempDir.resolve("second.txt");
+        ByteBuffer chunk = ByteBuffer.wrap("abcdef".getBytes(), 1, 3);
+        try (ChunkFileWriter firstWriter = new ChunkFileWriter(FileChannel.open(first, CREATE, WRITE), 0, "first");
+             ChunkFileWriter secondWriter = new ChunkFileWriter(FileChannel.open(second, CREATE, WRITE), 2,
+                     "second")) {
+            firstWriter.write(chunk);
+            secondWriter.write(chunk);
+        }
+        assertEquals(1, chunk.position());
+        assertEquals("bcd", Files.readString(first));
+        assertEquals("bcd", Files.readString(second));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, 2})
+    void close_WriteFailed_ThrowsIOException(int queueCapacity) throws IOException {
+        FileChannel channel = FileChannel.open(tempDir.resolve("closed.txt"), CREATE, WRITE);
+        ChunkFileWriter writer = new ChunkFileWriter(channel, queueCapacity, "test-writer");
+        channel.close();
+        if (queueCapacity == 0) {
+            assertThrows(IOException.class, () -> writer.write(ByteBuffer.wrap("x".getBytes())));
+        } else {
+            writer.write(ByteBuffer.wrap("x".getBytes()));
+        }
+        assertThrows(IOException.class, writer::close);
+    }
+
+    @Test
+    void constructor_NegativeCapacity_ThrowsIllegalArgumentException() throws IOException {
+        try (FileChannel channel = FileChannel.open(tempDir.resolve("file.txt"), CREATE, WRITE)) {
+            Throwable exception = assertThrows(IllegalArgumentException.class,
+                    () -> new ChunkFileWriter(channel, -1, "test-writer"));
+            assertEquals(ChunkFileWriter.ERR_INVALID_CAPACITY, exception.getMessage());
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package sg.edu.nus.comp.cs4218.impl.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import sg.edu.nus.comp.cs4218.exception.ShellException;
+import sg.edu.nus.comp.cs4218.testutils.RegexCommandTokenizer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static sg.edu.nus.comp.cs4218.impl.util.ErrorConstants.ERR_SYNTAX;
+
+/**
+ * Tests for CommandLexer. Tokens are compared against the regular expression based tokenizer
+ * CommandBuilder used previously.
+ */
+class CommandLexerTest {
+    private static final String ERROR = "<error>";
+    private static final char[] ALPHABET = {'a', 'b', ' ', '\t', '\'', '"', '`', '|', ';', '<', '>', '\r', '\u0001'};
+    private static final int NUM_RANDOM_COMMANDS = 50_000;
+    private static final int MAX_RANDOM_LENGTH = 14;
+
+    /**
+     * Tokenizes like CommandBuilder does, returning only an error marker if tokenizing fails.
+     */
+    private static List<String> lex(String command) {
+        List<String> tokens = new ArrayList<>();
+        try {
+            CommandLexer lexer = new CommandLexer(command);
+            if (!lexer.hasNextToken()) {
+                throw new ShellException(ERR_SYNTAX);
+            }
+            while (lexer.hasNextToken()) {
+                tokens.add(lexer.nextToken());
+            }
+        } catch (ShellException e) {
+            assertEquals(new ShellException(ERR_SYNTAX).getMessage(), e.getMessage());
+            return List.of(ERROR);
+        }
+        return tokens;
+    }
+
+    private static List<String> lexWithRegex(String command) {
+        try {
+            return RegexCommandTokenizer.tokenize(command);
+        } catch (ShellException e) {
+            return List.of(ERROR);
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "echo hello world", "  echo   a\tb  ", "echo 'a b' \"c d\" `e f`", "echo a'b'\"c\"`d`e",
+            "cat < in.txt > out.txt", "cat<in>out", "a | b | c", "a ; b ; c", "a|b;c|d",
+            "echo \"`echo a` b `echo c`\"", "echo \"a `b` c\" \"d\"", "echo \"`a\" \"b`\"",
+            "echo \"`a` \"`b`\"\"", "echo \"`a`b`c`\"", "echo \"x`a\rb`y\" z", "echo \"`\r`\"",
+            "echo \"`a`\r`b`\"", "echo ``", "echo ''\"\"", "echo a\u0001b", "\u0001echo a\u0001"
+    })
+    void nextToken_ValidCommands_SameTokensAsRegex(String command) {
+        List<String> expected = lexWithRegex(command);
+        assertFalse(expected.contains(ERROR), command);
+        assertEquals(expected, lex(command));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"echo 'a", "echo \"a", "echo `a", "echo a |", "echo a ;", "echo >", "echo < ;",
+            "echo \"`a`", "echo '\"'\"", "\u0001", "\u0001 \t"})
+    void nextToken_InvalidCommands_ThrowsSyntaxError(String command) {
+        assertEquals(List.of(ERROR), lexWithRegex(command), command);
+        assertEquals(List.of(ERROR), lex(command), command);
+    }
+
+    @Test
+    void nextToken_RandomCommands_SameTokensAndErrorsAsRegex() {
+        Random random = new Random(4218);
+        for (int i = 0; i < NUM_RANDOM_COMMANDS; i++) {
+            int length = 1 + random.nextInt(MAX_RANDOM_LENGTH);
+            StringBuilder command = new StringBuilder();
+            for (int j = 0; j < length; j++) {
+                command.append(ALPHABET[random.nextInt(ALPHABET.length)]);
+            }
+            String commandString = command.toString();
+            assertEquals(lexWithRegex(commandString), lex(commandString), () -> "Command: " + commandString);
+        }
+    }
+
+    @Test
+    void nextToken_ManyArguments_TokenizesAll() throws ShellException {
+        StringBuilder command = new StringBuilder("echo");
+        int numArgs = 100_000;
+        for (int i = 0; i < numArgs; i++) {
+            command.append(" arg").append(i).append(" \"q`x`\"");
+        }
+        CommandLexer lexer = new CommandLexer(command.toString());
+        int count = 0;
+        while (lexer.hasNextToken()) {
+            lexer.nextToken();
+            count++;
+        }
+        assertEquals(2 * numArgs + 1, count);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"<", ">", "|", ";"})
+    void isOperator_OperatorToken_ReturnsTrue(String token) {
+        assertTrue(CommandLexer.isOperator(token));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"a", "'|'", "||", "\";\""})
+    void isOperator_ArgumentToken_ReturnsFalse(String token) {
+        assertFalse(CommandLexer.isOperator(token));
+    }
+}
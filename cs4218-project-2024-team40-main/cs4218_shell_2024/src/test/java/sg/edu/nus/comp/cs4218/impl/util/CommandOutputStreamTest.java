@@ -0,0 +1,93 @@
+package sg.edu.nus.comp.cs4218.impl.util;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class CommandOutputStreamTest {
+    private static final int BUFFER_SIZE = 4;
+
+    private ByteArrayOutputStream parent;
+    private CommandOutputStream outputStream;
+
+    @BeforeEach
+    void setUp() {
+        parent = new ByteArrayOutputStream();
+        outputStream = new CommandOutputStream(parent, BUFFER_SIZE);
+    }
+
+    @Test
+    void write_LessThanBuffer_HeldUntilFlush() throws IOException {
+        outputStream.write("ab".getBytes());
+        outputStream.write('c');
+        assertEquals("", parent.toString());
+
+        outputStream.flush();
+        assertEquals("abc", parent.toString());
+    }
+
+    @Test
+    void write_BufferFills_WritesBufferedBytes() throws IOException {
+        outputStream.write("abc".getBytes());
+        outputStream.write("de".getBytes());
+        assertEquals("abc", parent.toString());
+
+        outputStream.flush();
+        assertEquals("abcde", parent.toString());
+    }
+
+    @Test
+    void write_LargerThanBuffer_WritesStraightThroughInOrder() throws IOException {
+        outputStream.write('a');
+        outputStream.write("bcdefg".getBytes());
+        assertEquals("abcdefg", parent.toString());
+    }
+
+    @Test
+    void close_BufferedBytes_FlushesWithoutClosingParent() throws IOException {
+        OutputStream mockParent = mock(OutputStream.class);
+        outputStream = new CommandOutputStream(mockParent, BUFFER_SIZE);
+        outputStream.write("ab".getBytes());
+        outputStream.close();
+
+        verify(mockParent).write(any(byte[].class), eq(0), eq(2));
+        verify(mockParent, never()).close();
+    }
+
+    @Test
+    void flush_ParentFails_ThrowsIOException() throws IOException {
+        OutputStream mockParent = mock(OutputStream.class);
+        doThrow(new IOException()).when(mockParent).write(any(byte[].class), anyInt(), anyInt());
+        outputStream = new CommandOutputStream(mockParent, BUFFER_SIZE);
+        outputStream.write('a');
+
+        assertThrows(IOException.class, () -> outputStream.flush());
+    }
+
+    @Test
+    void write_BufferFilledTwice_WritesFromSameBuffer() throws IOException {
+        OutputStream mockParent = mock(OutputStream.class);
+        outputStream = new CommandOutputStream(mockParent, BUFFER_SIZE);
+        outputStream.write("abcd".getBytes(), 0, 3);
+        outputStream.write("de".getBytes());
+        outputStream.write("fgh".getBytes());
+
+        ArgumentCaptor<byte[]> buffers = ArgumentCaptor.forClass(byte[].class);
+        verify(mockParent).write(buffers.capture(), eq(0), eq(3));
+        verify(mockParent).write(buffers.capture(), eq(0), eq(2));
+        assertSame(buffers.getAllValues().get(0), buffers.getAllValues().get(1));
+        verify(mockParent, never()).write(any(byte[].class));
+    }
+
+    @Test
+    void constructor_NullParent_ThrowsIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class, () -> new CommandOutputStream(null));
+    }
+}
@@ -0,0 +1,175 @@
+package sg.edu.nus.comp.cs4218.impl.util;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import sg.edu.nus.comp.cs4218.Command;
+import sg.edu.nus.comp.cs4218.exception.ShellException;
+import sg.edu.nus.comp.cs4218.impl.cmd.CallCommand;
+import sg.edu.nus.comp.cs4218.impl.cmd.PipeCommand;
+import sg.edu.nus.comp.cs4218.impl.cmd.SequenceCommand;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static sg.edu.nus.comp.cs4218.impl.util.ErrorConstants.ERR_SYNTAX;
+
+/**
+ * Tests for CommandPlanCache and CommandPlan, and for how CommandBuilder uses them.
+ */
+class CommandPlanCacheTest {
+    private static final String CMD_ECHO = "echo a";
+    private static final String CMD_LS = "ls";
+    private static final String CMD_CAT = "cat b";
+
+    private CommandPlanCache cache;
+    private CommandPlan plan;
+
+    @BeforeEach
+    void setUp() throws ShellException {
+        cache = new CommandPlanCache(2);
+        plan = CommandPlan.parse(CMD_ECHO);
+    }
+
+    @Test
+    void get_NotCached_ReturnsNullAndCountsMiss() {
+        assertNull(cache.get(CMD_ECHO));
+        assertEquals(0, cache.getHits());
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    void get_Cached_ReturnsPlanAndCountsHit() {
+        cache.put(CMD_ECHO, plan);
+        assertSame(plan, cache.get(CMD_ECHO));
+        assertEquals(1, cache.getHits());
+        assertEquals(0, cache.getMisses());
+    }
+
+    @Test
+    void put_Full_EvictsLeastRecentlyUsed() {
+        cache.put(CMD_ECHO, plan);
+        cache.put(CMD_LS, plan);
+        cache.get(CMD_ECHO);
+        cache.put(CMD_CAT, plan);
+
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getEvictions());
+        assertNull(cache.get(CMD_LS));
+        assertSame(plan, cache.get(CMD_ECHO));
+        assertSame(plan, cache.get(CMD_CAT));
+    }
+
+    @Test
+    void put_ZeroCapacity_CachesNothing() {
+        cache = new CommandPlanCache(0);
+        cache.put(CMD_ECHO, plan);
+        assertEquals(0, cache.size());
+        assertNull(cache.get(CMD_ECHO));
+    }
+
+    @Test
+    void setCapacity_Smaller_EvictsLeastRecentlyUsed() {
+        cache.put(CMD_ECHO, plan);
+        cache.put(CMD_LS, plan);
+        cache.setCapacity(1);
+
+        assertEquals(1, cache.size());
+        assertEquals(1, cache.getEvictions());
+        assertSame(plan, cache.get(CMD_LS));
+    }
+
+    @Test
+    void get_PlanCacheSizeSettingChanged_FollowsSetting() {
+        int planCacheSize = ShellSettings.planCacheSize;
+        try {
+            ShellSettings.planCacheSize = 2;
+            cache = new CommandPlanCache();
+            cache.put(CMD_ECHO, plan);
+            cache.put(CMD_LS, plan);
+            ShellSettings.planCacheSize = 1;
+
+            assertSame(plan, cache.get(CMD_LS));
+            assertEquals(1, cache.getCapacity());
+            assertEquals(1, cache.size());
+            assertEquals(1, cache.getEvictions());
+        } finally {
+            ShellSettings.planCacheSize = planCacheSize;
+        }
+    }
+
+    @Test
+    void constructor_NegativeCapacity_ThrowsIllegalArgumentException() {
+        Throwable thrown = assertThrows(IllegalArgumentException.class, () -> new CommandPlanCache(-1));
+        assertEquals(CommandPlanCache.ERR_NEGATIVE_CAPACITY, thrown.getMessage());
+    }
+
+    @Test
+    void clear_CachedPlans_RemovesPlansAndResetsCounters() {
+        cache.put(CMD_ECHO, plan);
+        cache.get(CMD_ECHO);
+        cache.get(CMD_LS);
+        cache.clear();
+
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.getHits());
+        assertEquals(0, cache.getMisses());
+        assertEquals(0, cache.getEvictions());
+    }
+
+    @Test
+    void parse_SequenceOfPipes_GroupsTokens() throws ShellException {
+        CommandPlan parsed = CommandPlan.parse("echo 'a b' > out | grep a ; ls");
+        assertEquals(List.of(
+                List.of(List.of("echo", "'a b'", ">", "out"), List.of("grep", "a")),
+                List.of(List.of("ls"))), parsed.getSequence());
+    }
+
+    @Test
+    void parse_EmptyCommandBeforeOperator_ThrowsShellException() {
+        Throwable thrown = assertThrows(ShellException.class, () -> CommandPlan.parse("echo a | ; ls"));
+        assertEquals(new ShellException(ERR_SYNTAX).getMessage(), thrown.getMessage());
+    }
+
+    @Test
+    void toCommand_CalledTwice_BuildsNewTrees() throws ShellException {
+        ApplicationRunner appRunner = mock(ApplicationRunner.class);
+        CommandPlan parsed = CommandPlan.parse("echo a | grep a ; ls");
+
+        Command first = parsed.toCommand(appRunner);
+        Command second = parsed.toCommand(appRunner);
+
+        assertNotSame(first, second);
+        assertTrue(first instanceof SequenceCommand);
+        List<Command> commands = ((SequenceCommand) first).getCommands();
+        assertTrue(commands.get(0) instanceof PipeCommand);
+        CallCommand lsCommand = (CallCommand) commands.get(1);
+        assertEquals(List.of("ls"), lsCommand.getArgsList());
+    }
+
+    @Test
+    void parseCommand_SameCommandTwice_ReusesCachedPlan() throws ShellException {
+        ApplicationRunner appRunner = mock(ApplicationRunner.class);
+        CommandPlanCache planCache = CommandBuilder.getPlanCache();
+        String command = "echo plan-cache-test";
+
+        CallCommand first = (CallCommand) CommandBuilder.parseCommand(command, appRunner);
+        long hits = planCache.getHits();
+        CallCommand second = (CallCommand) CommandBuilder.parseCommand(command, appRunner);
+
+        assertEquals(hits + 1, planCache.getHits());
+        assertNotSame(first, second);
+        assertEquals(first.getArgsList(), second.getArgsList());
+    }
+
+    @Test
+    void parseCommand_InvalidCommand_NotCached() {
+        CommandPlanCache planCache = CommandBuilder.getPlanCache();
+        String command = "echo 'unterminated";
+
+        assertThrows(ShellException.class, () -> CommandBuilder.parseCommand(command, null));
+        long misses = planCache.getMisses();
+        assertThrows(ShellException.class, () -> CommandBuilder.parseCommand(command, null));
+        assertEquals(misses + 1, planCache.getMisses());
+    }
+}
@@ -0,0 +1,124 @@
+package sg.edu.nus.comp.cs4218.impl.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.Random;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DfaRegexTest {
+    private static final String[] ATOMS = {"a", "b", "B", ".", "[ab]", "[^a]", "[a-c]", "[A-Z]", "\\d", "\\W",
+        "\\.", "é", "^", "$", "(a|b)", "(?:ab|)", "\\x41", "[\\s\\d]", "😀"};
+    private static final String[] QUANTIFIERS = {"", "", "", "*", "+", "?", "{2}", "{1,2}", "{0,}", "*?", "{0}"};
+    private static final String TEXT_CHARS = "aAbB1. é€😀  ";
+
+    private static String randomRegex(Random random, int depth) {
+        StringBuilder regex = new StringBuilder();
+        int length = 1 + random.nextInt(4);
+        for (int i = 0; i < length; i++) {
+            if (depth > 0 && random.nextInt(5) == 0) {
+                regex.append('(').append(randomRegex(random, depth - 1)).append('|')
+                        .append(randomRegex(random, depth - 1)).append(')');
+            } else {
+                regex.append(ATOMS[random.nextInt(ATOMS.length)]);
+            }
+            regex.append(QUANTIFIERS[random.nextInt(QUANTIFIERS.length)]);
+        }
+        return regex.toString();
+    }
+
+    private static String randomText(Random random) {
+        StringBuilder text = new StringBuilder();
+        int length = random.nextInt(10);
+        for (int i = 0; i < length; i++) {
+            text.appendCodePoint(TEXT_CHARS.codePointAt(TEXT_CHARS.offsetByCodePoints(0,
+                    random.nextInt(TEXT_CHARS.codePointCount(0, TEXT_CHARS.length())))));
+        }
+        return text.toString();
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void find_RandomRegexes_SameAsJavaRegex(boolean isCaseInsensitive) {
+        Random random = new Random(isCaseInsensitive ? 4218 : 2024);
+        for (int i = 0; i < 3000; i++) {
+            String regex = randomRegex(random, 2);
+            Pattern pattern = Pattern.compile(regex, isCaseInsensitive ? Pattern.CASE_INSENSITIVE : 0);
+            DfaRegex dfaRegex = DfaRegex.compile(pattern);
+            if (dfaRegex == null) {
+                // quantified anchors are left to java.util.regex
+                assertTrue(regex.matches(".*[\\^$].*"), regex);
+                continue;
+            }
+            DfaRegex.LineMatcher matcher = dfaRegex.matcher();
+            for (int j = 0; j < 20; j++) {
+                String text = randomText(random);
+                assertEquals(pattern.matcher(text).find(), matcher.find(text), regex + " in " + text);
+            }
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"(a)\\1", "a(?=b)", "(?<!a)b", "\\bword", "a*+", "(?i)a", "\\p{L}", "[a&&[b]]",
+        "[a[b]]", "\\Qa.b\\E", "(?<name>a)", "\\0101", "\\R", "x{2}{3}", "(^a)*"})
+    void compile_UnsupportedFeature_ReturnsNull(String regex) {
+        assertNull(DfaRegex.compile(Pattern.compile(regex)));
+    }
+
+    @Test
+    void compile_UnsupportedFlag_ReturnsNull() {
+        assertNull(DfaRegex.compile(Pattern.compile("a", Pattern.MULTILINE)));
+    }
+
+    @Test
+    void find_DollarBeforeFinalLineTerminator_SameAsJavaRegex() {
+        DfaRegex.LineMatcher matcher = DfaRegex.compile(Pattern.compile("a$")).matcher();
+        assertTrue(matcher.find("ba "));
+        assertFalse(matcher.find("a b"));
+        assertTrue(matcher.find("ba"));
+    }
+
+    @Test
+    void find_CaseInsensitiveNonAscii_OnlyAsciiFolded() {
+        DfaRegex.LineMatcher matcher = DfaRegex.compile(Pattern.compile("é[k-m]", Pattern.CASE_INSENSITIVE))
+                .matcher();
+        assertTrue(matcher.find("éL"));
+        assertFalse(matcher.find("ÉL"));
+    }
+
+    @Test
+    @Timeout(10)
+    void find_PathologicalRegexLongLine_LinearTime() {
+        StringBuilder line = new StringBuilder();
+        for (int i = 0; i < 100_000; i++) {
+            line.append('a');
+        }
+        assertFalse(DfaRegex.compile(Pattern.compile("(a+)+b")).matcher().find(line));
+        assertFalse(DfaRegex.compile(Pattern.compile("(a|aa)*c")).matcher().find(line));
+        assertTrue(DfaRegex.compile(Pattern.compile("(a|aa)*$")).matcher().find(line));
+    }
+
+    @Test
+    void find_ManyDfaStates_StillCorrectAfterCacheReset() {
+        // (a|b)*a(a|b){12} needs thousands of DFA states
+        Pattern pattern = Pattern.compile("(a|b)*a(a|b){12}");
+        DfaRegex.LineMatcher matcher = DfaRegex.compile(pattern).matcher();
+        Random random = new Random(4218);
+        for (int i = 0; i < 200; i++) {
+            StringBuilder text = new StringBuilder();
+            for (int j = 0; j < 200; j++) {
+                text.append(random.nextBoolean() ? 'a' : 'b');
+            }
+            text.append("bbbbbbbbbbbb");
+            String line = text.substring(random.nextInt(text.length()));
+            assertEquals(pattern.matcher(line).find(), matcher.find(line), line);
+        }
+    }
+}
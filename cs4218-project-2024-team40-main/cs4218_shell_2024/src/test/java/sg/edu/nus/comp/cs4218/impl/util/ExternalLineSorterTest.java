@@ -0,0 +1,91 @@
+package sg.edu.nus.comp.cs4218.impl.util;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ExternalLineSorterTest {
+    private static final long SEED = 4218;
+    // lines that only differ in case are equal, so that stability is visible in the output
+    private static final String[] WORDS = {"a", "A", "b", "B", "10", "-3", "7x", "7X", "", "é", "É"};
+    // estimated size of the longest lines
+    private static final long LINE_SIZE = PackedLines.LINE_OVERHEAD + 3;
+
+    private static List<String> makeLines(int count) {
+        Random random = new Random(SEED);
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            lines.add(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return lines;
+    }
+
+    /**
+     * The in memory stable sort of the lines as Strings that the external sort has to match.
+     */
+    private static List<String> sortReference(List<String> lines, boolean isReverse) {
+        List<SortKey> keys = new ArrayList<>();
+        for (String line : lines) {
+            keys.add(SortKey.of(line, true, true));
+        }
+        List<String> sorted = new ArrayList<>();
+        for (SortKey key : SortKey.sort(keys, isReverse, 1)) {
+            sorted.add(key.getLine());
+        }
+        return sorted;
+    }
+
+    private static List<String> sortExternally(List<String> lines, boolean isReverse, long memoryBudget,
+                                               int parallelism, int minRuns) throws IOException {
+        byte[] input = (String.join("\n", lines) + "\n").getBytes(StandardCharsets.UTF_8);
+        List<String> sorted = new ArrayList<>();
+        try (ExternalLineSorter sorter = new ExternalLineSorter(new ByteLineComparator(true, true), isReverse,
+                memoryBudget, parallelism)) {
+            sorter.addLines(new ByteArrayInputStream(input));
+            assertTrue(sorter.getRunCount() >= minRuns);
+            sorter.forEachSorted((bytes, offset, length) ->
+                    sorted.add(new String(bytes, offset, length, StandardCharsets.UTF_8)));
+        }
+        return sorted;
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {true, false})
+    void forEachSorted_FitsInMemory_MatchesStableSort(boolean isReverse) throws IOException {
+        List<String> lines = makeLines(100);
+        assertEquals(sortReference(lines, isReverse), sortExternally(lines, isReverse, Long.MAX_VALUE, 1, 0));
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {true, false})
+    void forEachSorted_SpilledRuns_MatchesStableSort(boolean isReverse) throws IOException {
+        List<String> lines = makeLines(1000);
+        // about ten lines per run
+        assertEquals(sortReference(lines, isReverse), sortExternally(lines, isReverse, 10 * LINE_SIZE, 1, 50));
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {true, false})
+    void forEachSorted_MoreRunsThanMergeWidth_MatchesStableSort(boolean isReverse) throws IOException {
+        List<String> lines = makeLines(3 * ExternalLineSorter.MAX_MERGE_WIDTH * 2 + 5);
+        // about two lines per run, so that the runs are merged in more than one pass
+        assertEquals(sortReference(lines, isReverse),
+                sortExternally(lines, isReverse, 2 * LINE_SIZE, 1, ExternalLineSorter.MAX_MERGE_WIDTH + 1));
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {true, false})
+    void forEachSorted_InParallel_MatchesStableSort(boolean isReverse) throws IOException {
+        List<String> lines = makeLines(5 * ParallelMergeSort.MIN_PARALLEL_LENGTH);
+        assertEquals(sortReference(lines, isReverse), sortExternally(lines, isReverse, Long.MAX_VALUE, 4, 0));
+    }
+}
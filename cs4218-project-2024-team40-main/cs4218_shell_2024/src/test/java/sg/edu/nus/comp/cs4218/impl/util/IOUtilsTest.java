@@ -2,6 +2,9 @@ package sg.edu.nus.comp.cs4218.impl.util;
 
 
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -10,6 +13,9 @@ import java.util.Arrays;
 import java.util.List;
 
 import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
 
 import sg.edu.nus.comp.cs4218.Environment;
 import sg.edu.nus.comp.cs4218.exception.ShellException;
@@ -330,4 +336,109 @@ class IOUtilsTest {
         assertEquals(new NullPointerException().getMessage(), exp.getMessage());
     }
 
+    /**
+     * Transfer from a file channel to a file output stream copies the bytes through the channel.
+     *
+     * @param tempDir the temp dir
+     * @throws IOException the io exception
+     */
+    @Test
+    void transfer_FileToFileOutputStream_CopiesAllBytes(@TempDir Path tempDir) throws IOException {
+        byte[] bytes = new byte[3 * IOUtils.TRANSFER_BUFFER_SIZE + 1];
+        Arrays.fill(bytes, (byte) 'a');
+        Path source = Files.write(tempDir.resolve("source"), bytes);
+        Path target = tempDir.resolve("target");
+        int lastByte;
+        try (FileChannel channel = FileChannel.open(source);
+             FileOutputStream outputStream = new FileOutputStream(target.toFile())) {
+            outputStream.write('b');
+            lastByte = IOUtils.transfer(channel, outputStream);
+            outputStream.write('c');
+        }
+        byte[] actual = Files.readAllBytes(target);
+        assertEquals('a', lastByte);
+        assertEquals(bytes.length + 2, actual.length);
+        assertEquals('b', actual[0]);
+        assertEquals('c', actual[actual.length - 1]);
+    }
+
+    /**
+     * Transfer from a file channel to a plain output stream copies the bytes in chunks.
+     *
+     * @throws IOException the io exception
+     */
+    @Test
+    void transfer_FileToOutputStream_CopiesAllBytes() throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try (FileChannel channel = FileChannel.open(Paths.get(TEST_PATH))) {
+            assertEquals('\n', IOUtils.transfer(channel, outputStream));
+        }
+        assertArrayEquals(Files.readAllBytes(Paths.get(TEST_PATH)), outputStream.toByteArray());
+    }
+
+    /**
+     * Transfer to a channel that stops taking bytes copies the rest in chunks.
+     *
+     * @param accepted the number of bytes the channel takes before taking none
+     * @throws IOException the io exception
+     */
+    @ParameterizedTest
+    @ValueSource(ints = {0, 5})
+    void transfer_ChannelTakesNoMoreBytes_CopiesRestInChunks(int accepted) throws IOException {
+        StalledChannelStream outputStream = new StalledChannelStream(accepted);
+        try (FileChannel channel = FileChannel.open(Paths.get(TEST_PATH))) {
+            assertEquals('\n', IOUtils.transfer(channel, outputStream));
+            assertEquals(channel.size(), channel.position());
+        }
+        assertArrayEquals(Files.readAllBytes(Paths.get(TEST_PATH)), outputStream.toByteArray());
+    }
+
+    /**
+     * Transfer from an empty input stream returns -1.
+     *
+     * @throws IOException the io exception
+     */
+    @Test
+    void transfer_EmptyInputStream_ReturnsNoLastByte() throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        assertEquals(-1, IOUtils.transfer(new ByteArrayInputStream(new byte[0]), outputStream));
+        assertEquals(0, outputStream.size());
+    }
+
+    /**
+     * Open file channel on a missing file throws exception.
+     */
+    @Test
+    void openFileChannel_NonExistingFile_ThrowException() {
+        Throwable exp = assertThrows(ShellException.class, () -> IOUtils.openFileChannel(MISSING_TEST_PATH));
+        assertEquals(SHELL_PREFIX + ERR_FILE_NOT_FND, exp.getMessage());
+    }
+
+
+    /**
+     * An output stream that takes only a limited number of bytes through its channel side.
+     */
+    private static final class StalledChannelStream extends ByteArrayOutputStream implements WritableByteChannel {
+        private int accepted;
+
+        StalledChannelStream(int accepted) {
+            super();
+            this.accepted = accepted;
+        }
+
+        @Override
+        public int write(ByteBuffer source) {
+            int length = Math.min(accepted, source.remaining());
+            byte[] bytes = new byte[length];
+            source.get(bytes);
+            write(bytes, 0, length);
+            accepted -= length;
+            return length;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return true;
+        }
+    }
 }
@@ -0,0 +1,125 @@
+package sg.edu.nus.comp.cs4218.impl.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LineCounterTest {
+    private static final long SEED = 4218;
+
+    private static List<String> makeLines(int count, int distinct) {
+        Random random = new Random(SEED);
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            // skewed so that counts differ, with some lines that differ only in case or are empty
+            int word = (int) (distinct * Math.pow(random.nextDouble(), 2));
+            lines.add(word == 0 ? "" : (word % 2 == 0 ? "Line " : "line ") + word / 2);
+        }
+        return lines;
+    }
+
+    /**
+     * The counts of the lines in the order they are first seen, or by count from the highest.
+     */
+    private static List<String> countReference(List<String> lines, boolean isByCount) {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (String line : lines) {
+            counts.merge(line, 1L, Long::sum);
+        }
+        List<Map.Entry<String, Long>> entries = new ArrayList<>(counts.entrySet());
+        if (isByCount) {
+            // a stable sort keeps the order first seen for equal counts
+            entries.sort((entry1, entry2) -> Long.compare(entry2.getValue(), entry1.getValue()));
+        }
+        List<String> result = new ArrayList<>();
+        for (Map.Entry<String, Long> entry : entries) {
+            result.add(entry.getValue() + " " + entry.getKey());
+        }
+        return result;
+    }
+
+    private static List<String> count(List<String> lines, boolean isByCount, long memoryBudget,
+                                      boolean isSpilled) throws IOException {
+        byte[] input = (String.join("\n", lines) + "\n").getBytes(StandardCharsets.UTF_8);
+        List<String> result = new ArrayList<>();
+        try (LineCounter counter = new LineCounter(memoryBudget)) {
+            counter.addLines(new ByteArrayInputStream(input));
+            assertEquals(isSpilled, counter.isSpilled());
+            counter.forEachCount(isByCount, (bytes, offset, length, count) ->
+                    result.add(count + " " + new String(bytes, offset, length, StandardCharsets.UTF_8)));
+        }
+        return result;
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {true, false})
+    void forEachCount_FitsInMemory_MatchesReference(boolean isByCount) throws IOException {
+        List<String> lines = makeLines(20_000, 3000);
+        assertEquals(countReference(lines, isByCount), count(lines, isByCount, Long.MAX_VALUE, false));
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {true, false})
+    void forEachCount_Spilled_MatchesReference(boolean isByCount) throws IOException {
+        List<String> lines = makeLines(20_000, 3000);
+        // a few hundred distinct lines per spill
+        assertEquals(countReference(lines, isByCount), count(lines, isByCount, 16 * 1024, true));
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {true, false})
+    void forEachCount_PartitionsLargerThanBudget_SplitsThemAgain(boolean isByCount) throws IOException {
+        List<String> lines = makeLines(100_000, 60_000);
+        byte[] input = (String.join("\n", lines) + "\n").getBytes(StandardCharsets.UTF_8);
+        List<String> result = new ArrayList<>();
+        // far less than a thirty-second of the distinct lines
+        try (LineCounter counter = new LineCounter(8 * 1024)) {
+            counter.addLines(new ByteArrayInputStream(input));
+            counter.forEachCount(isByCount, (bytes, offset, length, count) ->
+                    result.add(count + " " + new String(bytes, offset, length, StandardCharsets.UTF_8)));
+            assertTrue(counter.getCountedPartitions() > LineCounter.PARTITION_COUNT);
+        }
+        assertEquals(countReference(lines, isByCount), result);
+    }
+
+    @Test
+    void forEachCount_NoLines_GivesNothing() throws IOException {
+        try (LineCounter counter = new LineCounter(Long.MAX_VALUE)) {
+            counter.addLines(new ByteArrayInputStream(new byte[0]));
+            counter.forEachCount(false, (bytes, offset, length, count) -> {
+                throw new AssertionError("no line expected");
+            });
+            assertFalse(counter.isSpilled());
+        }
+    }
+
+    @Test
+    void add_ManyDistinctLines_CountsEachOnce() throws IOException {
+        List<String> result = new ArrayList<>();
+        try (LineCounter counter = new LineCounter(Long.MAX_VALUE)) {
+            for (int i = 0; i < 100_000; i++) {
+                byte[] line = Integer.toString(i).getBytes(StandardCharsets.UTF_8);
+                counter.add(line, 0, line.length);
+            }
+            counter.forEachCount(false, (bytes, offset, length, count) ->
+                    result.add(count + " " + new String(bytes, offset, length, StandardCharsets.UTF_8)));
+        }
+        assertEquals(100_000, result.size());
+        assertEquals("1 0", result.get(0));
+        assertTrue(result.stream().allMatch(line -> line.startsWith("1 ")));
+        assertEquals("1 99999", result.get(result.size() - 1));
+    }
+}
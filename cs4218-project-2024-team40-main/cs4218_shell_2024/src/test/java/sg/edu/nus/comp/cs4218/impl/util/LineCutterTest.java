@@ -0,0 +1,147 @@
+package sg.edu.nus.comp.cs4218.impl.util;
+
+import org.junit.jupiter.api.Test;
+import sg.edu.nus.comp.cs4218.exception.RangeHelperException;
+import sg.edu.nus.comp.cs4218.impl.app.CutApplication;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static sg.edu.nus.comp.cs4218.impl.util.StringUtils.STRING_NEWLINE;
+
+class LineCutterTest {
+    private static byte[] cut(byte[] input, boolean isCharPo, int[]... ranges)
+            throws IOException, RangeHelperException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        new LineCutter(new RangeHelper(List.of(ranges)), isCharPo).cut(new ByteArrayInputStream(input), output);
+        return output.toByteArray();
+    }
+
+    private static String cut(String input, boolean isCharPo, int[]... ranges)
+            throws IOException, RangeHelperException {
+        return new String(cut(input.getBytes(StandardCharsets.UTF_8), isCharPo, ranges), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void cut_MixedTerminators_CutsEveryLineLikeLineReader() throws IOException, RangeHelperException {
+        assertEquals("ab" + STRING_NEWLINE + "cd" + STRING_NEWLINE + "e" + STRING_NEWLINE + STRING_NEWLINE
+                + "gh" + STRING_NEWLINE, cut("abc\ncde\r\ne\r\n\nghi", false, new int[]{1, 2}));
+        assertEquals("", cut("", false, new int[]{1, 2}));
+    }
+
+    @Test
+    void cut_TerminatorAcrossReads_CutsEveryLineLikeLineReader() throws IOException, RangeHelperException {
+        // "\r" ends one read and "\n" starts the next
+        InputStream input = new ByteArrayInputStream("ab\r\ncd".getBytes()) {
+            @Override
+            public synchronized int read(byte[] bytes, int offset, int length) {
+                return super.read(bytes, offset, Math.min(length, 3));
+            }
+        };
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        new LineCutter(new RangeHelper(List.of(new int[]{2, 2})), false).cut(input, output);
+        assertEquals("b" + STRING_NEWLINE + "d" + STRING_NEWLINE, output.toString());
+    }
+
+    @Test
+    void cut_ByBytes_WritesSelectedBytesUnchanged() throws IOException, RangeHelperException {
+        byte[] input = "£И€".getBytes(StandardCharsets.UTF_8);
+        byte[] expected = {(byte) 0xC2, (byte) 0xD0, (byte) 0x98};
+        byte[] newLine = STRING_NEWLINE.getBytes();
+        byte[] output = cut(input, false, new int[]{1, 1}, new int[]{3, 4});
+        assertArrayEquals(expected, Arrays.copyOf(output, expected.length));
+        assertEquals(expected.length + newLine.length, output.length);
+    }
+
+    @Test
+    void cut_ByCharsWithMultiByteCharacters_CutsCharacters() throws IOException, RangeHelperException {
+        assertEquals("£€𐍈" + STRING_NEWLINE + "acd" + STRING_NEWLINE,
+                cut("£И€𐍈\nabcd", true, new int[]{1, 1}, new int[]{3, 4}));
+        // a multi-byte character after the last selected position does not change the positions before it
+        assertEquals("ab" + STRING_NEWLINE, cut("abc€", true, new int[]{1, 2}));
+    }
+
+    @Test
+    void cut_LineLongerThanBuffer_CutsWholeLine() throws IOException, RangeHelperException {
+        String longLine = "x".repeat(200_000) + "yz";
+        assertEquals("xyz" + STRING_NEWLINE + "a" + STRING_NEWLINE,
+                cut(longLine + "\na", false, new int[]{1, 1}, new int[]{200_001, Integer.MAX_VALUE}));
+    }
+
+    @Test
+    void cut_RandomLines_SameAsCutFromLine() throws IOException, RangeHelperException {
+        Random random = new Random(4218);
+        String alphabet = "ab€£𐍈";
+        CutApplication application = new CutApplication(null, null);
+        for (int trial = 0; trial < 100; trial++) {
+            StringBuilder text = new StringBuilder();
+            List<String> lines = new ArrayList<>();
+            for (int i = random.nextInt(5); i >= 0; i--) {
+                StringBuilder line = new StringBuilder();
+                for (int j = random.nextInt(12); j > 0; j--) {
+                    line.appendCodePoint(alphabet.codePointAt(alphabet.offsetByCodePoints(0, random.nextInt(5))));
+                }
+                lines.add(line.toString());
+                text.append(line).append('\n');
+            }
+            int[] range = {1 + random.nextInt(8), 1 + random.nextInt(8)};
+            range[1] = Math.max(range[0], range[1]);
+            RangeHelper rangeHelper = new RangeHelper(List.of(range));
+            for (boolean isCharPo : new boolean[]{true, false}) {
+                StringBuilder expected = new StringBuilder();
+                for (String line : lines) {
+                    expected.append(application.cutFromLine(line, isCharPo, !isCharPo, rangeHelper));
+                }
+                assertEquals(expected.toString(), cut(text.toString(), isCharPo, range));
+            }
+        }
+    }
+
+    @Test
+    void cut_ByFields_WritesSelectedFieldsWithDelimiter() throws IOException, RangeHelperException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        RangeHelper ranges = new RangeHelper(List.of(new int[]{1, 1}, new int[]{3, 4}, new int[]{7, 7}));
+        String input = "a,b,c,d,e,f,g,h\n,,,\nno delimiter\na,b\n\n1,2,3";
+        new LineCutter(ranges, ',').cut(new ByteArrayInputStream(input.getBytes()), output);
+        assertEquals("a,c,d,g" + STRING_NEWLINE + ",," + STRING_NEWLINE + "no delimiter" + STRING_NEWLINE
+                + "a" + STRING_NEWLINE + STRING_NEWLINE + "1,3" + STRING_NEWLINE, output.toString());
+    }
+
+    @Test
+    void cut_ByFieldsWithWideLines_SameAsSplittingEachLine() throws IOException, RangeHelperException {
+        Random random = new Random(4218);
+        for (int trial = 0; trial < 100; trial++) {
+            StringBuilder text = new StringBuilder();
+            StringBuilder expected = new StringBuilder();
+            int[] range = {1 + random.nextInt(20), 1 + random.nextInt(20)};
+            range[1] = Math.max(range[0], range[1]);
+            for (int i = random.nextInt(5); i >= 0; i--) {
+                List<String> fields = new ArrayList<>();
+                for (int j = random.nextInt(25); j >= 0; j--) {
+                    fields.add("x".repeat(random.nextInt(12)));
+                }
+                text.append(String.join(";", fields)).append('\n');
+                if (fields.size() == 1) {
+                    expected.append(fields.get(0));
+                } else if (range[0] <= fields.size()) {
+                    expected.append(String.join(";", fields.subList(range[0] - 1,
+                            Math.min(range[1], fields.size()))));
+                }
+                expected.append(STRING_NEWLINE);
+            }
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            new LineCutter(new RangeHelper(List.of(range)), ';')
+                    .cut(new ByteArrayInputStream(text.toString().getBytes()), output);
+            assertEquals(expected.toString(), output.toString());
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package sg.edu.nus.comp.cs4218.impl.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class LineReaderTest {
+    private static final int SMALL_BUFFER = 2;
+
+    private static LineReader newReader(String text, int bufferSize) {
+        return new LineReader(new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8)),
+                StandardCharsets.UTF_8, bufferSize);
+    }
+
+    private static List<String> readAll(LineReader reader) throws IOException {
+        List<String> lines = new ArrayList<>();
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lines.add(line);
+        }
+        return lines;
+    }
+
+    @Test
+    void readLine_MixedTerminators_SplitsLikeBufferedReader() throws IOException {
+        String text = "a\nbc\r\nd\re\n\nf";
+        for (int bufferSize = 1; bufferSize <= text.length() + 1; bufferSize++) {
+            assertEquals(Arrays.asList("a", "bc", "d", "e", "", "f"), readAll(newReader(text, bufferSize)));
+        }
+    }
+
+    @Test
+    void readLine_TrailingNewline_NoEmptyLastLine() throws IOException {
+        assertEquals(Arrays.asList("a", "b"), readAll(newReader("a\nb\n", SMALL_BUFFER)));
+    }
+
+    @Test
+    void readLine_EmptyInput_ReturnsNull() throws IOException {
+        assertNull(newReader("", SMALL_BUFFER).readLine());
+    }
+
+    @Test
+    void readLine_LineLongerThanBuffer_GrowsBuffer() throws IOException {
+        char[] chars = new char[1000];
+        Arrays.fill(chars, 'é');
+        String line = new String(chars);
+        assertEquals(Arrays.asList(line, "x"), readAll(newReader(line + "\nx", SMALL_BUFFER)));
+    }
+
+    @Test
+    void readLine_FirstLineAvailable_DoesNotReadToEnd() throws IOException {
+        InputStream inputStream = spy(new ByteArrayInputStream("first\nsecond\nthird\n".getBytes()));
+        LineReader reader = new LineReader(inputStream, StandardCharsets.UTF_8, 8);
+        assertEquals("first", reader.readLine());
+        verify(inputStream, times(1)).read(any(byte[].class), anyInt(), anyInt());
+    }
+
+    @Test
+    void readLine_StreamReturnsZeroBytes_ThrowsIOException() throws IOException {
+        InputStream inputStream = mock(InputStream.class);
+        Throwable thrown = assertThrows(IOException.class, () -> new LineReader(inputStream).readLine());
+        assertEquals(LineReader.ERR_ZERO_BYTES, thrown.getMessage());
+    }
+
+    @Test
+    void next_NoMoreLines_ThrowsNoSuchElementException() {
+        LineReader reader = newReader("a", SMALL_BUFFER);
+        assertTrue(reader.hasNext());
+        assertEquals("a", reader.next());
+        assertFalse(reader.hasNext());
+        assertThrows(NoSuchElementException.class, reader::next);
+    }
+
+    @Test
+    void hasNext_StreamFails_ThrowsUncheckedIOException() throws IOException {
+        InputStream inputStream = mock(InputStream.class);
+        doThrow(new IOException()).when(inputStream).read(any(byte[].class), anyInt(), anyInt());
+        assertThrows(UncheckedIOException.class, () -> new LineReader(inputStream).hasNext());
+    }
+
+    @Test
+    void stream_Closed_ClosesInputStream() throws IOException {
+        InputStream inputStream = spy(new ByteArrayInputStream("a\nb".getBytes()));
+        try (Stream<String> lines = IOUtils.lines(inputStream)) {
+            assertEquals("a,b", lines.collect(Collectors.joining(",")));
+        }
+        verify(inputStream).close();
+    }
+}
@@ -0,0 +1,97 @@
+package sg.edu.nus.comp.cs4218.impl.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+class LiteralLineReaderTest {
+    private static final byte[] PIECES = {'a', 'b', 'A', '\n', '\r', (byte) 0xC3, (byte) 0xA9, (byte) 0xFF};
+
+    private static List<String> readAll(byte[] input, String literal, boolean isCaseInsensitive, int bufferSize)
+            throws IOException {
+        List<String> lines = new ArrayList<>();
+        try (LiteralLineReader reader = new LiteralLineReader(new ByteArrayInputStream(input),
+                new LiteralMatcher(literal, isCaseInsensitive), bufferSize)) {
+            String line;
+            while ((line = reader.readMatchingLine()) != null) {
+                lines.add(line);
+            }
+        }
+        return lines;
+    }
+
+    /**
+     * The lines a LineReader reads that the literal regex is found in.
+     */
+    private static List<String> readReference(byte[] input, String literal, boolean isCaseInsensitive)
+            throws IOException {
+        Pattern pattern = Pattern.compile(literal, isCaseInsensitive ? Pattern.CASE_INSENSITIVE : 0);
+        List<String> lines = new ArrayList<>();
+        LineReader reader = new LineReader(new ByteArrayInputStream(input));
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (pattern.matcher(line).find()) {
+                lines.add(line);
+            }
+        }
+        return lines;
+    }
+
+    @Test
+    void readMatchingLine_MixedTerminators_OnlyMatchingLines() throws IOException {
+        byte[] input = "one match\r\ntwo\rmatch three\n\nmatch".getBytes(StandardCharsets.UTF_8);
+        for (int bufferSize = 1; bufferSize <= input.length + 1; bufferSize++) {
+            assertEquals(Arrays.asList("one match", "match three", "match"),
+                    readAll(input, "match", false, bufferSize));
+        }
+    }
+
+    @Test
+    void readMatchingLine_RandomInput_SameAsFilteringLineReader() throws IOException {
+        Random random = new Random(4218);
+        String[] literals = {"a", "ab", "é", "aé", "bAb"};
+        for (int i = 0; i < 500; i++) {
+            byte[] input = new byte[random.nextInt(200)];
+            for (int j = 0; j < input.length; j++) {
+                input[j] = PIECES[random.nextInt(PIECES.length)];
+            }
+            String literal = literals[random.nextInt(literals.length)];
+            boolean isCaseInsensitive = random.nextBoolean();
+            int bufferSize = 1 + random.nextInt(16);
+            assertEquals(readReference(input, literal, isCaseInsensitive),
+                    readAll(input, literal, isCaseInsensitive, bufferSize), literal + " with " + bufferSize);
+        }
+    }
+
+    @Test
+    void readMatchingLine_ZeroBytesRead_ThrowsIOException() throws IOException {
+        InputStream input = mock(InputStream.class);
+        doReturn(0).when(input).read(any(), anyInt(), anyInt());
+        LiteralLineReader reader = new LiteralLineReader(input, new LiteralMatcher("a", false));
+        IOException exception = assertThrows(IOException.class, reader::readMatchingLine);
+        assertEquals(LineReader.ERR_ZERO_BYTES, exception.getMessage());
+    }
+
+    @Test
+    void close_ClosesInputStream() throws IOException {
+        InputStream input = mock(InputStream.class);
+        new LiteralLineReader(input, new LiteralMatcher("a", false)).close();
+        verify(input).close();
+    }
+}
@@ -0,0 +1,76 @@
+package sg.edu.nus.comp.cs4218.impl.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LiteralMatcherTest {
+    private static final String ALPHABET = "abAB é€K";
+
+    private static String randomText(Random random, int length) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            text.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+        }
+        return text.toString();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"a", "hello world", "é", "x-y,z:1=2", "😀"})
+    void isLiteral_NoMetacharacters_ReturnsTrue(String pattern) {
+        assertTrue(LiteralMatcher.isLiteral(pattern));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"", "a.b", "^a", "a$", "a|b", "a?", "a*", "a+", "(a)", "[a]", "a{2}", "\\d", "a\nb",
+        "a\rb", "\uFFFD", "\uD800"})
+    void isLiteral_MetacharacterOrUnencodable_ReturnsFalse(String pattern) {
+        assertFalse(LiteralMatcher.isLiteral(pattern));
+    }
+
+    @Test
+    void indexOf_RandomText_SameAsStringIndexOf() {
+        Random random = new Random(4218);
+        for (int i = 0; i < 2000; i++) {
+            String literal = randomText(random, 1 + random.nextInt(4));
+            String text = randomText(random, random.nextInt(40));
+            byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+            int index = new LiteralMatcher(literal, false).indexOf(bytes, 0, bytes.length);
+            int expected = text.indexOf(literal);
+            int actual = index < 0 ? -1 : new String(bytes, 0, index, StandardCharsets.UTF_8).length();
+            assertEquals(expected, actual, literal + " in " + text);
+        }
+    }
+
+    @Test
+    void indexOf_CaseInsensitive_SameAsRegex() {
+        Random random = new Random(4218);
+        for (int i = 0; i < 2000; i++) {
+            String literal = randomText(random, 1 + random.nextInt(4));
+            String text = randomText(random, random.nextInt(40));
+            byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+            int index = new LiteralMatcher(literal, true).indexOf(bytes, 0, bytes.length);
+            Matcher matcher = Pattern.compile(literal, Pattern.CASE_INSENSITIVE).matcher(text);
+            int expected = matcher.find() ? matcher.start() : -1;
+            int actual = index < 0 ? -1 : new String(bytes, 0, index, StandardCharsets.UTF_8).length();
+            assertEquals(expected, actual, literal + " in " + text);
+        }
+    }
+
+    @Test
+    void indexOf_Range_OnlyFindsWithinRange() {
+        byte[] bytes = "abcabc".getBytes(StandardCharsets.UTF_8);
+        LiteralMatcher matcher = new LiteralMatcher("abc", false);
+        assertEquals(3, matcher.indexOf(bytes, 1, 6));
+        assertEquals(-1, matcher.indexOf(bytes, 1, 5));
+    }
+}
@@ -0,0 +1,71 @@
+package sg.edu.nus.comp.cs4218.impl.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MappedChunksTest {
+    private static final byte[] ALPHABET = {'a', 'b', '\r', '\n', (byte) 0xC3, (byte) 0xA9};
+
+    private static List<String> readLines(InputStream input) throws IOException {
+        List<String> lines = new ArrayList<>();
+        LineReader reader = new LineReader(input);
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lines.add(line);
+        }
+        return lines;
+    }
+
+    @Test
+    void split_RandomLines_ChunksReadSameLinesAsFile(@TempDir Path tempDir) throws IOException {
+        Random random = new Random(4218);
+        for (int round = 0; round < 50; round++) {
+            byte[] bytes = new byte[random.nextInt(300)];
+            for (int i = 0; i < bytes.length; i++) {
+                bytes[i] = ALPHABET[random.nextInt(ALPHABET.length)];
+            }
+            Path file = Files.write(tempDir.resolve("chunks.txt"), bytes);
+            int chunkSize = 1 + random.nextInt(20);
+            try (FileChannel channel = FileChannel.open(file)) {
+                long[] boundaries = MappedChunks.split(channel, bytes.length, chunkSize);
+                List<String> lines = new ArrayList<>();
+                for (int i = 0; i + 1 < boundaries.length; i++) {
+                    assertTrue(boundaries[i + 1] - boundaries[i] >= Math.min(chunkSize, bytes.length - boundaries[i]));
+                    lines.addAll(readLines(MappedChunks.open(channel, boundaries[i], boundaries[i + 1])));
+                }
+                assertEquals(bytes.length, boundaries[boundaries.length - 1]);
+                assertEquals(readLines(new ByteArrayInputStream(bytes)), lines);
+            }
+        }
+    }
+
+    @Test
+    void split_CarriageReturnLineFeedAtBoundary_KeptTogether(@TempDir Path tempDir) throws IOException {
+        Path file = Files.write(tempDir.resolve("crlf.txt"), "ab\r\ncd\re\nf".getBytes());
+        try (FileChannel channel = FileChannel.open(file)) {
+            assertArrayEquals(new long[]{0, 4, 7, 10}, MappedChunks.split(channel, 10, 3));
+        }
+    }
+
+    @Test
+    void split_EmptyFile_NoChunks(@TempDir Path tempDir) throws IOException {
+        Path file = Files.write(tempDir.resolve("empty.txt"), new byte[0]);
+        try (FileChannel channel = FileChannel.open(file)) {
+            assertArrayEquals(new long[]{0}, MappedChunks.split(channel, 0, 3));
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package sg.edu.nus.comp.cs4218.impl.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class PackedLinesTest {
+    private static PackedLines pack(String text) throws IOException {
+        PackedLines lines = new PackedLines();
+        lines.addLines(new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8)));
+        return lines;
+    }
+
+    private static List<String> toStrings(PackedLines lines) {
+        List<String> strings = new ArrayList<>();
+        for (int i = 0; i < lines.size(); i++) {
+            strings.add(lines.getString(i));
+        }
+        return strings;
+    }
+
+    @Test
+    void addLines_MixedTerminators_SplitsLikeLineReader() throws IOException {
+        assertEquals(Arrays.asList("a", "bc", "d", "e", "", "f"), toStrings(pack("a\nbc\r\nd\re\n\nf")));
+        assertEquals(Arrays.asList("a", "b"), toStrings(pack("a\nb\n")));
+        assertEquals(Arrays.asList("", ""), toStrings(pack("\r\n\r")));
+        assertEquals(0, pack("").size());
+    }
+
+    @Test
+    void addLines_TerminatorAcrossReads_SplitsLikeLineReader() throws IOException {
+        // "\r" ends one read and "\n" starts the next
+        InputStream input = new ByteArrayInputStream("a\r\nb".getBytes()) {
+            @Override
+            public synchronized int read(byte[] bytes, int offset, int length) {
+                return super.read(bytes, offset, Math.min(length, 2));
+            }
+        };
+        PackedLines lines = new PackedLines();
+        lines.addLines(input);
+        assertEquals(Arrays.asList("a", "b"), toStrings(lines));
+    }
+
+    @Test
+    void addLines_LinesLongerThanSlabs_KeepsEveryLine() throws IOException {
+        char[] chars = new char[PackedLines.MAX_SLAB_SIZE + 5];
+        Arrays.fill(chars, 'x');
+        String longLine = new String(chars);
+        List<String> expected = new ArrayList<>();
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 3000; i++) {
+            String line = i % 1000 == 0 ? longLine : "line" + i;
+            expected.add(line);
+            text.append(line).append('\n');
+        }
+        PackedLines lines = pack(text.toString());
+        assertEquals(expected, toStrings(lines));
+    }
+
+    @Test
+    void addLines_StreamReturnsZeroBytes_ThrowsIOException() {
+        Throwable thrown = assertThrows(IOException.class, () -> new PackedLines().addLines(mock(InputStream.class)));
+        assertEquals(LineReader.ERR_ZERO_BYTES, thrown.getMessage());
+    }
+
+    @Test
+    void isEqual_SameAndDifferentBytes_ComparesBytes() throws IOException {
+        PackedLines lines = pack("ab\nab\nAb\na");
+        assertTrue(lines.isEqual(0, 1));
+        assertFalse(lines.isEqual(0, 2));
+        assertFalse(lines.isEqual(0, 3));
+    }
+
+    @Test
+    void write_Line_WritesBytesWithoutTerminator() throws IOException {
+        PackedLines lines = pack("é\nb");
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        lines.write(0, output);
+        assertEquals("é", output.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void sort_Reverse_ReversesStableAscendingOrder() throws IOException {
+        PackedLines lines = pack("b\nA\na\nc\nB");
+        ByteLineComparator comparator = new ByteLineComparator(true, false);
+        assertArrayEquals(new int[]{1, 2, 0, 4, 3}, lines.sort(comparator, false, 1));
+        assertArrayEquals(new int[]{3, 4, 0, 2, 1}, lines.sort(comparator, true, 1));
+    }
+
+    @Test
+    void clear_AfterLines_RemovesLines() throws IOException {
+        PackedLines lines = pack("a\nb");
+        lines.clear();
+        assertEquals(0, lines.size());
+        assertEquals(0, lines.estimateSize());
+        lines.addLines(new ByteArrayInputStream("c".getBytes()));
+        assertEquals(List.of("c"), toStrings(lines));
+    }
+}
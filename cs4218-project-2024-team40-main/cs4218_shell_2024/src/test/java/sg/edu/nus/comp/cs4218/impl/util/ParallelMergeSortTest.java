@@ -0,0 +1,77 @@
+package sg.edu.nus.comp.cs4218.impl.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ParallelMergeSortTest {
+    private static final long SEED = 4218;
+    // compares only the first character, so that stability is visible in the output
+    private static final Comparator<String> FIRST_CHAR = Comparator.comparing(value -> value.charAt(0));
+
+    private static String[] makeValues(int count) {
+        Random random = new Random(SEED);
+        String[] values = new String[count];
+        for (int i = 0; i < count; i++) {
+            values[i] = (char) ('a' + random.nextInt(26)) + String.valueOf(i);
+        }
+        return values;
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 2, 3, 8})
+    void sort_ManyEqualElements_SameAsSequentialStableSort(int parallelism) {
+        String[] values = makeValues(10 * ParallelMergeSort.MIN_PARALLEL_LENGTH + 3);
+        String[] expected = values.clone();
+        Arrays.sort(expected, FIRST_CHAR);
+        ParallelMergeSort.sort(values, FIRST_CHAR, parallelism);
+        assertArrayEquals(expected, values);
+    }
+
+    @Test
+    void sort_AlreadySorted_Unchanged() {
+        String[] values = makeValues(4 * ParallelMergeSort.MIN_PARALLEL_LENGTH);
+        Arrays.sort(values, FIRST_CHAR);
+        String[] expected = values.clone();
+        ParallelMergeSort.sort(values, FIRST_CHAR, 4);
+        assertArrayEquals(expected, values);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 3})
+    void sort_IntIndices_SameAsSequentialStableSort(int parallelism) {
+        String[] values = makeValues(5 * ParallelMergeSort.MIN_PARALLEL_LENGTH + 1);
+        Integer[] expected = new Integer[values.length];
+        int[] indices = new int[values.length];
+        for (int i = 0; i < values.length; i++) {
+            expected[i] = i;
+            indices[i] = i;
+        }
+        Arrays.sort(expected, (index1, index2) -> FIRST_CHAR.compare(values[index1], values[index2]));
+        ParallelMergeSort.sort(indices, (index1, index2) -> FIRST_CHAR.compare(values[index1], values[index2]),
+                parallelism);
+        assertArrayEquals(Arrays.stream(expected).mapToInt(Integer::intValue).toArray(), indices);
+    }
+
+    @Test
+    void getPool_SameParallelism_ReusesPool() {
+        assertSame(ParallelMergeSort.getPool(3), ParallelMergeSort.getPool(3));
+        assertSame(ForkJoinPool.commonPool(), ParallelMergeSort.getPool(ForkJoinPool.getCommonPoolParallelism()));
+        assertEquals(5, ParallelMergeSort.getPool(5).getParallelism());
+    }
+
+    @Test
+    void sort_NonPositiveParallelism_ThrowsException() {
+        assertThrows(IllegalArgumentException.class, () -> ParallelMergeSort.sort(new String[0], FIRST_CHAR, 0));
+    }
+}
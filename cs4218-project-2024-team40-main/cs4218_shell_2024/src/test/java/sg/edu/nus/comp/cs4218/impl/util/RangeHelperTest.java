@@ -5,6 +5,8 @@ import org.junit.jupiter.api.Test;
 import sg.edu.nus.comp.cs4218.exception.RangeHelperException;
 
 import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -167,4 +169,104 @@ public class RangeHelperTest {
         assertFalse(rangeHelper.contains(0));
         assertFalse(rangeHelper.contains(8));
     }
+
+    /**
+     * Get spans given overlapping and touching ranges returns merged spans.
+     *
+     * @throws RangeHelperException the range helper exception
+     */
+    @Test
+    void getSpans_GivenOverlappingAndTouchingRanges_ReturnsMergedSpans() throws RangeHelperException {
+        ArrayList<int[]> ranges = new ArrayList<>();
+        ranges.add(new int[]{9, 9});
+        ranges.add(new int[]{3, 4});
+        ranges.add(new int[]{2, 7});
+        ranges.add(new int[]{8, 8});
+        ranges.add(new int[]{12, 15});
+        rangeHelper = new RangeHelper(ranges);
+        List<int[]> spans = rangeHelper.getSpans();
+        assertEquals(2, spans.size());
+        assertArrayEquals(new int[]{2, 9}, spans.get(0));
+        assertArrayEquals(new int[]{12, 15}, spans.get(1));
+        assertEquals(5, rangeHelper.size());
+    }
+
+    /**
+     * Add given range merges it into spans.
+     *
+     * @throws RangeHelperException the range helper exception
+     */
+    @Test
+    void add_GivenRange_MergesItIntoSpans() throws RangeHelperException {
+        rangeHelper = new RangeHelper(List.of(new int[]{1, 2}, new int[]{5, 6}));
+        assertFalse(rangeHelper.contains(3));
+        rangeHelper.add(new int[]{3, 4});
+        assertTrue(rangeHelper.contains(3));
+        assertEquals(1, rangeHelper.getSpans().size());
+        assertArrayEquals(new int[]{1, 6}, rangeHelper.getSpans().get(0));
+    }
+
+    /**
+     * Contains given open ended range returns true after its start.
+     *
+     * @throws RangeHelperException the range helper exception
+     */
+    @Test
+    void contains_GivenOpenEndedRange_ReturnsTrueAfterItsStart() throws RangeHelperException {
+        rangeHelper = new RangeHelper(List.of(new int[]{2, 3}, new int[]{10, Integer.MAX_VALUE}));
+        assertTrue(rangeHelper.contains(2));
+        assertFalse(rangeHelper.contains(9));
+        assertTrue(rangeHelper.contains(10));
+        assertTrue(rangeHelper.contains(1_000_000));
+        assertTrue(rangeHelper.contains(Integer.MAX_VALUE));
+        assertFalse(rangeHelper.contains(-1));
+    }
+
+    /**
+     * Contains given ranges far beyond the indexed positions returns true only within them.
+     *
+     * @throws RangeHelperException the range helper exception
+     */
+    @Test
+    void contains_GivenVeryLargePositions_ReturnsTrueOnlyWithinThem() throws RangeHelperException {
+        int large = 2_000_000_000;
+        rangeHelper = new RangeHelper(List.of(new int[]{large, large}, new int[]{3, 5},
+                new int[]{RangeHelper.MAX_INDEXED_LENGTH - 2, RangeHelper.MAX_INDEXED_LENGTH + 2}));
+        assertTrue(rangeHelper.contains(large));
+        assertFalse(rangeHelper.contains(large - 1));
+        assertFalse(rangeHelper.contains(large + 1));
+        assertTrue(rangeHelper.contains(4));
+        assertFalse(rangeHelper.contains(6));
+        assertTrue(rangeHelper.contains(RangeHelper.MAX_INDEXED_LENGTH - 1));
+        assertTrue(rangeHelper.contains(RangeHelper.MAX_INDEXED_LENGTH));
+        assertTrue(rangeHelper.contains(RangeHelper.MAX_INDEXED_LENGTH + 2));
+        assertFalse(rangeHelper.contains(RangeHelper.MAX_INDEXED_LENGTH + 3));
+    }
+
+    /**
+     * Contains given random ranges returns same as checking each range.
+     *
+     * @throws RangeHelperException the range helper exception
+     */
+    @Test
+    void contains_GivenRandomRanges_ReturnsSameAsCheckingEachRange() throws RangeHelperException {
+        Random random = new Random(4218);
+        for (int trial = 0; trial < 200; trial++) {
+            List<int[]> ranges = new ArrayList<>();
+            int count = 1 + random.nextInt(8);
+            for (int i = 0; i < count; i++) {
+                int start = random.nextInt(60);
+                int end = random.nextInt(10) == 0 ? Integer.MAX_VALUE : start + random.nextInt(10);
+                ranges.add(new int[]{start, end});
+            }
+            rangeHelper = new RangeHelper(ranges);
+            for (int number = -2; number < 100; number++) {
+                boolean isInRange = false;
+                for (int[] range : ranges) {
+                    isInRange |= number >= range[0] && number <= range[1];
+                }
+                assertEquals(isInRange, rangeHelper.contains(number));
+            }
+        }
+    }
 }
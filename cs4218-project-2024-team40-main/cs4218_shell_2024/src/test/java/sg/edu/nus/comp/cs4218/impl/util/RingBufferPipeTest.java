@@ -0,0 +1,155 @@
+package sg.edu.nus.comp.cs4218.impl.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for RingBufferPipe
+ */
+class RingBufferPipeTest {
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 3, 64, 100})
+    void getCapacity_AnyPositiveCapacity_RoundsUpToPowerOfTwo(int capacity) {
+        int actual = new RingBufferPipe(capacity).getCapacity();
+        assertTrue(actual >= capacity);
+        assertEquals(1, Integer.bitCount(actual));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, -1})
+    void ringBufferPipe_NonPositiveCapacity_ThrowsException(int capacity) {
+        Throwable thrown = assertThrows(IllegalArgumentException.class, () -> new RingBufferPipe(capacity));
+        assertEquals(RingBufferPipe.ERR_INVALID_CAPACITY, thrown.getMessage());
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {RingBufferPipe.MAX_CAPACITY + 1, Integer.MAX_VALUE})
+    void ringBufferPipe_CapacityAboveMaximum_ThrowsException(int capacity) {
+        Throwable thrown = assertThrows(IllegalArgumentException.class, () -> new RingBufferPipe(capacity));
+        assertEquals(RingBufferPipe.ERR_CAPACITY_TOO_LARGE, thrown.getMessage());
+    }
+
+    @Test
+    void read_WriterClosedAfterWriting_ReturnsDataThenEndOfStream() throws IOException {
+        RingBufferPipe pipe = new RingBufferPipe(16);
+        OutputStream output = pipe.getOutputStream();
+        output.write("abc".getBytes());
+        output.write('d');
+        output.close();
+
+        InputStream input = pipe.getInputStream();
+        assertEquals(4, input.available());
+        assertEquals('a', input.read());
+        byte[] rest = new byte[8];
+        assertEquals(3, input.read(rest, 0, rest.length));
+        assertEquals("bcd", new String(rest, 0, 3));
+        assertEquals(-1, input.read());
+    }
+
+    @Test
+    void read_DataLargerThanCapacityFromAnotherThread_ReceivesAllBytesInOrder() throws Exception {
+        byte[] data = new byte[1_000_003];
+        new Random(4218).nextBytes(data);
+        RingBufferPipe pipe = new RingBufferPipe(1024);
+        AtomicReference<Exception> writerException = new AtomicReference<>();
+
+        Thread writer = new Thread(() -> {
+            try (OutputStream output = pipe.getOutputStream()) {
+                for (int offset = 0; offset < data.length; offset += 777) {
+                    output.write(data, offset, Math.min(777, data.length - offset));
+                }
+            } catch (IOException e) {
+                writerException.set(e);
+            }
+        });
+        writer.start();
+        ByteArrayOutputStream received = new ByteArrayOutputStream();
+        pipe.getInputStream().transferTo(received);
+        writer.join();
+
+        assertNull(writerException.get());
+        assertArrayEquals(data, received.toByteArray());
+    }
+
+    @Test
+    void write_ReaderClosedWhileWriterWaits_ThrowsAndMarksBroken() throws Exception {
+        RingBufferPipe pipe = new RingBufferPipe(4);
+        AtomicReference<Exception> writerException = new AtomicReference<>();
+
+        Thread writer = new Thread(() -> {
+            try {
+                pipe.getOutputStream().write(new byte[64]);
+            } catch (IOException e) {
+                writerException.set(e);
+            }
+        });
+        writer.start();
+        pipe.getInputStream().close();
+        writer.join();
+
+        assertNotNull(writerException.get());
+        assertTrue(pipe.isBroken());
+    }
+
+    @Test
+    @Timeout(10)
+    void read_SingleByteWithoutFlush_WakesParkedReader() throws Exception {
+        RingBufferPipe pipe = new RingBufferPipe(1024);
+        AtomicReference<Integer> received = new AtomicReference<>();
+        Thread reader = new Thread(() -> {
+            try {
+                received.set(pipe.getInputStream().read());
+            } catch (IOException e) {
+                received.set(-2);
+            }
+        });
+        reader.start();
+        // the reader is parked by the time the byte is written, and nothing wakes it but the write
+        while (reader.getState() != Thread.State.WAITING) {
+            Thread.sleep(1);
+        }
+        pipe.getOutputStream().write('x');
+        reader.join();
+        assertEquals('x', received.get());
+    }
+
+    @Test
+    @Timeout(10)
+    void read_ReaderInterruptedWhileWaiting_ThrowsInterruptedIOException() throws Exception {
+        RingBufferPipe pipe = new RingBufferPipe(4);
+        AtomicReference<Exception> readerException = new AtomicReference<>();
+        Thread reader = new Thread(() -> {
+            try {
+                pipe.getInputStream().read();
+            } catch (IOException e) {
+                readerException.set(e);
+            }
+        });
+        reader.start();
+        reader.interrupt();
+        reader.join();
+        assertTrue(readerException.get() instanceof InterruptedIOException);
+    }
+
+    @Test
+    void read_ReaderClosed_ThrowsException() throws IOException {
+        RingBufferPipe pipe = new RingBufferPipe(4);
+        InputStream input = pipe.getInputStream();
+        input.close();
+        assertThrows(IOException.class, input::read);
+        assertFalse(pipe.isBroken());
+    }
+}
@@ -0,0 +1,88 @@
+package sg.edu.nus.comp.cs4218.impl.util;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SortKeyTest {
+    private static final long SEED = 4218;
+    private static final String[] PARTS = {"", "a", "B", "-", "0", "7", "9", "-12", "007", " ", "x1",
+        "123456789012345678", "1234567890123456789", "-99999999999999999999", "٣"};
+
+    private static List<String> makeLines(int count) {
+        Random random = new Random(SEED);
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            StringBuilder line = new StringBuilder();
+            int parts = random.nextInt(4);
+            for (int j = 0; j < parts; j++) {
+                line.append(PARTS[random.nextInt(PARTS.length)]);
+            }
+            lines.add(line.toString());
+        }
+        return lines;
+    }
+
+    /**
+     * The comparator sort used before sort keys, which parses the lines on every comparison, kept as the
+     * reference.
+     */
+    private static int compareReference(String str1, String str2, boolean isCaseIndependent,
+                                        boolean isFirstWordNumber) {
+        String temp1 = isCaseIndependent ? str1.toLowerCase(Locale.ENGLISH) : str1;
+        String temp2 = isCaseIndependent ? str2.toLowerCase(Locale.ENGLISH) : str2;
+        if (!isFirstWordNumber || temp1.isEmpty() || temp2.isEmpty()) {
+            return temp1.compareTo(temp2);
+        }
+        String chunk1 = getChunk(temp1);
+        String chunk2 = getChunk(temp2);
+        BigInteger int1 = isNumber(chunk1) ? new BigInteger(chunk1) : BigInteger.ZERO;
+        BigInteger int2 = isNumber(chunk2) ? new BigInteger(chunk2) : BigInteger.ZERO;
+        return int1.equals(int2) ? temp1.compareTo(temp2) : int1.compareTo(int2);
+    }
+
+    private static String getChunk(String str) {
+        if (!isNumber(str)) {
+            return str.substring(0, 1);
+        }
+        int end = 1;
+        while (end < str.length() && Character.isDigit(str.charAt(end))) {
+            end++;
+        }
+        return str.substring(0, end);
+    }
+
+    private static boolean isNumber(String str) {
+        char chr = str.charAt(0);
+        return Character.isDigit(chr) || (chr == '-' && str.length() > 1 && Character.isDigit(str.charAt(1)));
+    }
+
+    @ParameterizedTest
+    @CsvSource({"false, false", "true, false", "false, true", "true, true"})
+    void compareTo_AllPairs_SameOrderAsReference(boolean isCaseIndependent, boolean isFirstWordNumber) {
+        List<String> lines = makeLines(300);
+        for (String line1 : lines) {
+            SortKey key1 = SortKey.of(line1, isCaseIndependent, isFirstWordNumber);
+            for (String line2 : lines) {
+                SortKey key2 = SortKey.of(line2, isCaseIndependent, isFirstWordNumber);
+                assertEquals(Integer.signum(compareReference(line1, line2, isCaseIndependent, isFirstWordNumber)),
+                        Integer.signum(key1.compareTo(key2)), line1 + " vs " + line2);
+            }
+        }
+    }
+
+    @ParameterizedTest
+    @CsvSource({"999999999999999999, 1000000000000000000", "-1000000000000000000, -999999999999999999",
+        "-99999999999999999999, 5", "0000000000000000000001, 2"})
+    void compareTo_NumbersAroundLongLimit_OrdersByValue(String smaller, String larger) {
+        assertEquals(-1, Integer.signum(SortKey.of(smaller, false, true).compareTo(SortKey.of(larger, false, true))));
+        assertEquals(1, Integer.signum(SortKey.of(larger, false, true).compareTo(SortKey.of(smaller, false, true))));
+    }
+}
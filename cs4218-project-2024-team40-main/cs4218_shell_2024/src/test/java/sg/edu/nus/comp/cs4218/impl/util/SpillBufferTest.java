@@ -0,0 +1,133 @@
+package sg.edu.nus.comp.cs4218.impl.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SpillBufferTest {
+    private static final int THRESHOLD = 1024;
+    private static final long BUDGET = 1024 * 1024;
+
+    private SpillBuffer spillBuffer;
+
+    @AfterEach
+    void tearDown() throws IOException {
+        if (spillBuffer != null) {
+            spillBuffer.close();
+        }
+    }
+
+    private static byte[] makeBytes(int length) {
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = (byte) (i * 31);
+        }
+        return bytes;
+    }
+
+    @Test
+    void write_BelowThreshold_StaysInMemory() throws IOException {
+        spillBuffer = new SpillBuffer(THRESHOLD, BUDGET);
+        byte[] bytes = makeBytes(THRESHOLD);
+        spillBuffer.write(bytes);
+
+        assertFalse(spillBuffer.isSpilled());
+        assertEquals(THRESHOLD, spillBuffer.size());
+        try (InputStream inputStream = spillBuffer.getInputStream()) {
+            assertArrayEquals(bytes, inputStream.readAllBytes());
+        }
+    }
+
+    @Test
+    void write_AboveThreshold_SpillsAndReadsBackSameBytes() throws IOException {
+        spillBuffer = new SpillBuffer(THRESHOLD, BUDGET);
+        long spilledBytes = SpillBuffer.getSpilledBytes();
+        long spillCount = SpillBuffer.getSpillCount();
+        byte[] bytes = makeBytes(200 * 1024 + 3);
+        spillBuffer.write(bytes, 0, 100);
+        spillBuffer.write(bytes[100]);
+        spillBuffer.write(bytes, 101, bytes.length - 101);
+
+        assertTrue(spillBuffer.isSpilled());
+        assertEquals(bytes.length, spillBuffer.size());
+        try (InputStream inputStream = spillBuffer.getInputStream()) {
+            assertArrayEquals(bytes, inputStream.readAllBytes());
+        }
+        assertEquals(spillCount + 1, SpillBuffer.getSpillCount());
+        assertEquals(spilledBytes + bytes.length, SpillBuffer.getSpilledBytes());
+    }
+
+    @Test
+    void write_SingleBytesPastThreshold_ReadsBackSingleBytes() throws IOException {
+        spillBuffer = new SpillBuffer(THRESHOLD, BUDGET);
+        byte[] bytes = makeBytes(3 * THRESHOLD + 7);
+        InputStream inputStream = spillBuffer.getInputStream();
+        for (int i = 0; i < bytes.length; i++) {
+            spillBuffer.write(bytes[i]);
+            if (i == THRESHOLD / 2) {
+                assertEquals(bytes[0] & 0xFF, inputStream.read());
+            }
+        }
+
+        assertTrue(spillBuffer.isSpilled());
+        assertEquals(bytes.length, spillBuffer.size());
+        for (int i = 1; i < bytes.length; i++) {
+            assertEquals(bytes[i] & 0xFF, inputStream.read());
+        }
+        assertEquals(-1, inputStream.read());
+    }
+
+    @Test
+    void write_MemoryBudgetUsedUp_Spills() throws IOException {
+        try (SpillBuffer other = new SpillBuffer(THRESHOLD, SpillBuffer.getMemoryInUse() + THRESHOLD)) {
+            other.write(makeBytes(THRESHOLD));
+            spillBuffer = new SpillBuffer(THRESHOLD, SpillBuffer.getMemoryInUse() + 1);
+            spillBuffer.write(makeBytes(2));
+
+            assertFalse(other.isSpilled());
+            assertTrue(spillBuffer.isSpilled());
+        }
+    }
+
+    @Test
+    void close_InMemory_ReleasesMemory() throws IOException {
+        long memoryInUse = SpillBuffer.getMemoryInUse();
+        spillBuffer = new SpillBuffer(THRESHOLD, BUDGET);
+        spillBuffer.write(makeBytes(10));
+        assertTrue(SpillBuffer.getMemoryInUse() > memoryInUse);
+
+        spillBuffer.close();
+        assertEquals(memoryInUse, SpillBuffer.getMemoryInUse());
+        assertThrows(IOException.class, () -> spillBuffer.write(1));
+        assertThrows(IOException.class, () -> spillBuffer.getInputStream());
+    }
+
+    @Test
+    void getInputStream_WrittenAfterOpening_ReadsNewBytes() throws IOException {
+        spillBuffer = new SpillBuffer(THRESHOLD, BUDGET);
+        byte[] bytes = makeBytes(3 * THRESHOLD);
+        spillBuffer.write(bytes, 0, THRESHOLD);
+        InputStream inputStream = spillBuffer.getInputStream();
+        spillBuffer.write(bytes, THRESHOLD, 2 * THRESHOLD);
+
+        assertArrayEquals(bytes, inputStream.readAllBytes());
+    }
+
+    @Test
+    void toString_Spilled_DecodesWholeBuffer() throws IOException {
+        spillBuffer = new SpillBuffer(0, BUDGET);
+        char[] chars = new char[5000];
+        Arrays.fill(chars, 'é');
+        String text = new String(chars);
+        spillBuffer.write(text.getBytes(StandardCharsets.UTF_8));
+
+        assertTrue(spillBuffer.isSpilled());
+        assertEquals(text, spillBuffer.toString(StandardCharsets.UTF_8));
+    }
+}
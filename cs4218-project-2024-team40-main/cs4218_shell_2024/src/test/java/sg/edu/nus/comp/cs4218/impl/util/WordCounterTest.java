@@ -0,0 +1,117 @@
+package sg.edu.nus.comp.cs4218.impl.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class WordCounterTest {
+    private static final byte[] ALPHABET = {'a', 'b', ' ', '\n', '\t', '\r', 0x1C, (byte) 0xE2, (byte) 0x80};
+    private static final long SEED = 4218;
+
+    private final long parallelThreshold = ShellSettings.wcParallelThreshold;
+
+    @AfterEach
+    void tearDown() {
+        ShellSettings.wcParallelThreshold = parallelThreshold;
+    }
+
+    private static byte[] makeBytes(int length) {
+        Random random = new Random(SEED);
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = ALPHABET[random.nextInt(ALPHABET.length)];
+        }
+        return bytes;
+    }
+
+    /**
+     * The byte by byte scan wc used before chunked counting, kept as the reference.
+     */
+    private static long[] countReference(byte[] data) {
+        long[] result = new long[3];
+        boolean inWord = false;
+        for (byte value : data) {
+            if (Character.isWhitespace(value)) {
+                if (value == '\n') {
+                    ++result[0];
+                }
+                if (inWord) {
+                    ++result[1];
+                }
+                inWord = false;
+            } else {
+                inWord = true;
+            }
+        }
+        if (inWord) {
+            ++result[1];
+        }
+        result[2] = data.length;
+        return result;
+    }
+
+    @Test
+    void count_InputStream_MatchesReference() throws IOException {
+        byte[] bytes = makeBytes(3 * WordCounter.READ_SIZE + 7);
+        assertArrayEquals(countReference(bytes), WordCounter.count(new ByteArrayInputStream(bytes)));
+    }
+
+    @Test
+    void count_EmptyInput_ReturnsZeros() throws IOException {
+        assertArrayEquals(new long[3], WordCounter.count(new ByteArrayInputStream(new byte[0])));
+    }
+
+    @Test
+    void count_ReadReturnsZeroBytes_ThrowsIOException() {
+        InputStream input = new InputStream() {
+            @Override
+            public int read() {
+                return 0;
+            }
+
+            @Override
+            public int read(byte[] buffer, int offset, int length) {
+                return 0;
+            }
+        };
+        Throwable thrown = assertThrows(IOException.class, () -> WordCounter.count(input));
+        assertEquals(LineReader.ERR_ZERO_BYTES, thrown.getMessage());
+    }
+
+    @Test
+    void merge_SplitAtEveryPosition_MatchesReference() {
+        byte[] bytes = "ab  c\nd\te f \n".getBytes();
+        for (int split = 0; split <= bytes.length; split++) {
+            WordCounter.Counts first = new WordCounter.Counts();
+            first.scan(bytes, 0, split);
+            WordCounter.Counts second = new WordCounter.Counts();
+            second.scan(bytes, split, bytes.length - split);
+            assertArrayEquals(countReference(bytes), first.merge(second).toArray());
+        }
+    }
+
+    @Test
+    void count_LargeFileInParallelChunks_MatchesReference(@TempDir Path tempDir) throws IOException {
+        ShellSettings.wcParallelThreshold = 0;
+        byte[] bytes = makeBytes(2 * WordCounter.CHUNK_SIZE + 13);
+        // a word across the chunk boundaries
+        bytes[WordCounter.CHUNK_SIZE - 1] = 'x';
+        bytes[WordCounter.CHUNK_SIZE] = 'y';
+        Path file = Files.write(tempDir.resolve("large.txt"), bytes);
+        try (FileChannel channel = FileChannel.open(file)) {
+            assertArrayEquals(countReference(bytes), WordCounter.count(channel));
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package sg.edu.nus.comp.cs4218.testutils;
+
+import sg.edu.nus.comp.cs4218.exception.ShellException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static sg.edu.nus.comp.cs4218.impl.util.ErrorConstants.ERR_SYNTAX;
+
+/**
+ * Reference tokenizer using the regular expression CommandBuilder used before CommandLexer.
+ * Used to check that CommandLexer produces exactly the same tokens, and as a benchmark baseline.
+ */
+public final class RegexCommandTokenizer {
+    private static final Pattern ARGUMENT_REGEX = Pattern
+            .compile("([^'\"`|<>;\\s]+|'[^']*'|\"([^\"`]*`.*?`[^\"`]*)+\"|\"[^\"]*\"|`[^`]*`)+");
+
+    private RegexCommandTokenizer() {
+    }
+
+    /**
+     * Splits the command string into arguments and single character operator tokens.
+     *
+     * @throws ShellException In the same cases the old CommandBuilder threw ERR_SYNTAX while tokenizing.
+     */
+    public static List<String> tokenize(String commandString) throws ShellException {
+        List<String> tokens = new ArrayList<>();
+        String commandSubstring = commandString;
+        while (!commandSubstring.isEmpty()) {
+            commandSubstring = commandSubstring.trim();
+            Matcher matcher = ARGUMENT_REGEX.matcher(commandSubstring);
+
+            if (!matcher.find()) {
+                throw new ShellException(ERR_SYNTAX);
+            }
+
+            if (matcher.start() == 0) {
+                tokens.add(matcher.group());
+                commandSubstring = commandSubstring.substring(matcher.end());
+                continue;
+            }
+
+            char firstChar = commandSubstring.charAt(0);
+            commandSubstring = commandSubstring.substring(1);
+            if (firstChar == '<' || firstChar == '>' || firstChar == '|' || firstChar == ';') {
+                tokens.add(String.valueOf(firstChar));
+            } else {
+                throw new ShellException(ERR_SYNTAX);
+            }
+        }
+        return tokens;
+    }
+}